@@ -0,0 +1,97 @@
+package com.gracemann.recon.benchmarks;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gracemann.recon.ingestionservice.dedup.WindowedDedupStore;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+
+/**
+ * Dedup key construction plus insert for a stream of records with a given
+ * share of duplicates.
+ *
+ * <p>
+ * Each invocation feeds {@value #SIZE} records into an empty structure, so the
+ * cost of growing it is included: {@code stringKeySet} is the original
+ * {@code txnId|sourceType} string in a concurrent set, {@code windowedStore}
+ * is {@link WindowedDedupStore} with hashed keys.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DedupBenchmark {
+
+    private static final int SIZE = 65_536;
+
+    @Param({ "MIXED" })
+    public Payloads.Mix mix;
+
+    @Param({ "0.0", "0.1", "0.5" })
+    public double dupRatio;
+
+    private TxnRecordDTO[] records;
+    private Set<String> stringKeySet;
+    private WindowedDedupStore windowedStore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        records = Payloads.build(mix, SIZE, dupRatio).records;
+        long today = LocalDate.now().toEpochDay();
+        for (TxnRecordDTO dto : records) {
+            // keep every record inside the store's retained days
+            if (dto.getTxnTimestamp() != null) {
+                dto.setTxnTimestamp(LocalDate.ofEpochDay(today).atTime(dto.getTxnTimestamp().toLocalTime()));
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void freshStores() {
+        stringKeySet = ConcurrentHashMap.newKeySet();
+        windowedStore = new WindowedDedupStore(3, 16_384);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int stringKeySet() {
+        int unique = 0;
+        for (TxnRecordDTO dto : records) {
+            if (stringKeySet.add(dto.getTxnId() + "|" + dto.getSourceType())) {
+                unique++;
+            }
+        }
+        return unique;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int windowedStore() {
+        int unique = 0;
+        for (TxnRecordDTO dto : records) {
+            if (windowedStore.markIfAbsent(dto)) {
+                unique++;
+            }
+        }
+        return unique;
+    }
+}
@@ -0,0 +1,63 @@
+package com.gracemann.recon.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.serde.TxnRecordDeserializer;
+import com.gracemann.recon.ingestionservice.serde.WireFormat;
+
+/**
+ * Consumed payload to {@link TxnRecordDTO}: the {@code ObjectMapper.readValue}
+ * done by the JSON listeners versus the binary wire format.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeserializeBenchmark {
+
+    private static final int SIZE = 4096;
+
+    @Param({ "ISO", "CSV", "MIXED" })
+    public Payloads.Mix mix;
+
+    private Payloads payloads;
+    private final TxnRecordDeserializer deserializer = new TxnRecordDeserializer();
+    private final RecordHeaders binaryHeaders = new RecordHeaders();
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        payloads = Payloads.build(mix, SIZE, 0.0);
+        WireFormat.BINARY_V1.stamp(binaryHeaders);
+    }
+
+    @Benchmark
+    public TxnRecordDTO objectMapper() throws Exception {
+        return Payloads.MAPPER.readValue(payloads.json[next()], TxnRecordDTO.class);
+    }
+
+    @Benchmark
+    public TxnRecordDTO binary() {
+        return deserializer.deserialize("ingested-txn-topic", binaryHeaders, payloads.binary[next()]);
+    }
+
+    private int next() {
+        return cursor++ & (SIZE - 1);
+    }
+}
@@ -0,0 +1,88 @@
+package com.gracemann.recon.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.matchengine.matching.FuzzyScorer;
+import com.gracemann.recon.matchengine.matching.StreamingMatcher;
+
+/**
+ * Exact matching of {@value #PAIRS} bank/scheme pairs, reported per matched
+ * pair. {@code openWindow} is how many legs arrive before their counterparts
+ * start arriving, i.e. the steady-state number of open items. The legs carry
+ * no timestamp, so the fuzzy stage is skipped and only the exact index is
+ * measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExactMatchBenchmark {
+
+    private static final int PAIRS = 65_536;
+
+    @Param({ "1", "1024", "16384" })
+    public int openWindow;
+
+    private TxnRecordDTO[] legs;
+    private StreamingMatcher matcher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        legs = new TxnRecordDTO[PAIRS * 2];
+        int next = 0;
+        for (int i = 0; i < PAIRS + openWindow; i++) {
+            if (i < PAIRS) {
+                legs[next++] = leg(SourceType.BANK_SWITCH, i);
+            }
+            if (i >= openWindow) {
+                legs[next++] = leg(SourceType.SCHEME_FILE, i - openWindow);
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void freshMatcher() {
+        matcher = new StreamingMatcher(FuzzyScorer.defaults(), 256);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public int matchPairs() {
+        int matched = 0;
+        for (TxnRecordDTO leg : legs) {
+            if (matcher.offer(leg, 0L).matched()) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    private static TxnRecordDTO leg(SourceType source, int i) {
+        TxnRecordDTO dto = new TxnRecordDTO();
+        dto.setTxnId("BANK-TXN-" + i);
+        dto.setCardNumber(Long.toString(4_532_000_000_000_000L + i % 10_000));
+        dto.setAmount(BigDecimal.valueOf(100 + i % 5000, 2));
+        dto.setCurrency("INR");
+        dto.setSourceType(source);
+        return dto;
+    }
+}
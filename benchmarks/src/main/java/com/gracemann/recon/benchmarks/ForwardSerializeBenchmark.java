@@ -0,0 +1,64 @@
+package com.gracemann.recon.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gracemann.recon.ingestionservice.serde.TxnRecordBinaryCodec;
+
+/**
+ * Serializing a record for {@code ingested-txn-topic}: the JSON string the
+ * forwarder sends by default versus the binary wire format (with and without
+ * the raw source record).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForwardSerializeBenchmark {
+
+    private static final int SIZE = 4096;
+
+    @Param({ "ISO", "CSV", "MIXED" })
+    public Payloads.Mix mix;
+
+    private Payloads payloads;
+    private final TxnRecordBinaryCodec codec = new TxnRecordBinaryCodec();
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        payloads = Payloads.build(mix, SIZE, 0.0);
+    }
+
+    @Benchmark
+    public String json() throws Exception {
+        return Payloads.MAPPER.writeValueAsString(payloads.records[next()]);
+    }
+
+    @Benchmark
+    public byte[] binary() {
+        return codec.encode(payloads.records[next()], false);
+    }
+
+    @Benchmark
+    public byte[] binaryWithRaw() {
+        return codec.encode(payloads.records[next()], true);
+    }
+
+    private int next() {
+        return cursor++ & (SIZE - 1);
+    }
+}
@@ -0,0 +1,138 @@
+package com.gracemann.recon.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.matchengine.matching.EventTimeAging;
+import com.gracemann.recon.matchengine.matching.FuzzyScorer;
+import com.gracemann.recon.matchengine.matching.MatchRuleSet;
+import com.gracemann.recon.matchengine.matching.MatchRules;
+import com.gracemann.recon.matchengine.matching.StreamingMatcher;
+
+/**
+ * Fuzzy matching of {@value #PAIRS} bank/scheme pairs, reported per matched
+ * pair. Every scheme leg carries its own reference and a slightly different
+ * amount, so each pair goes through the fuzzy stage. {@code hand-coded} is
+ * the fixed {@code recon.match.fuzzy.*} comparison; {@code compiled} judges
+ * the same legs by Visa POS, RuPay ATM and ECOM rules compiled from a rule
+ * file, with their required fields and own tolerances.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FuzzyRuleBenchmark {
+
+    private static final int PAIRS = 16_384;
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 6, 1, 0, 0);
+    private static final String[] SCHEMES = { "VISA", "RUPAY", "MASTERCARD" };
+    private static final String[] CHANNELS = { "POS", "ATM", "ECOM" };
+    private static final String RULES = """
+            visa-pos.scheme=VISA
+            visa-pos.channel=POS
+            visa-pos.require=terminalId,merchantId
+            visa-pos.amount-tolerance=0.50
+            rupay-atm.scheme=RUPAY
+            rupay-atm.channel=ATM
+            rupay-atm.require=terminalId,responseCode
+            rupay-atm.amount-tolerance=0
+            rupay-atm.amount-tolerance-pct=0
+            rupay-atm.day-tolerance=0
+            ecom.channel=ECOM
+            ecom.require=merchantId
+            ecom.day-tolerance=2
+            """;
+
+    @Param({ "hand-coded", "compiled" })
+    public String rules;
+
+    private TxnRecordDTO[] legs;
+    private FuzzyScorer scorer;
+    private MatchRules matchRules;
+    private StreamingMatcher matcher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        scorer = FuzzyScorer.defaults();
+        matchRules = MatchRules.fixed("compiled".equals(rules) ? compile() : MatchRuleSet.of(scorer));
+        legs = new TxnRecordDTO[PAIRS * 2];
+        for (int i = 0; i < PAIRS; i++) {
+            legs[2 * i] = leg(SourceType.BANK_SWITCH, i);
+            legs[2 * i + 1] = leg(SourceType.SCHEME_FILE, i);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void freshMatcher() {
+        matcher = new StreamingMatcher(scorer, matchRules, EventTimeAging.disabled(), 256);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public int matchPairs() {
+        int matched = 0;
+        for (TxnRecordDTO leg : legs) {
+            if (matcher.offer(leg, 0L).matched()) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    private MatchRuleSet compile() {
+        Properties properties = new Properties();
+        try {
+            properties.load(new StringReader(RULES));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return MatchRuleSet.parse(properties, scorer, "benchmark");
+    }
+
+    private static TxnRecordDTO leg(SourceType source, int i) {
+        int kind = i % 3;
+        boolean bank = source == SourceType.BANK_SWITCH;
+        TxnRecordDTO dto = new TxnRecordDTO();
+        dto.setTxnId((bank ? "BANK-TXN-" : "SCH-") + i);
+        dto.setCardNumber(Long.toString(4_532_000_000_000_000L + i % 10_000));
+        // cash is settled to the paisa; card payments come back FX-rounded
+        long paise = 10_000 + (i % 5000) * 7L + (bank || kind == 1 ? 0 : 20);
+        dto.setAmount(BigDecimal.valueOf(paise, 2));
+        dto.setCurrency("INR");
+        dto.setTxnTimestamp(DAY.plusSeconds(i * 5L).plusDays(!bank && kind == 2 ? 1 : 0));
+        dto.setAuthCode("A" + (100_000 + i));
+        dto.setTerminalId(kind == 2 ? null : "TERM" + i % 500);
+        dto.setMerchantId("MERCH" + i % 200);
+        dto.setResponseCode("00");
+        if (bank) {
+            dto.setChannel(CHANNELS[kind]);
+        } else {
+            dto.setSchemeName(SCHEMES[kind]);
+        }
+        dto.setSourceType(source);
+        return dto;
+    }
+}
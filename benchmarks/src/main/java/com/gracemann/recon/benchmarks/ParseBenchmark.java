@@ -0,0 +1,76 @@
+package com.gracemann.recon.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.parser.IsoMessageTokenizer;
+import com.gracemann.recon.ingestionservice.parser.SchemeCsvTokenizer;
+import com.gracemann.recon.ingestionservice.producer.TestTxnProducer;
+
+/**
+ * Raw ISO / CSV record to {@link TxnRecordDTO}.
+ *
+ * <p>
+ * {@code legacyJsonRoundTrip} is the path records take through
+ * {@link TestTxnProducer} and the JSON consumers (regex split, map, ObjectNode,
+ * JSON text, ObjectMapper); {@code tokenizer} is the single-pass byte
+ * tokenizer used by the raw adapters and the clearing-file ingestor.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    private static final int SIZE = 4096;
+
+    @Param({ "ISO", "CSV", "MIXED" })
+    public Payloads.Mix mix;
+
+    private Payloads payloads;
+    private final IsoMessageTokenizer isoTokenizer = new IsoMessageTokenizer();
+    private final SchemeCsvTokenizer csvTokenizer = new SchemeCsvTokenizer();
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        payloads = Payloads.build(mix, SIZE, 0.0);
+    }
+
+    @Benchmark
+    public TxnRecordDTO legacyJsonRoundTrip() throws Exception {
+        int i = next();
+        String json = payloads.iso[i]
+                ? TestTxnProducer.parseIsoToJson(payloads.raw[i])
+                : TestTxnProducer.parseCsvToJson(payloads.raw[i]);
+        return Payloads.MAPPER.readValue(json, TxnRecordDTO.class);
+    }
+
+    @Benchmark
+    public TxnRecordDTO tokenizer() {
+        int i = next();
+        byte[] bytes = payloads.rawBytes[i];
+        return payloads.iso[i]
+                ? isoTokenizer.parse(bytes, 0, bytes.length, payloads.raw[i], new TxnRecordDTO())
+                : csvTokenizer.parse(bytes, 0, bytes.length, payloads.raw[i], new TxnRecordDTO());
+    }
+
+    private int next() {
+        return cursor++ & (SIZE - 1);
+    }
+}
@@ -0,0 +1,135 @@
+package com.gracemann.recon.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.parser.IsoMessageTokenizer;
+import com.gracemann.recon.ingestionservice.parser.SchemeCsvTokenizer;
+import com.gracemann.recon.ingestionservice.producer.RawCsvTestMessages;
+import com.gracemann.recon.ingestionservice.producer.RawIsoTestMessages;
+import com.gracemann.recon.ingestionservice.serde.TxnRecordBinaryCodec;
+
+/**
+ * Benchmark input built from the {@code TestTxnProducer} sample messages.
+ *
+ * <p>
+ * The samples are cycled with a fresh txnId per record (or, with probability
+ * {@code dupRatio}, the txnId of an earlier record from the same source), and
+ * every record is pre-rendered in each representation a benchmark may need:
+ * raw text, raw bytes, parsed DTO, forwarded JSON and forwarded binary.
+ * </p>
+ */
+public final class Payloads {
+
+    /** Which feed the records come from. */
+    public enum Mix {
+        /** Bank switch ISO messages only. */
+        ISO,
+        /** Scheme clearing CSV lines only. */
+        CSV,
+        /** Alternating ISO and CSV, as seen by a single ingestion node. */
+        MIXED
+    }
+
+    public static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private static final long SEED = 0x5EED_2024L;
+
+    public final String[] raw;
+    public final byte[][] rawBytes;
+    public final boolean[] iso;
+    public final TxnRecordDTO[] records;
+    public final String[] json;
+    public final byte[][] binary;
+
+    private Payloads(int size) {
+        raw = new String[size];
+        rawBytes = new byte[size][];
+        iso = new boolean[size];
+        records = new TxnRecordDTO[size];
+        json = new String[size];
+        binary = new byte[size][];
+    }
+
+    public int size() {
+        return raw.length;
+    }
+
+    /**
+     * Build {@code size} records of the given mix.
+     *
+     * @param dupRatio fraction of records that reuse an earlier txnId
+     */
+    public static Payloads build(Mix mix, int size, double dupRatio) {
+        String[] isoSamples = RawIsoTestMessages.ALL_MESSAGES;
+        String[] csvSamples = csvSamples();
+        IsoMessageTokenizer isoTokenizer = new IsoMessageTokenizer();
+        SchemeCsvTokenizer csvTokenizer = new SchemeCsvTokenizer();
+        TxnRecordBinaryCodec codec = new TxnRecordBinaryCodec();
+        SplittableRandom random = new SplittableRandom(SEED);
+
+        List<String> isoIds = new ArrayList<>();
+        List<String> csvIds = new ArrayList<>();
+        Payloads payloads = new Payloads(size);
+        for (int i = 0; i < size; i++) {
+            boolean isIso = mix == Mix.ISO || (mix == Mix.MIXED && (i & 1) == 0);
+            List<String> ids = isIso ? isoIds : csvIds;
+            String txnId;
+            if (!ids.isEmpty() && random.nextDouble() < dupRatio) {
+                txnId = ids.get(random.nextInt(ids.size()));
+            } else {
+                txnId = "BANK-TXN-" + (100_000 + i);
+                ids.add(txnId);
+            }
+
+            String line = isIso
+                    ? withIsoTxnId(isoSamples[i % isoSamples.length], txnId)
+                    : withCsvTxnId(csvSamples[i % csvSamples.length], txnId);
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            TxnRecordDTO dto = isIso
+                    ? isoTokenizer.parse(bytes, line)
+                    : csvTokenizer.parse(bytes, 0, bytes.length, line, new TxnRecordDTO());
+
+            payloads.raw[i] = line;
+            payloads.rawBytes[i] = bytes;
+            payloads.iso[i] = isIso;
+            payloads.records[i] = dto;
+            try {
+                payloads.json[i] = MAPPER.writeValueAsString(dto);
+            } catch (Exception e) {
+                throw new IllegalStateException("Cannot render sample " + line, e);
+            }
+            payloads.binary[i] = codec.encode(dto, false);
+        }
+        return payloads;
+    }
+
+    /**
+     * CSV samples the legacy path handles without console noise: the header,
+     * blank and short lines are skipped upstream anyway.
+     */
+    private static String[] csvSamples() {
+        List<String> samples = new ArrayList<>();
+        for (String line : RawCsvTestMessages.ALL_MESSAGES) {
+            if (line != null && !line.isBlank() && !line.startsWith("date,") && line.split(",", -1).length >= 7) {
+                samples.add(line);
+            }
+        }
+        return samples.toArray(new String[0]);
+    }
+
+    private static String withIsoTxnId(String message, String txnId) {
+        return message.replaceFirst("txnId=[^|]*", "txnId=" + txnId);
+    }
+
+    private static String withCsvTxnId(String line, String txnId) {
+        String[] parts = line.split(",", -1);
+        parts[2] = txnId;
+        return String.join(",", parts);
+    }
+}
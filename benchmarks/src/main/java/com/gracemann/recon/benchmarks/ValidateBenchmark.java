@@ -0,0 +1,83 @@
+package com.gracemann.recon.benchmarks;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.validation.FieldViolation;
+import com.gracemann.recon.ingestionservice.validation.TxnRecordValidator;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+/**
+ * {@code validator.validate(dto)} through Hibernate Validator versus the
+ * specialized {@link TxnRecordValidator} (full report and the yes/no check
+ * used on the hot path).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidateBenchmark {
+
+    private static final int SIZE = 4096;
+
+    @Param({ "ISO", "CSV", "MIXED" })
+    public Payloads.Mix mix;
+
+    private Payloads payloads;
+    private ValidatorFactory factory;
+    private Validator beanValidator;
+    private final TxnRecordValidator validator = new TxnRecordValidator();
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        payloads = Payloads.build(mix, SIZE, 0.0);
+        factory = Validation.buildDefaultValidatorFactory();
+        beanValidator = factory.getValidator();
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<TxnRecordDTO>> hibernateValidator() {
+        return beanValidator.validate(payloads.records[next()]);
+    }
+
+    @Benchmark
+    public List<FieldViolation> compiledValidate() {
+        return validator.validate(payloads.records[next()]);
+    }
+
+    @Benchmark
+    public boolean compiledIsValid() {
+        return validator.isValid(payloads.records[next()]);
+    }
+
+    private int next() {
+        return cursor++ & (SIZE - 1);
+    }
+}
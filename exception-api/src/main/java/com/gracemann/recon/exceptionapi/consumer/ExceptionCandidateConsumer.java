@@ -0,0 +1,68 @@
+package com.gracemann.recon.exceptionapi.consumer;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gracemann.recon.exceptionapi.index.ExceptionIndex;
+
+/**
+ * Keeps the {@link ExceptionIndex} in step with the match engine's
+ * {@code exception-candidate-topic}: an EXPIRED candidate opens an
+ * exception, a RESOLVED or SUPERSEDED delta with the same id closes it.
+ *
+ * <p>
+ * The index lives on the heap, so every instance reads the whole topic from
+ * the beginning on assignment and rebuilds it; each instance consumes in a
+ * group of its own (see {@code KafkaConfig}).
+ * </p>
+ */
+@Component
+public class ExceptionCandidateConsumer implements ConsumerSeekAware {
+
+    private static final Logger log = LoggerFactory.getLogger(ExceptionCandidateConsumer.class);
+
+    private final ExceptionIndex index;
+    private final ExceptionEventParser parser;
+
+    public ExceptionCandidateConsumer(ExceptionIndex index, ObjectMapper objectMapper) {
+        this.index = index;
+        this.parser = new ExceptionEventParser(objectMapper.getFactory());
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        for (TopicPartition partition : assignments.keySet()) {
+            callback.seekToBeginning(partition.topic(), partition.partition());
+        }
+    }
+
+    @KafkaListener(
+        topics = "${recon.exceptions.topic:exception-candidate-topic}",
+        containerFactory = "exceptionKafkaListenerContainerFactory"
+    )
+    public void consume(ConsumerRecord<String, String> record) {
+        if (record.value() == null) {
+            return;
+        }
+        try {
+            ExceptionEventParser.Event event = parser.parse(record.value());
+            if (event.opens()) {
+                index.open(event.exception());
+            } else {
+                index.close(event.exceptionId());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Skipping unreadable exception candidate at {}-{}@{}: {}", record.topic(), record.partition(),
+                    record.offset(), e.getMessage());
+        }
+    }
+}
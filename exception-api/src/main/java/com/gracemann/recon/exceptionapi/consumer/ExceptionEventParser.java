@@ -0,0 +1,168 @@
+package com.gracemann.recon.exceptionapi.consumer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.gracemann.recon.exceptionapi.index.OpenException;
+
+/**
+ * Reads the match engine's {@code ExceptionCandidateDTO} JSON token by token:
+ * only the fields the index needs are kept, the raw source record is skipped
+ * unread. Times may be ISO strings, epoch seconds or Jackson's
+ * {@code LocalDateTime} arrays. Thread-safe.
+ */
+final class ExceptionEventParser {
+
+    private final JsonFactory factory;
+
+    ExceptionEventParser(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    /** An exception opening ({@code exception} set) or closing. */
+    record Event(String status, String exceptionId, OpenException exception) {
+
+        boolean opens() {
+            return exception != null;
+        }
+    }
+
+    /**
+     * @throws IOException if {@code json} is not an exception candidate
+     */
+    Event parse(String json) throws IOException {
+        String id = null;
+        String status = null;
+        long expiredAt = OpenException.NONE;
+        long openMillis = OpenException.NONE;
+        Leg leg = null;
+        try (JsonParser parser = factory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "exceptionId" -> id = text(parser);
+                    case "status" -> status = text(parser);
+                    case "expiredAt" -> expiredAt = time(parser);
+                    case "openMillis" -> openMillis = parser.getValueAsLong();
+                    case "record" -> leg = leg(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        if (id == null) {
+            throw new IOException("Exception candidate without an exceptionId");
+        }
+        if (status == null) {
+            // published before re-matching existed
+            status = "EXPIRED";
+        }
+        if (!"EXPIRED".equals(status)) {
+            return new Event(status, id, null);
+        }
+        if (leg == null) {
+            leg = new Leg();
+        }
+        long eventTime = leg.txnTimestamp != OpenException.NONE ? leg.txnTimestamp : expiredAt;
+        return new Event(status, id, new OpenException(id, leg.txnId, leg.source, leg.schemeName, leg.merchantId,
+                leg.channel, leg.cardNumber, leg.currency, leg.amount, eventTime, expiredAt, openMillis));
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static Leg leg(JsonParser parser) throws IOException {
+        Leg leg = new Leg();
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return leg;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "txnId" -> leg.txnId = text(parser);
+                case "sourceType" -> leg.source = text(parser);
+                case "schemeName" -> leg.schemeName = text(parser);
+                case "merchantId" -> leg.merchantId = text(parser);
+                case "channel" -> leg.channel = text(parser);
+                case "cardNumber" -> leg.cardNumber = text(parser);
+                case "currency" -> leg.currency = text(parser);
+                case "amount" -> leg.amount = amount(parser);
+                case "txnTimestamp" -> leg.txnTimestamp = time(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return leg;
+    }
+
+    private static String text(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+    }
+
+    /** Fixed-point amount with {@link OpenException#AMOUNT_SCALE} decimals. */
+    private static long amount(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return OpenException.NONE;
+        }
+        BigDecimal value = token == JsonToken.VALUE_STRING ? new BigDecimal(parser.getText())
+                : parser.getDecimalValue();
+        return value.setScale(OpenException.AMOUNT_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    /** Epoch milliseconds of an {@code Instant} or (UTC) {@code LocalDateTime}. */
+    private static long time(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_NULL:
+                return OpenException.NONE;
+            case VALUE_STRING: {
+                String text = parser.getText();
+                return text.endsWith("Z") ? Instant.parse(text).toEpochMilli()
+                        : LocalDateTime.parse(text).toInstant(ZoneOffset.UTC).toEpochMilli();
+            }
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                // Jackson's Instant timestamps are epoch seconds with a fraction
+                return parser.getDecimalValue().movePointRight(3).setScale(0, RoundingMode.FLOOR).longValueExact();
+            case START_ARRAY: {
+                int[] parts = new int[7];
+                int n = 0;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (n < parts.length) {
+                        parts[n++] = parser.getIntValue();
+                    }
+                }
+                if (n < 3) {
+                    throw new IOException("Malformed date array");
+                }
+                return LocalDateTime.of(parts[0], parts[1], parts[2], parts[3], parts[4], parts[5], parts[6])
+                        .toInstant(ZoneOffset.UTC).toEpochMilli();
+            }
+            default:
+                throw new IOException("Unexpected time token " + parser.currentToken());
+        }
+    }
+
+    /** The fields of the exception's leg, while it is read. */
+    private static final class Leg {
+        String txnId;
+        String source;
+        String schemeName;
+        String merchantId;
+        String channel;
+        String cardNumber;
+        String currency;
+        long amount = OpenException.NONE;
+        long txnTimestamp = OpenException.NONE;
+    }
+}
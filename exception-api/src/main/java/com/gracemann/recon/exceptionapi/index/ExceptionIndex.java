@@ -0,0 +1,216 @@
+package com.gracemann.recon.exceptionapi.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.gracemann.recon.exceptionapi.index.ExceptionQuery.Sort;
+
+/**
+ * The open exceptions, held in purpose-built orders for keyset pagination.
+ *
+ * <p>
+ * Each exception sits in one sorted set per page order ({@link Sort#AGE},
+ * {@link Sort#AMOUNT}) for each of three partitions: all exceptions, its
+ * scheme's and its merchant's. A search picks the narrowest partition its
+ * filters allow (merchant, else scheme, else all). It seeks straight to the
+ * cursor, or to the start of the range on the sort key, and walks forward
+ * applying the remaining filters. It stops at a full page, at the end of the
+ * range, or after {@code recon.exceptions.max-scan} entries. In the last
+ * case it returns a short page with a cursor to carry on from. A page's
+ * cost is therefore bounded by the page size and the scan budget, never by
+ * how deep it is or how many exceptions are open.
+ * </p>
+ *
+ * <p>
+ * Reads are lock-free and may run alongside updates: a page reflects the
+ * exceptions open while it was read, and because both orders are total, a
+ * cursor resumes exactly after the last exception seen whatever opened or
+ * closed in between. Updates are serialized among themselves so an
+ * exception is always in all of its sets or none.
+ * </p>
+ */
+@Component
+public class ExceptionIndex {
+
+    private static final Comparator<OpenException> BY_AGE = Comparator.comparingLong(OpenException::eventTime)
+            .thenComparing(OpenException::id);
+    private static final Comparator<OpenException> BY_AMOUNT = Comparator
+            .comparingLong(OpenException::amount).reversed()
+            .thenComparing(OpenException::id);
+    /** Sorts before every real id. */
+    private static final String MIN_ID = "";
+
+    private final int maxScan;
+    private final Map<String, OpenException> byId = new ConcurrentHashMap<>();
+    private final Partitioned byAge = new Partitioned(BY_AGE);
+    private final Partitioned byAmount = new Partitioned(BY_AMOUNT);
+
+    public ExceptionIndex(@Value("${recon.exceptions.max-scan:10000}") int maxScan) {
+        this.maxScan = maxScan;
+    }
+
+    /** Add an exception, replacing any open one with the same id. */
+    public synchronized void open(OpenException exception) {
+        OpenException previous = byId.put(exception.id(), exception);
+        if (previous != null) {
+            byAge.remove(previous);
+            byAmount.remove(previous);
+        }
+        byAge.add(exception);
+        byAmount.add(exception);
+    }
+
+    /**
+     * Remove a resolved or superseded exception.
+     *
+     * @return whether it was open
+     */
+    public synchronized boolean close(String id) {
+        OpenException previous = byId.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        byAge.remove(previous);
+        byAmount.remove(previous);
+        return true;
+    }
+
+    public OpenException get(String id) {
+        return byId.get(id);
+    }
+
+    /** Exceptions open now. */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * One page of {@code query}, after {@code cursor} if not {@code null}.
+     *
+     * @param nowMillis the time ages are measured from
+     * @throws IllegalArgumentException if the cursor belongs to another order
+     */
+    public ExceptionPage query(ExceptionQuery query, PageCursor cursor, int limit, long nowMillis) {
+        Sort sort = query.sort();
+        if (cursor != null && cursor.sort() != sort) {
+            throw new IllegalArgumentException("Cursor is for sort " + cursor.sort() + ", not " + sort);
+        }
+        Partitioned index = sort == Sort.AGE ? byAge : byAmount;
+        NavigableSet<OpenException> set = query.merchantId() != null ? index.merchants.get(query.merchantId())
+                : query.schemeName() != null ? index.schemes.get(query.schemeName())
+                : index.all;
+        if (set == null) {
+            return new ExceptionPage(List.of(), null, 0);
+        }
+
+        // 1️⃣ Range on the sort key -------------------------------------------
+        // age: oldest allowed .. youngest allowed; amount: largest .. smallest
+        long oldest = query.maxAgeMillis() == null ? Long.MIN_VALUE : nowMillis - query.maxAgeMillis();
+        long youngest = query.minAgeMillis() == null ? Long.MAX_VALUE : nowMillis - query.minAgeMillis();
+        long largest = query.maxAmount() == null ? Long.MAX_VALUE : query.maxAmount();
+        long smallest = query.minAmount() == null ? Long.MIN_VALUE : query.minAmount();
+        OpenException from = sort == Sort.AGE ? OpenException.probe(oldest, 0, MIN_ID)
+                : OpenException.probe(0, largest, MIN_ID);
+        NavigableSet<OpenException> range = set.tailSet(from, true);
+        if (cursor != null) {
+            OpenException after = sort == Sort.AGE ? OpenException.probe(cursor.key(), 0, cursor.id())
+                    : OpenException.probe(0, cursor.key(), cursor.id());
+            if (set.comparator().compare(after, from) >= 0) {
+                range = set.tailSet(after, false);
+            }
+        }
+
+        // 2️⃣ Walk ----------------------------------------------------------
+        List<OpenException> items = new ArrayList<>(Math.min(limit, 256));
+        int scanned = 0;
+        Iterator<OpenException> walk = range.iterator();
+        while (walk.hasNext()) {
+            OpenException exception = walk.next();
+            if (sort == Sort.AGE ? exception.eventTime() > youngest : exception.amount() < smallest) {
+                return new ExceptionPage(items, null, scanned);
+            }
+            scanned++;
+            if (matches(query, exception, oldest, youngest, smallest, largest)) {
+                items.add(exception);
+            }
+            // a full page, or the scan budget spent (a short page): resumable from here
+            if (items.size() == limit || scanned == maxScan) {
+                return new ExceptionPage(items, walk.hasNext() ? PageCursor.after(sort, exception) : null, scanned);
+            }
+        }
+        return new ExceptionPage(items, null, scanned);
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    /** The filters the chosen partition and range do not already guarantee. */
+    private static boolean matches(ExceptionQuery query, OpenException exception, long oldest, long youngest,
+            long smallest, long largest) {
+        if (query.merchantId() != null && query.schemeName() != null
+                && !query.schemeName().equals(exception.schemeName())) {
+            return false;
+        }
+        if (query.currency() != null && !query.currency().equals(exception.currency())) {
+            return false;
+        }
+        if (query.sort() == Sort.AGE) {
+            return (query.minAmount() == null && query.maxAmount() == null)
+                    || (exception.amount() != OpenException.NONE && exception.amount() >= smallest
+                            && exception.amount() <= largest);
+        }
+        return exception.eventTime() >= oldest && exception.eventTime() <= youngest;
+    }
+
+    /** One order, over all exceptions and per scheme and merchant. */
+    private static final class Partitioned {
+
+        final Comparator<OpenException> order;
+        final NavigableSet<OpenException> all;
+        final Map<String, NavigableSet<OpenException>> schemes = new ConcurrentHashMap<>();
+        final Map<String, NavigableSet<OpenException>> merchants = new ConcurrentHashMap<>();
+
+        Partitioned(Comparator<OpenException> order) {
+            this.order = order;
+            this.all = new ConcurrentSkipListSet<>(order);
+        }
+
+        void add(OpenException exception) {
+            all.add(exception);
+            if (exception.schemeName() != null) {
+                schemes.computeIfAbsent(exception.schemeName(), s -> new ConcurrentSkipListSet<>(order))
+                        .add(exception);
+            }
+            if (exception.merchantId() != null) {
+                merchants.computeIfAbsent(exception.merchantId(), m -> new ConcurrentSkipListSet<>(order))
+                        .add(exception);
+            }
+        }
+
+        void remove(OpenException exception) {
+            all.remove(exception);
+            remove(schemes, exception.schemeName(), exception);
+            remove(merchants, exception.merchantId(), exception);
+        }
+
+        private static void remove(Map<String, NavigableSet<OpenException>> partitions, String key,
+                OpenException exception) {
+            if (key == null) {
+                return;
+            }
+            NavigableSet<OpenException> set = partitions.get(key);
+            if (set != null && set.remove(exception) && set.isEmpty()) {
+                // updates are serialized, so nothing is being added to it
+                partitions.remove(key);
+            }
+        }
+    }
+}
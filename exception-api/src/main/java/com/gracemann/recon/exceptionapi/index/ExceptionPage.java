@@ -0,0 +1,13 @@
+package com.gracemann.recon.exceptionapi.index;
+
+import java.util.List;
+
+/**
+ * One page of a search.
+ *
+ * @param next    where the next page starts, or {@code null} if the search
+ *                is exhausted
+ * @param scanned index entries the page looked at, at most the scan budget
+ */
+public record ExceptionPage(List<OpenException> items, PageCursor next, int scanned) {
+}
@@ -0,0 +1,29 @@
+package com.gracemann.recon.exceptionapi.index;
+
+/**
+ * Filters and order of an exception search. {@code null} filters match
+ * everything; ranges are inclusive.
+ *
+ * @param minAgeMillis youngest age to include, measured from the exception's
+ *                     event time
+ * @param maxAgeMillis oldest age to include
+ * @param minAmount    fixed-point with {@value OpenException#AMOUNT_SCALE}
+ *                     decimals
+ */
+public record ExceptionQuery(String schemeName, String merchantId, String currency, Long minAgeMillis,
+        Long maxAgeMillis, Long minAmount, Long maxAmount, Sort sort) {
+
+    /** Page order; both are total, with the exception id breaking ties. */
+    public enum Sort {
+        /** Oldest first. */
+        AGE,
+        /** Largest amount first. */
+        AMOUNT
+    }
+
+    public ExceptionQuery {
+        if (sort == null) {
+            sort = Sort.AGE;
+        }
+    }
+}
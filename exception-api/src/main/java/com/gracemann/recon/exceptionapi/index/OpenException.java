@@ -0,0 +1,114 @@
+package com.gracemann.recon.exceptionapi.index;
+
+/**
+ * An exception candidate still open: its leg has expired unmatched and no
+ * re-match cycle has resolved or superseded it. Immutable.
+ *
+ * <p>
+ * Amounts are fixed-point with {@value #AMOUNT_SCALE} decimals and times
+ * epoch milliseconds, so the indexes compare primitives. The age of an
+ * exception is measured from its {@link #eventTime}: the leg's transaction
+ * timestamp (taken as UTC, as the match engine does), or when it expired if
+ * the leg had none.
+ * </p>
+ */
+public final class OpenException {
+
+    public static final int AMOUNT_SCALE = 4;
+    /** Value of an absent number. */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private final String id;
+    private final String txnId;
+    private final String source;
+    private final String schemeName;
+    private final String merchantId;
+    private final String channel;
+    private final String cardNumber;
+    private final String currency;
+    private final long amount;
+    private final long eventTime;
+    private final long expiredAt;
+    private final long openMillis;
+
+    public OpenException(String id, String txnId, String source, String schemeName, String merchantId,
+            String channel, String cardNumber, String currency, long amount, long eventTime, long expiredAt,
+            long openMillis) {
+        this.id = id;
+        this.txnId = txnId;
+        this.source = source;
+        this.schemeName = schemeName;
+        this.merchantId = merchantId;
+        this.channel = channel;
+        this.cardNumber = cardNumber;
+        this.currency = currency;
+        this.amount = amount;
+        this.eventTime = eventTime;
+        this.expiredAt = expiredAt;
+        this.openMillis = openMillis;
+    }
+
+    /** A search key for the indexes: sorts before every exception with the same keys and a larger id. */
+    static OpenException probe(long eventTime, long amount, String id) {
+        return new OpenException(id, null, null, null, null, null, null, null, amount, eventTime, NONE, NONE);
+    }
+
+    /** txnId|sourceType, as the match engine keys exceptions. */
+    public String id() {
+        return id;
+    }
+
+    public String txnId() {
+        return txnId;
+    }
+
+    /** BANK_SWITCH or SCHEME_FILE. */
+    public String source() {
+        return source;
+    }
+
+    public String schemeName() {
+        return schemeName;
+    }
+
+    public String merchantId() {
+        return merchantId;
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    public String cardNumber() {
+        return cardNumber;
+    }
+
+    public String currency() {
+        return currency;
+    }
+
+    /** Fixed-point with {@value #AMOUNT_SCALE} decimals, {@link #NONE} if absent. */
+    public long amount() {
+        return amount;
+    }
+
+    public long eventTime() {
+        return eventTime;
+    }
+
+    /** When the leg expired, {@link #NONE} if unknown. */
+    public long expiredAt() {
+        return expiredAt;
+    }
+
+    /** How long the leg waited for a counterpart, {@link #NONE} if unknown. */
+    public long openMillis() {
+        return openMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "OpenException{" + id + ", scheme=" + schemeName + ", merchant=" + merchantId + ", amount="
+                + amount + " " + currency + ", eventTime=" + eventTime + "}";
+    }
+}
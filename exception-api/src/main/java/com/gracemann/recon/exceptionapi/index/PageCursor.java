@@ -0,0 +1,54 @@
+package com.gracemann.recon.exceptionapi.index;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.gracemann.recon.exceptionapi.index.ExceptionQuery.Sort;
+
+/**
+ * Keyset position in one of the index orders: the sort key and id of the
+ * last exception a page looked at. The next page starts strictly after it,
+ * so pages neither repeat nor skip exceptions while others open and close
+ * around them, and a page costs the same however deep it is.
+ *
+ * <p>
+ * Sent to clients as an opaque URL-safe token.
+ * </p>
+ */
+public record PageCursor(Sort sort, long key, String id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    static PageCursor after(Sort sort, OpenException last) {
+        return new PageCursor(sort, sort == Sort.AGE ? last.eventTime() : last.amount(), last.id());
+    }
+
+    public String encode() {
+        String raw = sort.name() + ":" + key + ":" + id;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code token} is not a cursor
+     */
+    public static PageCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        int first = raw.indexOf(':');
+        int second = first < 0 ? -1 : raw.indexOf(':', first + 1);
+        if (second < 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        try {
+            return new PageCursor(Sort.valueOf(raw.substring(0, first)), Long.parseLong(raw.substring(first + 1,
+                    second)), raw.substring(second + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
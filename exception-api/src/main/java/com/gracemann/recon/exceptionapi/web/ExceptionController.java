@@ -0,0 +1,159 @@
+package com.gracemann.recon.exceptionapi.web;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gracemann.recon.exceptionapi.index.ExceptionIndex;
+import com.gracemann.recon.exceptionapi.index.ExceptionPage;
+import com.gracemann.recon.exceptionapi.index.ExceptionQuery;
+import com.gracemann.recon.exceptionapi.index.OpenException;
+import com.gracemann.recon.exceptionapi.index.PageCursor;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Search over the open exceptions, one keyset page at a time.
+ *
+ * <pre>
+ * GET /exceptions?scheme=VISA&amp;minAge=P2D&amp;sort=age&amp;limit=100
+ * GET /exceptions?merchantId=M1&amp;minAmount=500&amp;maxAmount=10000&amp;sort=amount
+ * GET /exceptions?...same filters...&amp;cursor=&lt;X-Next-Cursor of the previous page&gt;
+ * GET /exceptions/{exceptionId}
+ * </pre>
+ *
+ * <p>
+ * A page is a JSON array streamed item by item straight to the response;
+ * the {@code X-Next-Cursor} header carries the token for the next page and
+ * is absent on the last one. A page may hold fewer than {@code limit} items
+ * (even none) and still have a next page when the filters are sparse in the
+ * chosen order: each page's work is capped, see {@link ExceptionIndex}.
+ * Ages are ISO-8601 durations, amounts decimals.
+ * </p>
+ */
+@RestController
+@RequestMapping("/exceptions")
+public class ExceptionController {
+
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final ExceptionIndex index;
+    private final ObjectMapper objectMapper;
+    private final int maxPageSize;
+
+    public ExceptionController(ExceptionIndex index, ObjectMapper objectMapper,
+            @Value("${recon.exceptions.max-page-size:1000}") int maxPageSize) {
+        this.index = index;
+        this.objectMapper = objectMapper;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @GetMapping
+    public void search(
+            @RequestParam(name = "scheme", required = false) String scheme,
+            @RequestParam(name = "merchantId", required = false) String merchantId,
+            @RequestParam(name = "currency", required = false) String currency,
+            @RequestParam(name = "minAge", required = false) String minAge,
+            @RequestParam(name = "maxAge", required = false) String maxAge,
+            @RequestParam(name = "minAmount", required = false) BigDecimal minAmount,
+            @RequestParam(name = "maxAmount", required = false) BigDecimal maxAmount,
+            @RequestParam(name = "sort", defaultValue = "age") String sort,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            HttpServletResponse response) throws IOException {
+        int pageSize = limit == null ? Math.min(DEFAULT_PAGE_SIZE, maxPageSize) : limit;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be 1.." + maxPageSize);
+        }
+        ExceptionPage page;
+        try {
+            ExceptionQuery query = new ExceptionQuery(scheme, merchantId, currency, millis(minAge), millis(maxAge),
+                    amount(minAmount), amount(maxAmount), ExceptionQuery.Sort.valueOf(sort.toUpperCase(Locale.ROOT)));
+            page = index.query(query, cursor == null ? null : PageCursor.decode(cursor), pageSize,
+                    System.currentTimeMillis());
+        } catch (IllegalArgumentException | DateTimeParseException | ArithmeticException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (page.next() != null) {
+            response.setHeader(NEXT_CURSOR, page.next().encode());
+        }
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            json.writeStartArray();
+            for (OpenException exception : page.items()) {
+                write(json, exception);
+            }
+            json.writeEndArray();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public void get(@PathVariable("id") String id, HttpServletResponse response) throws IOException {
+        OpenException exception = index.get(id);
+        if (exception == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No open exception " + id);
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            write(json, exception);
+        }
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static void write(JsonGenerator json, OpenException exception) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("exceptionId", exception.id());
+        json.writeStringField("txnId", exception.txnId());
+        json.writeStringField("sourceType", exception.source());
+        json.writeStringField("schemeName", exception.schemeName());
+        json.writeStringField("merchantId", exception.merchantId());
+        json.writeStringField("channel", exception.channel());
+        json.writeStringField("cardNumber", exception.cardNumber());
+        if (exception.amount() == OpenException.NONE) {
+            json.writeNullField("amount");
+        } else {
+            BigDecimal amount = BigDecimal.valueOf(exception.amount(), OpenException.AMOUNT_SCALE)
+                    .stripTrailingZeros();
+            json.writeNumberField("amount", amount.scale() < 2 ? amount.setScale(2) : amount);
+        }
+        json.writeStringField("currency", exception.currency());
+        json.writeStringField("eventTime", Instant.ofEpochMilli(exception.eventTime()).toString());
+        if (exception.expiredAt() == OpenException.NONE) {
+            json.writeNullField("expiredAt");
+        } else {
+            json.writeStringField("expiredAt", Instant.ofEpochMilli(exception.expiredAt()).toString());
+        }
+        if (exception.openMillis() != OpenException.NONE) {
+            json.writeNumberField("openMillis", exception.openMillis());
+        }
+        json.writeEndObject();
+    }
+
+    private static Long millis(String duration) {
+        return duration == null ? null : Duration.parse(duration).toMillis();
+    }
+
+    private static Long amount(BigDecimal amount) {
+        return amount == null ? null
+                : amount.setScale(OpenException.AMOUNT_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+}
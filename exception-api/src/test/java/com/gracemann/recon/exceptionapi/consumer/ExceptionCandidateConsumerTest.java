@@ -0,0 +1,50 @@
+package com.gracemann.recon.exceptionapi.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gracemann.recon.exceptionapi.index.ExceptionIndex;
+import com.gracemann.recon.exceptionapi.index.OpenException;
+
+class ExceptionCandidateConsumerTest {
+
+    @Test
+    void expiredCandidatesOpenAndDeltasCloseThem() {
+        ExceptionIndex index = new ExceptionIndex(10_000);
+        ExceptionCandidateConsumer consumer = new ExceptionCandidateConsumer(index, new ObjectMapper());
+
+        consume(consumer, 0, "{\"exceptionId\":\"T1|BANK_SWITCH\",\"status\":\"EXPIRED\","
+                + "\"expiredAt\":\"2025-06-01T12:00:00Z\",\"openMillis\":900000,\"watermark\":1748779200.0,"
+                + "\"record\":{\"txnId\":\"T1\",\"amount\":12.5,\"currency\":\"INR\",\"merchantId\":\"M1\","
+                + "\"channel\":\"POS\",\"txnTimestamp\":[2025,6,1,9,30],\"sourceType\":\"BANK_SWITCH\","
+                + "\"rawSourceRecord\":\"0200...\"}}");
+        // published before statuses existed: EXPIRED
+        consume(consumer, 1, "{\"exceptionId\":\"S2|SCHEME_FILE\",\"expiredAt\":1748779200.25,"
+                + "\"record\":{\"txnId\":\"S2\",\"schemeName\":\"VISA\",\"sourceType\":\"SCHEME_FILE\"}}");
+        consume(consumer, 2, "not json");
+
+        assertEquals(2, index.size());
+        OpenException t1 = index.get("T1|BANK_SWITCH");
+        assertEquals(12_5000L, t1.amount());
+        assertEquals(1_748_770_200_000L, t1.eventTime());
+        assertEquals("M1", t1.merchantId());
+        OpenException s2 = index.get("S2|SCHEME_FILE");
+        assertEquals(OpenException.NONE, s2.amount());
+        assertEquals(1_748_779_200_250L, s2.eventTime());
+
+        consume(consumer, 3, "{\"exceptionId\":\"T1|BANK_SWITCH\",\"status\":\"RESOLVED\",\"matchId\":\"T1|S9\"}");
+        consume(consumer, 4, "{\"exceptionId\":\"S2|SCHEME_FILE\",\"status\":\"SUPERSEDED\"}");
+        assertEquals(0, index.size());
+        assertNull(index.get("T1|BANK_SWITCH"));
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static void consume(ExceptionCandidateConsumer consumer, long offset, String json) {
+        consumer.consume(new ConsumerRecord<>("exception-candidate-topic", 0, offset, "key", json));
+    }
+}
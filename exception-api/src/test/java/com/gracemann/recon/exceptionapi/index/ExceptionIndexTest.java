@@ -0,0 +1,141 @@
+package com.gracemann.recon.exceptionapi.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import com.gracemann.recon.exceptionapi.index.ExceptionQuery.Sort;
+
+class ExceptionIndexTest {
+
+    private static final long NOW = 1_750_000_000_000L;
+    private static final long HOUR = 3_600_000L;
+    private static final String[] SCHEMES = { "VISA", "RUPAY", "MASTERCARD" };
+
+    @Test
+    void pagesMatchABruteForceScanInEveryOrderAndPartition() {
+        ExceptionIndex index = new ExceptionIndex(10_000);
+        List<OpenException> all = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 5_000; i++) {
+            OpenException exception = exception(random, i);
+            all.add(exception);
+            index.open(exception);
+        }
+        // closed ones must not show up
+        for (int i = 0; i < 5_000; i += 7) {
+            index.close(all.get(i).id());
+        }
+        List<OpenException> open = new ArrayList<>();
+        for (int i = 0; i < all.size(); i++) {
+            if (i % 7 != 0) {
+                open.add(all.get(i));
+            }
+        }
+        assertEquals(open.size(), index.size());
+
+        List<ExceptionQuery> queries = List.of(
+                new ExceptionQuery(null, null, null, null, null, null, null, Sort.AGE),
+                new ExceptionQuery("VISA", null, null, 24 * HOUR, 72 * HOUR, null, null, Sort.AGE),
+                new ExceptionQuery(null, "M7", null, null, null, 1_000_0000L, null, Sort.AGE),
+                new ExceptionQuery("RUPAY", "M3", "INR", null, null, null, null, Sort.AMOUNT),
+                new ExceptionQuery(null, null, "USD", null, 48 * HOUR, 500_0000L, 5_000_0000L, Sort.AMOUNT));
+        for (ExceptionQuery query : queries) {
+            Comparator<OpenException> order = query.sort() == Sort.AGE
+                    ? Comparator.comparingLong(OpenException::eventTime).thenComparing(OpenException::id)
+                    : Comparator.comparingLong(OpenException::amount).reversed().thenComparing(OpenException::id);
+            List<OpenException> expected = open.stream().filter(e -> matches(query, e)).sorted(order).toList();
+
+            List<OpenException> paged = new ArrayList<>();
+            PageCursor cursor = null;
+            do {
+                ExceptionPage page = index.query(query, cursor, 37, NOW);
+                assertTrue(page.items().size() <= 37);
+                paged.addAll(page.items());
+                cursor = page.next() == null ? null : PageCursor.decode(page.next().encode());
+            } while (cursor != null);
+            assertEquals(expected, paged, query.toString());
+        }
+    }
+
+    @Test
+    void aPageNeverScansPastItsBudgetAndCursorsSurviveChurn() {
+        ExceptionIndex index = new ExceptionIndex(100);
+        SplittableRandom random = new SplittableRandom(5);
+        List<OpenException> all = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            OpenException exception = exception(random, i);
+            all.add(exception);
+            index.open(exception);
+        }
+        // a currency no exception has: every page is empty, bounded and resumable until the end
+        ExceptionQuery none = new ExceptionQuery(null, null, "EUR", null, null, null, null, Sort.AGE);
+        PageCursor cursor = null;
+        int pages = 0;
+        do {
+            ExceptionPage page = index.query(none, cursor, 10, NOW);
+            assertTrue(page.items().isEmpty());
+            assertTrue(page.scanned() <= 100);
+            cursor = page.next();
+            pages++;
+        } while (cursor != null);
+        assertEquals(20, pages);
+
+        // exceptions opening and closing between pages are neither repeated nor make others skipped
+        ExceptionQuery everything = new ExceptionQuery(null, null, null, null, null, null, null, Sort.AGE);
+        Set<String> seen = new HashSet<>();
+        Set<String> closed = new HashSet<>();
+        cursor = null;
+        int next = 2_000;
+        do {
+            ExceptionPage page = index.query(everything, cursor, 50, NOW);
+            for (OpenException exception : page.items()) {
+                assertTrue(seen.add(exception.id()), "repeated " + exception.id());
+            }
+            String victim = all.get(random.nextInt(all.size())).id();
+            if (index.close(victim)) {
+                closed.add(victim);
+            }
+            index.open(exception(random, next++));
+            cursor = page.next();
+        } while (cursor != null);
+        for (OpenException exception : all) {
+            if (!closed.contains(exception.id())) {
+                assertTrue(seen.contains(exception.id()), "skipped " + exception.id());
+            }
+        }
+        assertNotNull(index.get(all.get(1).id()).schemeName());
+        assertNull(index.get("missing"));
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static OpenException exception(SplittableRandom random, int i) {
+        long eventTime = NOW - random.nextLong(96 * HOUR);
+        long amount = random.nextInt(10) == 0 ? OpenException.NONE : random.nextLong(1, 10_000) * 1_0000L;
+        return new OpenException("T" + i + "|BANK_SWITCH", "T" + i, "BANK_SWITCH", SCHEMES[random.nextInt(3)],
+                "M" + random.nextInt(10), "POS", "4111********" + i % 10000, random.nextBoolean() ? "INR" : "USD",
+                amount, eventTime, eventTime + HOUR, HOUR);
+    }
+
+    private static boolean matches(ExceptionQuery query, OpenException e) {
+        long age = NOW - e.eventTime();
+        return (query.schemeName() == null || query.schemeName().equals(e.schemeName()))
+                && (query.merchantId() == null || query.merchantId().equals(e.merchantId()))
+                && (query.currency() == null || query.currency().equals(e.currency()))
+                && (query.minAgeMillis() == null || age >= query.minAgeMillis())
+                && (query.maxAgeMillis() == null || age <= query.maxAgeMillis())
+                && (query.minAmount() == null || (e.amount() != OpenException.NONE && e.amount() >= query.minAmount()))
+                && (query.maxAmount() == null || (e.amount() != OpenException.NONE && e.amount() <= query.maxAmount()));
+    }
+}
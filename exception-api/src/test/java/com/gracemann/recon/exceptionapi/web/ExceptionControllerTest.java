@@ -0,0 +1,89 @@
+package com.gracemann.recon.exceptionapi.web;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gracemann.recon.exceptionapi.index.ExceptionIndex;
+import com.gracemann.recon.exceptionapi.index.OpenException;
+
+class ExceptionControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        ExceptionIndex index = new ExceptionIndex(10_000);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 25; i++) {
+            long eventTime = now - (30 - i) * 3_600_000L;
+            index.open(new OpenException("T" + i + "|BANK_SWITCH", "T" + i, "BANK_SWITCH",
+                    i % 2 == 0 ? "VISA" : "RUPAY", "M1", "ECOM", "4111********0001", "INR",
+                    (100 + i) * 1_0000L + 5_000, eventTime, eventTime + 60_000L, 60_000L));
+        }
+        mvc = MockMvcBuilders.standaloneSetup(new ExceptionController(index, objectMapper, 50)).build();
+    }
+
+    @Test
+    void streamsPagesAsJsonArraysLinkedByCursors() throws Exception {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/exceptions").param("scheme", "VISA").param("minAge", "PT2H").param("limit", "5");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            var response = mvc.perform(request).andExpect(status().isOk()).andReturn().getResponse();
+            JsonNode page = objectMapper.readTree(response.getContentAsString());
+            page.forEach(item -> ids.add(item.get("exceptionId").asText()));
+            cursor = response.getHeader(ExceptionController.NEXT_CURSOR);
+        } while (cursor != null);
+        // the VISA legs are the even ones, all older than two hours
+        assertEquals(List.of("T0|BANK_SWITCH", "T2|BANK_SWITCH", "T4|BANK_SWITCH", "T6|BANK_SWITCH",
+                "T8|BANK_SWITCH", "T10|BANK_SWITCH", "T12|BANK_SWITCH", "T14|BANK_SWITCH", "T16|BANK_SWITCH",
+                "T18|BANK_SWITCH", "T20|BANK_SWITCH", "T22|BANK_SWITCH", "T24|BANK_SWITCH"), ids);
+
+        mvc.perform(get("/exceptions").param("sort", "amount").param("minAmount", "120").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].exceptionId").value("T24|BANK_SWITCH"))
+                .andExpect(jsonPath("$[0].amount").value(124.5))
+                .andExpect(jsonPath("$[1].exceptionId").value("T23|BANK_SWITCH"));
+        var last = mvc.perform(get("/exceptions").param("sort", "amount").param("maxAmount", "100.50"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andReturn().getResponse();
+        assertNull(last.getHeader(ExceptionController.NEXT_CURSOR));
+    }
+
+    @Test
+    void rejectsBadRequestsAndLooksUpSingleExceptions() throws Exception {
+        mvc.perform(get("/exceptions").param("limit", "51")).andExpect(status().isBadRequest());
+        mvc.perform(get("/exceptions").param("cursor", "not a cursor")).andExpect(status().isBadRequest());
+        mvc.perform(get("/exceptions").param("minAge", "two days")).andExpect(status().isBadRequest());
+        mvc.perform(get("/exceptions").param("sort", "merchant")).andExpect(status().isBadRequest());
+        String ageCursor = mvc.perform(get("/exceptions").param("limit", "1")).andReturn().getResponse()
+                .getHeader(ExceptionController.NEXT_CURSOR);
+        mvc.perform(get("/exceptions").param("sort", "amount").param("cursor", ageCursor))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(get("/exceptions/T3|BANK_SWITCH"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.schemeName").value("RUPAY"))
+                .andExpect(jsonPath("$.openMillis").value(60_000));
+        mvc.perform(get("/exceptions/T99|BANK_SWITCH")).andExpect(status().isNotFound());
+    }
+}
@@ -5,8 +5,11 @@
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
@@ -15,7 +18,17 @@
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.serde.TxnRecordBinarySerializer;
+import com.gracemann.recon.ingestionservice.serde.TxnRecordDeserializer;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * KafkaConfig is the central configuration for all Kafka producer and consumer
@@ -29,8 +42,9 @@
  * - Use
  * {@code @KafkaListener(..., containerFactory = "stringKafkaListenerContainerFactory")}
  * to consume raw JSON strings from Kafka.
- * - (Optional) Use DTO-based templates/container factories for advanced use
- * cases.
+ * - Use {@code KafkaTemplate<String, TxnRecordDTO>} to send records in the
+ * compact binary format, and txnRecordKafkaListenerContainerFactory to read
+ * either format back as DTOs.
  *
  * This config is production-ready, easy to extend, and matches common Spring
  * Boot Kafka best practices.
@@ -39,6 +53,16 @@
 @Configuration
 public class KafkaConfig {
 
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    /**
+     * The MeterRegistry is optional so this config still works in a bare
+     * application context (e.g. TestTxnProducer).
+     */
+    public KafkaConfig(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * ProducerFactory for sending raw JSON strings to Kafka.
      *
@@ -52,7 +76,7 @@ public ProducerFactory<String, String> stringProducerFactory() {
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         // Optional tuning (e.g., acks, retries) can be added here.
-        return new DefaultKafkaProducerFactory<>(props);
+        return withMetrics(new DefaultKafkaProducerFactory<>(props));
     }
 
     /**
@@ -80,7 +104,7 @@ public ConsumerFactory<String, String> stringConsumerFactory() {
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         // Optional tuning (e.g., max poll records, auto offset reset) can be added
         // here.
-        return new DefaultKafkaConsumerFactory<>(props);
+        return withMetrics(new DefaultKafkaConsumerFactory<>(props));
     }
 
     /**
@@ -90,54 +114,147 @@ public ConsumerFactory<String, String> stringConsumerFactory() {
      * String payloads.
      */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, String> stringKafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, String> stringKafkaListenerContainerFactory(
+            @Value("${recon.ingestion.listener.concurrency:1}") int concurrency) {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(stringConsumerFactory());
+        factory.setConcurrency(concurrency);
+        return factory;
+    }
+
+    /**
+     * Batch KafkaListenerContainerFactory for consuming raw JSON strings.
+     *
+     * Same consumer settings as {@link #stringKafkaListenerContainerFactory},
+     * but listeners receive a whole poll as
+     * {@code List<ConsumerRecord<String, String>>}. Offsets are committed once
+     * the listener returns for the batch. If the listener throws (a record
+     * could be neither forwarded nor dead-lettered) the poll is re-seeked and
+     * redelivered after {@code retry-backoff-ms}, indefinitely, rather than
+     * skipped.
+     *
+     * Usage: Pair with {@code IngestionProcessor.processBatch} for bursty feeds
+     * such as scheme clearing files. With partition lanes enabled a single
+     * container spreads its poll over virtual threads, so concurrency can stay
+     * well below the partition count.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> stringBatchKafkaListenerContainerFactory(
+            @Value("${recon.ingestion.batch-listener.max-poll-records:2000}") int maxPollRecords,
+            @Value("${recon.ingestion.batch-listener.retry-backoff-ms:1000}") long retryBackoffMs,
+            @Value("${recon.ingestion.listener.concurrency:1}") int concurrency) {
         ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(stringConsumerFactory());
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.setCommonErrorHandler(
+                new DefaultErrorHandler(new FixedBackOff(retryBackoffMs, FixedBackOff.UNLIMITED_ATTEMPTS)));
+        factory.getContainerProperties().getKafkaConsumerProperties()
+                .setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxPollRecords));
         return factory;
     }
 
-    // --- (Optional) DTO-based Producer/Consumer Factories for advanced usage ---
-
-    // Uncomment/extend if you want to support direct DTO <-> Kafka serialization in
-    // the future.
-    /*
-     * @Bean
-     * public ProducerFactory<String, TxnRecordDTO> dtoProducerFactory() {
-     * Map<String, Object> props = new HashMap<>();
-     * props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
-     * props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
-     * StringSerializer.class);
-     * props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
-     * JsonSerializer.class);
-     * return new DefaultKafkaProducerFactory<>(props);
-     * }
+    /**
+     * ConsumerFactory for receiving raw message bytes from Kafka.
      *
-     * @Bean
-     * public KafkaTemplate<String, TxnRecordDTO> dtoKafkaTemplate() {
-     * return new KafkaTemplate<>(dtoProducerFactory());
-     * }
+     * Use this when a listener tokenizes the wire payload itself (e.g. raw ISO
+     * messages from the bank switch) and a String copy would be wasted.
+     */
+    @Bean
+    public ConsumerFactory<String, byte[]> byteArrayConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "recon-ingestion-group");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return withMetrics(new DefaultKafkaConsumerFactory<>(props));
+    }
+
+    /**
+     * KafkaListenerContainerFactory for consuming raw message bytes.
      *
-     * @Bean
-     * public ConsumerFactory<String, TxnRecordDTO> dtoConsumerFactory() {
-     * Map<String, Object> props = new HashMap<>();
-     * props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
-     * props.put(ConsumerConfig.GROUP_ID_CONFIG, "recon-ingestion-group");
-     * props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,
-     * StringDeserializer.class);
-     * props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
-     * JsonDeserializer.class);
-     * props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-     * return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new
-     * JsonDeserializer<>(TxnRecordDTO.class, false));
-     * }
+     * Usage: Specify this factory in your @KafkaListener if you want to receive
+     * {@code byte[]} payloads.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> byteArrayKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(byteArrayConsumerFactory());
+        return factory;
+    }
+
+    // --- DTO-based Producer/Consumer Factories (binary wire format) ---
+
+    /**
+     * ProducerFactory for sending TxnRecordDTOs in the compact binary format.
      *
-     * @Bean
-     * public ConcurrentKafkaListenerContainerFactory<String, TxnRecordDTO>
-     * dtoKafkaListenerContainerFactory() {
-     * ConcurrentKafkaListenerContainerFactory<String, TxnRecordDTO> factory = new
-     * ConcurrentKafkaListenerContainerFactory<>();
-     * factory.setConsumerFactory(dtoConsumerFactory());
-     * return factory;
-     * }
+     * Each record is stamped with the {@code recon-format} header so consumers
+     * can tell it apart from JSON. rawSourceRecord is only carried when
+     * {@code recon.ingestion.forward.include-raw} is true.
      */
+    @Bean
+    public ProducerFactory<String, TxnRecordDTO> binaryProducerFactory(
+            @Value("${recon.ingestion.forward.include-raw:false}") boolean includeRaw) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, TxnRecordBinarySerializer.class);
+        props.put(TxnRecordBinarySerializer.INCLUDE_RAW_CONFIG, includeRaw);
+        return withMetrics(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    /**
+     * KafkaTemplate for sending TxnRecordDTOs in the binary format.
+     */
+    @Bean
+    public KafkaTemplate<String, TxnRecordDTO> binaryKafkaTemplate(
+            ProducerFactory<String, TxnRecordDTO> binaryProducerFactory) {
+        return new KafkaTemplate<>(binaryProducerFactory);
+    }
+
+    /**
+     * ConsumerFactory for receiving TxnRecordDTOs from ingested-txn-topic.
+     *
+     * The value deserializer switches on the {@code recon-format} header, so
+     * binary and legacy JSON records can share the topic.
+     */
+    @Bean
+    public ConsumerFactory<String, TxnRecordDTO> txnRecordConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "recon-ingestion-group");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, TxnRecordDeserializer.class);
+        return withMetrics(new DefaultKafkaConsumerFactory<>(props));
+    }
+
+    /**
+     * KafkaListenerContainerFactory for consuming TxnRecordDTOs in either wire
+     * format.
+     *
+     * Usage: Specify this factory in your @KafkaListener to receive
+     * {@code TxnRecordDTO} payloads directly.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TxnRecordDTO> txnRecordKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, TxnRecordDTO> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(txnRecordConsumerFactory());
+        return factory;
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    /**
+     * Bind Kafka client metrics (including consumer records-lag and producer
+     * request latency) to Micrometer when a registry is available.
+     */
+    private <K, V> DefaultKafkaProducerFactory<K, V> withMetrics(DefaultKafkaProducerFactory<K, V> factory) {
+        meterRegistry.ifAvailable(registry -> factory.addListener(new MicrometerProducerListener<>(registry)));
+        return factory;
+    }
+
+    private <K, V> DefaultKafkaConsumerFactory<K, V> withMetrics(DefaultKafkaConsumerFactory<K, V> factory) {
+        meterRegistry.ifAvailable(registry -> factory.addListener(new MicrometerConsumerListener<>(registry)));
+        return factory;
+    }
 }
@@ -0,0 +1,67 @@
+package com.gracemann.recon.ingestionservice.consumer;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.ingestionservice.metrics.IngestionMetrics;
+import com.gracemann.recon.ingestionservice.metrics.IngestionMetrics.Stage;
+import com.gracemann.recon.ingestionservice.parser.IsoMessageTokenizer;
+import com.gracemann.recon.ingestionservice.processor.IngestionProcessor;
+
+/**
+ * Bank-switch adapter: consumes raw pipe-delimited ISO 8583-like messages as
+ * bytes, tokenizes them straight into TxnRecordDTO objects, and delegates
+ * processing to the IngestionProcessor.
+ *
+ * <p>
+ * Unlike {@link BankTxnConsumer}, no JSON is involved: the switch payload is
+ * scanned once by {@link IsoMessageTokenizer}. Set
+ * {@code recon.ingestion.iso-adapter.retain-raw=false} to skip copying the raw
+ * message into rawSourceRecord.
+ * </p>
+ *
+ * Uses byteArrayKafkaListenerContainerFactory to consume raw bytes.
+ */
+@Component
+public class BankSwitchIsoConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(BankSwitchIsoConsumer.class);
+
+    private final IsoMessageTokenizer tokenizer = new IsoMessageTokenizer();
+    private final IngestionProcessor processor;
+    private final IngestionMetrics metrics;
+    private final boolean retainRaw;
+
+    public BankSwitchIsoConsumer(IngestionProcessor processor, IngestionMetrics metrics,
+            @Value("${recon.ingestion.iso-adapter.retain-raw:true}") boolean retainRaw) {
+        this.processor = processor;
+        this.metrics = metrics;
+        this.retainRaw = retainRaw;
+    }
+
+    @KafkaListener(topics = "bank-switch-iso-topic", groupId = "recon-ingestion-group", containerFactory = "byteArrayKafkaListenerContainerFactory")
+    public void consume(ConsumerRecord<String, byte[]> record) {
+        metrics.recordConsumed(record.topic(), record.partition());
+        try {
+            long start = System.nanoTime();
+            byte[] isoRaw = record.value();
+            String raw = retainRaw ? new String(isoRaw, StandardCharsets.UTF_8) : null;
+            TxnRecordDTO dto = tokenizer.parse(isoRaw, raw);
+            metrics.recordStage(Stage.PARSE, SourceType.BANK_SWITCH, System.nanoTime() - start);
+            processor.process(dto);
+        } catch (Exception e) {
+            metrics.incrementErrors(SourceType.BANK_SWITCH);
+            metrics.incrementSkipped(SourceType.BANK_SWITCH);
+            log.warn("Skipping bank switch ISO message at {}-{}@{}: {}", record.topic(), record.partition(),
+                    record.offset(), e.getMessage());
+        }
+    }
+}
@@ -9,37 +9,100 @@
  */
 package com.gracemann.recon.ingestionservice.consumer;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.ingestionservice.metrics.IngestionMetrics;
+import com.gracemann.recon.ingestionservice.metrics.IngestionMetrics.Stage;
 import com.gracemann.recon.ingestionservice.processor.IngestionProcessor;
 
 @Component
 public class BankTxnConsumer {
 
+    private static final Logger log = LoggerFactory.getLogger(BankTxnConsumer.class);
+
     private final ObjectMapper objectMapper;
     private final IngestionProcessor processor;
+    private final IngestionMetrics metrics;
+    private final PartitionLaneDispatcher dispatcher;
 
     // Constructor injection for all dependencies
-    public BankTxnConsumer(ObjectMapper objectMapper, IngestionProcessor processor) {
+    public BankTxnConsumer(ObjectMapper objectMapper, IngestionProcessor processor, IngestionMetrics metrics,
+            PartitionLaneDispatcher dispatcher) {
         this.objectMapper = objectMapper;
         this.processor = processor;
+        this.metrics = metrics;
+        this.dispatcher = dispatcher;
     }
 
     @KafkaListener(
         topics = "bank-txn-topic",
         groupId = "recon-ingestion-group",
-        containerFactory = "stringKafkaListenerContainerFactory"
+        containerFactory = "stringKafkaListenerContainerFactory",
+        autoStartup = "#{!${recon.ingestion.batch-listener.enabled:false}}"
     )
-    public void consume(String rawJson) {
+    public void consume(ConsumerRecord<String, String> record) {
+        metrics.recordConsumed(record.topic(), record.partition());
         try {
-            TxnRecordDTO dto = objectMapper.readValue(rawJson, TxnRecordDTO.class);
+            long start = System.nanoTime();
+            TxnRecordDTO dto = objectMapper.readValue(record.value(), TxnRecordDTO.class);
+            metrics.recordStage(Stage.PARSE, SourceType.BANK_SWITCH, System.nanoTime() - start);
             processor.process(dto);
         } catch (Exception e) {
-            // TODO: Use proper logging
-            System.err.println("Error processing bank txn: " + e.getMessage());
+            skip(record, e);
         }
     }
+
+    /**
+     * Batch variant, active when {@code recon.ingestion.batch-listener.enabled}
+     * is true. Records that fail to deserialize are logged and skipped; the rest
+     * of the poll is processed as one batch, or as one batch per partition
+     * lane when {@code recon.ingestion.execution.mode=partition-lanes}.
+     */
+    @KafkaListener(
+        id = "bankTxnBatchListener",
+        topics = "bank-txn-topic",
+        groupId = "recon-ingestion-group",
+        containerFactory = "stringBatchKafkaListenerContainerFactory",
+        autoStartup = "${recon.ingestion.batch-listener.enabled:false}"
+    )
+    public void consumeBatch(List<ConsumerRecord<String, String>> records) {
+        dispatcher.dispatch(records, this::processLane);
+    }
+
+    /**
+     * Parse and process records of one lane (the whole poll unless partition
+     * lanes are enabled), in order.
+     */
+    private void processLane(List<ConsumerRecord<String, String>> records) {
+        List<TxnRecordDTO> dtos = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            metrics.recordConsumed(record.topic(), record.partition());
+            try {
+                long start = System.nanoTime();
+                dtos.add(objectMapper.readValue(record.value(), TxnRecordDTO.class));
+                metrics.recordStage(Stage.PARSE, SourceType.BANK_SWITCH, System.nanoTime() - start);
+            } catch (Exception e) {
+                skip(record, e);
+            }
+        }
+        processor.processBatch(dtos);
+    }
+
+    /** Count and log a record dropped from the poll, with where to find it. */
+    private void skip(ConsumerRecord<String, String> record, Exception e) {
+        metrics.incrementErrors(SourceType.BANK_SWITCH);
+        metrics.incrementSkipped(SourceType.BANK_SWITCH);
+        log.warn("Skipping bank txn at {}-{}@{}: {}", record.topic(), record.partition(), record.offset(),
+                e.getMessage());
+    }
 }
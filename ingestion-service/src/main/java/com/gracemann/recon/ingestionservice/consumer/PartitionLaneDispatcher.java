@@ -0,0 +1,157 @@
+package com.gracemann.recon.ingestionservice.consumer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs the records of one poll on per-partition virtual-thread lanes.
+ *
+ * <p>
+ * With {@code recon.ingestion.execution.mode=partition-lanes}, a batch
+ * listener's poll is split into lanes by topic-partition (and, with
+ * {@code lanes-per-partition > 1}, by record key within a partition). Each lane
+ * is processed in offset order on its own virtual thread, so records with the
+ * same key are never reordered, while parsing on one lane overlaps with
+ * another lane waiting on broker acks.
+ * </p>
+ *
+ * <p>
+ * {@link #dispatch} returns only after every lane has finished, so the
+ * container still commits the whole poll at once and never commits an offset
+ * whose record is still in progress. In the default {@code container} mode
+ * the poll is processed inline on the container thread, as before.
+ * </p>
+ *
+ * <p>
+ * Lanes need the whole poll, so they apply to the batch listeners
+ * ({@code recon.ingestion.batch-listener.enabled=true}).
+ * </p>
+ */
+@Component
+public class PartitionLaneDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionLaneDispatcher.class);
+
+    static final String CONTAINER_MODE = "container";
+    static final String PARTITION_LANES_MODE = "partition-lanes";
+
+    private final boolean lanes;
+    private final int lanesPerPartition;
+    private final ExecutorService executor;
+
+    public PartitionLaneDispatcher(
+            @Value("${recon.ingestion.execution.mode:container}") String mode,
+            @Value("${recon.ingestion.execution.lanes-per-partition:1}") int lanesPerPartition,
+            @Value("${recon.ingestion.batch-listener.enabled:false}") boolean batchListeners) {
+        if (!CONTAINER_MODE.equalsIgnoreCase(mode) && !PARTITION_LANES_MODE.equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("Unknown recon.ingestion.execution.mode '" + mode + "'");
+        }
+        if (lanesPerPartition < 1) {
+            throw new IllegalArgumentException("lanes-per-partition must be >= 1");
+        }
+        this.lanes = PARTITION_LANES_MODE.equalsIgnoreCase(mode);
+        this.lanesPerPartition = lanesPerPartition;
+        this.executor = lanes ? Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("ingest-lane-", 0).factory()) : null;
+        if (lanes && !batchListeners) {
+            log.warn("Partition lanes only apply to batch listeners; "
+                    + "set recon.ingestion.batch-listener.enabled=true to use them");
+        }
+    }
+
+    /**
+     * Process one poll, lane by lane, and wait for all lanes.
+     *
+     * @param records  the poll, in the order the consumer returned it
+     * @param laneWork processes one lane's records in order
+     * @throws IllegalStateException if a lane failed; the remaining lanes are
+     *                               still run to completion first
+     */
+    public <V> void dispatch(List<ConsumerRecord<String, V>> records,
+            Consumer<List<ConsumerRecord<String, V>>> laneWork) {
+        if (!lanes || records.size() < 2) {
+            laneWork.accept(records);
+            return;
+        }
+        Map<LaneKey, List<ConsumerRecord<String, V>>> byLane = split(records);
+        if (byLane.size() == 1) {
+            laneWork.accept(records);
+            return;
+        }
+
+        List<Future<?>> running = new ArrayList<>(byLane.size());
+        for (List<ConsumerRecord<String, V>> lane : byLane.values()) {
+            running.add(executor.submit(() -> laneWork.accept(lane)));
+        }
+        Throwable failure = null;
+        boolean interrupted = false;
+        for (Future<?> future : running) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    // lanes must finish before the container commits the poll
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    } else {
+                        failure.addSuppressed(e.getCause());
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Partition lane failed: " + failure.getMessage(), failure);
+        }
+        log.debug("Processed {} records on {} lanes", records.size(), byLane.size());
+    }
+
+    public boolean isLaneMode() {
+        return lanes;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private <V> Map<LaneKey, List<ConsumerRecord<String, V>>> split(List<ConsumerRecord<String, V>> records) {
+        Map<LaneKey, List<ConsumerRecord<String, V>>> byLane = new LinkedHashMap<>();
+        for (ConsumerRecord<String, V> record : records) {
+            int sublane = lanesPerPartition == 1 || record.key() == null
+                    ? 0
+                    : Math.floorMod(record.key().hashCode(), lanesPerPartition);
+            byLane.computeIfAbsent(new LaneKey(record.topic(), record.partition(), sublane),
+                    k -> new ArrayList<>()).add(record);
+        }
+        return byLane;
+    }
+
+    private record LaneKey(String topic, int partition, int sublane) {
+    }
+}
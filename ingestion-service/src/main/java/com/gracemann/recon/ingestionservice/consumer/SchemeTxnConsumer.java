@@ -9,11 +9,20 @@
  */
 package com.gracemann.recon.ingestionservice.consumer;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.ingestionservice.metrics.IngestionMetrics;
+import com.gracemann.recon.ingestionservice.metrics.IngestionMetrics.Stage;
 import com.gracemann.recon.ingestionservice.processor.IngestionProcessor;
 
 /**
@@ -26,23 +35,76 @@
 @Component
 public class SchemeTxnConsumer {
 
+    private static final Logger log = LoggerFactory.getLogger(SchemeTxnConsumer.class);
+
     private final ObjectMapper objectMapper;
     private final IngestionProcessor processor;
+    private final IngestionMetrics metrics;
+    private final PartitionLaneDispatcher dispatcher;
 
     // Constructor injection for both dependencies
-    public SchemeTxnConsumer(ObjectMapper objectMapper, IngestionProcessor processor) {
+    public SchemeTxnConsumer(ObjectMapper objectMapper, IngestionProcessor processor, IngestionMetrics metrics,
+            PartitionLaneDispatcher dispatcher) {
         this.objectMapper = objectMapper;
         this.processor = processor;
+        this.metrics = metrics;
+        this.dispatcher = dispatcher;
     }
 
-    @KafkaListener(topics = "scheme-txn-topic", groupId = "recon-ingestion-group", containerFactory = "stringKafkaListenerContainerFactory")
-    public void consume(String rawJson) {
+    @KafkaListener(topics = "scheme-txn-topic", groupId = "recon-ingestion-group", containerFactory = "stringKafkaListenerContainerFactory", autoStartup = "#{!${recon.ingestion.batch-listener.enabled:false}}")
+    public void consume(ConsumerRecord<String, String> record) {
+        metrics.recordConsumed(record.topic(), record.partition());
         try {
-            TxnRecordDTO dto = objectMapper.readValue(rawJson, TxnRecordDTO.class);
+            long start = System.nanoTime();
+            TxnRecordDTO dto = objectMapper.readValue(record.value(), TxnRecordDTO.class);
+            metrics.recordStage(Stage.PARSE, SourceType.SCHEME_FILE, System.nanoTime() - start);
             processor.process(dto);
         } catch (Exception e) {
-            // TODO: Integrate with metrics and proper logging framework
-            System.err.println("Error processing scheme txn: " + e.getMessage());
+            skip(record, e);
         }
     }
+
+    /**
+     * Batch variant, active when {@code recon.ingestion.batch-listener.enabled}
+     * is true. Records that fail to deserialize are logged and skipped; the rest
+     * of the poll is processed as one batch, or as one batch per partition
+     * lane when {@code recon.ingestion.execution.mode=partition-lanes}.
+     */
+    @KafkaListener(
+        id = "schemeTxnBatchListener",
+        topics = "scheme-txn-topic",
+        groupId = "recon-ingestion-group",
+        containerFactory = "stringBatchKafkaListenerContainerFactory",
+        autoStartup = "${recon.ingestion.batch-listener.enabled:false}"
+    )
+    public void consumeBatch(List<ConsumerRecord<String, String>> records) {
+        dispatcher.dispatch(records, this::processLane);
+    }
+
+    /**
+     * Parse and process records of one lane (the whole poll unless partition
+     * lanes are enabled), in order.
+     */
+    private void processLane(List<ConsumerRecord<String, String>> records) {
+        List<TxnRecordDTO> dtos = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            metrics.recordConsumed(record.topic(), record.partition());
+            try {
+                long start = System.nanoTime();
+                dtos.add(objectMapper.readValue(record.value(), TxnRecordDTO.class));
+                metrics.recordStage(Stage.PARSE, SourceType.SCHEME_FILE, System.nanoTime() - start);
+            } catch (Exception e) {
+                skip(record, e);
+            }
+        }
+        processor.processBatch(dtos);
+    }
+
+    /** Count and log a record dropped from the poll, with where to find it. */
+    private void skip(ConsumerRecord<String, String> record, Exception e) {
+        metrics.incrementErrors(SourceType.SCHEME_FILE);
+        metrics.incrementSkipped(SourceType.SCHEME_FILE);
+        log.warn("Skipping scheme txn at {}-{}@{}: {}", record.topic(), record.partition(), record.offset(),
+                e.getMessage());
+    }
 }
@@ -0,0 +1,174 @@
+package com.gracemann.recon.ingestionservice.dedup;
+
+/**
+ * One settlement-day window of the {@link WindowedDedupStore}.
+ *
+ * <p>
+ * Keys are fixed-width 64-bit hashes kept in open-addressing {@code long[]}
+ * tables, so an entry costs 8 bytes (plus load-factor slack) instead of a
+ * String and a map node. The window is split into independently locked
+ * segments so listener threads rarely contend; each segment grows by doubling
+ * when it passes {@link #MAX_LOAD}.
+ * </p>
+ *
+ * <p>
+ * A window is never cleared entry by entry: when its day falls out of the
+ * retention horizon the store simply drops the reference. Single keys are
+ * removed only to undo a mark whose record could not be forwarded.
+ * </p>
+ */
+final class DedupWindow {
+
+    /** Marker for an unused slot; real keys are remapped away from it. */
+    static final long EMPTY = 0L;
+
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final double MAX_LOAD = 0.7;
+
+    private final long epochDay;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    DedupWindow(long epochDay, int initialCapacity) {
+        this.epochDay = epochDay;
+        int perSegment = Math.max(16, initialCapacity / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(tableSizeFor(perSegment));
+        }
+    }
+
+    long epochDay() {
+        return epochDay;
+    }
+
+    /**
+     * Insert the key unless it is already present.
+     *
+     * @param key non-zero 64-bit key hash
+     * @return true if the key was not present before this call
+     */
+    boolean add(long key) {
+        // Top bits pick the segment, low bits pick the slot inside it.
+        Segment segment = segments[(int) (key >>> (64 - SEGMENT_BITS))];
+        synchronized (segment) {
+            return segment.add(key);
+        }
+    }
+
+    /**
+     * Remove the key if present.
+     *
+     * @param key non-zero 64-bit key hash
+     * @return true if the key was present
+     */
+    boolean remove(long key) {
+        Segment segment = segments[(int) (key >>> (64 - SEGMENT_BITS))];
+        synchronized (segment) {
+            return segment.remove(key);
+        }
+    }
+
+    long size() {
+        long total = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                total += segment.size;
+            }
+        }
+        return total;
+    }
+
+    long capacity() {
+        long total = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                total += segment.table.length;
+            }
+        }
+        return total;
+    }
+
+    private static int tableSizeFor(int expected) {
+        int needed = (int) Math.min(1L << 30, (long) Math.ceil(expected / MAX_LOAD));
+        return Integer.highestOneBit(Math.max(needed - 1, 1)) << 1;
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static final class Segment {
+
+        private long[] table;
+        private int size;
+        private int resizeAt;
+
+        Segment(int tableSize) {
+            this.table = new long[tableSize];
+            this.resizeAt = (int) (tableSize * MAX_LOAD);
+        }
+
+        boolean add(long key) {
+            int mask = table.length - 1;
+            int slot = (int) key & mask;
+            while (true) {
+                long current = table[slot];
+                if (current == EMPTY) {
+                    table[slot] = key;
+                    if (++size > resizeAt) {
+                        grow();
+                    }
+                    return true;
+                }
+                if (current == key) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        /**
+         * Backward-shift deletion: later keys of the probe run are moved into
+         * the hole so lookups never stop early at an emptied slot.
+         */
+        boolean remove(long key) {
+            int mask = table.length - 1;
+            int slot = (int) key & mask;
+            while (table[slot] != key) {
+                if (table[slot] == EMPTY) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (table[next] != EMPTY) {
+                int home = (int) table[next] & mask;
+                // Move the key back unless its home slot lies cyclically in (hole, next].
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    table[hole] = table[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            table[hole] = EMPTY;
+            size--;
+            return true;
+        }
+
+        private void grow() {
+            long[] old = table;
+            long[] grown = new long[old.length << 1];
+            int mask = grown.length - 1;
+            for (long key : old) {
+                if (key != EMPTY) {
+                    int slot = (int) key & mask;
+                    while (grown[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    grown[slot] = key;
+                }
+            }
+            table = grown;
+            resizeAt = (int) (grown.length * MAX_LOAD);
+        }
+    }
+}
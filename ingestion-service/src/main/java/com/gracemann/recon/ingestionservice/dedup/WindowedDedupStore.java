@@ -0,0 +1,206 @@
+package com.gracemann.recon.ingestionservice.dedup;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+
+/**
+ * Bounded deduplication store for the ingestion pipeline, partitioned into
+ * settlement-day windows.
+ *
+ * <p>
+ * Each record is keyed by a 64-bit hash of {@code txnId|sourceType} and placed
+ * in the window of its transaction date. Only the last
+ * {@code recon.ingestion.dedup.retention-days} days (plus tomorrow, for clock
+ * skew between switch and scheme) are retained; older windows are dropped
+ * whole when the wall-clock day rolls over, so memory is bounded by the
+ * retention period rather than by service uptime.
+ * </p>
+ *
+ * <p>
+ * Records whose day lies outside the retained range cannot be checked and are
+ * let through (counted in {@link #getOutOfWindowCount()}); the match-engine is
+ * the final guard against such late duplicates.
+ * </p>
+ *
+ * <p>
+ * With 64-bit keys the chance of any false duplicate among 10M records in one
+ * window is roughly 3 in a million.
+ * </p>
+ */
+@Component
+public class WindowedDedupStore {
+
+    private static final Logger log = LoggerFactory.getLogger(WindowedDedupStore.class);
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final ConcurrentHashMap<Long, DedupWindow> windows = new ConcurrentHashMap<>();
+    private final LongAdder outOfWindow = new LongAdder();
+
+    private final Clock clock;
+    private final int retentionDays;
+    private final int initialCapacity;
+
+    /** Oldest and newest epoch days currently accepted, refreshed at day rollover. */
+    private volatile long oldestDay;
+    private volatile long newestDay;
+    private volatile long nextRollMillis;
+
+    @Autowired
+    public WindowedDedupStore(
+            @Value("${recon.ingestion.dedup.retention-days:3}") int retentionDays,
+            @Value("${recon.ingestion.dedup.initial-capacity:1048576}") int initialCapacity) {
+        this(Clock.systemDefaultZone(), retentionDays, initialCapacity);
+    }
+
+    WindowedDedupStore(Clock clock, int retentionDays, int initialCapacity) {
+        if (retentionDays < 1) {
+            throw new IllegalArgumentException("retentionDays must be >= 1");
+        }
+        this.clock = clock;
+        this.retentionDays = retentionDays;
+        this.initialCapacity = initialCapacity;
+        rollWindows();
+    }
+
+    /**
+     * Record the transaction if it has not been seen in its settlement-day
+     * window.
+     *
+     * @param dto a validated record (txnId, sourceType and txnTimestamp set)
+     * @return true if the record is new (or outside the retained windows), false
+     *         if it is a duplicate
+     */
+    public boolean markIfAbsent(TxnRecordDTO dto) {
+        return markIfAbsent(dto.getTxnTimestamp().toLocalDate().toEpochDay(),
+                dto.getTxnId(), dto.getSourceType());
+    }
+
+    /**
+     * Record {@code txnId|sourceType} in the window of {@code epochDay}.
+     *
+     * @return true if the key is new (or outside the retained windows), false if
+     *         it is a duplicate
+     */
+    public boolean markIfAbsent(long epochDay, String txnId, TxnRecordDTO.SourceType sourceType) {
+        if (clock.millis() >= nextRollMillis) {
+            rollWindows();
+        }
+        if (epochDay < oldestDay || epochDay > newestDay) {
+            outOfWindow.increment();
+            return true;
+        }
+        DedupWindow window = windows.get(epochDay);
+        if (window == null) {
+            window = windows.computeIfAbsent(epochDay, day -> new DedupWindow(day, initialCapacity));
+        }
+        return window.add(hash(txnId, sourceType));
+    }
+
+    /**
+     * Forget a record marked by {@link #markIfAbsent(TxnRecordDTO)}, so a
+     * redelivered copy is admitted again. Used when the record could be neither
+     * forwarded nor dead-lettered.
+     *
+     * @return true if the record was marked in a live window
+     */
+    public boolean unmark(TxnRecordDTO dto) {
+        return unmark(dto.getTxnTimestamp().toLocalDate().toEpochDay(), dto.getTxnId(), dto.getSourceType());
+    }
+
+    /**
+     * Forget {@code txnId|sourceType} in the window of {@code epochDay}.
+     *
+     * @return true if the key was marked in a live window
+     */
+    public boolean unmark(long epochDay, String txnId, TxnRecordDTO.SourceType sourceType) {
+        DedupWindow window = windows.get(epochDay);
+        return window != null && window.remove(hash(txnId, sourceType));
+    }
+
+    /**
+     * Snapshot of occupancy for every live window, oldest first.
+     */
+    public List<WindowStats> windowStats() {
+        List<WindowStats> stats = new ArrayList<>(windows.size());
+        windows.values().stream()
+                .sorted((a, b) -> Long.compare(a.epochDay(), b.epochDay()))
+                .forEach(w -> stats.add(new WindowStats(LocalDate.ofEpochDay(w.epochDay()), w.size(), w.capacity())));
+        return stats;
+    }
+
+    /**
+     * Number of records let through because their day was outside the retained
+     * windows.
+     */
+    public long getOutOfWindowCount() {
+        return outOfWindow.sum();
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private synchronized void rollWindows() {
+        long nowMillis = clock.millis();
+        if (nowMillis < nextRollMillis) {
+            return; // another thread already rolled
+        }
+        LocalDate today = LocalDate.now(clock);
+        long todayEpoch = today.toEpochDay();
+        oldestDay = todayEpoch - (retentionDays - 1);
+        newestDay = todayEpoch + 1;
+
+        windows.keySet().removeIf(day -> {
+            if (day < oldestDay || day > newestDay) {
+                log.info("Evicting dedup window {}", LocalDate.ofEpochDay(day));
+                return true;
+            }
+            return false;
+        });
+
+        long startOfTomorrow = today.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        nextRollMillis = Math.min(startOfTomorrow, nowMillis + MILLIS_PER_DAY);
+    }
+
+    /**
+     * FNV-1a over the txnId chars, salted with the source ordinal and finished
+     * with the murmur3 fmix64 avalanche. Never returns {@link DedupWindow#EMPTY}.
+     */
+    static long hash(String txnId, TxnRecordDTO.SourceType sourceType) {
+        long h = 0xcbf29ce484222325L ^ sourceType.ordinal();
+        for (int i = 0, n = txnId.length(); i < n; i++) {
+            h ^= txnId.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == DedupWindow.EMPTY ? 1L : h;
+    }
+
+    /**
+     * Occupancy of a single settlement-day window.
+     *
+     * @param day      settlement day covered by the window
+     * @param entries  number of distinct keys stored
+     * @param capacity number of slots currently allocated
+     */
+    public record WindowStats(LocalDate day, long entries, long capacity) {
+
+        public double loadFactor() {
+            return capacity == 0 ? 0.0 : (double) entries / capacity;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.gracemann.recon.ingestionservice.file;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.parser.SchemeCsvTokenizer;
+import com.gracemann.recon.ingestionservice.processor.IngestionProcessor;
+
+/**
+ * Ingests Visa/RuPay clearing CSV files directly from disk.
+ *
+ * <p>
+ * The file is split into line-aligned chunks; each chunk is memory-mapped and
+ * tokenized on its own worker thread by {@link SchemeCsvTokenizer}, and the
+ * resulting {@code SCHEME_FILE} records are handed to
+ * {@link IngestionProcessor#processBatch} in batches, so they go through the
+ * same validation, dedup and forwarding as Kafka-delivered records.
+ * </p>
+ *
+ * <p>
+ * Progress (bytes, lines, throughput, bad lines) is logged periodically while
+ * the file is processed, and a {@link ClearingFileReport} is returned at the
+ * end.
+ * </p>
+ */
+@Component
+public class ClearingFileIngestor {
+
+    private static final Logger log = LoggerFactory.getLogger(ClearingFileIngestor.class);
+
+    /** Lines longer than this are almost certainly not clearing records. */
+    private static final int MAX_LINE_BYTES = 64 * 1024;
+    private static final int BAD_LINE_SAMPLES = 20;
+    private static final long MIN_CHUNK_BYTES = 1024 * 1024;
+
+    private final IngestionProcessor processor;
+    private final SchemeCsvTokenizer tokenizer = new SchemeCsvTokenizer();
+
+    private final int parallelism;
+    private final long maxChunkBytes;
+    private final int batchSize;
+    private final boolean retainRaw;
+    private final long progressIntervalSeconds;
+
+    public ClearingFileIngestor(IngestionProcessor processor,
+            @Value("${recon.ingestion.clearing-file.parallelism:0}") int parallelism,
+            @Value("${recon.ingestion.clearing-file.max-chunk-bytes:67108864}") long maxChunkBytes,
+            @Value("${recon.ingestion.clearing-file.batch-size:1000}") int batchSize,
+            @Value("${recon.ingestion.clearing-file.retain-raw:true}") boolean retainRaw,
+            @Value("${recon.ingestion.clearing-file.progress-interval-seconds:10}") long progressIntervalSeconds) {
+        this.processor = processor;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.maxChunkBytes = Math.min(Math.max(maxChunkBytes, MIN_CHUNK_BYTES), Integer.MAX_VALUE);
+        this.batchSize = batchSize;
+        this.retainRaw = retainRaw;
+        this.progressIntervalSeconds = progressIntervalSeconds;
+    }
+
+    /**
+     * Ingest one clearing file and block until every chunk has been processed.
+     *
+     * @throws IOException if the file cannot be read or a worker fails
+     */
+    public ClearingFileReport ingest(Path file) throws IOException {
+        long startNanos = System.nanoTime();
+        Progress progress = new Progress();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<long[]> chunks = split(channel, size);
+            log.info("Ingesting clearing file {} ({} bytes) in {} chunks on {} threads",
+                    file, size, chunks.size(), parallelism);
+
+            ExecutorService workers = Executors.newFixedThreadPool(parallelism, namedThreads("clearing-file-"));
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(
+                    namedThreads("clearing-file-progress-"));
+            reporter.scheduleAtFixedRate(() -> logProgress(file, size, progress, startNanos),
+                    progressIntervalSeconds, progressIntervalSeconds, TimeUnit.SECONDS);
+            try {
+                List<Future<?>> futures = new ArrayList<>(chunks.size());
+                for (long[] chunk : chunks) {
+                    futures.add(workers.submit(() -> {
+                        ingestChunk(channel, chunk[0], chunk[1], progress);
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while ingesting " + file, e);
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to ingest " + file + ": " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                reporter.shutdownNow();
+                workers.shutdownNow();
+            }
+
+            ClearingFileReport report = new ClearingFileReport(file, size, chunks.size(),
+                    progress.lines.sum(), progress.records.sum(), progress.badLines.sum(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            log.info("Finished clearing file: {}", report);
+            return report;
+        }
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    /**
+     * Cut the file into {@code [start, end)} ranges that each end just after a
+     * newline (or at EOF).
+     */
+    private List<long[]> split(FileChannel channel, long size) throws IOException {
+        long target = Math.max(MIN_CHUNK_BYTES, size / (parallelism * 4L) + 1);
+        long chunkBytes = Math.min(target, maxChunkBytes);
+
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(start + chunkBytes, size);
+            if (end < size) {
+                end = nextLineStart(channel, end, size, probe);
+            }
+            chunks.add(new long[] { start, end });
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size, ByteBuffer probe)
+            throws IOException {
+        long position = from;
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private void ingestChunk(FileChannel channel, long start, long end, Progress progress) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        int limit = mapped.limit();
+        byte[] line = new byte[256];
+        List<TxnRecordDTO> batch = new ArrayList<>(batchSize);
+
+        int lineStart = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i < limit && mapped.get(i) != '\n') {
+                continue;
+            }
+            int length = i - lineStart;
+            progress.bytes.add(i < limit ? length + 1 : length);
+            if (length > 0) {
+                if (length > line.length && length <= MAX_LINE_BYTES) {
+                    line = new byte[Math.min(Math.max(length, line.length * 2), MAX_LINE_BYTES)];
+                }
+                if (length > MAX_LINE_BYTES) {
+                    progress.lines.increment();
+                    badLine(progress, start + lineStart, "line longer than " + MAX_LINE_BYTES + " bytes");
+                } else {
+                    mapped.get(lineStart, line, 0, length);
+                    parseLine(line, length, start + lineStart, batch, progress);
+                }
+            }
+            if (batch.size() >= batchSize) {
+                processor.processBatch(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+            lineStart = i + 1;
+        }
+        if (!batch.isEmpty()) {
+            processor.processBatch(batch);
+        }
+    }
+
+    private void parseLine(byte[] line, int length, long fileOffset, List<TxnRecordDTO> batch, Progress progress) {
+        int to = length;
+        if (to > 0 && line[to - 1] == '\r') {
+            to--;
+        }
+        if (isBlank(line, to) || tokenizer.isHeader(line, 0, to)) {
+            return;
+        }
+        progress.lines.increment();
+        try {
+            String raw = retainRaw ? new String(line, 0, to, StandardCharsets.UTF_8) : null;
+            batch.add(tokenizer.parse(line, 0, to, raw, new TxnRecordDTO()));
+            progress.records.increment();
+        } catch (IllegalArgumentException e) {
+            badLine(progress, fileOffset, e.getMessage());
+        }
+    }
+
+    private static boolean isBlank(byte[] line, int to) {
+        for (int i = 0; i < to; i++) {
+            if (line[i] != ' ' && line[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void badLine(Progress progress, long fileOffset, String reason) {
+        progress.badLines.increment();
+        if (progress.badLineSamples.getAndIncrement() < BAD_LINE_SAMPLES) {
+            log.warn("Bad clearing line at byte {}: {}", fileOffset, reason);
+        }
+    }
+
+    private static void logProgress(Path file, long size, Progress progress, long startNanos) {
+        long bytes = progress.bytes.sum();
+        long lines = progress.lines.sum();
+        double seconds = Math.max((System.nanoTime() - startNanos) / 1e9, 1e-3);
+        log.info("Clearing file {}: {}% ({} lines, {} bad) at {} lines/s, {} MB/s",
+                file.getFileName(),
+                size == 0 ? 100 : bytes * 100 / size,
+                lines, progress.badLines.sum(),
+                Math.round(lines / seconds),
+                String.format("%.1f", bytes / (1024.0 * 1024.0) / seconds));
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** Counters shared by all chunk workers of one file. */
+    private static final class Progress {
+        final LongAdder bytes = new LongAdder();
+        final LongAdder lines = new LongAdder();
+        final LongAdder records = new LongAdder();
+        final LongAdder badLines = new LongAdder();
+        final AtomicInteger badLineSamples = new AtomicInteger();
+    }
+}
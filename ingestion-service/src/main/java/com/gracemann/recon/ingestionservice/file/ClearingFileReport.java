@@ -0,0 +1,33 @@
+package com.gracemann.recon.ingestionservice.file;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of ingesting one clearing file.
+ *
+ * @param file          the file that was ingested
+ * @param bytes         file size in bytes
+ * @param chunks        number of line-aligned chunks parsed in parallel
+ * @param lines         non-empty data lines read (header excluded)
+ * @param records       lines tokenized into records and handed to the processor
+ * @param badLines      lines that could not be tokenized
+ * @param elapsedMillis wall-clock duration of the ingestion
+ */
+public record ClearingFileReport(Path file, long bytes, int chunks, long lines, long records, long badLines,
+        long elapsedMillis) {
+
+    public double linesPerSecond() {
+        return elapsedMillis == 0 ? lines : lines * 1000.0 / elapsedMillis;
+    }
+
+    public double megabytesPerSecond() {
+        return elapsedMillis == 0 ? 0.0 : (bytes / (1024.0 * 1024.0)) * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ClearingFileReport{file=%s, bytes=%d, chunks=%d, lines=%d, records=%d, badLines=%d, "
+                + "elapsedMillis=%d, linesPerSecond=%.0f, megabytesPerSecond=%.1f}",
+                file, bytes, chunks, lines, records, badLines, elapsedMillis, linesPerSecond(), megabytesPerSecond());
+    }
+}
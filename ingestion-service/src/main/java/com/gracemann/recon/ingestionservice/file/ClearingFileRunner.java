@@ -0,0 +1,39 @@
+package com.gracemann.recon.ingestionservice.file;
+
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * File-ingestion mode: when {@code recon.ingestion.clearing-file.paths} is set
+ * (e.g. {@code --recon.ingestion.clearing-file.paths=/drops/visa.csv,/drops/rupay.csv}),
+ * each listed clearing file is ingested at startup through
+ * {@link ClearingFileIngestor}. Files are processed one after another; each
+ * file is parsed in parallel internally.
+ */
+@Component
+@ConditionalOnProperty(prefix = "recon.ingestion.clearing-file", name = "paths")
+public class ClearingFileRunner implements ApplicationRunner {
+
+    private final ClearingFileIngestor ingestor;
+    private final String[] paths;
+
+    public ClearingFileRunner(ClearingFileIngestor ingestor,
+            @Value("${recon.ingestion.clearing-file.paths}") String[] paths) {
+        this.ingestor = ingestor;
+        this.paths = paths;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        for (String path : paths) {
+            if (!path.isBlank()) {
+                ingestor.ingest(Path.of(path.trim()));
+            }
+        }
+    }
+}
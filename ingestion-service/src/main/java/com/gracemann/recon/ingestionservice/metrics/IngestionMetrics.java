@@ -1,67 +1,176 @@
 package com.gracemann.recon.ingestionservice.metrics;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
 
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import com.gracemann.recon.ingestionservice.dedup.WindowedDedupStore;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO.SourceType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
 /**
- * IngestionMetrics tracks various counters for the ingestion pipeline,
- * including:
+ * IngestionMetrics tracks the ingestion pipeline and publishes it through
+ * Micrometer (scraped by Prometheus at {@code /actuator/prometheus}):
  * <ul>
- * <li>Total transactions received</li>
- * <li>Duplicate transactions filtered</li>
- * <li>Successfully processed transactions</li>
- * <li>Errored transactions</li>
+ * <li>{@code recon.ingestion.records} – records by {@code source} and
+ * {@code outcome} (received, deduped, forwarded, retried, dead_lettered,
+ * error, skipped)</li>
+ * <li>{@code recon.ingestion.consumed} – records polled, by {@code topic} and
+ * {@code partition}</li>
+ * <li>{@code recon.ingestion.stage} – latency histogram per {@code stage}
+ * (parse, validate, dedup, forward) and {@code source}</li>
+ * <li>{@code recon.ingestion.forward.ack} – latency from send to broker ack,
+ * by {@code source} and {@code result}</li>
+ * <li>{@code recon.ingestion.dedup.window.*} – occupancy of each dedup
+ * window</li>
  * </ul>
  *
  * <p>
- * This component provides thread-safe counters for monitoring ingestion health
- * and supports integration with metrics frameworks (e.g., Micrometer) in the
- * future.
+ * Consumer lag and producer client metrics are bound separately on the Kafka
+ * factories in {@code KafkaConfig}. Counters are Micrometer's striped adders
+ * and every meter used on the hot path is resolved once up front, so listener
+ * threads never share a contended cache line or hit the registry map.
  * </p>
  *
  * <p>
- * Usage: Inject and increment counters during processing to track pipeline
- * status.
+ * Usage: Inject and record during processing to track pipeline status.
  * </p>
  *
  * @author
- * @version 1.0
+ * @version 2.0
  */
 @Component
 public class IngestionMetrics {
 
-    private final AtomicLong totalTransactions = new AtomicLong(0);
-    private final AtomicLong dedupedTransactions = new AtomicLong(0);
-    private final AtomicLong successfulTransactions = new AtomicLong(0);
-    private final AtomicLong errorTransactions = new AtomicLong(0);
+    /** Pipeline stages with their own latency timers. */
+    public enum Stage {
+        PARSE, VALIDATE, DEDUP, FORWARD
+    }
+
+    private static final String UNKNOWN_SOURCE = "UNKNOWN";
+    private static final Duration[] SLOS = {
+            Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(25), Duration.ofMillis(100) };
+
+    private final MeterRegistry registry;
+    private final WindowedDedupStore dedupStore;
+
+    private final SourceMeters unknown;
+    private final Map<SourceType, SourceMeters> bySource = new EnumMap<>(SourceType.class);
+    private final Map<String, AtomicReferenceArray<Counter>> consumedByTopic = new ConcurrentHashMap<>();
+
+    private final MultiGauge dedupEntries;
+    private final MultiGauge dedupLoad;
+
+    public IngestionMetrics(MeterRegistry registry, WindowedDedupStore dedupStore) {
+        this.registry = registry;
+        this.dedupStore = dedupStore;
+        for (SourceType source : SourceType.values()) {
+            bySource.put(source, new SourceMeters(registry, source.name()));
+        }
+        this.unknown = new SourceMeters(registry, UNKNOWN_SOURCE);
+
+        this.dedupEntries = MultiGauge.builder("recon.ingestion.dedup.window.entries")
+                .description("Distinct keys held per dedup settlement-day window")
+                .register(registry);
+        this.dedupLoad = MultiGauge.builder("recon.ingestion.dedup.window.load")
+                .description("Load factor per dedup settlement-day window")
+                .register(registry);
+        FunctionCounter.builder("recon.ingestion.dedup.out_of_window", dedupStore,
+                WindowedDedupStore::getOutOfWindowCount)
+                .description("Records let through because their day was outside the dedup windows")
+                .register(registry);
+        Gauge.builder("recon.ingestion.dedup.windows", dedupStore, s -> s.windowStats().size())
+                .description("Number of live dedup windows")
+                .register(registry);
+    }
 
     /**
      * Increment the count of total transactions received.
      */
-    public void incrementTotal() {
-        totalTransactions.incrementAndGet();
+    public void incrementTotal(SourceType source) {
+        meters(source).received.increment();
     }
 
     /**
      * Increment the count of transactions identified as duplicates and filtered.
      */
-    public void incrementDeduped() {
-        dedupedTransactions.incrementAndGet();
+    public void incrementDeduped(SourceType source) {
+        meters(source).deduped.increment();
     }
 
     /**
      * Increment the count of transactions successfully processed and forwarded.
      */
-    public void incrementSuccess() {
-        successfulTransactions.incrementAndGet();
+    public void incrementSuccess(SourceType source) {
+        meters(source).forwarded.increment();
+    }
+
+    /**
+     * Increment the count of forwarding attempts that are being retried.
+     */
+    public void incrementRetries(SourceType source) {
+        meters(source).retried.increment();
+    }
+
+    /**
+     * Increment the count of transactions parked on the dead-letter topic.
+     */
+    public void incrementDeadLettered(SourceType source) {
+        meters(source).deadLettered.increment();
     }
 
     /**
      * Increment the count of transactions that failed processing due to errors.
      */
-    public void incrementErrors() {
-        errorTransactions.incrementAndGet();
+    public void incrementErrors(SourceType source) {
+        meters(source).errors.increment();
+    }
+
+    /**
+     * Increment the count of polled records dropped without being processed,
+     * such as payloads that cannot be parsed. Each is also an error.
+     */
+    public void incrementSkipped(SourceType source) {
+        meters(source).skipped.increment();
+    }
+
+    /**
+     * Count one record polled from {@code topic}/{@code partition}.
+     */
+    public void recordConsumed(String topic, int partition) {
+        consumedCounter(topic, partition).increment();
+    }
+
+    /**
+     * Record how long one pipeline stage took for a record.
+     */
+    public void recordStage(Stage stage, SourceType source, long nanos) {
+        meters(source).stages[stage.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the latency between handing a record to the producer and the
+     * broker acknowledging (or rejecting) it.
+     */
+    public void recordForwardAck(SourceType source, long nanos, boolean acked) {
+        SourceMeters meters = meters(source);
+        (acked ? meters.ackSuccess : meters.ackFailure).record(nanos, TimeUnit.NANOSECONDS);
     }
 
     /**
@@ -70,7 +179,7 @@ public void incrementErrors() {
      * @return total transaction count
      */
     public long getTotalTransactions() {
-        return totalTransactions.get();
+        return sum(m -> m.received);
     }
 
     /**
@@ -79,7 +188,7 @@ public long getTotalTransactions() {
      * @return deduplication count
      */
     public long getDedupedTransactions() {
-        return dedupedTransactions.get();
+        return sum(m -> m.deduped);
     }
 
     /**
@@ -88,7 +197,16 @@ public long getDedupedTransactions() {
      * @return success count
      */
     public long getSuccessfulTransactions() {
-        return successfulTransactions.get();
+        return sum(m -> m.forwarded);
+    }
+
+    /**
+     * Get the number of transactions parked on the dead-letter topic.
+     *
+     * @return dead-letter count
+     */
+    public long getDeadLetteredTransactions() {
+        return sum(m -> m.deadLettered);
     }
 
     /**
@@ -97,7 +215,33 @@ public long getSuccessfulTransactions() {
      * @return error count
      */
     public long getErrorTransactions() {
-        return errorTransactions.get();
+        return sum(m -> m.errors);
+    }
+
+    /**
+     * Get the number of polled records dropped without being processed.
+     *
+     * @return skipped count
+     */
+    public long getSkippedTransactions() {
+        return sum(m -> m.skipped);
+    }
+
+    /**
+     * Re-publish per-window dedup occupancy; windows appear and disappear as
+     * settlement days roll.
+     */
+    @Scheduled(fixedDelayString = "${recon.ingestion.metrics.dedup-refresh-ms:15000}")
+    public void refreshDedupWindows() {
+        List<MultiGauge.Row<?>> entries = new ArrayList<>();
+        List<MultiGauge.Row<?>> load = new ArrayList<>();
+        for (WindowedDedupStore.WindowStats stats : dedupStore.windowStats()) {
+            Tags tags = Tags.of("day", stats.day().toString());
+            entries.add(MultiGauge.Row.of(tags, stats.entries()));
+            load.add(MultiGauge.Row.of(tags, stats.loadFactor()));
+        }
+        dedupEntries.register(entries, true);
+        dedupLoad.register(load, true);
     }
 
     @Override
@@ -106,7 +250,99 @@ public String toString() {
                 "totalTransactions=" + getTotalTransactions() +
                 ", dedupedTransactions=" + getDedupedTransactions() +
                 ", successfulTransactions=" + getSuccessfulTransactions() +
+                ", deadLetteredTransactions=" + getDeadLetteredTransactions() +
                 ", errorTransactions=" + getErrorTransactions() +
+                ", skippedTransactions=" + getSkippedTransactions() +
                 '}';
     }
+
+    /* --------------------------------------------------------------------- */
+
+    private SourceMeters meters(SourceType source) {
+        return source == null ? unknown : bySource.get(source);
+    }
+
+    private long sum(Function<SourceMeters, Counter> counter) {
+        long total = (long) counter.apply(unknown).count();
+        for (SourceMeters meters : bySource.values()) {
+            total += (long) counter.apply(meters).count();
+        }
+        return total;
+    }
+
+    private Counter consumedCounter(String topic, int partition) {
+        AtomicReferenceArray<Counter> partitions = consumedByTopic.get(topic);
+        if (partitions == null || partition >= partitions.length()) {
+            partitions = consumedByTopic.compute(topic, (t, existing) -> {
+                if (existing != null && partition < existing.length()) {
+                    return existing;
+                }
+                int length = Math.max(partition + 1, existing == null ? 16 : existing.length() * 2);
+                AtomicReferenceArray<Counter> grown = new AtomicReferenceArray<>(length);
+                for (int i = 0; existing != null && i < existing.length(); i++) {
+                    grown.set(i, existing.get(i));
+                }
+                return grown;
+            });
+        }
+        Counter counter = partitions.get(partition);
+        if (counter == null) {
+            counter = Counter.builder("recon.ingestion.consumed")
+                    .description("Records polled from Kafka")
+                    .tags("topic", topic, "partition", Integer.toString(partition))
+                    .register(registry);
+            partitions.set(partition, counter);
+        }
+        return counter;
+    }
+
+    /** Meters for one source, resolved once so the hot path never looks them up. */
+    private static final class SourceMeters {
+
+        final Counter received;
+        final Counter deduped;
+        final Counter forwarded;
+        final Counter retried;
+        final Counter deadLettered;
+        final Counter errors;
+        final Counter skipped;
+        final Timer[] stages = new Timer[Stage.values().length];
+        final Timer ackSuccess;
+        final Timer ackFailure;
+
+        SourceMeters(MeterRegistry registry, String source) {
+            received = outcome(registry, source, "received");
+            deduped = outcome(registry, source, "deduped");
+            forwarded = outcome(registry, source, "forwarded");
+            retried = outcome(registry, source, "retried");
+            deadLettered = outcome(registry, source, "dead_lettered");
+            errors = outcome(registry, source, "error");
+            skipped = outcome(registry, source, "skipped");
+            for (Stage stage : Stage.values()) {
+                stages[stage.ordinal()] = Timer.builder("recon.ingestion.stage")
+                        .description("Per-record latency of an ingestion stage")
+                        .tags("stage", stage.name().toLowerCase(), "source", source)
+                        .publishPercentileHistogram()
+                        .register(registry);
+            }
+            ackSuccess = ack(registry, source, "acked");
+            ackFailure = ack(registry, source, "failed");
+        }
+
+        private static Counter outcome(MeterRegistry registry, String source, String outcome) {
+            return Counter.builder("recon.ingestion.records")
+                    .description("Records through the ingestion pipeline by outcome")
+                    .tags("source", source, "outcome", outcome)
+                    .register(registry);
+        }
+
+        private static Timer ack(MeterRegistry registry, String source, String result) {
+            return Timer.builder("recon.ingestion.forward.ack")
+                    .description("Latency from send to broker acknowledgement")
+                    .tags("source", source, "result", result)
+                    .publishPercentileHistogram()
+                    .serviceLevelObjectives(SLOS)
+                    .register(registry);
+        }
+    }
 }
@@ -0,0 +1,167 @@
+package com.gracemann.recon.ingestionservice.parser;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Byte-level helpers shared by the hand-written record tokenizers.
+ *
+ * <p>
+ * Every method works on a {@code [from, to)} slice of a byte array and only
+ * allocates the value it returns. The common shapes (plain decimals, ISO local
+ * date-times) are decoded directly from the digits; anything unusual falls
+ * back to the JDK parser on a String so behaviour matches the old
+ * regex/Jackson path.
+ * </p>
+ */
+final class AsciiFields {
+
+    /** Longest digit run that is guaranteed to fit an unscaled long. */
+    private static final int MAX_FAST_DIGITS = 18;
+
+    private AsciiFields() {
+        // Utility class - prevent instantiation
+    }
+
+    static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    static int trimStart(byte[] buf, int from, int to) {
+        while (from < to && isSpace(buf[from])) {
+            from++;
+        }
+        return from;
+    }
+
+    static int trimEnd(byte[] buf, int from, int to) {
+        while (to > from && isSpace(buf[to - 1])) {
+            to--;
+        }
+        return to;
+    }
+
+    static boolean matches(byte[] buf, int from, int to, byte[] literal) {
+        if (to - from != literal.length) {
+            return false;
+        }
+        for (int i = 0; i < literal.length; i++) {
+            if (buf[from + i] != literal[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String string(byte[] buf, int from, int to) {
+        return new String(buf, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parse a decimal such as {@code 2500.00} or {@code -500.5}. The result has
+     * the same unscaled value and scale as {@code new BigDecimal(text)}.
+     *
+     * @throws NumberFormatException if the slice is not a number
+     */
+    static BigDecimal decimal(byte[] buf, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && buf[i] == '-') {
+            negative = true;
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenPoint = false;
+        for (; i < to; i++) {
+            byte b = buf[i];
+            if (b >= '0' && b <= '9') {
+                if (++digits > MAX_FAST_DIGITS) {
+                    return new BigDecimal(string(buf, from, to));
+                }
+                unscaled = unscaled * 10 + (b - '0');
+                if (seenPoint) {
+                    scale++;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                // exponent, '+' sign, grouping etc. - let the JDK decide
+                return new BigDecimal(string(buf, from, to));
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Not a number: '" + string(buf, from, to) + "'");
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+    }
+
+    /**
+     * Parse an ISO local date-time ({@code yyyy-MM-ddTHH:mm[:ss[.fraction]]}).
+     *
+     * @throws java.time.DateTimeException if the slice is not a valid date-time
+     */
+    static LocalDateTime isoDateTime(byte[] buf, int from, int to) {
+        int len = to - from;
+        if ((len == 16 || len >= 19)
+                && buf[from + 4] == '-' && buf[from + 7] == '-' && buf[from + 10] == 'T'
+                && buf[from + 13] == ':') {
+            int year = digits(buf, from, 4);
+            int month = digits(buf, from + 5, 2);
+            int day = digits(buf, from + 8, 2);
+            int hour = digits(buf, from + 11, 2);
+            int minute = digits(buf, from + 14, 2);
+            if ((year | month | day | hour | minute) >= 0) {
+                if (len == 16) {
+                    return LocalDateTime.of(year, month, day, hour, minute);
+                }
+                int second = buf[from + 16] == ':' ? digits(buf, from + 17, 2) : -1;
+                if (second >= 0) {
+                    if (len == 19) {
+                        return LocalDateTime.of(year, month, day, hour, minute, second);
+                    }
+                    int nanos = fraction(buf, from + 19, to);
+                    if (nanos >= 0) {
+                        return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+                    }
+                }
+            }
+        }
+        return LocalDateTime.parse(string(buf, from, to));
+    }
+
+    /**
+     * Decode {@code count} ASCII digits, or -1 if any byte is not a digit.
+     */
+    static int digits(byte[] buf, int at, int count) {
+        int value = 0;
+        for (int i = at; i < at + count; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    /**
+     * Decode {@code .fffffffff} into nanoseconds, or -1 if malformed.
+     */
+    private static int fraction(byte[] buf, int from, int to) {
+        int len = to - from - 1;
+        if (buf[from] != '.' || len < 1 || len > 9) {
+            return -1;
+        }
+        int nanos = digits(buf, from + 1, len);
+        if (nanos < 0) {
+            return -1;
+        }
+        for (int i = len; i < 9; i++) {
+            nanos *= 10;
+        }
+        return nanos;
+    }
+}
@@ -0,0 +1,199 @@
+package com.gracemann.recon.ingestionservice.parser;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+
+/**
+ * Single-pass tokenizer for the pipe-delimited ISO 8583-like messages emitted
+ * by the bank switch, e.g.
+ * {@code MTI=0200|txnId=BANK-TXN-111|cardNumber=4532...|amount=2500.00|...}.
+ *
+ * <p>
+ * The raw bytes are scanned once; each {@code key=value} pair is recognised by
+ * comparing the key bytes in place and the value is decoded straight into the
+ * target {@link TxnRecordDTO}. There is no regex split, no intermediate map and
+ * no JSON round trip, so the only allocations are the field values the DTO
+ * itself holds.
+ * </p>
+ *
+ * <p>
+ * Semantics follow {@code TestTxnProducer.parseIsoToJson}: keys and values are
+ * trimmed, unknown keys (including MTI) are ignored, the last occurrence of a
+ * key wins, a missing txnId becomes {@code MISSING_TXN_ID} and an empty amount
+ * or timestamp is left null. Unparseable amounts or timestamps raise
+ * {@link IllegalArgumentException}, which the JSON path surfaced as a
+ * deserialization error.
+ * </p>
+ *
+ * <p>
+ * Instances are stateless and thread-safe.
+ * </p>
+ */
+public class IsoMessageTokenizer {
+
+    static final String MISSING_TXN_ID = "MISSING_TXN_ID";
+
+    private static final byte PAIR_DELIMITER = '|';
+    private static final byte KEY_VALUE_SEPARATOR = '=';
+
+    private static final byte[] TXN_ID = key("txnId");
+    private static final byte[] AMOUNT = key("amount");
+    private static final byte[] CHANNEL = key("channel");
+    private static final byte[] CURRENCY = key("currency");
+    private static final byte[] AUTH_CODE = key("authCode");
+    private static final byte[] CARD_NUMBER = key("cardNumber");
+    private static final byte[] MERCHANT_ID = key("merchantId");
+    private static final byte[] TERMINAL_ID = key("terminalId");
+    private static final byte[] RESPONSE_CODE = key("responseCode");
+    private static final byte[] TXN_TIMESTAMP = key("txnTimestamp");
+
+    /**
+     * Tokenize a whole message into a new DTO.
+     *
+     * @param message raw message bytes
+     * @param raw     original message text to keep as rawSourceRecord, or null
+     *                to omit it
+     */
+    public TxnRecordDTO parse(byte[] message, String raw) {
+        return parse(message, 0, message.length, raw, new TxnRecordDTO());
+    }
+
+    /**
+     * Tokenize {@code message[offset, offset + length)} into {@code target}.
+     *
+     * <p>
+     * Every field the tokenizer owns is overwritten, so a caller may reuse one
+     * holder across messages.
+     * </p>
+     *
+     * @return {@code target}, for chaining
+     * @throws IllegalArgumentException if the message is blank or a value cannot
+     *                                  be decoded
+     */
+    public TxnRecordDTO parse(byte[] message, int offset, int length, String raw, TxnRecordDTO target) {
+        int end = offset + length;
+        if (AsciiFields.trimStart(message, offset, end) == end) {
+            throw new IllegalArgumentException("Empty ISO message");
+        }
+
+        reset(target);
+        target.setSourceType(TxnRecordDTO.SourceType.BANK_SWITCH);
+        target.setRawSourceRecord(raw);
+
+        int pairStart = offset;
+        while (pairStart <= end) {
+            int pairEnd = indexOf(message, PAIR_DELIMITER, pairStart, end);
+            int eq = indexOf(message, KEY_VALUE_SEPARATOR, pairStart, pairEnd);
+            if (eq < pairEnd) {
+                int keyFrom = AsciiFields.trimStart(message, pairStart, eq);
+                int keyTo = AsciiFields.trimEnd(message, keyFrom, eq);
+                int valueFrom = AsciiFields.trimStart(message, eq + 1, pairEnd);
+                int valueTo = AsciiFields.trimEnd(message, valueFrom, pairEnd);
+                apply(message, keyFrom, keyTo, valueFrom, valueTo, target);
+            }
+            pairStart = pairEnd + 1;
+        }
+
+        if (target.getTxnId() == null) {
+            target.setTxnId(MISSING_TXN_ID);
+        }
+        return target;
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static void apply(byte[] buf, int keyFrom, int keyTo, int from, int to, TxnRecordDTO target) {
+        // Dispatch on key length first so each pair costs at most two compares.
+        switch (keyTo - keyFrom) {
+            case 5 -> {
+                if (AsciiFields.matches(buf, keyFrom, keyTo, TXN_ID)) {
+                    target.setTxnId(AsciiFields.string(buf, from, to));
+                }
+            }
+            case 6 -> {
+                if (AsciiFields.matches(buf, keyFrom, keyTo, AMOUNT)) {
+                    target.setAmount(from == to ? null : decimal(buf, from, to));
+                }
+            }
+            case 7 -> {
+                if (AsciiFields.matches(buf, keyFrom, keyTo, CHANNEL)) {
+                    target.setChannel(AsciiFields.string(buf, from, to));
+                }
+            }
+            case 8 -> {
+                if (AsciiFields.matches(buf, keyFrom, keyTo, CURRENCY)) {
+                    target.setCurrency(AsciiFields.string(buf, from, to));
+                } else if (AsciiFields.matches(buf, keyFrom, keyTo, AUTH_CODE)) {
+                    target.setAuthCode(AsciiFields.string(buf, from, to));
+                }
+            }
+            case 10 -> {
+                if (AsciiFields.matches(buf, keyFrom, keyTo, CARD_NUMBER)) {
+                    target.setCardNumber(AsciiFields.string(buf, from, to));
+                } else if (AsciiFields.matches(buf, keyFrom, keyTo, MERCHANT_ID)) {
+                    target.setMerchantId(AsciiFields.string(buf, from, to));
+                } else if (AsciiFields.matches(buf, keyFrom, keyTo, TERMINAL_ID)) {
+                    target.setTerminalId(AsciiFields.string(buf, from, to));
+                }
+            }
+            case 12 -> {
+                if (AsciiFields.matches(buf, keyFrom, keyTo, RESPONSE_CODE)) {
+                    target.setResponseCode(AsciiFields.string(buf, from, to));
+                } else if (AsciiFields.matches(buf, keyFrom, keyTo, TXN_TIMESTAMP)) {
+                    target.setTxnTimestamp(from == to ? null : timestamp(buf, from, to));
+                }
+            }
+            default -> {
+                // MTI and unknown keys are not part of the DTO
+            }
+        }
+    }
+
+    private static BigDecimal decimal(byte[] buf, int from, int to) {
+        try {
+            return AsciiFields.decimal(buf, from, to);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount '" + AsciiFields.string(buf, from, to) + "'", e);
+        }
+    }
+
+    private static LocalDateTime timestamp(byte[] buf, int from, int to) {
+        try {
+            return AsciiFields.isoDateTime(buf, from, to);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid txnTimestamp '" + AsciiFields.string(buf, from, to) + "'", e);
+        }
+    }
+
+    private static void reset(TxnRecordDTO target) {
+        target.setTxnId(null);
+        target.setCardNumber(null);
+        target.setAmount(null);
+        target.setTxnTimestamp(null);
+        target.setCurrency(null);
+        target.setMerchantId(null);
+        target.setTerminalId(null);
+        target.setResponseCode(null);
+        target.setChannel(null);
+        target.setBatchId(null);
+        target.setSchemeName(null);
+        target.setAuthCode(null);
+    }
+
+    private static int indexOf(byte[] buf, byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf[i] == b) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static byte[] key(String name) {
+        return name.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,148 @@
+package com.gracemann.recon.ingestionservice.parser;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+
+/**
+ * Single-pass tokenizer for Visa/RuPay clearing-file CSV lines in the order
+ * {@code date,schemeName,txnId,cardNumber,amount,currency,merchantId,terminalId,responseCode,batchId}.
+ *
+ * <p>
+ * Semantics follow {@code TestTxnProducer.parseCsvToJson}: values are not
+ * trimmed, empty and missing columns become null (txnId becomes
+ * {@code MISSING_TXN_ID} when the line has fewer than three columns), and the
+ * date column accepts {@code yyyy-MM-dd} or {@code dd/MM/yyyy}, truncated to
+ * midnight. A line whose amount or date cannot be decoded raises
+ * {@link IllegalArgumentException}.
+ * </p>
+ *
+ * <p>
+ * Instances are stateless and thread-safe.
+ * </p>
+ */
+public class SchemeCsvTokenizer {
+
+    private static final byte DELIMITER = ',';
+    private static final byte[] HEADER_PREFIX = { 'd', 'a', 't', 'e', ',' };
+
+    private static final int DATE = 0;
+    private static final int SCHEME_NAME = 1;
+    private static final int TXN_ID = 2;
+    private static final int CARD_NUMBER = 3;
+    private static final int AMOUNT = 4;
+    private static final int CURRENCY = 5;
+    private static final int MERCHANT_ID = 6;
+    private static final int TERMINAL_ID = 7;
+    private static final int RESPONSE_CODE = 8;
+    private static final int BATCH_ID = 9;
+
+    /**
+     * True for the column header line that clearing files start with.
+     */
+    public boolean isHeader(byte[] line, int from, int to) {
+        return to - from >= HEADER_PREFIX.length
+                && AsciiFields.matches(line, from, from + HEADER_PREFIX.length, HEADER_PREFIX);
+    }
+
+    /**
+     * Tokenize {@code line[from, to)} (without the line terminator) into
+     * {@code target}. Every field is overwritten, so one holder may be reused.
+     *
+     * @param raw original line text to keep as rawSourceRecord, or null to omit
+     *            it
+     * @return {@code target}, for chaining
+     * @throws IllegalArgumentException if the amount or date cannot be decoded
+     */
+    public TxnRecordDTO parse(byte[] line, int from, int to, String raw, TxnRecordDTO target) {
+        target.setTxnId(IsoMessageTokenizer.MISSING_TXN_ID);
+        target.setCardNumber(null);
+        target.setAmount(null);
+        target.setTxnTimestamp(null);
+        target.setCurrency(null);
+        target.setMerchantId(null);
+        target.setTerminalId(null);
+        target.setResponseCode(null);
+        target.setChannel(null);
+        target.setBatchId(null);
+        target.setSchemeName(null);
+        target.setAuthCode(null);
+        target.setSourceType(TxnRecordDTO.SourceType.SCHEME_FILE);
+        target.setRawSourceRecord(raw);
+
+        int column = 0;
+        int start = from;
+        for (int i = from; i <= to; i++) {
+            if (i == to || line[i] == DELIMITER) {
+                apply(column++, line, start, i, target);
+                start = i + 1;
+            }
+        }
+        return target;
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static void apply(int column, byte[] buf, int from, int to, TxnRecordDTO target) {
+        if (column == TXN_ID) {
+            // parseCsvToJson keeps an empty txnId as "" rather than null
+            target.setTxnId(AsciiFields.string(buf, from, to));
+            return;
+        }
+        if (from == to) {
+            return;
+        }
+        switch (column) {
+            case DATE -> target.setTxnTimestamp(date(buf, from, to));
+            case SCHEME_NAME -> target.setSchemeName(AsciiFields.string(buf, from, to));
+            case CARD_NUMBER -> target.setCardNumber(AsciiFields.string(buf, from, to));
+            case AMOUNT -> target.setAmount(amount(buf, from, to));
+            case CURRENCY -> target.setCurrency(AsciiFields.string(buf, from, to));
+            case MERCHANT_ID -> target.setMerchantId(AsciiFields.string(buf, from, to));
+            case TERMINAL_ID -> target.setTerminalId(AsciiFields.string(buf, from, to));
+            case RESPONSE_CODE -> target.setResponseCode(AsciiFields.string(buf, from, to));
+            case BATCH_ID -> target.setBatchId(AsciiFields.string(buf, from, to));
+            default -> {
+                // extra trailing columns are ignored
+            }
+        }
+    }
+
+    private static BigDecimal amount(byte[] buf, int from, int to) {
+        try {
+            return AsciiFields.decimal(buf, from, to);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount '" + AsciiFields.string(buf, from, to) + "'", e);
+        }
+    }
+
+    /**
+     * Decode {@code yyyy-MM-dd} or {@code dd/MM/yyyy} to midnight of that day.
+     */
+    private static LocalDateTime date(byte[] buf, int from, int to) {
+        if (to - from == 10) {
+            int year = -1;
+            int month = -1;
+            int day = -1;
+            if (buf[from + 4] == '-' && buf[from + 7] == '-') {
+                year = AsciiFields.digits(buf, from, 4);
+                month = AsciiFields.digits(buf, from + 5, 2);
+                day = AsciiFields.digits(buf, from + 8, 2);
+            } else if (buf[from + 2] == '/' && buf[from + 5] == '/') {
+                year = AsciiFields.digits(buf, from + 6, 4);
+                month = AsciiFields.digits(buf, from + 3, 2);
+                day = AsciiFields.digits(buf, from, 2);
+            }
+            if ((year | month | day) >= 0) {
+                try {
+                    return LocalDateTime.of(year, month, day, 0, 0);
+                } catch (DateTimeException e) {
+                    // falls through to the error below
+                }
+            }
+        }
+        throw new IllegalArgumentException("Invalid date '" + AsciiFields.string(buf, from, to) + "'");
+    }
+}
@@ -0,0 +1,306 @@
+package com.gracemann.recon.ingestionservice.processor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.errors.RetriableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.ingestionservice.metrics.IngestionMetrics;
+import com.gracemann.recon.ingestionservice.metrics.IngestionMetrics.Stage;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Asynchronous forwarding to the match-engine topic with a bounded in-flight
+ * window.
+ *
+ * <p>
+ * {@link #submit} hands the record to {@link TxnForwarder} and returns
+ * straight away; the broker ack drives the outcome. Retriable failures are
+ * retried with exponential backoff, and records that still fail (or fail for a
+ * non-retriable reason) are parked on the dead-letter topic. The returned
+ * future completes once the record is either acked on the match-engine topic
+ * or acked on the dead-letter topic.
+ * </p>
+ *
+ * <p>
+ * At most {@code max-in-flight} records are outstanding at any time. When the
+ * window reaches the pause watermark every Kafka listener container is paused,
+ * so a slow broker stops consumption instead of filling memory; containers are
+ * resumed once the window drains to the resume watermark. If the window is
+ * full anyway (e.g. the current poll is still being processed),
+ * {@link #submit} blocks until a slot frees up.
+ * </p>
+ *
+ * <p>
+ * Acks are handled on the stage's own {@code forward-retry} thread, never on
+ * the producer's network thread: dead-lettering sends again, and a send that
+ * blocks for metadata or buffer space on the thread that completes sends
+ * would stall until {@code max.block.ms}.
+ * </p>
+ */
+@Component
+public class ForwardingStage {
+
+    private static final Logger log = LoggerFactory.getLogger(ForwardingStage.class);
+
+    /** How a submitted record left the stage. */
+    public enum Outcome {
+        FORWARDED, DEAD_LETTERED
+    }
+
+    private final TxnForwarder forwarder;
+    private final IngestionMetrics metrics;
+    private final ObjectProvider<KafkaListenerEndpointRegistry> listeners;
+
+    private final int maxInFlight;
+    private final int pauseAt;
+    private final int resumeAt;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+
+    private final Semaphore window;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean paused;
+    private final ScheduledExecutorService retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "forward-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ForwardingStage(TxnForwarder forwarder,
+            IngestionMetrics metrics,
+            ObjectProvider<KafkaListenerEndpointRegistry> listeners,
+            MeterRegistry registry,
+            @Value("${recon.ingestion.forward.max-in-flight:10000}") int maxInFlight,
+            @Value("${recon.ingestion.forward.pause-watermark:0.8}") double pauseWatermark,
+            @Value("${recon.ingestion.forward.resume-watermark:0.5}") double resumeWatermark,
+            @Value("${recon.ingestion.forward.max-attempts:5}") int maxAttempts,
+            @Value("${recon.ingestion.forward.initial-backoff-ms:100}") long initialBackoffMs,
+            @Value("${recon.ingestion.forward.max-backoff-ms:5000}") long maxBackoffMs) {
+        if (maxInFlight < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("max-in-flight and max-attempts must be >= 1");
+        }
+        if (resumeWatermark >= pauseWatermark) {
+            throw new IllegalArgumentException("resume-watermark must be below pause-watermark");
+        }
+        this.forwarder = forwarder;
+        this.metrics = metrics;
+        this.listeners = listeners;
+        this.maxInFlight = maxInFlight;
+        this.pauseAt = Math.max(1, (int) Math.ceil(maxInFlight * pauseWatermark));
+        this.resumeAt = Math.min(pauseAt - 1, (int) Math.floor(maxInFlight * resumeWatermark));
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.window = new Semaphore(maxInFlight);
+
+        Gauge.builder("recon.ingestion.forward.inflight", inFlight, AtomicInteger::get)
+                .description("Records sent to the match-engine topic and not yet acknowledged")
+                .register(registry);
+        Gauge.builder("recon.ingestion.listeners.paused", this, s -> s.paused ? 1 : 0)
+                .description("1 while listener containers are paused for forwarding backpressure")
+                .register(registry);
+    }
+
+    /**
+     * Forward one record asynchronously, blocking only while the in-flight
+     * window is full.
+     *
+     * @return future completed with the outcome, or exceptionally if the record
+     *         could be neither forwarded nor dead-lettered
+     */
+    public CompletableFuture<Outcome> submit(TxnRecordDTO dto) {
+        CompletableFuture<Outcome> result = new CompletableFuture<>();
+        try {
+            window.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            metrics.incrementErrors(dto.getSourceType());
+            result.completeExceptionally(e);
+            return result;
+        }
+        if (inFlight.incrementAndGet() >= pauseAt) {
+            updateFlowControl();
+        }
+        attempt(dto, 1, result);
+        return result;
+    }
+
+    /** Records currently between submit and final ack. */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        int pending = retries.shutdownNow().size();
+        if (pending > 0) {
+            log.warn("Dropped {} scheduled forwarding retries on shutdown", pending);
+        }
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private void attempt(TxnRecordDTO dto, int attempt, CompletableFuture<Outcome> result) {
+        SourceType source = dto.getSourceType();
+        long start = System.nanoTime();
+        CompletableFuture<RecordMetadata> sent;
+        try {
+            sent = forwarder.send(dto);
+        } catch (Exception e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        metrics.recordStage(Stage.FORWARD, source, System.nanoTime() - start);
+
+        sent.whenCompleteAsync((metadata, error) -> {
+            metrics.recordForwardAck(source, System.nanoTime() - start, error == null);
+            if (error == null) {
+                metrics.incrementSuccess(source);
+                log.debug("Forwarded {}|{} to {}-{}@{}", dto.getTxnId(), source,
+                        metadata.topic(), metadata.partition(), metadata.offset());
+                finish(result, Outcome.FORWARDED, null);
+                return;
+            }
+            Throwable cause = rootCause(error);
+            if (attempt < maxAttempts && isRetriable(error)) {
+                long backoff = backoffMs(attempt);
+                metrics.incrementRetries(source);
+                log.warn("Forwarding {}|{} failed (attempt {}/{}), retrying in {} ms: {}", dto.getTxnId(), source,
+                        attempt, maxAttempts, backoff, cause.getMessage());
+                try {
+                    retries.schedule(() -> attempt(dto, attempt + 1, result), backoff, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (RejectedExecutionException shuttingDown) {
+                    // fall through to the dead-letter topic
+                }
+            }
+            deadLetter(dto, cause, attempt, result);
+        }, this::handOff);
+    }
+
+    private void deadLetter(TxnRecordDTO dto, Throwable cause, int attempts, CompletableFuture<Outcome> result) {
+        SourceType source = dto.getSourceType();
+        log.error("Forwarding failed for {}|{} after {} attempt(s), sending to dead-letter topic: {}",
+                dto.getTxnId(), source, attempts, cause.getMessage(), cause);
+        CompletableFuture<RecordMetadata> parked;
+        try {
+            parked = forwarder.sendToDeadLetter(dto, cause, attempts);
+        } catch (Exception e) {
+            parked = CompletableFuture.failedFuture(e);
+        }
+        parked.whenCompleteAsync((metadata, error) -> {
+            if (error == null) {
+                metrics.incrementDeadLettered(source);
+                finish(result, Outcome.DEAD_LETTERED, null);
+            } else {
+                metrics.incrementErrors(source);
+                log.error("Dead-lettering failed for {}|{}, record dropped: {}", dto.getTxnId(), source,
+                        rootCause(error).getMessage(), error);
+                finish(result, null, error);
+            }
+        }, this::handOff);
+    }
+
+    /**
+     * Run an ack handler on the retry thread. Once the stage is shut down the
+     * handler runs inline, so the in-flight window is still released.
+     */
+    private void handOff(Runnable handler) {
+        try {
+            retries.execute(handler);
+        } catch (RejectedExecutionException shuttingDown) {
+            handler.run();
+        }
+    }
+
+    private void finish(CompletableFuture<Outcome> result, Outcome outcome, Throwable error) {
+        window.release();
+        if (inFlight.decrementAndGet() <= resumeAt && paused) {
+            updateFlowControl();
+        }
+        if (error == null) {
+            result.complete(outcome);
+        } else {
+            result.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * Pause or resume the listener containers according to the current window.
+     * Both watermarks are re-checked under the lock, so a pause racing with
+     * the last completion can never leave the containers paused with nothing
+     * in flight.
+     */
+    private synchronized void updateFlowControl() {
+        int current = inFlight.get();
+        if (!paused && current >= pauseAt) {
+            paused = true;
+            forEachContainer(MessageListenerContainer::pause);
+            log.warn("Forwarding window at {}/{}, pausing listener containers", current, maxInFlight);
+            current = inFlight.get();
+        }
+        if (paused && current <= resumeAt) {
+            paused = false;
+            forEachContainer(MessageListenerContainer::resume);
+            log.info("Forwarding window drained to {}/{}, resuming listener containers", current, maxInFlight);
+        }
+    }
+
+    private void forEachContainer(Consumer<MessageListenerContainer> action) {
+        KafkaListenerEndpointRegistry registry = listeners.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        for (MessageListenerContainer container : registry.getListenerContainers()) {
+            if (container.isRunning()) {
+                action.accept(container);
+            }
+        }
+    }
+
+    private long backoffMs(int attempt) {
+        long backoff = initialBackoffMs << Math.min(attempt - 1, 30);
+        return Math.min(backoff < 0 ? maxBackoffMs : backoff, maxBackoffMs);
+    }
+
+    private static boolean isRetriable(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
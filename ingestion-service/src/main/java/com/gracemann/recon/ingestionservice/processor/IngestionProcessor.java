@@ -1,21 +1,23 @@
 package com.gracemann.recon.ingestionservice.processor;
 
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gracemann.recon.ingestionservice.dedup.WindowedDedupStore;
 import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO.SourceType;
 import com.gracemann.recon.ingestionservice.metrics.IngestionMetrics;
+import com.gracemann.recon.ingestionservice.metrics.IngestionMetrics.Stage;
+import com.gracemann.recon.ingestionservice.processor.ForwardingStage.Outcome;
+import com.gracemann.recon.ingestionservice.validation.FieldViolation;
+import com.gracemann.recon.ingestionservice.validation.TxnRecordValidator;
 
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
 
 /**
  * Processes validated & deduplicated transactions and forwards them
@@ -25,69 +27,141 @@
 public class IngestionProcessor {
 
     private static final Logger log = LoggerFactory.getLogger(IngestionProcessor.class);
-    private static final String MATCH_ENGINE_TOPIC = "ingested-txn-topic";
 
-    /** Dedup by composite key = txnId|sourceType */
-    private final Set<String> dedupSet = ConcurrentHashMap.newKeySet();
+    /** Dedup by composite key = txnId|sourceType, per settlement-day window */
+    private final WindowedDedupStore dedupStore;
 
-    private final Validator validator;
+    private final TxnRecordValidator validator;
     private final IngestionMetrics metrics;
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final ForwardingStage forwarding;
 
     public IngestionProcessor(IngestionMetrics metrics,
-            KafkaTemplate<String, String> kafkaTemplate,
-            ObjectMapper objectMapper) {
+            ForwardingStage forwarding,
+            WindowedDedupStore dedupStore,
+            TxnRecordValidator validator) {
 
         this.metrics = metrics;
-        this.kafkaTemplate = kafkaTemplate;
-        this.objectMapper = objectMapper;
-
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        this.validator = factory.getValidator();
+        this.forwarding = forwarding;
+        this.dedupStore = dedupStore;
+        this.validator = validator;
     }
 
     /**
      * Validate → deduplicate → forward.
+     *
+     * <p>
+     * Forwarding is asynchronous: the record is handed to the
+     * {@link ForwardingStage} and the broker ack (or dead-lettering) is
+     * accounted for when it completes.
+     * </p>
      */
     public void process(TxnRecordDTO dto) {
-        metrics.incrementTotal();
-
-        // 1️⃣ Validation -----------------------------------------------------
-        Set<ConstraintViolation<TxnRecordDTO>> violations = validator.validate(dto);
-        if (!violations.isEmpty()) {
-            metrics.incrementErrors();
-            logValidationErrors(dto, violations);
+        if (!admit(dto)) {
             return;
         }
 
-        // 2️⃣ Deduplication (txnId + sourceType) ---------------------------
-        String dedupKey = dto.getTxnId() + "|" + dto.getSourceType();
-        if (!dedupSet.add(dedupKey)) {
-            metrics.incrementDeduped();
-            log.debug("Deduplicated: {}", dedupKey);
-            return;
+        // 3️⃣ Forward to downstream topic -----------------------------------
+        forwarding.submit(dto);
+    }
+
+    /**
+     * Validate → deduplicate → forward for a whole poll.
+     *
+     * <p>
+     * Every record is validated and deduplicated first, then all admitted
+     * records are handed to the forwarding stage together so they share
+     * producer batches. The call returns only after every record has been
+     * acknowledged on the match-engine topic or parked on the dead-letter
+     * topic, so the listener container commits the poll's offsets after the
+     * records are durable downstream. A bad record is counted and logged but
+     * never fails the rest of the batch.
+     * </p>
+     *
+     * <p>
+     * A record that could be neither forwarded nor dead-lettered is unmarked in
+     * the dedup store and the call throws once the rest of the batch has
+     * settled, so the container's error handler re-seeks the poll and the
+     * redelivered copy is admitted again instead of being dropped as a
+     * duplicate.
+     * </p>
+     *
+     * @param dtos records of one poll, in partition order
+     * @throws IllegalStateException if any admitted record was not made durable
+     */
+    public void processBatch(List<TxnRecordDTO> dtos) {
+        List<TxnRecordDTO> admitted = new ArrayList<>(dtos.size());
+        List<CompletableFuture<Outcome>> sends = new ArrayList<>(dtos.size());
+        for (TxnRecordDTO dto : dtos) {
+            if (admit(dto)) {
+                admitted.add(dto);
+                sends.add(forwarding.submit(dto));
+            }
         }
 
-        // 3️⃣ Forward to downstream topic -----------------------------------
-        try {
-            String json = objectMapper.writeValueAsString(dto);
-            kafkaTemplate.send(MATCH_ENGINE_TOPIC, dto.getTxnId(), json);
-            metrics.incrementSuccess();
-            log.info("Forwarded {} to downstream", dedupKey);
-        } catch (Exception e) {
-            metrics.incrementErrors();
-            log.error("Forwarding failed for {}: {}", dedupKey, e.getMessage(), e);
-            // TODO: retry / DLQ for prod
+        // 3️⃣ Wait for every admitted record to be acked or dead-lettered ---
+        int forwarded = 0;
+        int deadLettered = 0;
+        int failed = 0;
+        Throwable firstFailure = null;
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                if (sends.get(i).join() == Outcome.FORWARDED) {
+                    forwarded++;
+                } else {
+                    deadLettered++;
+                }
+            } catch (CompletionException e) {
+                failed++; // already counted and logged by the forwarding stage
+                dedupStore.unmark(admitted.get(i));
+                if (firstFailure == null) {
+                    firstFailure = e.getCause();
+                }
+            }
+        }
+        log.info("Forwarded {} of {} batch records to downstream ({} dead-lettered, {} failed)",
+                forwarded, dtos.size(), deadLettered, failed);
+        if (failed > 0) {
+            throw new IllegalStateException(failed + " of " + dtos.size()
+                    + " batch records could be neither forwarded nor dead-lettered", firstFailure);
         }
     }
 
     /* --------------------------------------------------------------------- */
 
-    private void logValidationErrors(TxnRecordDTO dto,
-            Set<ConstraintViolation<TxnRecordDTO>> violations) {
+    /**
+     * Count the record, then run validation and deduplication.
+     *
+     * @return true if the record should be forwarded
+     */
+    private boolean admit(TxnRecordDTO dto) {
+        SourceType source = dto.getSourceType();
+        metrics.incrementTotal(source);
+
+        // 1️⃣ Validation -----------------------------------------------------
+        long start = System.nanoTime();
+        boolean valid = validator.isValid(dto);
+        long validated = System.nanoTime();
+        metrics.recordStage(Stage.VALIDATE, source, validated - start);
+        if (!valid) {
+            metrics.incrementErrors(source);
+            logValidationErrors(dto, validator.validate(dto));
+            return false;
+        }
+
+        // 2️⃣ Deduplication (txnId + sourceType) ---------------------------
+        boolean firstSeen = dedupStore.markIfAbsent(dto);
+        metrics.recordStage(Stage.DEDUP, source, System.nanoTime() - validated);
+        if (!firstSeen) {
+            metrics.incrementDeduped(source);
+            log.debug("Deduplicated: {}|{}", dto.getTxnId(), source);
+            return false;
+        }
+        return true;
+    }
+
+    private void logValidationErrors(TxnRecordDTO dto, List<FieldViolation> violations) {
         log.warn("Validation failed for txnId {}:", dto.getTxnId());
-        violations.forEach(v -> log.warn("  {} {}", v.getPropertyPath(), v.getMessage()));
+        violations.forEach(v -> log.warn("  {} {}", v.property(), v.message()));
     }
 }
 //todo : all of this could another seperate class while into production
\ No newline at end of file
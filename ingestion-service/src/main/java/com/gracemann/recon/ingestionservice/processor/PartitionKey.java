@@ -0,0 +1,79 @@
+package com.gracemann.recon.ingestionservice.processor;
+
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+
+/**
+ * Record keys used on {@code ingested-txn-topic}, which decide the partition
+ * a leg lands on ({@code recon.ingestion.forward.partition-key}).
+ *
+ * <p>
+ * The match engine keeps one shard of open items per partition, so the two
+ * legs of a pair, and every fuzzy candidate for a leg, must share a
+ * partition. Both legs carry the same card number, so {@link #CARD_HASH}
+ * co-partitions them; {@link #TXN_ID} is the old key, kept for draining a
+ * topic written before the switch.
+ * </p>
+ */
+public enum PartitionKey {
+
+    /** Stable hash of the card number, so the PAN itself never leaves as a key. */
+    CARD_HASH("card-hash"),
+
+    /** The leg's own txnId; pairs spread over partitions. */
+    TXN_ID("txn-id");
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final String id;
+
+    PartitionKey(String id) {
+        this.id = id;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Key for one leg. Legs without a card number fall back to their txnId.
+     */
+    public String keyOf(TxnRecordDTO dto) {
+        String card = dto.getCardNumber();
+        if (this == TXN_ID || card == null || card.isEmpty()) {
+            return dto.getTxnId();
+        }
+        return cardHash(card);
+    }
+
+    /**
+     * 64-bit FNV-1a of the card number as 16 hex digits. Fixed across
+     * releases and JVMs, unlike {@link String#hashCode}, so the same card
+     * always maps to the same partition.
+     */
+    static String cardHash(String card) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < card.length(); i++) {
+            hash ^= card.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        String hex = Long.toHexString(hash);
+        return "0".repeat(16 - hex.length()) + hex;
+    }
+
+    /**
+     * Resolve a configuration value such as {@code card-hash} or
+     * {@code txn-id}.
+     */
+    public static PartitionKey fromProperty(String value) {
+        if (value == null || value.isBlank()) {
+            return CARD_HASH;
+        }
+        for (PartitionKey key : values()) {
+            if (key.id.equalsIgnoreCase(value.trim())) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Unknown partition key '" + value + "'");
+    }
+}
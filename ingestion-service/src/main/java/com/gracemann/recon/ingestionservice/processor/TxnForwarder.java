@@ -0,0 +1,114 @@
+package com.gracemann.recon.ingestionservice.processor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.serde.WireFormat;
+
+/**
+ * Sends admitted records to the match-engine topic in the configured wire
+ * format ({@code recon.ingestion.forward.format=json|binary}), keyed per
+ * {@code recon.ingestion.forward.partition-key} (see {@link PartitionKey}).
+ *
+ * <p>
+ * Both formats stamp the {@code recon-format} header, so consumers can read a
+ * topic that holds a mix of JSON and binary records while producers are
+ * switched over. Records that exhaust their retries are parked on
+ * {@code recon.ingestion.forward.dlq-topic} by {@link #sendToDeadLetter}.
+ * </p>
+ */
+@Component
+public class TxnForwarder {
+
+    static final String MATCH_ENGINE_TOPIC = "ingested-txn-topic";
+
+    /** Dead-letter record headers: failure description and attempts made. */
+    public static final String DLQ_ERROR_HEADER = "recon-dlq-error";
+    public static final String DLQ_ATTEMPTS_HEADER = "recon-dlq-attempts";
+
+    private final KafkaTemplate<String, String> jsonTemplate;
+    private final KafkaTemplate<String, TxnRecordDTO> binaryTemplate;
+    private final ObjectMapper objectMapper;
+    private final WireFormat format;
+    private final PartitionKey partitionKey;
+    private final String deadLetterTopic;
+
+    public TxnForwarder(KafkaTemplate<String, String> jsonTemplate,
+            KafkaTemplate<String, TxnRecordDTO> binaryTemplate,
+            ObjectMapper objectMapper,
+            @Value("${recon.ingestion.forward.format:json}") String format,
+            @Value("${recon.ingestion.forward.partition-key:card-hash}") String partitionKey,
+            @Value("${recon.ingestion.forward.dlq-topic:ingested-txn-dlq-topic}") String deadLetterTopic) {
+        this.jsonTemplate = jsonTemplate;
+        this.binaryTemplate = binaryTemplate;
+        this.objectMapper = objectMapper;
+        this.format = WireFormat.fromProperty(format);
+        this.partitionKey = PartitionKey.fromProperty(partitionKey);
+        this.deadLetterTopic = deadLetterTopic;
+    }
+
+    /**
+     * Send one record, keyed by its {@link PartitionKey}.
+     *
+     * @return future completed with the broker metadata once the record is acked
+     * @throws JsonProcessingException if the record cannot be written as JSON
+     */
+    public CompletableFuture<RecordMetadata> send(TxnRecordDTO dto) throws JsonProcessingException {
+        CompletableFuture<? extends SendResult<String, ?>> sent;
+        String key = partitionKey.keyOf(dto);
+        if (format == WireFormat.BINARY_V1) {
+            sent = binaryTemplate.send(MATCH_ENGINE_TOPIC, key, dto);
+        } else {
+            ProducerRecord<String, String> record = new ProducerRecord<>(MATCH_ENGINE_TOPIC, key,
+                    objectMapper.writeValueAsString(dto));
+            WireFormat.JSON.stamp(record.headers());
+            sent = jsonTemplate.send(record);
+        }
+        return sent.thenApply(SendResult::getRecordMetadata);
+    }
+
+    /**
+     * Park a record that could not be forwarded on the dead-letter topic.
+     *
+     * <p>
+     * Dead letters are always JSON so they can be inspected and replayed by
+     * hand; a record that cannot be written as JSON is parked as its raw source
+     * record instead.
+     * </p>
+     *
+     * @param cause    the last forwarding failure
+     * @param attempts number of forwarding attempts made
+     */
+    public CompletableFuture<RecordMetadata> sendToDeadLetter(TxnRecordDTO dto, Throwable cause, int attempts) {
+        String value;
+        try {
+            value = objectMapper.writeValueAsString(dto);
+        } catch (JsonProcessingException e) {
+            value = dto.getRawSourceRecord();
+        }
+        ProducerRecord<String, String> record = new ProducerRecord<>(deadLetterTopic, dto.getTxnId(), value);
+        WireFormat.JSON.stamp(record.headers());
+        record.headers().add(DLQ_ERROR_HEADER,
+                (cause.getClass().getName() + ": " + cause.getMessage()).getBytes(StandardCharsets.UTF_8));
+        record.headers().add(DLQ_ATTEMPTS_HEADER, Integer.toString(attempts).getBytes(StandardCharsets.US_ASCII));
+        return jsonTemplate.send(record).thenApply(SendResult::getRecordMetadata);
+    }
+
+    public WireFormat format() {
+        return format;
+    }
+
+    public PartitionKey partitionKey() {
+        return partitionKey;
+    }
+}
@@ -0,0 +1,274 @@
+package com.gracemann.recon.ingestionservice.serde;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+
+/**
+ * Compact, versioned binary encoding of {@link TxnRecordDTO}.
+ *
+ * <p>
+ * Layout of version 1 (all integers are unsigned LEB128 varints unless noted,
+ * signed values are zig-zag encoded):
+ * </p>
+ *
+ * <pre>
+ *   byte    magic 'R'
+ *   byte    version (1)
+ *   varint  presence bitmap, one bit per field in declaration order
+ *   ...     present fields in declaration order:
+ *             String        varint UTF-8 length + bytes
+ *             amount        zig-zag unscaled value + varint scale
+ *                           (or, with AMOUNT_AS_TEXT set, a String)
+ *             txnTimestamp  zig-zag epoch second (UTC) + varint nano
+ *             sourceType    varint ordinal
+ * </pre>
+ *
+ * <p>
+ * Field names are never written, amounts stay fixed-point and the raw source
+ * record is only encoded when requested. New fields must be appended with new
+ * bits; {@link TxnRecordDTO.SourceType} constants must only ever be appended,
+ * since ordinals are on the wire.
+ * </p>
+ *
+ * <p>
+ * Instances are stateless and thread-safe.
+ * </p>
+ */
+public class TxnRecordBinaryCodec {
+
+    public static final byte MAGIC = 'R';
+    public static final byte VERSION = 1;
+
+    private static final int TXN_ID = 1;
+    private static final int CARD_NUMBER = 1 << 1;
+    private static final int AMOUNT = 1 << 2;
+    private static final int TXN_TIMESTAMP = 1 << 3;
+    private static final int CURRENCY = 1 << 4;
+    private static final int MERCHANT_ID = 1 << 5;
+    private static final int TERMINAL_ID = 1 << 6;
+    private static final int RESPONSE_CODE = 1 << 7;
+    private static final int CHANNEL = 1 << 8;
+    private static final int BATCH_ID = 1 << 9;
+    private static final int SCHEME_NAME = 1 << 10;
+    private static final int AUTH_CODE = 1 << 11;
+    private static final int SOURCE_TYPE = 1 << 12;
+    private static final int RAW_SOURCE_RECORD = 1 << 13;
+    /** Amount does not fit a long unscaled value and is written as text. */
+    private static final int AMOUNT_AS_TEXT = 1 << 14;
+
+    private static final TxnRecordDTO.SourceType[] SOURCE_TYPES = TxnRecordDTO.SourceType.values();
+
+    /**
+     * Encode a record.
+     *
+     * @param includeRaw whether to carry rawSourceRecord
+     */
+    public byte[] encode(TxnRecordDTO dto, boolean includeRaw) {
+        BigDecimal amount = dto.getAmount();
+        boolean amountAsText = amount != null && amount.unscaledValue().bitLength() > 63;
+        String raw = includeRaw ? dto.getRawSourceRecord() : null;
+
+        int presence = (dto.getTxnId() != null ? TXN_ID : 0)
+                | (dto.getCardNumber() != null ? CARD_NUMBER : 0)
+                | (amount != null ? AMOUNT : 0)
+                | (dto.getTxnTimestamp() != null ? TXN_TIMESTAMP : 0)
+                | (dto.getCurrency() != null ? CURRENCY : 0)
+                | (dto.getMerchantId() != null ? MERCHANT_ID : 0)
+                | (dto.getTerminalId() != null ? TERMINAL_ID : 0)
+                | (dto.getResponseCode() != null ? RESPONSE_CODE : 0)
+                | (dto.getChannel() != null ? CHANNEL : 0)
+                | (dto.getBatchId() != null ? BATCH_ID : 0)
+                | (dto.getSchemeName() != null ? SCHEME_NAME : 0)
+                | (dto.getAuthCode() != null ? AUTH_CODE : 0)
+                | (dto.getSourceType() != null ? SOURCE_TYPE : 0)
+                | (raw != null ? RAW_SOURCE_RECORD : 0)
+                | (amountAsText ? AMOUNT_AS_TEXT : 0);
+
+        Writer out = new Writer(raw != null ? 128 + raw.length() * 2 : 128);
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        out.writeVarLong(presence);
+        out.writeString(dto.getTxnId());
+        out.writeString(dto.getCardNumber());
+        if (amount != null) {
+            if (amountAsText) {
+                out.writeString(amount.toString());
+            } else {
+                out.writeVarLong(zigZag(amount.unscaledValue().longValue()));
+                out.writeVarLong(zigZag(amount.scale()));
+            }
+        }
+        LocalDateTime timestamp = dto.getTxnTimestamp();
+        if (timestamp != null) {
+            out.writeVarLong(zigZag(timestamp.toEpochSecond(ZoneOffset.UTC)));
+            out.writeVarLong(timestamp.getNano());
+        }
+        out.writeString(dto.getCurrency());
+        out.writeString(dto.getMerchantId());
+        out.writeString(dto.getTerminalId());
+        out.writeString(dto.getResponseCode());
+        out.writeString(dto.getChannel());
+        out.writeString(dto.getBatchId());
+        out.writeString(dto.getSchemeName());
+        out.writeString(dto.getAuthCode());
+        if (dto.getSourceType() != null) {
+            out.writeVarLong(dto.getSourceType().ordinal());
+        }
+        out.writeString(raw);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode a record produced by {@link #encode}.
+     *
+     * @throws IllegalArgumentException if the payload is not a supported
+     *                                  version or is truncated
+     */
+    public TxnRecordDTO decode(byte[] data) {
+        if (data == null || data.length < 2 || data[0] != MAGIC) {
+            throw new IllegalArgumentException("Not a binary TxnRecord payload");
+        }
+        if (data[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary TxnRecord version " + data[1]);
+        }
+        try {
+            Reader in = new Reader(data, 2);
+            long presence = in.readVarLong();
+            TxnRecordDTO dto = new TxnRecordDTO();
+            dto.setTxnId(in.readString(presence, TXN_ID));
+            dto.setCardNumber(in.readString(presence, CARD_NUMBER));
+            if ((presence & AMOUNT) != 0) {
+                if ((presence & AMOUNT_AS_TEXT) != 0) {
+                    dto.setAmount(new BigDecimal(in.readString(presence, AMOUNT)));
+                } else {
+                    long unscaled = unZigZag(in.readVarLong());
+                    int scale = (int) unZigZag(in.readVarLong());
+                    dto.setAmount(BigDecimal.valueOf(unscaled, scale));
+                }
+            }
+            if ((presence & TXN_TIMESTAMP) != 0) {
+                long epochSecond = unZigZag(in.readVarLong());
+                int nano = (int) in.readVarLong();
+                dto.setTxnTimestamp(LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC));
+            }
+            dto.setCurrency(in.readString(presence, CURRENCY));
+            dto.setMerchantId(in.readString(presence, MERCHANT_ID));
+            dto.setTerminalId(in.readString(presence, TERMINAL_ID));
+            dto.setResponseCode(in.readString(presence, RESPONSE_CODE));
+            dto.setChannel(in.readString(presence, CHANNEL));
+            dto.setBatchId(in.readString(presence, BATCH_ID));
+            dto.setSchemeName(in.readString(presence, SCHEME_NAME));
+            dto.setAuthCode(in.readString(presence, AUTH_CODE));
+            if ((presence & SOURCE_TYPE) != 0) {
+                int ordinal = (int) in.readVarLong();
+                if (ordinal >= SOURCE_TYPES.length) {
+                    throw new IllegalArgumentException("Unknown sourceType ordinal " + ordinal);
+                }
+                dto.setSourceType(SOURCE_TYPES[ordinal]);
+            }
+            dto.setRawSourceRecord(in.readString(presence, RAW_SOURCE_RECORD));
+            return dto;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated binary TxnRecord payload", e);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid txnTimestamp in binary TxnRecord payload", e);
+        }
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Writer {
+
+        private byte[] buf;
+        private int pos;
+
+        Writer(int initialSize) {
+            this.buf = new byte[initialSize];
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            buf[pos++] = (byte) b;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] buf;
+        private int pos;
+
+        Reader(byte[] buf, int pos) {
+            this.buf = buf;
+            this.pos = pos;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buf[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        String readString(long presence, int bit) {
+            if ((presence & bit) == 0) {
+                return null;
+            }
+            int length = (int) readVarLong();
+            if (length < 0 || pos + length > buf.length) {
+                throw new IllegalArgumentException("Truncated binary TxnRecord payload");
+            }
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+    }
+}
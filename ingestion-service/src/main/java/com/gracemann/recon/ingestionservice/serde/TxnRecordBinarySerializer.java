@@ -0,0 +1,45 @@
+package com.gracemann.recon.ingestionservice.serde;
+
+import java.util.Map;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+
+/**
+ * Kafka value serializer writing {@link TxnRecordBinaryCodec} payloads and
+ * stamping the {@value WireFormat#HEADER} header.
+ *
+ * <p>
+ * Set {@value #INCLUDE_RAW_CONFIG} to {@code true} in the producer config to
+ * carry rawSourceRecord on the wire (off by default).
+ * </p>
+ */
+public class TxnRecordBinarySerializer implements Serializer<TxnRecordDTO> {
+
+    /** Producer property: whether to encode rawSourceRecord. */
+    public static final String INCLUDE_RAW_CONFIG = "recon.serde.include-raw";
+
+    private final TxnRecordBinaryCodec codec = new TxnRecordBinaryCodec();
+    private boolean includeRaw;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object value = configs.get(INCLUDE_RAW_CONFIG);
+        includeRaw = value != null && Boolean.parseBoolean(value.toString());
+    }
+
+    @Override
+    public byte[] serialize(String topic, TxnRecordDTO data) {
+        return data == null ? null : codec.encode(data, includeRaw);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, TxnRecordDTO data) {
+        if (headers != null) {
+            WireFormat.BINARY_V1.stamp(headers);
+        }
+        return serialize(topic, data);
+    }
+}
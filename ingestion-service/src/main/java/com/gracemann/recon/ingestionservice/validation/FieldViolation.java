@@ -0,0 +1,12 @@
+package com.gracemann.recon.ingestionservice.validation;
+
+/**
+ * One failed constraint on a TxnRecordDTO field.
+ *
+ * @param property        field name, as in {@code ConstraintViolation.getPropertyPath()}
+ * @param messageTemplate Jakarta message template, e.g.
+ *                        {@code {jakarta.validation.constraints.NotNull.message}}
+ * @param message         interpolated (English) message
+ */
+public record FieldViolation(String property, String messageTemplate, String message) {
+}
@@ -0,0 +1,99 @@
+package com.gracemann.recon.ingestionservice.validation;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+
+/**
+ * Hand-specialized validator for the constraints declared on
+ * {@link TxnRecordDTO}.
+ *
+ * <p>
+ * It checks the same {@code @NotNull}, {@code @Size} and {@code @Positive}
+ * rules as Hibernate Validator, with the same null handling ({@code @Size} and
+ * {@code @Positive} treat null as valid) and the same message templates, but
+ * without reflection or metadata lookups. A valid record allocates nothing:
+ * the shared empty list is returned.
+ * </p>
+ *
+ * <p>
+ * Keep this class in sync with the annotations on TxnRecordDTO;
+ * {@code TxnRecordValidatorConformanceTest} compares both against the test
+ * corpora.
+ * </p>
+ */
+@Component
+public class TxnRecordValidator {
+
+    static final String NOT_NULL = "{jakarta.validation.constraints.NotNull.message}";
+    static final String SIZE = "{jakarta.validation.constraints.Size.message}";
+    static final String POSITIVE = "{jakarta.validation.constraints.Positive.message}";
+
+    private static final String NOT_NULL_MESSAGE = "must not be null";
+    private static final String POSITIVE_MESSAGE = "must be greater than 0";
+
+    private static final int CARD_NUMBER_MIN = 8;
+    private static final int CARD_NUMBER_MAX = 19;
+    private static final int CURRENCY_LENGTH = 3;
+
+    /**
+     * Validate all constraints of the record.
+     *
+     * @return the violations, or an empty immutable list when the record is valid
+     */
+    public List<FieldViolation> validate(TxnRecordDTO dto) {
+        if (isValid(dto)) {
+            return List.of();
+        }
+        List<FieldViolation> violations = new ArrayList<>(4);
+        if (dto.getTxnId() == null) {
+            violations.add(new FieldViolation("txnId", NOT_NULL, NOT_NULL_MESSAGE));
+        }
+        checkString(violations, "cardNumber", dto.getCardNumber(), CARD_NUMBER_MIN, CARD_NUMBER_MAX);
+        BigDecimal amount = dto.getAmount();
+        if (amount == null) {
+            violations.add(new FieldViolation("amount", NOT_NULL, NOT_NULL_MESSAGE));
+        } else if (amount.signum() <= 0) {
+            violations.add(new FieldViolation("amount", POSITIVE, POSITIVE_MESSAGE));
+        }
+        if (dto.getTxnTimestamp() == null) {
+            violations.add(new FieldViolation("txnTimestamp", NOT_NULL, NOT_NULL_MESSAGE));
+        }
+        checkString(violations, "currency", dto.getCurrency(), CURRENCY_LENGTH, CURRENCY_LENGTH);
+        if (dto.getSourceType() == null) {
+            violations.add(new FieldViolation("sourceType", NOT_NULL, NOT_NULL_MESSAGE));
+        }
+        return violations;
+    }
+
+    /**
+     * Allocation-free check of all constraints.
+     */
+    public boolean isValid(TxnRecordDTO dto) {
+        String cardNumber = dto.getCardNumber();
+        String currency = dto.getCurrency();
+        BigDecimal amount = dto.getAmount();
+        return dto.getTxnId() != null
+                && cardNumber != null
+                && cardNumber.length() >= CARD_NUMBER_MIN && cardNumber.length() <= CARD_NUMBER_MAX
+                && amount != null && amount.signum() > 0
+                && dto.getTxnTimestamp() != null
+                && currency != null && currency.length() == CURRENCY_LENGTH
+                && dto.getSourceType() != null;
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static void checkString(List<FieldViolation> violations, String property, String value, int min,
+            int max) {
+        if (value == null) {
+            violations.add(new FieldViolation(property, NOT_NULL, NOT_NULL_MESSAGE));
+        } else if (value.length() < min || value.length() > max) {
+            violations.add(new FieldViolation(property, SIZE, "size must be between " + min + " and " + max));
+        }
+    }
+}
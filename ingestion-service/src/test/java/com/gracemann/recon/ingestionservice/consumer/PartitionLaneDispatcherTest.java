@@ -0,0 +1,85 @@
+package com.gracemann.recon.ingestionservice.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+class PartitionLaneDispatcherTest {
+
+    @Test
+    void containerModeRunsThePollInline() {
+        PartitionLaneDispatcher dispatcher = new PartitionLaneDispatcher("container", 1, true);
+        List<ConsumerRecord<String, String>> poll = poll(4, 3);
+        Thread caller = Thread.currentThread();
+
+        dispatcher.dispatch(poll, lane -> {
+            assertSame(caller, Thread.currentThread());
+            assertEquals(poll, lane);
+        });
+    }
+
+    @Test
+    void partitionsRunConcurrentlyAndInOffsetOrder() {
+        PartitionLaneDispatcher dispatcher = new PartitionLaneDispatcher("partition-lanes", 1, true);
+        List<ConsumerRecord<String, String>> poll = poll(30, 3);
+        CountDownLatch allLanesStarted = new CountDownLatch(3);
+        Map<Integer, List<Long>> seen = new ConcurrentHashMap<>();
+
+        dispatcher.dispatch(poll, lane -> {
+            allLanesStarted.countDown();
+            try {
+                // only completes if all three lanes are running at the same time
+                assertTrue(allLanesStarted.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            assertTrue(Thread.currentThread().isVirtual());
+            for (ConsumerRecord<String, String> record : lane) {
+                seen.computeIfAbsent(record.partition(), p -> new ArrayList<>()).add(record.offset());
+            }
+        });
+
+        assertEquals(3, seen.size());
+        seen.values().forEach(offsets -> {
+            assertEquals(10, offsets.size());
+            for (int i = 1; i < offsets.size(); i++) {
+                assertTrue(offsets.get(i - 1) < offsets.get(i));
+            }
+        });
+    }
+
+    @Test
+    void laneFailureSurfacesAfterAllLanesFinish() {
+        PartitionLaneDispatcher dispatcher = new PartitionLaneDispatcher("partition-lanes", 2, true);
+        AtomicInteger processed = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> dispatcher.dispatch(poll(40, 2), lane -> {
+            processed.addAndGet(lane.size());
+            if (lane.get(0).partition() == 0) {
+                throw new IllegalArgumentException("boom");
+            }
+        }));
+        assertEquals(40, processed.get());
+    }
+
+    private static List<ConsumerRecord<String, String>> poll(int records, int partitions) {
+        List<ConsumerRecord<String, String>> poll = new ArrayList<>();
+        for (int i = 0; i < records; i++) {
+            int partition = i % partitions;
+            poll.add(new ConsumerRecord<>("bank-txn-topic", partition, i / partitions, "TXN-" + i, "{}"));
+        }
+        return poll;
+    }
+}
@@ -0,0 +1,122 @@
+package com.gracemann.recon.ingestionservice.dedup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO.SourceType;
+
+class WindowedDedupStoreTest {
+
+    private static final ZoneId UTC = ZoneOffset.UTC;
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 20);
+
+    private final MutableClock clock = new MutableClock(TODAY.atStartOfDay(UTC).toInstant().plusSeconds(3600));
+
+    @Test
+    void detectsDuplicatesPerSourceType() {
+        WindowedDedupStore store = new WindowedDedupStore(clock, 3, 16);
+        long day = TODAY.toEpochDay();
+
+        assertTrue(store.markIfAbsent(day, "BANK-TXN-111", SourceType.BANK_SWITCH));
+        assertFalse(store.markIfAbsent(day, "BANK-TXN-111", SourceType.BANK_SWITCH));
+        assertTrue(store.markIfAbsent(day, "BANK-TXN-111", SourceType.SCHEME_FILE));
+    }
+
+    @Test
+    void growsBeyondInitialCapacity() {
+        WindowedDedupStore store = new WindowedDedupStore(clock, 1, 16);
+        long day = TODAY.toEpochDay();
+        for (int i = 0; i < 50_000; i++) {
+            assertTrue(store.markIfAbsent(day, "TXN-" + i, SourceType.BANK_SWITCH));
+        }
+        for (int i = 0; i < 50_000; i++) {
+            assertFalse(store.markIfAbsent(day, "TXN-" + i, SourceType.BANK_SWITCH));
+        }
+        List<WindowedDedupStore.WindowStats> stats = store.windowStats();
+        assertEquals(1, stats.size());
+        assertEquals(50_000, stats.get(0).entries());
+        assertTrue(stats.get(0).loadFactor() < 0.71);
+    }
+
+    @Test
+    void unmarkedKeysAreAdmittedAgainWithoutLosingTheirNeighbours() {
+        WindowedDedupStore store = new WindowedDedupStore(clock, 1, 16);
+        long day = TODAY.toEpochDay();
+        for (int i = 0; i < 10_000; i++) {
+            store.markIfAbsent(day, "TXN-" + i, SourceType.BANK_SWITCH);
+        }
+        for (int i = 0; i < 10_000; i += 3) {
+            assertTrue(store.unmark(day, "TXN-" + i, SourceType.BANK_SWITCH));
+        }
+        assertFalse(store.unmark(day, "TXN-0", SourceType.BANK_SWITCH));
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i % 3 == 0, store.markIfAbsent(day, "TXN-" + i, SourceType.BANK_SWITCH), "TXN-" + i);
+        }
+        assertEquals(10_000, store.windowStats().get(0).entries());
+    }
+
+    @Test
+    void dropsWindowsThatLeaveTheRetentionHorizon() {
+        WindowedDedupStore store = new WindowedDedupStore(clock, 2, 16);
+        long yesterday = TODAY.minusDays(1).toEpochDay();
+        assertTrue(store.markIfAbsent(yesterday, "TXN-1", SourceType.SCHEME_FILE));
+        assertTrue(store.markIfAbsent(TODAY.toEpochDay(), "TXN-2", SourceType.SCHEME_FILE));
+        assertEquals(2, store.windowStats().size());
+
+        clock.advanceDays(1);
+
+        // yesterday's window is gone, so the key is no longer checked
+        assertTrue(store.markIfAbsent(yesterday, "TXN-1", SourceType.SCHEME_FILE));
+        assertEquals(1, store.getOutOfWindowCount());
+        assertEquals(List.of(TODAY), store.windowStats().stream().map(WindowedDedupStore.WindowStats::day).toList());
+        assertFalse(store.markIfAbsent(TODAY.toEpochDay(), "TXN-2", SourceType.SCHEME_FILE));
+    }
+
+    @Test
+    void letsFarFutureDaysThroughWithoutOpeningWindows() {
+        WindowedDedupStore store = new WindowedDedupStore(clock, 3, 16);
+        long farFuture = TODAY.plusYears(5).toEpochDay();
+        assertTrue(store.markIfAbsent(farFuture, "TXN-1", SourceType.BANK_SWITCH));
+        assertTrue(store.markIfAbsent(farFuture, "TXN-1", SourceType.BANK_SWITCH));
+        assertEquals(2, store.getOutOfWindowCount());
+        assertTrue(store.windowStats().isEmpty());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advanceDays(int days) {
+            now = now.plusSeconds(days * 86_400L);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
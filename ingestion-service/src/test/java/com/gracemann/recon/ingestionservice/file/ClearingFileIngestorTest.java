@@ -0,0 +1,58 @@
+package com.gracemann.recon.ingestionservice.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.processor.IngestionProcessor;
+
+class ClearingFileIngestorTest {
+
+    private static final int LINES = 40_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void parsesEveryLineAcrossChunksExactlyOnce() throws Exception {
+        StringBuilder csv = new StringBuilder("date,schemeName,txnId,cardNumber,amount,currency\r\n");
+        for (int i = 0; i < LINES; i++) {
+            if (i % 1000 == 0) {
+                csv.append("2024-06-20,VISA,BAD-").append(i).append(",4111111111111111,abc,INR\n\n");
+            } else {
+                csv.append("2024-06-20,VISA,TXN-").append(i)
+                        .append(",4532123456789012,2500.00,INR,MERCH-101,TERM-101,00,BATCH-001\r\n");
+            }
+        }
+        Path file = Files.writeString(dir.resolve("visa.csv"), csv);
+
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        IngestionProcessor processor = mock(IngestionProcessor.class);
+        doAnswer(invocation -> {
+            List<TxnRecordDTO> batch = invocation.getArgument(0);
+            batch.forEach(dto -> assertTrue(seen.add(dto.getTxnId()), dto.getTxnId()));
+            return null;
+        }).when(processor).processBatch(anyList());
+
+        ClearingFileIngestor ingestor = new ClearingFileIngestor(processor, 4, 1, 500, false, 60);
+        ClearingFileReport report = ingestor.ingest(file);
+
+        assertTrue(report.chunks() > 1, "file should be split into several chunks");
+        assertEquals(LINES, report.lines());
+        assertEquals(LINES / 1000, report.badLines());
+        assertEquals(LINES - LINES / 1000, report.records());
+        assertEquals(report.records(), seen.size());
+    }
+}
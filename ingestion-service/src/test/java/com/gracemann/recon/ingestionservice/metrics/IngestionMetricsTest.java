@@ -0,0 +1,72 @@
+package com.gracemann.recon.ingestionservice.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import com.gracemann.recon.ingestionservice.dedup.WindowedDedupStore;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.ingestionservice.metrics.IngestionMetrics.Stage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IngestionMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final WindowedDedupStore dedupStore = new WindowedDedupStore(3, 16);
+    private final IngestionMetrics metrics = new IngestionMetrics(registry, dedupStore);
+
+    @Test
+    void countsOutcomesPerSource() {
+        metrics.incrementTotal(SourceType.BANK_SWITCH);
+        metrics.incrementTotal(SourceType.SCHEME_FILE);
+        metrics.incrementTotal(null);
+        metrics.incrementDeduped(SourceType.BANK_SWITCH);
+        metrics.incrementSuccess(SourceType.SCHEME_FILE);
+        metrics.incrementErrors(null);
+        metrics.incrementSkipped(SourceType.BANK_SWITCH);
+
+        assertEquals(3, metrics.getTotalTransactions());
+        assertEquals(1, metrics.getDedupedTransactions());
+        assertEquals(1, metrics.getSuccessfulTransactions());
+        assertEquals(1, metrics.getErrorTransactions());
+        assertEquals(1, metrics.getSkippedTransactions());
+        assertEquals(1.0, registry.get("recon.ingestion.records")
+                .tags("source", "SCHEME_FILE", "outcome", "received").counter().count());
+        assertEquals(1.0, registry.get("recon.ingestion.records")
+                .tags("source", "UNKNOWN", "outcome", "error").counter().count());
+        assertEquals(1.0, registry.get("recon.ingestion.records")
+                .tags("source", "BANK_SWITCH", "outcome", "skipped").counter().count());
+    }
+
+    @Test
+    void countsConsumedPerTopicPartition() {
+        for (int i = 0; i < 3; i++) {
+            metrics.recordConsumed("bank-txn-topic", 0);
+        }
+        metrics.recordConsumed("bank-txn-topic", 40);
+
+        assertEquals(3.0, registry.get("recon.ingestion.consumed")
+                .tags("topic", "bank-txn-topic", "partition", "0").counter().count());
+        assertEquals(1.0, registry.get("recon.ingestion.consumed")
+                .tags("topic", "bank-txn-topic", "partition", "40").counter().count());
+    }
+
+    @Test
+    void recordsStageLatencyAndDedupWindows() {
+        metrics.recordStage(Stage.PARSE, SourceType.BANK_SWITCH, 2_000);
+        metrics.recordForwardAck(SourceType.BANK_SWITCH, 1_000_000, true);
+        dedupStore.markIfAbsent(LocalDate.now().toEpochDay(), "TXN-1", SourceType.BANK_SWITCH);
+        metrics.refreshDedupWindows();
+
+        assertEquals(1, registry.get("recon.ingestion.stage")
+                .tags("stage", "parse", "source", "BANK_SWITCH").timer().count());
+        assertEquals(1, registry.get("recon.ingestion.forward.ack")
+                .tags("source", "BANK_SWITCH", "result", "acked").timer().count());
+        assertNotNull(registry.get("recon.ingestion.dedup.window.entries")
+                .tag("day", LocalDate.now().toString()).gauge());
+    }
+}
@@ -0,0 +1,81 @@
+package com.gracemann.recon.ingestionservice.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.producer.RawIsoTestMessages;
+import com.gracemann.recon.ingestionservice.producer.TestTxnProducer;
+
+class IsoMessageTokenizerTest {
+
+    private final IsoMessageTokenizer tokenizer = new IsoMessageTokenizer();
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void agreesWithJsonPathOnTestCorpus() throws Exception {
+        for (String iso : RawIsoTestMessages.ALL_MESSAGES) {
+            TxnRecordDTO expected = mapper.readValue(TestTxnProducer.parseIsoToJson(iso), TxnRecordDTO.class);
+            TxnRecordDTO actual = tokenizer.parse(iso.getBytes(StandardCharsets.UTF_8), iso);
+            assertEquals(expected.toString(), actual.toString(), iso);
+        }
+    }
+
+    @Test
+    void trimsAndDefaultsLikeJsonPath() {
+        TxnRecordDTO dto = parse(" MTI = 0200 | cardNumber = 4111111111111111 |amount=|authCode=|bogus");
+
+        assertEquals(IsoMessageTokenizer.MISSING_TXN_ID, dto.getTxnId());
+        assertEquals("4111111111111111", dto.getCardNumber());
+        assertNull(dto.getAmount());
+        assertEquals("", dto.getAuthCode());
+        assertNull(dto.getRawSourceRecord());
+        assertSame(TxnRecordDTO.SourceType.BANK_SWITCH, dto.getSourceType());
+    }
+
+    @Test
+    void decodesAmountAndTimestampVariants() {
+        TxnRecordDTO dto = parse("txnId=T1|amount=-12.345|txnTimestamp=2024-06-20T14:30:15.25");
+        assertEquals(new BigDecimal("-12.345"), dto.getAmount());
+        assertEquals(LocalDateTime.of(2024, 6, 20, 14, 30, 15, 250_000_000), dto.getTxnTimestamp());
+
+        dto = parse("txnId=T2|amount=1E+3|txnTimestamp=2024-06-20T14:30");
+        assertEquals(new BigDecimal("1E+3"), dto.getAmount());
+        assertEquals(LocalDateTime.of(2024, 6, 20, 14, 30), dto.getTxnTimestamp());
+    }
+
+    @Test
+    void reusesHolderWithoutLeakingFields() {
+        TxnRecordDTO holder = new TxnRecordDTO();
+        byte[] first = "txnId=T1|channel=POS|amount=1.00".getBytes(StandardCharsets.UTF_8);
+        byte[] second = "txnId=T2".getBytes(StandardCharsets.UTF_8);
+
+        tokenizer.parse(first, 0, first.length, null, holder);
+        tokenizer.parse(second, 0, second.length, null, holder);
+
+        assertEquals("T2", holder.getTxnId());
+        assertNull(holder.getChannel());
+        assertNull(holder.getAmount());
+    }
+
+    @Test
+    void rejectsBlankAndUndecodableMessages() {
+        assertThrows(IllegalArgumentException.class, () -> parse("   "));
+        assertThrows(IllegalArgumentException.class, () -> parse("txnId=T1|amount=12a"));
+        assertThrows(IllegalArgumentException.class, () -> parse("txnId=T1|txnTimestamp=2024-13-40T00:00:00"));
+    }
+
+    private TxnRecordDTO parse(String message) {
+        return tokenizer.parse(message.getBytes(StandardCharsets.UTF_8), null);
+    }
+}
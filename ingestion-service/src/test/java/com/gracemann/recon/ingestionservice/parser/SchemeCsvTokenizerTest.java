@@ -0,0 +1,49 @@
+package com.gracemann.recon.ingestionservice.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.producer.RawCsvTestMessages;
+import com.gracemann.recon.ingestionservice.producer.TestTxnProducer;
+
+class SchemeCsvTokenizerTest {
+
+    private final SchemeCsvTokenizer tokenizer = new SchemeCsvTokenizer();
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void agreesWithJsonPathOnTestCorpus() throws Exception {
+        for (String csv : RawCsvTestMessages.ALL_MESSAGES) {
+            byte[] line = csv.getBytes(StandardCharsets.UTF_8);
+            if (csv.isEmpty() || tokenizer.isHeader(line, 0, line.length)) {
+                continue;
+            }
+            TxnRecordDTO expected = mapper.readValue(TestTxnProducer.parseCsvToJson(csv), TxnRecordDTO.class);
+            TxnRecordDTO actual = tokenizer.parse(line, 0, line.length, csv, new TxnRecordDTO());
+            assertEquals(expected.toString(), actual.toString(), csv);
+        }
+    }
+
+    @Test
+    void detectsHeaderAndRejectsBadColumns() {
+        byte[] header = RawCsvTestMessages.CSV_HEADER.getBytes(StandardCharsets.UTF_8);
+        assertTrue(tokenizer.isHeader(header, 0, header.length));
+
+        assertThrows(IllegalArgumentException.class, () -> parse("2024-06-20,VISA,T1,4111111111111111,12x,INR"));
+        assertThrows(IllegalArgumentException.class, () -> parse("2024-02-30,VISA,T1,4111111111111111,1.00,INR"));
+        assertThrows(IllegalArgumentException.class, () -> parse("June 20,VISA,T1,4111111111111111,1.00,INR"));
+    }
+
+    private TxnRecordDTO parse(String csv) {
+        byte[] line = csv.getBytes(StandardCharsets.UTF_8);
+        return tokenizer.parse(line, 0, line.length, null, new TxnRecordDTO());
+    }
+}
@@ -0,0 +1,157 @@
+package com.gracemann.recon.ingestionservice.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import com.gracemann.recon.ingestionservice.dedup.WindowedDedupStore;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.ingestionservice.metrics.IngestionMetrics;
+import com.gracemann.recon.ingestionservice.processor.ForwardingStage.Outcome;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ForwardingStageTest {
+
+    private static final RecordMetadata ACK = new RecordMetadata(new TopicPartition("ingested-txn-topic", 0),
+            0, 0, 0, 0, 0);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final IngestionMetrics metrics = new IngestionMetrics(registry, new WindowedDedupStore(1, 16));
+    private final TxnForwarder forwarder = mock(TxnForwarder.class);
+    private final KafkaListenerEndpointRegistry listeners = mock(KafkaListenerEndpointRegistry.class);
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+
+    @Test
+    void countsSuccessOnAck() throws Exception {
+        when(forwarder.send(any())).thenReturn(CompletableFuture.completedFuture(ACK));
+        ForwardingStage stage = stage(10, 3);
+
+        assertEquals(Outcome.FORWARDED, stage.submit(record("TXN-1")).get(1, TimeUnit.SECONDS));
+        assertEquals(1, metrics.getSuccessfulTransactions());
+        assertEquals(0, stage.inFlight());
+    }
+
+    @Test
+    void retriesRetriableFailuresWithBackoff() throws Exception {
+        when(forwarder.send(any()))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("broker slow")))
+                .thenReturn(CompletableFuture.completedFuture(ACK));
+        ForwardingStage stage = stage(10, 3);
+
+        assertEquals(Outcome.FORWARDED, stage.submit(record("TXN-1")).get(1, TimeUnit.SECONDS));
+        assertEquals(1, metrics.getSuccessfulTransactions());
+        assertEquals(1.0, registry.get("recon.ingestion.records")
+                .tags("source", "BANK_SWITCH", "outcome", "retried").counter().count());
+        verify(forwarder, never()).sendToDeadLetter(any(), any(), anyInt());
+    }
+
+    @Test
+    void deadLettersAfterExhaustedOrNonRetriableFailures() throws Exception {
+        when(forwarder.send(any())).thenReturn(CompletableFuture.failedFuture(new TimeoutException("down")));
+        when(forwarder.sendToDeadLetter(any(), any(), anyInt())).thenReturn(CompletableFuture.completedFuture(ACK));
+        ForwardingStage stage = stage(10, 3);
+
+        assertEquals(Outcome.DEAD_LETTERED, stage.submit(record("TXN-1")).get(1, TimeUnit.SECONDS));
+        verify(forwarder).sendToDeadLetter(any(), any(TimeoutException.class), eq(3));
+
+        when(forwarder.send(any())).thenReturn(CompletableFuture.failedFuture(new RecordTooLargeException("big")));
+        assertEquals(Outcome.DEAD_LETTERED, stage.submit(record("TXN-2")).get(1, TimeUnit.SECONDS));
+        verify(forwarder).sendToDeadLetter(any(), any(RecordTooLargeException.class),
+                eq(1));
+        assertEquals(2, metrics.getDeadLetteredTransactions());
+        assertEquals(0, metrics.getSuccessfulTransactions());
+    }
+
+    @Test
+    void deadLettersOffTheThreadThatCompletedTheSend() throws Exception {
+        CompletableFuture<RecordMetadata> sent = new CompletableFuture<>();
+        AtomicReference<String> deadLetterThread = new AtomicReference<>();
+        when(forwarder.send(any())).thenReturn(sent);
+        when(forwarder.sendToDeadLetter(any(), any(), anyInt())).thenAnswer(invocation -> {
+            deadLetterThread.set(Thread.currentThread().getName());
+            return CompletableFuture.completedFuture(ACK);
+        });
+        ForwardingStage stage = stage(10, 1);
+
+        CompletableFuture<Outcome> outcome = stage.submit(record("TXN-1"));
+        Thread producerIo = new Thread(() -> sent.completeExceptionally(new RecordTooLargeException("big")),
+                "kafka-producer-network-thread");
+        producerIo.start();
+        producerIo.join();
+
+        assertEquals(Outcome.DEAD_LETTERED, outcome.get(1, TimeUnit.SECONDS));
+        assertEquals("forward-retry", deadLetterThread.get());
+    }
+
+    @Test
+    void pausesListenersAtHighWatermarkAndResumesWhenDrained() throws Exception {
+        List<CompletableFuture<RecordMetadata>> acks = List.of(new CompletableFuture<>(), new CompletableFuture<>(),
+                new CompletableFuture<>());
+        when(forwarder.send(any())).thenReturn(acks.get(0), acks.get(1), acks.get(2));
+        when(listeners.getListenerContainers()).thenReturn(List.of(container));
+        when(container.isRunning()).thenReturn(true);
+        ForwardingStage stage = stage(4, 1); // pause at 3 in flight, resume at 1
+
+        stage.submit(record("TXN-1"));
+        stage.submit(record("TXN-2"));
+        verify(container, never()).pause();
+        stage.submit(record("TXN-3"));
+        verify(container).pause();
+        assertTrue(stage.isPaused());
+
+        acks.get(0).complete(ACK);
+        awaitInFlight(stage, 2);
+        verify(container, never()).resume();
+        acks.get(1).complete(ACK);
+        verify(container, timeout(1000)).resume();
+        assertFalse(stage.isPaused());
+    }
+
+    /** Acks are handled on the retry thread, so wait for the window to drain. */
+    private static void awaitInFlight(ForwardingStage stage, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (stage.inFlight() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, stage.inFlight());
+    }
+
+    private ForwardingStage stage(int maxInFlight, int maxAttempts) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<KafkaListenerEndpointRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(listeners);
+        return new ForwardingStage(forwarder, metrics, provider, registry, maxInFlight, 0.75, 0.25, maxAttempts, 1,
+                10);
+    }
+
+    private static TxnRecordDTO record(String txnId) {
+        TxnRecordDTO dto = new TxnRecordDTO();
+        dto.setTxnId(txnId);
+        dto.setSourceType(SourceType.BANK_SWITCH);
+        return dto;
+    }
+}
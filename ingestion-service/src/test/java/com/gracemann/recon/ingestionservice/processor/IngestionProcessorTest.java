@@ -0,0 +1,73 @@
+package com.gracemann.recon.ingestionservice.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Test;
+
+import com.gracemann.recon.ingestionservice.dedup.WindowedDedupStore;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.ingestionservice.metrics.IngestionMetrics;
+import com.gracemann.recon.ingestionservice.processor.ForwardingStage.Outcome;
+import com.gracemann.recon.ingestionservice.validation.TxnRecordValidator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IngestionProcessorTest {
+
+    private final WindowedDedupStore dedupStore = new WindowedDedupStore(3, 16);
+    private final IngestionMetrics metrics = new IngestionMetrics(new SimpleMeterRegistry(), dedupStore);
+    private final ForwardingStage forwarding = mock(ForwardingStage.class);
+    private final TxnRecordValidator validator = mock(TxnRecordValidator.class);
+    private final IngestionProcessor processor = new IngestionProcessor(metrics, forwarding, dedupStore, validator);
+
+    @Test
+    void batchWaitsForEveryRecordToBeForwardedOrDeadLettered() {
+        when(validator.isValid(any())).thenReturn(true);
+        when(forwarding.submit(any())).thenReturn(
+                CompletableFuture.completedFuture(Outcome.FORWARDED),
+                CompletableFuture.completedFuture(Outcome.DEAD_LETTERED));
+
+        processor.processBatch(List.of(record("TXN-1"), record("TXN-2"), record("TXN-1")));
+
+        assertEquals(1, metrics.getDedupedTransactions());
+    }
+
+    @Test
+    void failedRecordsFailTheBatchAndAreAdmittedAgainOnRedelivery() {
+        when(validator.isValid(any())).thenReturn(true);
+        when(forwarding.submit(any())).thenReturn(
+                CompletableFuture.completedFuture(Outcome.FORWARDED),
+                CompletableFuture.failedFuture(new TimeoutException("dead-letter topic down")));
+        List<TxnRecordDTO> poll = List.of(record("TXN-1"), record("TXN-2"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> processor.processBatch(poll));
+        assertEquals(TimeoutException.class, e.getCause().getClass());
+
+        // The error handler re-seeks the poll: TXN-1 is durable downstream, TXN-2 is retried.
+        when(forwarding.submit(any())).thenReturn(CompletableFuture.completedFuture(Outcome.FORWARDED));
+        processor.processBatch(poll);
+
+        assertEquals(1, metrics.getDedupedTransactions());
+        verify(forwarding, times(3)).submit(any());
+    }
+
+    private static TxnRecordDTO record(String txnId) {
+        TxnRecordDTO dto = new TxnRecordDTO();
+        dto.setTxnId(txnId);
+        dto.setSourceType(SourceType.BANK_SWITCH);
+        dto.setTxnTimestamp(LocalDateTime.now());
+        return dto;
+    }
+}
@@ -0,0 +1,51 @@
+package com.gracemann.recon.ingestionservice.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO.SourceType;
+
+class PartitionKeyTest {
+
+    @Test
+    void bothLegsOfAPairShareTheCardHashKey() {
+        TxnRecordDTO bank = leg("BANK-TXN-1", "4532015112830366", SourceType.BANK_SWITCH);
+        TxnRecordDTO scheme = leg("SCHEME-TXN-9", "4532015112830366", SourceType.SCHEME_FILE);
+
+        String key = PartitionKey.CARD_HASH.keyOf(bank);
+        assertEquals(key, PartitionKey.CARD_HASH.keyOf(scheme));
+        assertEquals(16, key.length());
+        assertFalse(key.contains("4532015112830366"));
+        assertNotEquals(key, PartitionKey.CARD_HASH.keyOf(leg("BANK-TXN-2", "4532015112830367",
+                SourceType.BANK_SWITCH)));
+        // fixed across releases: changing it would move every open item to another shard
+        assertEquals("3ca2d8967fdeed89", PartitionKey.cardHash("4532015112830366"));
+    }
+
+    @Test
+    void fallsBackToTxnId() {
+        assertEquals("BANK-TXN-1", PartitionKey.CARD_HASH.keyOf(leg("BANK-TXN-1", null, SourceType.BANK_SWITCH)));
+        assertEquals("BANK-TXN-1", PartitionKey.TXN_ID.keyOf(leg("BANK-TXN-1", "4532015112830366",
+                SourceType.BANK_SWITCH)));
+    }
+
+    @Test
+    void resolvesProperty() {
+        assertEquals(PartitionKey.CARD_HASH, PartitionKey.fromProperty(null));
+        assertEquals(PartitionKey.TXN_ID, PartitionKey.fromProperty(" TXN-ID "));
+        assertThrows(IllegalArgumentException.class, () -> PartitionKey.fromProperty("pan"));
+    }
+
+    private static TxnRecordDTO leg(String txnId, String card, SourceType source) {
+        TxnRecordDTO dto = new TxnRecordDTO();
+        dto.setTxnId(txnId);
+        dto.setCardNumber(card);
+        dto.setSourceType(source);
+        return dto;
+    }
+}
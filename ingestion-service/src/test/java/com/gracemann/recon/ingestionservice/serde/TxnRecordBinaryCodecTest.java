@@ -0,0 +1,105 @@
+package com.gracemann.recon.ingestionservice.serde;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.parser.IsoMessageTokenizer;
+import com.gracemann.recon.ingestionservice.parser.SchemeCsvTokenizer;
+import com.gracemann.recon.ingestionservice.producer.RawCsvTestMessages;
+import com.gracemann.recon.ingestionservice.producer.RawIsoTestMessages;
+
+class TxnRecordBinaryCodecTest {
+
+    private final TxnRecordBinaryCodec codec = new TxnRecordBinaryCodec();
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void roundTripsTestCorpusAndIsSmallerThanJson() throws Exception {
+        for (TxnRecordDTO dto : corpus()) {
+            byte[] binary = codec.encode(dto, true);
+            assertEquals(dto.toString(), codec.decode(binary).toString());
+
+            byte[] json = mapper.writeValueAsBytes(dto);
+            byte[] lean = codec.encode(dto, false);
+            assertTrue(lean.length * 3 < json.length, lean.length + " vs " + json.length);
+            assertNull(codec.decode(lean).getRawSourceRecord());
+        }
+    }
+
+    @Test
+    void keepsPrecisionForExtremeValues() {
+        TxnRecordDTO dto = new TxnRecordDTO();
+        dto.setAmount(new BigDecimal("123456789012345678901234567890.123"));
+        dto.setTxnTimestamp(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_999));
+
+        TxnRecordDTO decoded = codec.decode(codec.encode(dto, false));
+
+        assertEquals(dto.getAmount(), decoded.getAmount());
+        assertEquals(dto.getTxnTimestamp(), decoded.getTxnTimestamp());
+        assertNull(decoded.getTxnId());
+        assertNull(decoded.getSourceType());
+    }
+
+    @Test
+    void deserializerSwitchesOnFormatHeader() throws Exception {
+        TxnRecordDTO dto = corpus().get(0);
+        TxnRecordBinarySerializer serializer = new TxnRecordBinarySerializer();
+        serializer.configure(Map.of(TxnRecordBinarySerializer.INCLUDE_RAW_CONFIG, "true"), false);
+        TxnRecordDeserializer deserializer = new TxnRecordDeserializer();
+
+        RecordHeaders binaryHeaders = new RecordHeaders();
+        byte[] binary = serializer.serialize("t", binaryHeaders, dto);
+        assertEquals(WireFormat.BINARY_V1, WireFormat.of(binaryHeaders));
+        assertEquals(dto.toString(), deserializer.deserialize("t", binaryHeaders, binary).toString());
+
+        byte[] legacyJson = mapper.writeValueAsBytes(dto);
+        assertEquals(dto.toString(), deserializer.deserialize("t", new RecordHeaders(), legacyJson).toString());
+
+        RecordHeaders unknown = new RecordHeaders();
+        unknown.add(WireFormat.HEADER, "avro".getBytes(StandardCharsets.US_ASCII));
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("t", unknown, binary));
+    }
+
+    @Test
+    void rejectsForeignOrTruncatedPayloads() {
+        byte[] encoded = codec.encode(corpus().get(0), false);
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 3);
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decode("{}".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(truncated));
+    }
+
+    private static List<TxnRecordDTO> corpus() {
+        List<TxnRecordDTO> dtos = new ArrayList<>();
+        IsoMessageTokenizer iso = new IsoMessageTokenizer();
+        for (String message : RawIsoTestMessages.ALL_MESSAGES) {
+            dtos.add(iso.parse(message.getBytes(StandardCharsets.UTF_8), message));
+        }
+        SchemeCsvTokenizer csv = new SchemeCsvTokenizer();
+        for (String line : RawCsvTestMessages.ALL_MESSAGES) {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            if (line.isEmpty() || csv.isHeader(bytes, 0, bytes.length)) {
+                continue;
+            }
+            dtos.add(csv.parse(bytes, 0, bytes.length, line, new TxnRecordDTO()));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,142 @@
+package com.gracemann.recon.ingestionservice.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gracemann.recon.ingestionservice.dto.TxnRecordDTO;
+import com.gracemann.recon.ingestionservice.producer.RawCsvTestMessages;
+import com.gracemann.recon.ingestionservice.producer.RawIsoTestMessages;
+import com.gracemann.recon.ingestionservice.producer.TestTxnProducer;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+/**
+ * Proves {@link TxnRecordValidator} reports exactly what Hibernate Validator
+ * reports for the ISO and CSV test corpora, plus single-field mutations of
+ * every corpus record.
+ */
+class TxnRecordValidatorConformanceTest {
+
+    private static Locale previousLocale;
+    private static ValidatorFactory factory;
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final TxnRecordValidator compiled = new TxnRecordValidator();
+
+    @BeforeAll
+    static void englishMessages() {
+        previousLocale = Locale.getDefault();
+        Locale.setDefault(Locale.ENGLISH);
+        factory = Validation.buildDefaultValidatorFactory();
+    }
+
+    @AfterAll
+    static void restoreLocale() {
+        factory.close();
+        Locale.setDefault(previousLocale);
+    }
+
+    @Test
+    void agreesWithHibernateValidatorOnCorpora() throws Exception {
+        Validator reference = factory.getValidator();
+        List<TxnRecordDTO> cases = corpus();
+        int mutations = cases.size();
+        for (int i = 0; i < mutations; i++) {
+            cases.addAll(mutationsOf(cases.get(i)));
+        }
+
+        int invalid = 0;
+        for (TxnRecordDTO dto : cases) {
+            Set<String> expected = reference.validate(dto).stream()
+                    .map(v -> v.getPropertyPath() + "|" + v.getMessageTemplate() + "|" + v.getMessage())
+                    .collect(Collectors.toSet());
+            List<FieldViolation> actual = compiled.validate(dto);
+            Set<String> actualKeys = actual.stream()
+                    .map(v -> v.property() + "|" + v.messageTemplate() + "|" + v.message())
+                    .collect(Collectors.toSet());
+
+            assertEquals(expected, actualKeys, dto.toString());
+            assertEquals(actual.size(), actualKeys.size(), "no duplicate violations");
+            assertEquals(expected.isEmpty(), compiled.isValid(dto), dto.toString());
+            if (!expected.isEmpty()) {
+                invalid++;
+            }
+        }
+        assertTrue(invalid > 0 && invalid < cases.size(), "corpus should mix valid and invalid records");
+    }
+
+    @Test
+    void validRecordReturnsSharedEmptyList() throws Exception {
+        TxnRecordDTO dto = parseIso(RawIsoTestMessages.POS_PURCHASE_SUCCESS);
+        assertSame(compiled.validate(dto), compiled.validate(dto));
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private List<TxnRecordDTO> corpus() throws Exception {
+        List<TxnRecordDTO> dtos = new ArrayList<>();
+        for (String iso : RawIsoTestMessages.ALL_MESSAGES) {
+            dtos.add(parseIso(iso));
+        }
+        for (String csv : RawCsvTestMessages.ALL_MESSAGES) {
+            if (csv.isEmpty() || csv.startsWith("date,")) {
+                continue;
+            }
+            dtos.add(mapper.readValue(TestTxnProducer.parseCsvToJson(csv), TxnRecordDTO.class));
+        }
+        return dtos;
+    }
+
+    private TxnRecordDTO parseIso(String iso) throws Exception {
+        return mapper.readValue(TestTxnProducer.parseIsoToJson(iso), TxnRecordDTO.class);
+    }
+
+    private List<TxnRecordDTO> mutationsOf(TxnRecordDTO base) throws Exception {
+        List<Consumer<TxnRecordDTO>> edits = List.of(
+                d -> d.setTxnId(null),
+                d -> d.setCardNumber(null),
+                d -> d.setCardNumber("1234567"),
+                d -> d.setCardNumber("12345678"),
+                d -> d.setCardNumber("1234567890123456789"),
+                d -> d.setCardNumber("12345678901234567890"),
+                d -> d.setAmount(null),
+                d -> d.setAmount(BigDecimal.ZERO),
+                d -> d.setAmount(new BigDecimal("0.00")),
+                d -> d.setAmount(new BigDecimal("-0.01")),
+                d -> d.setAmount(new BigDecimal("0.0001")),
+                d -> d.setTxnTimestamp(null),
+                d -> d.setCurrency(null),
+                d -> d.setCurrency(""),
+                d -> d.setCurrency("INRR"),
+                d -> d.setSourceType(null),
+                d -> {
+                    d.setTxnId(null);
+                    d.setCurrency("IN");
+                    d.setAmount(BigDecimal.ONE.negate());
+                });
+        List<TxnRecordDTO> mutated = new ArrayList<>(edits.size());
+        for (Consumer<TxnRecordDTO> edit : edits) {
+            TxnRecordDTO copy = mapper.readValue(mapper.writeValueAsBytes(base), TxnRecordDTO.class);
+            edit.accept(copy);
+            mutated.add(copy);
+        }
+        return mutated;
+    }
+}
@@ -0,0 +1,454 @@
+package com.gracemann.recon.matchengine.batch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.gracemann.recon.matchengine.dto.MatchedPairDTO.MatchType;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.matching.EventTimeAging;
+import com.gracemann.recon.matchengine.matching.FuzzyScorer;
+import com.gracemann.recon.matchengine.matching.MatchRules;
+import com.gracemann.recon.matchengine.matching.MatchedPair;
+import com.gracemann.recon.matchengine.matching.OpenItem;
+import com.gracemann.recon.matchengine.matching.StreamingMatcher;
+import com.gracemann.recon.matchengine.publisher.ExceptionCandidatePublisher;
+import com.gracemann.recon.matchengine.publisher.MatchedPairPublisher;
+import com.gracemann.recon.matchengine.serde.TxnRecordBinaryCodec;
+
+/**
+ * End-of-day re-run: reconciles a full settlement day in one pass and
+ * publishes the same pairs and exception candidates as streaming mode.
+ *
+ * <p>
+ * Phases, each timed in the {@link BatchReport}:
+ * </p>
+ * <ol>
+ * <li>load – legs are read (files in parallel, one task per file) and
+ * spilled to {@code partitions} bucket files by card hash, so both legs of a
+ * pair and every fuzzy candidate share a bucket;</li>
+ * <li>match – {@code parallelism} fork-join workers take the buckets in
+ * order, read each back, sort it by event time, source and txnId and feed it
+ * to a fresh {@link StreamingMatcher}; whatever is still open afterwards has
+ * no counterpart in the day;</li>
+ * <li>publish – bucket by bucket, in bucket order, pairs and exception
+ * candidates are sent and awaited while the workers match the next
+ * buckets.</li>
+ * </ol>
+ *
+ * <p>
+ * Legs wait for matching on disk in the binary wire encoding rather than in
+ * the heap, and workers run at most {@code 2 x parallelism} buckets ahead of
+ * the publisher, so memory is bounded by a few buckets, not by the day.
+ * Spill files live in a directory per run under {@code spill-dir} (the
+ * system temp dir by default) and are removed when the run ends.
+ * </p>
+ *
+ * <p>
+ * Buckets share nothing, so matching scales with the workers, and the
+ * result depends only on the legs, not on thread timing: the same input
+ * always yields the same pairs in the same order.
+ * </p>
+ */
+@Component
+public class BatchReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchReconciler.class);
+
+    private static final int LOCK_STRIPES = 16;
+    private static final Comparator<TxnRecordDTO> EVENT_ORDER = Comparator
+            .comparingLong(BatchReconciler::eventTime)
+            .thenComparing(TxnRecordDTO::getSourceType, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(TxnRecordDTO::getTxnId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final FuzzyScorer scorer;
+    private final MatchRules rules;
+    private final MatchedPairPublisher pairPublisher;
+    private final ExceptionCandidatePublisher exceptionPublisher;
+    private final ObjectReader jsonReader;
+    private final TxnRecordBinaryCodec codec = new TxnRecordBinaryCodec();
+    private final int parallelism;
+    private final int partitions;
+    private final Path spillDir;
+
+    public BatchReconciler(FuzzyScorer scorer, MatchRules rules, MatchedPairPublisher pairPublisher,
+            ExceptionCandidatePublisher exceptionPublisher, ObjectMapper objectMapper,
+            @Value("${recon.match.batch.parallelism:0}") int parallelism,
+            @Value("${recon.match.batch.partitions:0}") int partitions,
+            @Value("${recon.match.batch.spill-dir:}") String spillDir) {
+        this.scorer = scorer;
+        this.rules = rules;
+        this.pairPublisher = pairPublisher;
+        this.exceptionPublisher = exceptionPublisher;
+        this.jsonReader = objectMapper.readerFor(TxnRecordDTO.class);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        // a few buckets per worker even out skewed cards
+        this.partitions = partitions > 0 ? partitions : 4 * this.parallelism;
+        this.spillDir = Path.of(spillDir.isBlank() ? System.getProperty("java.io.tmpdir") : spillDir);
+    }
+
+    /**
+     * Reconcile legs from JSON-lines files, one {@link TxnRecordDTO} per
+     * line as on {@code ingested-txn-topic}.
+     *
+     * @throws IOException if a file cannot be read or holds a line that is
+     *                     not a record
+     */
+    public BatchReport reconcileFiles(List<Path> files) throws IOException {
+        Path runDir = createRunDir();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long start = System.nanoTime();
+            List<ForkJoinTask<Spill>> reads = new ArrayList<>();
+            for (int i = 0; i < files.size(); i++) {
+                Spill spill = new Spill(runDir.resolve("file-" + i));
+                Path file = files.get(i);
+                reads.add(pool.submit(() -> read(file, spill)));
+            }
+            List<Spill> spills = new ArrayList<>(reads.size());
+            for (ForkJoinTask<Spill> read : reads) {
+                spills.add(join(read));
+            }
+            return run(files.toString(), spills, start, pool);
+        } finally {
+            pool.shutdownNow();
+            delete(runDir);
+        }
+    }
+
+    /**
+     * Reconcile legs read by {@code loader}, e.g. a range of
+     * {@code ingested-txn-topic}. The loader calls its sink from one thread.
+     *
+     * @throws UncheckedIOException if the legs cannot be spilled
+     */
+    public BatchReport reconcile(String source, LegLoader loader) {
+        try {
+            Path runDir = createRunDir();
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                long start = System.nanoTime();
+                Spill spill = new Spill(runDir.resolve("loader"));
+                try (spill) {
+                    loader.load(spill::add);
+                }
+                return run(source, List.of(spill), start, pool);
+            } finally {
+                pool.shutdownNow();
+                delete(runDir);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Batch " + source + " cannot be spilled to " + spillDir, e);
+        }
+    }
+
+    /** Reads the legs of a batch run. */
+    @FunctionalInterface
+    public interface LegLoader {
+        void load(Consumer<TxnRecordDTO> sink);
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private BatchReport run(String source, List<Spill> spills, long start, ForkJoinPool pool) throws IOException {
+        long loaded = System.nanoTime();
+        long legs = spills.stream().mapToLong(Spill::size).sum();
+        long maxEventTime = spills.stream().mapToLong(Spill::maxEventTime).max().orElse(Long.MIN_VALUE);
+        log.info("Batch {}: loaded {} legs into {} partitions in {} ms", source, legs, partitions,
+                millis(start, loaded));
+
+        // 1️⃣ Match, a bounded window of buckets ahead of the publisher --------
+        List<CompletableFuture<BucketResult>> results = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            results.add(new CompletableFuture<>());
+        }
+        Semaphore window = new Semaphore(2 * parallelism);
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong matched = new AtomicLong(loaded);
+        for (int w = 0; w < parallelism; w++) {
+            pool.execute(() -> matchBuckets(spills, results, window, next, matched));
+        }
+
+        // 2️⃣ Publish, in bucket order ------------------------------------------
+        long publishedAt = System.currentTimeMillis();
+        long exact = 0;
+        long fuzzy = 0;
+        long exceptions = 0;
+        long rejected = 0;
+        long failed = 0;
+        for (CompletableFuture<BucketResult> bucket : results) {
+            BucketResult result = join(bucket);
+            List<CompletableFuture<?>> sends = new ArrayList<>(result.pairs().size() + result.open().size());
+            try {
+                for (MatchedPair pair : result.pairs()) {
+                    sends.add(pairPublisher.publish(pair, publishedAt));
+                    if (pair.type() == MatchType.EXACT) {
+                        exact++;
+                    } else {
+                        fuzzy++;
+                    }
+                }
+                for (OpenItem item : result.open()) {
+                    sends.add(exceptionPublisher.publish(item, maxEventTime, publishedAt));
+                }
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Batch " + source + " result cannot be written: " + e.getMessage(), e);
+            }
+            for (CompletableFuture<?> send : sends) {
+                if (send.handle((ack, error) -> error == null).join() == Boolean.FALSE) {
+                    failed++;
+                }
+            }
+            exceptions += result.open().size();
+            rejected += result.rejected();
+            window.release();
+        }
+        long published = System.nanoTime();
+        if (failed > 0) {
+            log.error("Batch {}: {} of {} results were not acked", source, failed, exact + fuzzy + exceptions);
+        }
+
+        BatchReport report = new BatchReport(source, legs, rejected, partitions, parallelism, exact, fuzzy,
+                exceptions, failed, millis(start, loaded), millis(loaded, matched.get()),
+                millis(matched.get(), published));
+        log.info("Batch reconciliation finished: {}", report);
+        return report;
+    }
+
+    /**
+     * Worker loop: claims the next bucket once the window has room, so
+     * buckets are matched in order and none waits on a later one.
+     */
+    private void matchBuckets(List<Spill> spills, List<CompletableFuture<BucketResult>> results,
+            Semaphore window, AtomicInteger next, AtomicLong matched) {
+        while (true) {
+            try {
+                window.acquire();
+            } catch (InterruptedException e) {
+                // the run failed and the pool is shutting down
+                Thread.currentThread().interrupt();
+                return;
+            }
+            int bucket = next.getAndIncrement();
+            if (bucket >= partitions) {
+                window.release();
+                return;
+            }
+            try {
+                List<TxnRecordDTO> legs = new ArrayList<>();
+                for (Spill spill : spills) {
+                    spill.drain(bucket, legs::add);
+                }
+                results.get(bucket).complete(match(legs));
+                matched.accumulateAndGet(System.nanoTime(), Math::max);
+            } catch (IOException e) {
+                results.get(bucket).completeExceptionally(new UncheckedIOException(e));
+            } catch (RuntimeException | Error e) {
+                results.get(bucket).completeExceptionally(e);
+            }
+        }
+    }
+
+    private Spill read(Path file, Spill spill) {
+        try (spill; BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            long number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    spill.add(jsonReader.readValue(line));
+                } catch (JsonProcessingException e) {
+                    throw new IOException(file + " line " + number + " is not a TxnRecord: " + e.getOriginalMessage(),
+                            e);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return spill;
+    }
+
+    private BucketResult match(List<TxnRecordDTO> legs) {
+        legs.sort(EVENT_ORDER);
+        StreamingMatcher matcher = new StreamingMatcher(scorer, rules, EventTimeAging.disabled(), LOCK_STRIPES);
+        List<MatchedPair> pairs = new ArrayList<>();
+        long rejected = 0;
+        for (TxnRecordDTO leg : legs) {
+            try {
+                MatchedPair pair = matcher.offer(leg, eventTime(leg)).pair();
+                if (pair != null) {
+                    pairs.add(pair);
+                }
+            } catch (IllegalArgumentException e) {
+                rejected++;
+                log.debug("Batch leg {} rejected: {}", leg.getTxnId(), e.getMessage());
+            }
+        }
+        List<OpenItem> open = new ArrayList<>();
+        matcher.forEachStripe((stripe, items) -> open.addAll(items));
+        return new BucketResult(pairs, open, rejected);
+    }
+
+    private static long eventTime(TxnRecordDTO leg) {
+        return leg.getTxnTimestamp() == null ? 0L : leg.getTxnTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static long millis(long fromNanos, long toNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(toNanos - fromNanos);
+    }
+
+    private static <T> T join(ForkJoinTask<T> task) throws IOException {
+        try {
+            return task.join();
+        } catch (RuntimeException e) {
+            throw rethrowIo(e);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> result) throws IOException {
+        try {
+            return result.join();
+        } catch (RuntimeException e) {
+            throw rethrowIo(e);
+        }
+    }
+
+    private static RuntimeException rethrowIo(RuntimeException e) throws IOException {
+        // join may rethrow a copy of the task's exception wrapping the original
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+        }
+        return e;
+    }
+
+    private Path createRunDir() throws IOException {
+        return Files.createTempDirectory(Files.createDirectories(spillDir), "batch-");
+    }
+
+    private static void delete(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Batch spill dir {} could not be removed: {}", dir, e.getMessage());
+        }
+    }
+
+    private record BucketResult(List<MatchedPair> pairs, List<OpenItem> open, long rejected) {
+    }
+
+    /**
+     * Legs of one file (or loader) spread over bucket files by card hash,
+     * each a sequence of length-prefixed {@link TxnRecordBinaryCodec}
+     * records. Written by one thread, then drained bucket by bucket.
+     */
+    private final class Spill implements Closeable {
+
+        private final Path dir;
+        private final DataOutputStream[] out;
+        private long size;
+        private long maxEventTime = Long.MIN_VALUE;
+
+        Spill(Path dir) {
+            this.dir = dir;
+            this.out = new DataOutputStream[partitions];
+        }
+
+        void add(TxnRecordDTO leg) {
+            String card = leg.getCardNumber();
+            // String.hashCode is fixed by the spec, so runs partition alike
+            int partition = card == null ? 0 : Math.floorMod(card.hashCode(), partitions);
+            byte[] bytes = codec.encode(leg, true);
+            try {
+                if (out[partition] == null) {
+                    Files.createDirectories(dir);
+                    out[partition] = new DataOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(file(partition)), 16 * 1024));
+                }
+                out[partition].writeInt(bytes.length);
+                out[partition].write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            size++;
+            maxEventTime = Math.max(maxEventTime, eventTime(leg));
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (DataOutputStream stream : out) {
+                if (stream != null) {
+                    stream.close();
+                }
+            }
+        }
+
+        /** Reads a bucket back into {@code sink} and removes its file. */
+        void drain(int partition, Consumer<TxnRecordDTO> sink) throws IOException {
+            if (out[partition] == null) {
+                return;
+            }
+            Path file = file(partition);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                while (true) {
+                    int length;
+                    try {
+                        length = in.readInt();
+                    } catch (EOFException end) {
+                        break;
+                    }
+                    byte[] bytes = new byte[length];
+                    in.readFully(bytes);
+                    sink.accept(codec.decode(bytes));
+                }
+            }
+            Files.delete(file);
+        }
+
+        long size() {
+            return size;
+        }
+
+        long maxEventTime() {
+            return maxEventTime;
+        }
+
+        private Path file(int partition) {
+            return dir.resolve("bucket-" + partition + ".bin");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.gracemann.recon.matchengine.batch;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Batch mode: with {@code recon.match.batch.enabled=true} the match engine
+ * does not start its listeners but reconciles one settlement day through
+ * {@link BatchReconciler} and exits, reading either JSON-lines files or a
+ * timestamp range of {@code ingested-txn-topic}:
+ *
+ * <pre>
+ * --recon.match.batch.enabled=true --recon.match.batch.files=/eod/bank.jsonl,/eod/scheme.jsonl
+ * --recon.match.batch.enabled=true --recon.match.batch.from=2025-06-01T00:00:00Z
+ *         --recon.match.batch.to=2025-06-03T00:00:00Z
+ * </pre>
+ *
+ * <p>
+ * The exit code is 0 once every result is published, 1 otherwise.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "recon.match.batch", name = "enabled", havingValue = "true")
+public class BatchReconciliationRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchReconciliationRunner.class);
+
+    private final BatchReconciler reconciler;
+    private final TopicRangeReader topicReader;
+    private final ConfigurableApplicationContext context;
+    private final String[] files;
+    private final String from;
+    private final String to;
+
+    public BatchReconciliationRunner(BatchReconciler reconciler, TopicRangeReader topicReader,
+            ConfigurableApplicationContext context,
+            @Value("${recon.match.batch.files:}") String[] files,
+            @Value("${recon.match.batch.from:}") String from,
+            @Value("${recon.match.batch.to:}") String to) {
+        this.reconciler = reconciler;
+        this.topicReader = topicReader;
+        this.context = context;
+        this.files = files;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int code = reconcile();
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+
+    /**
+     * Run the configured reconciliation.
+     *
+     * @return the exit code: 0 if every result was published, else 1
+     */
+    int reconcile() {
+        try {
+            List<Path> paths = Arrays.stream(files).filter(path -> !path.isBlank())
+                    .map(path -> Path.of(path.trim()))
+                    .toList();
+            BatchReport report;
+            if (!paths.isEmpty()) {
+                report = reconciler.reconcileFiles(paths);
+            } else if (!from.isBlank() && !to.isBlank()) {
+                Instant start = Instant.parse(from.trim());
+                Instant end = Instant.parse(to.trim());
+                report = reconciler.reconcile(TopicRangeReader.TOPIC + " [" + start + ", " + end + ")",
+                        sink -> topicReader.read(start, end, sink));
+            } else {
+                throw new IllegalArgumentException(
+                        "Batch mode needs recon.match.batch.files or recon.match.batch.from and .to");
+            }
+            if (!report.published()) {
+                log.error("Batch reconciliation incomplete: {} results of {} were not published",
+                        report.failedSends(), report.source());
+                return 1;
+            }
+            return 0;
+        } catch (Exception e) {
+            log.error("Batch reconciliation failed: {}", e.getMessage(), e);
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.gracemann.recon.matchengine.batch;
+
+/**
+ * Outcome of one batch reconciliation run, with the wall time of each phase.
+ *
+ * @param source        the files or topic range that were reconciled
+ * @param legs          legs loaded
+ * @param rejected      legs without a source type or match key
+ * @param partitions    card-hash partitions matched independently
+ * @param parallelism   fork-join workers
+ * @param exactPairs    pairs matched on the exact key
+ * @param fuzzyPairs    pairs matched by the fuzzy stage
+ * @param exceptions    legs left without a counterpart
+ * @param failedSends   pairs and exception candidates the broker did not ack
+ * @param loadMillis    reading the legs and spilling them to partitions
+ * @param matchMillis   until the last partition was matched (results are
+ *                      published as partitions complete, meanwhile)
+ * @param publishMillis waiting for the remaining acks after that
+ */
+public record BatchReport(String source, long legs, long rejected, int partitions, int parallelism,
+        long exactPairs, long fuzzyPairs, long exceptions, long failedSends, long loadMillis, long matchMillis,
+        long publishMillis) {
+
+    /** Whether every pair and exception candidate was acked. */
+    public boolean published() {
+        return failedSends == 0;
+    }
+
+    public long elapsedMillis() {
+        return loadMillis + matchMillis + publishMillis;
+    }
+
+    public double legsPerSecond() {
+        return matchMillis == 0 ? legs : legs * 1000.0 / matchMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BatchReport{source=%s, legs=%d, rejected=%d, partitions=%d, parallelism=%d, "
+                + "exactPairs=%d, fuzzyPairs=%d, exceptions=%d, failedSends=%d, loadMillis=%d, matchMillis=%d, "
+                + "publishMillis=%d, legsPerSecond=%.0f}",
+                source, legs, rejected, partitions, parallelism, exactPairs, fuzzyPairs, exceptions, failedSends,
+                loadMillis, matchMillis, publishMillis, legsPerSecond());
+    }
+}
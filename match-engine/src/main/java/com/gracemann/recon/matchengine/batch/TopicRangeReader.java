@@ -0,0 +1,106 @@
+package com.gracemann.recon.matchengine.batch;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+
+/**
+ * Reads the legs of {@code ingested-txn-topic} whose record timestamps fall
+ * in {@code [from, to)}, across all partitions, for a batch run.
+ *
+ * <p>
+ * Start and end offsets are looked up by timestamp before reading, so the
+ * range is fixed even while producers keep writing. The reader uses its own
+ * consumer group and never commits, leaving the streaming consumers'
+ * positions alone.
+ * </p>
+ */
+@Component
+public class TopicRangeReader {
+
+    private static final Logger log = LoggerFactory.getLogger(TopicRangeReader.class);
+
+    static final String TOPIC = "ingested-txn-topic";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ConsumerFactory<String, TxnRecordDTO> consumerFactory;
+
+    public TopicRangeReader(ConsumerFactory<String, TxnRecordDTO> consumerFactory) {
+        this.consumerFactory = consumerFactory;
+    }
+
+    public void read(Instant from, Instant to, Consumer<TxnRecordDTO> sink) {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        try (org.apache.kafka.clients.consumer.Consumer<String, TxnRecordDTO> consumer = consumerFactory
+                .createConsumer("recon-match-batch", "batch", null, overrides)) {
+            List<TopicPartition> partitions = consumer.partitionsFor(TOPIC).stream()
+                    .map(info -> new TopicPartition(TOPIC, info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> start = offsetsAt(consumer, partitions, from);
+            Map<TopicPartition, Long> end = offsetsAt(consumer, partitions, to);
+            Map<TopicPartition, Long> remaining = new HashMap<>();
+            for (TopicPartition partition : partitions) {
+                if (start.get(partition) < end.get(partition)) {
+                    consumer.seek(partition, start.get(partition));
+                    remaining.put(partition, end.get(partition));
+                }
+            }
+            consumer.assign(remaining.keySet());
+            log.info("Reading {} from {} to {}: {} of {} partitions have records", TOPIC, from, to,
+                    remaining.size(), partitions.size());
+
+            while (!remaining.isEmpty()) {
+                for (ConsumerRecord<String, TxnRecordDTO> record : consumer.poll(POLL_TIMEOUT)) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    Long stop = remaining.get(partition);
+                    if (stop != null && record.offset() < stop && record.value() != null) {
+                        sink.accept(record.value());
+                    }
+                }
+                for (TopicPartition partition : List.copyOf(remaining.keySet())) {
+                    if (consumer.position(partition) >= remaining.get(partition)) {
+                        remaining.remove(partition);
+                    }
+                }
+                consumer.assign(remaining.keySet());
+            }
+        }
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    /** First offset at or after {@code time} per partition, the end offset if none. */
+    private static Map<TopicPartition, Long> offsetsAt(
+            org.apache.kafka.clients.consumer.Consumer<String, TxnRecordDTO> consumer, List<TopicPartition> partitions,
+            Instant time) {
+        Map<TopicPartition, Long> query = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            query.put(partition, time.toEpochMilli());
+        }
+        Map<TopicPartition, OffsetAndTimestamp> found = consumer.offsetsForTimes(query);
+        Map<TopicPartition, Long> ends = consumer.endOffsets(partitions);
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            OffsetAndTimestamp offset = found.get(partition);
+            offsets.put(partition, offset == null ? ends.get(partition) : offset.offset());
+        }
+        return offsets;
+    }
+}
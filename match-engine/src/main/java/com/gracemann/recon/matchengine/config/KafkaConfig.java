@@ -0,0 +1,140 @@
+package com.gracemann.recon.matchengine.config;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.core.MicrometerProducerListener;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.serde.TxnRecordDeserializer;
+import com.gracemann.recon.matchengine.shard.MatchShards;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Kafka configuration for the match engine.
+ *
+ * <ul>
+ * <li>Consumes {@code ingested-txn-topic} as {@link TxnRecordDTO}, decoding
+ * JSON or binary per record, with the cooperative sticky assignor so a
+ * rebalance only moves (and hands off the state of) the partitions that
+ * change owner.</li>
+ * <li>Commits offsets by manual ack, issued once a leg's shard has forced its
+ * changelog to disk (see {@link MatchShards#acknowledgeWhenDurable}).</li>
+ * <li>Redelivers a leg whose pair the broker did not ack after
+ * {@code recon.match.listener.retry-backoff-ms}, for as long as it takes.</li>
+ * <li>Produces matched pairs as JSON strings.</li>
+ * <li>In batch mode the listeners are not started.</li>
+ * </ul>
+ */
+@EnableKafka
+@Configuration
+public class KafkaConfig {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<MatchShards> shards;
+    private final int listenerConcurrency;
+    private final long retryBackoffMs;
+    private final boolean batchMode;
+
+    public KafkaConfig(ObjectProvider<MeterRegistry> meterRegistry,
+            ObjectProvider<MatchShards> shards,
+            @Value("${recon.match.listener.concurrency:1}") int listenerConcurrency,
+            @Value("${recon.match.listener.retry-backoff-ms:1000}") long retryBackoffMs,
+            @Value("${recon.match.batch.enabled:false}") boolean batchMode) {
+        this.meterRegistry = meterRegistry;
+        this.shards = shards;
+        this.listenerConcurrency = listenerConcurrency;
+        this.retryBackoffMs = retryBackoffMs;
+        this.batchMode = batchMode;
+    }
+
+    /**
+     * ConsumerFactory for ingested transaction legs.
+     */
+    @Bean
+    public ConsumerFactory<String, TxnRecordDTO> txnRecordConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "recon-match-group");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, TxnRecordDeserializer.class);
+        props.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, CooperativeStickyAssignor.class.getName());
+        return withMetrics(new DefaultKafkaConsumerFactory<>(props));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TxnRecordDTO> txnRecordKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, TxnRecordDTO> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(txnRecordConsumerFactory());
+        factory.setConcurrency(listenerConcurrency);
+        // batch mode reconciles a closed day and must not consume alongside it
+        factory.setAutoStartup(!batchMode);
+        factory.setCommonErrorHandler(
+                new DefaultErrorHandler(new FixedBackOff(retryBackoffMs, FixedBackOff.UNLIMITED_ATTEMPTS)));
+        factory.getContainerProperties().setAckMode(AckMode.MANUAL);
+        factory.getContainerProperties().setConsumerRebalanceListener(new ConsumerAwareRebalanceListener() {
+            @Override
+            public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer,
+                    Collection<TopicPartition> partitions) {
+                // release the acks the revoked shards still hold, so they are committed with the revocation
+                shards.ifAvailable(owned -> owned.flush(partitions.stream().map(TopicPartition::partition).toList()));
+            }
+        });
+        return factory;
+    }
+
+    /**
+     * ProducerFactory for JSON string payloads (matched pairs).
+     */
+    @Bean
+    public ProducerFactory<String, String> stringProducerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 1);
+        return withMetrics(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    @Bean
+    public KafkaTemplate<String, String> stringKafkaTemplate() {
+        return new KafkaTemplate<>(stringProducerFactory());
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private <K, V> DefaultKafkaProducerFactory<K, V> withMetrics(DefaultKafkaProducerFactory<K, V> factory) {
+        meterRegistry.ifAvailable(registry -> factory.addListener(new MicrometerProducerListener<>(registry)));
+        return factory;
+    }
+
+    private <K, V> DefaultKafkaConsumerFactory<K, V> withMetrics(DefaultKafkaConsumerFactory<K, V> factory) {
+        meterRegistry.ifAvailable(registry -> factory.addListener(new MicrometerConsumerListener<>(registry)));
+        return factory;
+    }
+}
@@ -0,0 +1,93 @@
+package com.gracemann.recon.matchengine.consumer;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.processor.MatchProcessor;
+import com.gracemann.recon.matchengine.shard.MatchShards;
+
+/**
+ * Consumes validated, deduplicated legs from {@code ingested-txn-topic} (JSON
+ * or binary, per the {@code recon-format} header) and hands them to the
+ * {@link MatchProcessor}.
+ *
+ * <p>
+ * On assignment each partition is positioned just after the last offset the
+ * {@link OpenItemStateStore} recovered, so the open items and the consumer
+ * position always agree after a restart. A partition whose store is missing
+ * or behind the group's committed offset is read again from the beginning
+ * to rebuild its open items (see {@link MatchShards}).
+ * </p>
+ *
+ * <p>
+ * Each leg is acked only once its shard's changelog holds it on disk, so the
+ * committed offsets never run ahead of the state store.
+ * </p>
+ */
+@Component
+public class IngestedTxnConsumer implements ConsumerSeekAware {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestedTxnConsumer.class);
+
+    private final MatchProcessor processor;
+    private final MatchShards shards;
+
+    public IngestedTxnConsumer(MatchProcessor processor, MatchShards shards) {
+        this.processor = processor;
+        this.shards = shards;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        Map<Integer, Long> positions = new HashMap<>();
+        assignments.forEach((partition, position) -> positions.put(partition.partition(),
+                position == null ? -1L : position));
+        shards.assign(positions);
+        for (TopicPartition partition : assignments.keySet()) {
+            long resume = shards.resumeOffset(partition.partition());
+            if (resume == MatchShards.FROM_BEGINNING) {
+                log.info("Re-reading {} from the beginning to rebuild its open items", partition);
+                callback.seekToBeginning(partition.topic(), partition.partition());
+            } else if (resume >= 0) {
+                log.info("Resuming {} at offset {} from the state store", partition, resume);
+                callback.seek(partition.topic(), partition.partition(), resume);
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        shards.revoke(partitions(partitions));
+    }
+
+    @KafkaListener(
+        topics = "ingested-txn-topic",
+        groupId = "recon-match-group",
+        containerFactory = "txnRecordKafkaListenerContainerFactory"
+    )
+    public void consume(ConsumerRecord<String, TxnRecordDTO> record, Acknowledgment ack) {
+        long receivedNanos = System.nanoTime();
+        if (record.value() != null) {
+            processor.process(record.value(), receivedNanos, record.partition(), record.offset());
+        }
+        shards.acknowledgeWhenDurable(record.partition(), record.offset(), ack::acknowledge);
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static List<Integer> partitions(Collection<TopicPartition> partitions) {
+        return partitions.stream().map(TopicPartition::partition).toList();
+    }
+}
@@ -0,0 +1,115 @@
+package com.gracemann.recon.matchengine.dto;
+
+import java.time.Instant;
+
+/**
+ * An open leg whose counterpart can no longer arrive, published on
+ * {@code recon.match.exception-topic} for investigation.
+ *
+ * <p>
+ * Later messages with the same {@code exceptionId} are deltas from re-match
+ * cycles: {@link Status#RESOLVED} once a late counterpart matched the leg,
+ * {@link Status#SUPERSEDED} once a corrected leg replaced it.
+ * </p>
+ */
+public class ExceptionCandidateDTO {
+
+    private String exceptionId; // txnId|sourceType
+    private Status status;
+    private TxnRecordDTO record;
+    private Instant watermark; // counterpart watermark that expired the leg, if EXPIRED
+    private Instant expiredAt; // when the leg expired, or was resolved or superseded
+    private long openMillis; // how long the leg had waited by then
+    private String matchId; // pair that resolved the exception, if RESOLVED
+
+    public enum Status {
+        EXPIRED, RESOLVED, SUPERSEDED
+    }
+
+    public ExceptionCandidateDTO() {
+    }
+
+    public ExceptionCandidateDTO(String exceptionId, TxnRecordDTO record, Instant watermark, Instant expiredAt,
+            long openMillis) {
+        this(exceptionId, Status.EXPIRED, record, watermark, expiredAt, openMillis, null);
+    }
+
+    public ExceptionCandidateDTO(String exceptionId, Status status, TxnRecordDTO record, Instant watermark,
+            Instant expiredAt, long openMillis, String matchId) {
+        this.exceptionId = exceptionId;
+        this.status = status;
+        this.record = record;
+        this.watermark = watermark;
+        this.expiredAt = expiredAt;
+        this.openMillis = openMillis;
+        this.matchId = matchId;
+    }
+
+    public String getExceptionId() {
+        return exceptionId;
+    }
+
+    public void setExceptionId(String exceptionId) {
+        this.exceptionId = exceptionId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public TxnRecordDTO getRecord() {
+        return record;
+    }
+
+    public void setRecord(TxnRecordDTO record) {
+        this.record = record;
+    }
+
+    public Instant getWatermark() {
+        return watermark;
+    }
+
+    public void setWatermark(Instant watermark) {
+        this.watermark = watermark;
+    }
+
+    public Instant getExpiredAt() {
+        return expiredAt;
+    }
+
+    public void setExpiredAt(Instant expiredAt) {
+        this.expiredAt = expiredAt;
+    }
+
+    public long getOpenMillis() {
+        return openMillis;
+    }
+
+    public void setOpenMillis(long openMillis) {
+        this.openMillis = openMillis;
+    }
+
+    public String getMatchId() {
+        return matchId;
+    }
+
+    public void setMatchId(String matchId) {
+        this.matchId = matchId;
+    }
+
+    @Override
+    public String toString() {
+        return "ExceptionCandidateDTO{" +
+                "exceptionId='" + exceptionId + '\'' +
+                ", status=" + status +
+                ", watermark=" + watermark +
+                ", expiredAt=" + expiredAt +
+                ", openMillis=" + openMillis +
+                ", matchId='" + matchId + '\'' +
+                '}';
+    }
+}
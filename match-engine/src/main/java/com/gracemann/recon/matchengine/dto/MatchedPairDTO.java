@@ -0,0 +1,102 @@
+package com.gracemann.recon.matchengine.dto;
+
+import java.time.Instant;
+
+/**
+ * A reconciled bank/scheme pair, published on {@code matched-txn-topic}.
+ */
+public class MatchedPairDTO {
+
+    private String matchId; // bankTxnId|schemeTxnId
+    private MatchType matchType;
+    private double score; // 1 for exact matches, the fuzzy score otherwise
+    private TxnRecordDTO bank;
+    private TxnRecordDTO scheme;
+    private Instant matchedAt;
+    private long openMillis; // how long the first leg waited for its counterpart
+
+    public enum MatchType {
+        EXACT, FUZZY
+    }
+
+    public MatchedPairDTO() {
+    }
+
+    public MatchedPairDTO(String matchId, MatchType matchType, double score, TxnRecordDTO bank,
+            TxnRecordDTO scheme, Instant matchedAt, long openMillis) {
+        this.matchId = matchId;
+        this.matchType = matchType;
+        this.score = score;
+        this.bank = bank;
+        this.scheme = scheme;
+        this.matchedAt = matchedAt;
+        this.openMillis = openMillis;
+    }
+
+    public String getMatchId() {
+        return matchId;
+    }
+
+    public void setMatchId(String matchId) {
+        this.matchId = matchId;
+    }
+
+    public MatchType getMatchType() {
+        return matchType;
+    }
+
+    public void setMatchType(MatchType matchType) {
+        this.matchType = matchType;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public TxnRecordDTO getBank() {
+        return bank;
+    }
+
+    public void setBank(TxnRecordDTO bank) {
+        this.bank = bank;
+    }
+
+    public TxnRecordDTO getScheme() {
+        return scheme;
+    }
+
+    public void setScheme(TxnRecordDTO scheme) {
+        this.scheme = scheme;
+    }
+
+    public Instant getMatchedAt() {
+        return matchedAt;
+    }
+
+    public void setMatchedAt(Instant matchedAt) {
+        this.matchedAt = matchedAt;
+    }
+
+    public long getOpenMillis() {
+        return openMillis;
+    }
+
+    public void setOpenMillis(long openMillis) {
+        this.openMillis = openMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "MatchedPairDTO{" +
+                "matchId='" + matchId + '\'' +
+                ", matchType=" + matchType +
+                ", score=" + score +
+                ", matchedAt=" + matchedAt +
+                ", openMillis=" + openMillis +
+                '}';
+    }
+}
@@ -0,0 +1,93 @@
+package com.gracemann.recon.matchengine.matching;
+
+/**
+ * Counting Bloom filter over 64-bit key hashes: answers "certainly absent"
+ * or "maybe present", and supports removal.
+ *
+ * <p>
+ * Counters are four bits, sixteen to a {@code long}, and a key sets
+ * {@value #HASHES} of them, derived from the two halves of its hash. With
+ * {@value #COUNTERS_PER_KEY} counters per expected key the false-positive
+ * probability stays near 3%. A counter that reaches 15 sticks there and is
+ * never decremented, so a removal can never cause a false negative. Not
+ * thread-safe.
+ * </p>
+ */
+final class CountingBloomFilter {
+
+    static final int COUNTERS_PER_KEY = 8;
+
+    private static final int HASHES = 3;
+    private static final int MIN_COUNTERS = 64;
+    private static final long SATURATED = 0xF;
+
+    private final long[] counters;
+    private final int mask;
+    /** Counters above zero, for {@link #falsePositiveProbability}. */
+    private int occupied;
+
+    CountingBloomFilter(int expectedKeys) {
+        int size = Math.max(MIN_COUNTERS,
+                Integer.highestOneBit(Math.max(1, expectedKeys * COUNTERS_PER_KEY - 1)) << 1);
+        this.counters = new long[size / 16];
+        this.mask = size - 1;
+    }
+
+    void add(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            int counter = (h1 + i * h2) & mask;
+            long value = get(counter);
+            if (value == 0) {
+                occupied++;
+            }
+            if (value != SATURATED) {
+                counters[counter >>> 4] += 1L << ((counter & 15) << 2);
+            }
+        }
+    }
+
+    /** Remove a key that was added; removing any other key corrupts the filter. */
+    void remove(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            int counter = (h1 + i * h2) & mask;
+            long value = get(counter);
+            if (value != SATURATED && value != 0) {
+                counters[counter >>> 4] -= 1L << ((counter & 15) << 2);
+                if (value == 1) {
+                    occupied--;
+                }
+            }
+        }
+    }
+
+    /** {@code false} if the key was certainly never added (or was removed). */
+    boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            if (get((h1 + i * h2) & mask) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Chance that an absent key is reported as maybe present, from the counters in use. */
+    double falsePositiveProbability() {
+        return Math.pow((double) occupied / (mask + 1), HASHES);
+    }
+
+    long heapBytes() {
+        return (long) counters.length * Long.BYTES;
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private long get(int counter) {
+        return (counters[counter >>> 4] >>> ((counter & 15) << 2)) & 0xF;
+    }
+}
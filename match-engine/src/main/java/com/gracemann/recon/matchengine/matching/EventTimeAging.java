@@ -0,0 +1,87 @@
+package com.gracemann.recon.matchengine.matching;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+
+/**
+ * When an open leg stops waiting for its counterpart, reasoned in event time
+ * ({@code txnTimestamp}) rather than with a wall-clock timer per leg.
+ *
+ * <p>
+ * Each source has a {@link Watermark}: the event time up to which its legs
+ * are taken to have arrived, trailing the newest one by that source's
+ * {@code allowed-lateness-ms}. Scheme legs only move their watermark when a
+ * clearing batch is complete, as files arrive T+1 and may be re-sent. An
+ * open leg with event time {@code t} becomes an exception candidate once the
+ * <em>other</em> source's watermark passes {@code t + match-window-ms}: by
+ * then every counterpart it could have matched has arrived.
+ * </p>
+ *
+ * <p>
+ * Deadlines are kept in {@link TimerWheel}s of {@code bucket-ms} buckets, so
+ * the cost of aging is per bucket and lock stripe, not per leg.
+ * </p>
+ */
+@Component
+public class EventTimeAging {
+
+    private final boolean enabled;
+    private final long bankAllowedLatenessMs;
+    private final long schemeAllowedLatenessMs;
+    private final long matchWindowMs;
+    private final long bucketMs;
+    private final int wheelSlots;
+
+    public EventTimeAging(
+            @Value("${recon.match.aging.enabled:true}") boolean enabled,
+            @Value("${recon.match.watermark.bank.allowed-lateness-ms:300000}") long bankAllowedLatenessMs,
+            @Value("${recon.match.watermark.scheme.allowed-lateness-ms:3600000}") long schemeAllowedLatenessMs,
+            @Value("${recon.match.aging.match-window-ms:172800000}") long matchWindowMs,
+            @Value("${recon.match.aging.bucket-ms:60000}") long bucketMs,
+            @Value("${recon.match.aging.wheel-slots:4096}") int wheelSlots) {
+        if (bankAllowedLatenessMs < 0 || schemeAllowedLatenessMs < 0 || matchWindowMs < 0) {
+            throw new IllegalArgumentException("allowed-lateness-ms and match-window-ms must be >= 0");
+        }
+        if (bucketMs <= 0 || wheelSlots <= 0) {
+            throw new IllegalArgumentException("bucket-ms and wheel-slots must be > 0");
+        }
+        this.enabled = enabled;
+        this.bankAllowedLatenessMs = bankAllowedLatenessMs;
+        this.schemeAllowedLatenessMs = schemeAllowedLatenessMs;
+        this.matchWindowMs = matchWindowMs;
+        this.bucketMs = bucketMs;
+        this.wheelSlots = wheelSlots;
+    }
+
+    /** Defaults, for tests and benchmarks. */
+    public static EventTimeAging defaults() {
+        return new EventTimeAging(true, 300_000L, 3_600_000L, 172_800_000L, 60_000L, 4096);
+    }
+
+    /** Legs stay open until they match. */
+    public static EventTimeAging disabled() {
+        return new EventTimeAging(false, 0L, 0L, 0L, 60_000L, 1);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long allowedLatenessMs(SourceType source) {
+        return source == SourceType.BANK_SWITCH ? bankAllowedLatenessMs : schemeAllowedLatenessMs;
+    }
+
+    public long matchWindowMs() {
+        return matchWindowMs;
+    }
+
+    public long bucketMs() {
+        return bucketMs;
+    }
+
+    public int wheelSlots() {
+        return wheelSlots;
+    }
+}
@@ -0,0 +1,250 @@
+package com.gracemann.recon.matchengine.matching;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+
+/**
+ * Tolerance-based scoring of near-miss bank/scheme pairs.
+ *
+ * <p>
+ * Two legs are fuzzy candidates only if they share card and currency, their
+ * amounts differ by no more than the amount tolerance (the larger of
+ * {@code amount-tolerance} and {@code amount-tolerance-pct} of the amount, to
+ * absorb FX rounding) and their dates by no more than {@code day-tolerance}
+ * (scheme files carry the settlement date only). Candidates are then scored
+ * in [0, 1] as a weighted mean of:
+ * </p>
+ * <ul>
+ * <li>amount closeness (1 when equal, 0 at the tolerance)</li>
+ * <li>date closeness (1 on the same day)</li>
+ * <li>reference: txnId or authCode equal</li>
+ * <li>terminal and merchant ids equal; a blank id on either side is neutral
+ * (0.5) rather than a mismatch</li>
+ * </ul>
+ *
+ * <p>
+ * Scoring works on the primitive columns of the open-item store: amounts in
+ * {@link MinorUnits}, dates as epoch days and ids compared in place.
+ * </p>
+ *
+ * <p>
+ * A pair matches when its score reaches {@code min-score}. The blocking
+ * index uses {@link #amountBand}, {@link #amountBandRange} and
+ * {@link #dayRange} to find the only buckets that can hold candidates.
+ * </p>
+ *
+ * <p>
+ * Scheme- and channel-specific tolerances come from {@link MatchRuleSet}
+ * rules, each holding a copy of this scorer made by {@link #with}.
+ * </p>
+ */
+@Component
+public class FuzzyScorer {
+
+    /** Score of a pair that breaks a hard tolerance. */
+    public static final double REJECT = -1.0;
+
+    private static final double NEUTRAL = 0.5;
+
+    private final boolean enabled;
+    private final long amountTolerance;
+    private final double amountToleranceFraction;
+    private final long amountBandWidth;
+    private final int dayTolerance;
+    private final double minScore;
+
+    private final double amountWeight;
+    private final double dateWeight;
+    private final double referenceWeight;
+    private final double terminalWeight;
+    private final double merchantWeight;
+    private final double totalWeight;
+
+    @Autowired
+    public FuzzyScorer(
+            @Value("${recon.match.fuzzy.enabled:true}") boolean enabled,
+            @Value("${recon.match.fuzzy.amount-tolerance:1.00}") BigDecimal amountTolerance,
+            @Value("${recon.match.fuzzy.amount-tolerance-pct:0.5}") BigDecimal amountTolerancePct,
+            @Value("${recon.match.fuzzy.amount-band:10.00}") BigDecimal amountBandWidth,
+            @Value("${recon.match.fuzzy.day-tolerance:1}") int dayTolerance,
+            @Value("${recon.match.fuzzy.min-score:0.75}") double minScore,
+            @Value("${recon.match.fuzzy.weight.amount:0.35}") double amountWeight,
+            @Value("${recon.match.fuzzy.weight.date:0.2}") double dateWeight,
+            @Value("${recon.match.fuzzy.weight.reference:0.25}") double referenceWeight,
+            @Value("${recon.match.fuzzy.weight.terminal:0.1}") double terminalWeight,
+            @Value("${recon.match.fuzzy.weight.merchant:0.1}") double merchantWeight) {
+        if (amountBandWidth.signum() <= 0 || dayTolerance < 0) {
+            throw new IllegalArgumentException("amount-band must be > 0 and day-tolerance >= 0");
+        }
+        this.enabled = enabled;
+        this.amountTolerance = MinorUnits.of(amountTolerance);
+        this.amountToleranceFraction = amountTolerancePct.doubleValue() / 100;
+        this.amountBandWidth = MinorUnits.of(amountBandWidth);
+        this.dayTolerance = dayTolerance;
+        this.minScore = minScore;
+        this.amountWeight = amountWeight;
+        this.dateWeight = dateWeight;
+        this.referenceWeight = referenceWeight;
+        this.terminalWeight = terminalWeight;
+        this.merchantWeight = merchantWeight;
+        this.totalWeight = amountWeight + dateWeight + referenceWeight + terminalWeight + merchantWeight;
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("fuzzy weights must add up to more than 0");
+        }
+    }
+
+    private FuzzyScorer(FuzzyScorer base, long amountTolerance, double amountToleranceFraction, int dayTolerance,
+            double minScore) {
+        this.enabled = base.enabled;
+        this.amountTolerance = amountTolerance;
+        this.amountToleranceFraction = amountToleranceFraction;
+        this.amountBandWidth = base.amountBandWidth;
+        this.dayTolerance = dayTolerance;
+        this.minScore = minScore;
+        this.amountWeight = base.amountWeight;
+        this.dateWeight = base.dateWeight;
+        this.referenceWeight = base.referenceWeight;
+        this.terminalWeight = base.terminalWeight;
+        this.merchantWeight = base.merchantWeight;
+        this.totalWeight = base.totalWeight;
+    }
+
+    /** Defaults, for tests and benchmarks. */
+    public static FuzzyScorer defaults() {
+        return new FuzzyScorer(true, new BigDecimal("1.00"), new BigDecimal("0.5"), new BigDecimal("10.00"), 1, 0.75,
+                0.35, 0.2, 0.25, 0.1, 0.1);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double minScore() {
+        return minScore;
+    }
+
+    /**
+     * This scorer with other tolerances or minimum score; a {@code null}
+     * argument keeps the current value. Weights and amount bands are shared,
+     * so both scorers block alike.
+     *
+     * @throws IllegalArgumentException if a tolerance is negative or the
+     *                                  amount tolerance has more than four
+     *                                  decimals
+     */
+    public FuzzyScorer with(BigDecimal amountTolerance, BigDecimal amountTolerancePct, Integer dayTolerance,
+            Double minScore) {
+        if ((amountTolerance != null && amountTolerance.signum() < 0)
+                || (amountTolerancePct != null && amountTolerancePct.signum() < 0)
+                || (dayTolerance != null && dayTolerance < 0)) {
+            throw new IllegalArgumentException("tolerances must be >= 0");
+        }
+        return new FuzzyScorer(this,
+                amountTolerance == null ? this.amountTolerance : MinorUnits.of(amountTolerance),
+                amountTolerancePct == null ? amountToleranceFraction : amountTolerancePct.doubleValue() / 100,
+                dayTolerance == null ? this.dayTolerance : dayTolerance,
+                minScore == null ? this.minScore : minScore);
+    }
+
+    /**
+     * A scorer whose {@link #amountBandRange} and {@link #dayRange} cover
+     * those of every scorer given, for blocking when candidates may be
+     * scored by any of them.
+     */
+    static FuzzyScorer covering(FuzzyScorer base, Collection<FuzzyScorer> scorers) {
+        long amount = base.amountTolerance;
+        double fraction = base.amountToleranceFraction;
+        int days = base.dayTolerance;
+        for (FuzzyScorer scorer : scorers) {
+            amount = Math.max(amount, scorer.amountTolerance);
+            fraction = Math.max(fraction, scorer.amountToleranceFraction);
+            days = Math.max(days, scorer.dayTolerance);
+        }
+        return new FuzzyScorer(base, amount, fraction, days, base.minScore);
+    }
+
+    /**
+     * Whether the record has everything a blocking key needs.
+     */
+    public boolean isBlockable(TxnRecordDTO dto) {
+        return enabled && dto.getCardNumber() != null && dto.getAmount() != null && dto.getTxnTimestamp() != null
+                && dto.getCurrency() != null;
+    }
+
+    /** Amount band of an amount in minor units. */
+    public long amountBand(long amount) {
+        return Math.floorDiv(amount, amountBandWidth);
+    }
+
+    /**
+     * Lowest and highest amount band that can hold a candidate for
+     * {@code amount}.
+     */
+    public long[] amountBandRange(long amount) {
+        // a larger candidate may bring a larger percentage tolerance of its own
+        long allowed = allowedDifference(Math.abs(amount) + allowedDifference(amount));
+        return new long[] { amountBand(amount - allowed), amountBand(amount + allowed) };
+    }
+
+    /**
+     * Lowest and highest day bucket that can hold a candidate for {@code day}.
+     */
+    public long[] dayRange(long day) {
+        return new long[] { day - dayTolerance, day + dayTolerance };
+    }
+
+    /**
+     * Score a bank/scheme pair of the same card and currency.
+     *
+     * @param amountA       amounts in minor units
+     * @param dayA          epoch days
+     * @param terminalScore {@link #compare} of the terminal ids
+     * @param merchantScore {@link #compare} of the merchant ids
+     * @return score in [0, 1], or {@link #REJECT} if a hard tolerance is broken
+     */
+    public double score(long amountA, long amountB, long dayA, long dayB, boolean sameReference,
+            double terminalScore, double merchantScore) {
+        long allowed = Math.max(allowedDifference(amountA), allowedDifference(amountB));
+        long diff = Math.abs(amountA - amountB);
+        if (diff > allowed) {
+            return REJECT;
+        }
+        long days = Math.abs(dayA - dayB);
+        if (days > dayTolerance) {
+            return REJECT;
+        }
+
+        double amountScore = allowed == 0 ? 1.0 : 1.0 - (double) diff / allowed;
+        double dateScore = 1.0 - (double) days / (dayTolerance + 1);
+        double referenceScore = sameReference ? 1.0 : 0.0;
+
+        return (amountWeight * amountScore
+                + dateWeight * dateScore
+                + referenceWeight * referenceScore
+                + terminalWeight * terminalScore
+                + merchantWeight * merchantScore) / totalWeight;
+    }
+
+    /**
+     * Score two ids: 1 if both present and equal, 0 if both present and
+     * different, else neutral.
+     */
+    public static double compare(boolean bothPresent, boolean equal) {
+        if (!bothPresent) {
+            return NEUTRAL;
+        }
+        return equal ? 1.0 : 0.0;
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private long allowedDifference(long amount) {
+        return Math.max(amountTolerance, (long) (Math.abs((double) amount) * amountToleranceFraction));
+    }
+}
@@ -0,0 +1,121 @@
+package com.gracemann.recon.matchengine.matching;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing {@code long → int} hash map with linear probing and
+ * backward-shift deletion, so removals leave no tombstones behind. Values
+ * must be {@code >= 0}; {@link #get} returns {@code -1} for a missing key.
+ * Not thread-safe.
+ */
+final class LongIntMap {
+
+    private static final int EMPTY = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntMap(int expected) {
+        allocate(Math.max(16, Integer.highestOneBit(Math.max(1, expected * 4 / 3)) << 1));
+    }
+
+    int get(long key) {
+        for (int i = index(key);; i = (i + 1) & mask) {
+            if (values[i] == EMPTY) {
+                return EMPTY;
+            }
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+    }
+
+    void put(long key, int value) {
+        int i = index(key);
+        while (values[i] != EMPTY) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > (mask + 1) * 3 / 4) {
+            resize((mask + 1) * 2);
+        }
+    }
+
+    void remove(long key) {
+        int i = index(key);
+        while (values[i] != EMPTY) {
+            if (keys[i] == key) {
+                shiftBack(i);
+                size--;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /** Remove every entry, keeping the table. */
+    void clear() {
+        Arrays.fill(values, EMPTY);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Approximate heap taken by the table. */
+    long heapBytes() {
+        return (mask + 1) * (long) (Long.BYTES + Integer.BYTES);
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private void shiftBack(int hole) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == EMPTY) {
+                break;
+            }
+            int home = index(keys[i]);
+            // move the entry into the hole unless its home lies cyclically in (hole, i]
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        values[hole] = EMPTY;
+    }
+
+    private int index(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, EMPTY);
+        mask = capacity - 1;
+        size = 0;
+    }
+}
@@ -0,0 +1,37 @@
+package com.gracemann.recon.matchengine.matching;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+
+/**
+ * Exact-match key: both legs of a transaction agree on card, amount, currency
+ * and reference.
+ *
+ * <p>
+ * The reference is the txnId, or the authCode when a source leaves the txnId
+ * blank. Amounts are compared by value in {@link MinorUnits}, so
+ * {@code 2500.00} and {@code 2500.0} are the same key. The key itself is
+ * hashed straight from the open-item store's columns and never materialised.
+ * </p>
+ */
+final class MatchKey {
+
+    private MatchKey() {
+    }
+
+    /**
+     * Reference part of a record's key, or {@code null} if any part of the key
+     * is missing.
+     */
+    static String reference(TxnRecordDTO dto) {
+        String reference = isBlank(dto.getTxnId()) ? dto.getAuthCode() : dto.getTxnId();
+        if (isBlank(dto.getCardNumber()) || dto.getAmount() == null || isBlank(dto.getCurrency())
+                || isBlank(reference)) {
+            return null;
+        }
+        return reference;
+    }
+
+    static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
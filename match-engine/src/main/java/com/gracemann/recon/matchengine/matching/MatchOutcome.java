@@ -0,0 +1,21 @@
+package com.gracemann.recon.matchengine.matching;
+
+/**
+ * Result of offering one leg to the {@link StreamingMatcher}.
+ *
+ * @param pair       the matched pair, or {@code null} if the leg is now open
+ * @param candidates fuzzy candidates scored, or {@code -1} if the fuzzy stage
+ *                   did not run (exact hit, or the leg cannot be blocked)
+ * @param bestScore  best fuzzy score among the candidates, or
+ *                   {@link FuzzyScorer#REJECT} if none was within tolerance
+ */
+public record MatchOutcome(MatchedPair pair, int candidates, double bestScore) {
+
+    static MatchOutcome exact(MatchedPair pair) {
+        return new MatchOutcome(pair, -1, FuzzyScorer.REJECT);
+    }
+
+    public boolean matched() {
+        return pair != null;
+    }
+}
@@ -0,0 +1,255 @@
+package com.gracemann.recon.matchengine.matching;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.gracemann.recon.matchengine.matching.OpenItemStore.FieldCheck;
+
+/**
+ * Scheme- and channel-specific fuzzy match rules, compiled.
+ *
+ * <p>
+ * Rules are declared in a properties file, one group of keys per rule name:
+ * </p>
+ *
+ * <pre>
+ * visa-pos.scheme=VISA
+ * visa-pos.channel=POS
+ * visa-pos.require=terminalId,merchantId
+ * visa-pos.amount-tolerance=0.50
+ *
+ * rupay-atm.scheme=RUPAY
+ * rupay-atm.channel=ATM
+ * rupay-atm.require=terminalId,responseCode
+ * rupay-atm.amount-tolerance=0
+ * rupay-atm.amount-tolerance-pct=0
+ * rupay-atm.day-tolerance=0
+ *
+ * ecom.channel=ECOM
+ * ecom.require=merchantId
+ * ecom.day-tolerance=2
+ * </pre>
+ *
+ * <p>
+ * {@code scheme} is compared with the scheme leg's schemeName and
+ * {@code channel} with the bank leg's channel, exactly as they appear on the
+ * legs; either may be left out (or {@code *}) to match any. {@code require}
+ * lists fields both legs must carry and agree on: terminalId, merchantId,
+ * responseCode, authCode or txnId. {@code amount-tolerance},
+ * {@code amount-tolerance-pct}, {@code day-tolerance} and {@code min-score}
+ * default to the {@code recon.match.fuzzy.*} settings. A pair is judged by
+ * the most specific rule that applies (scheme and channel, then scheme, then
+ * channel), or by the {@code recon.match.fuzzy.*} settings if none does.
+ * Exact matching is unaffected: an exact key match is a match under any rule.
+ * </p>
+ *
+ * <p>
+ * Compiling resolves everything a comparison would otherwise look up. Each
+ * rule becomes a {@link FuzzyScorer} with its own tolerances and a chain of
+ * single-column checks, and {@link #bind} turns its scheme and channel into
+ * codes of a matcher's {@link StringDictionary}. Choosing the rule for a
+ * candidate is then a scan over a few pairs of ints, with no strings, maps
+ * or reflection in the matching loop. A set is immutable; reloading swaps in
+ * a new one (see {@link MatchRules}).
+ * </p>
+ */
+public final class MatchRuleSet {
+
+    /** Scheme or channel code of a rule that applies to any value. */
+    static final int ANY = -1;
+
+    private static final String ANY_VALUE = "*";
+    private static final Set<String> ATTRIBUTES = Set.of("scheme", "channel", "require", "amount-tolerance",
+            "amount-tolerance-pct", "day-tolerance", "min-score");
+
+    private final FuzzyScorer base;
+    private final List<Definition> rules;
+    private final FuzzyScorer blocking;
+    private final String origin;
+
+    private MatchRuleSet(FuzzyScorer base, List<Definition> rules, String origin) {
+        this.base = base;
+        this.rules = rules;
+        this.blocking = FuzzyScorer.covering(base, rules.stream().map(Definition::scorer).toList());
+        this.origin = origin;
+    }
+
+    /** No rules: every pair is judged by {@code base}. */
+    public static MatchRuleSet of(FuzzyScorer base) {
+        return new MatchRuleSet(base, List.of(), "recon.match.fuzzy");
+    }
+
+    /**
+     * Compile the rules declared in {@code properties}.
+     *
+     * @param origin where the rules came from, for messages
+     * @throws IllegalArgumentException naming the rule and key, if a key is
+     *                                  unknown, a value malformed, a field
+     *                                  cannot be required or two rules apply
+     *                                  to the same scheme and channel
+     */
+    public static MatchRuleSet parse(Properties properties, FuzzyScorer base, String origin) {
+        Map<String, Map<String, String>> byName = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            int dot = key.indexOf('.');
+            if (dot <= 0 || !ATTRIBUTES.contains(key.substring(dot + 1))) {
+                throw new IllegalArgumentException(origin + ": unknown rule key " + key
+                        + ", expected <rule>.<attribute> with an attribute in " + new TreeSet<>(ATTRIBUTES));
+            }
+            byName.computeIfAbsent(key.substring(0, dot), name -> new HashMap<>())
+                    .put(key.substring(dot + 1), properties.getProperty(key).trim());
+        }
+        List<Definition> rules = new ArrayList<>();
+        for (Map.Entry<String, Map<String, String>> rule : byName.entrySet()) {
+            rules.add(compile(rule.getKey(), rule.getValue(), base, origin));
+        }
+        // stable, so rules of equal specificity stay in name order
+        rules.sort(Comparator.comparingInt(Definition::specificity).reversed());
+        Set<String> conditions = new HashSet<>();
+        for (Definition rule : rules) {
+            if (!conditions.add(rule.scheme() + "/" + rule.channel())) {
+                throw new IllegalArgumentException(origin + ": rule " + rule.name()
+                        + " applies to the same scheme and channel as another rule");
+            }
+        }
+        return new MatchRuleSet(base, List.copyOf(rules), origin);
+    }
+
+    /** Rules declared, not counting the default. */
+    public int size() {
+        return rules.size();
+    }
+
+    /** Rule names, most specific first. */
+    public List<String> names() {
+        return rules.stream().map(Definition::name).toList();
+    }
+
+    public String origin() {
+        return origin;
+    }
+
+    /**
+     * Lowest and highest day bucket in which some rule could find a
+     * counterpart for a leg of {@code day}.
+     */
+    public long[] dayRange(long day) {
+        return blocking.dayRange(day);
+    }
+
+    /**
+     * The rules with their schemes and channels encoded in
+     * {@code dictionary}, followed by the default rule.
+     */
+    Bound bind(StringDictionary dictionary) {
+        Rule[] bound = new Rule[rules.size() + 1];
+        for (int i = 0; i < rules.size(); i++) {
+            Definition rule = rules.get(i);
+            bound[i] = new Rule(rule.name(), code(dictionary, rule.scheme()), code(dictionary, rule.channel()),
+                    rule.scorer(), rule.check());
+        }
+        bound[rules.size()] = new Rule("default", ANY, ANY, base, FieldCheck.ALWAYS);
+        return new Bound(this, bound, blocking);
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static Definition compile(String name, Map<String, String> attributes, FuzzyScorer base,
+            String origin) {
+        try {
+            FieldCheck check = FieldCheck.ALWAYS;
+            String require = attributes.get("require");
+            if (require != null && !require.isBlank()) {
+                for (String field : require.split(",")) {
+                    FieldCheck same = OpenItemStore.sameField(field.trim());
+                    check = check == FieldCheck.ALWAYS ? same : check.and(same);
+                }
+            }
+            String amountTolerance = value(attributes, "amount-tolerance");
+            String amountTolerancePct = value(attributes, "amount-tolerance-pct");
+            String dayTolerance = value(attributes, "day-tolerance");
+            String minScore = value(attributes, "min-score");
+            FuzzyScorer scorer = base.with(
+                    amountTolerance == null ? null : new BigDecimal(amountTolerance),
+                    amountTolerancePct == null ? null : new BigDecimal(amountTolerancePct),
+                    dayTolerance == null ? null : Integer.valueOf(dayTolerance),
+                    minScore == null ? null : Double.valueOf(minScore));
+            return new Definition(name, condition(attributes, "scheme"), condition(attributes, "channel"), scorer,
+                    check);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(origin + ": rule " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String value(Map<String, String> attributes, String attribute) {
+        String value = attributes.get(attribute);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /** A scheme or channel condition, {@code null} for any. */
+    private static String condition(Map<String, String> attributes, String attribute) {
+        String value = value(attributes, attribute);
+        return value == null || ANY_VALUE.equals(value) ? null : value;
+    }
+
+    private static int code(StringDictionary dictionary, String value) {
+        return value == null ? ANY : dictionary.encode(value);
+    }
+
+    private record Definition(String name, String scheme, String channel, FuzzyScorer scorer, FieldCheck check) {
+
+        /** Scheme and channel, then scheme alone, then channel alone. */
+        int specificity() {
+            return (scheme != null ? 2 : 0) + (channel != null ? 1 : 0);
+        }
+    }
+
+    /** A compiled rule whose scheme and channel are dictionary codes. */
+    record Rule(String name, int scheme, int channel, FuzzyScorer scorer, FieldCheck check) {
+    }
+
+    /** A rule set bound to one matcher's dictionary. */
+    static final class Bound {
+
+        private final MatchRuleSet set;
+        private final Rule[] rules;
+        private final FuzzyScorer blocking;
+
+        Bound(MatchRuleSet set, Rule[] rules, FuzzyScorer blocking) {
+            this.set = set;
+            this.rules = rules;
+            this.blocking = blocking;
+        }
+
+        MatchRuleSet set() {
+            return set;
+        }
+
+        /** Scorer whose blocking ranges cover every rule's tolerances. */
+        FuzzyScorer blocking() {
+            return blocking;
+        }
+
+        /** The most specific rule for a pair's scheme and channel codes. */
+        Rule select(int scheme, int channel) {
+            int last = rules.length - 1;
+            for (int i = 0; i < last; i++) {
+                Rule rule = rules[i];
+                if ((rule.scheme() == ANY || rule.scheme() == scheme)
+                        && (rule.channel() == ANY || rule.channel() == channel)) {
+                    return rule;
+                }
+            }
+            return rules[last];
+        }
+    }
+}
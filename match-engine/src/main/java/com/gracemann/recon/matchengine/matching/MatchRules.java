@@ -0,0 +1,165 @@
+package com.gracemann.recon.matchengine.matching;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * The {@link MatchRuleSet} in force, compiled from
+ * {@code recon.match.rules.file} and reloaded when the file changes.
+ *
+ * <p>
+ * The file is checked every {@code reload-interval-ms}. A changed file is
+ * compiled off the matching threads and swapped in with one volatile write;
+ * each matcher picks the new set up on its next leg, so traffic never
+ * pauses and a leg is always judged by one whole set. A file that does not
+ * compile is logged and the previous set stays in force. At startup, though,
+ * a broken file fails the application rather than silently matching with the
+ * defaults.
+ * </p>
+ *
+ * <p>
+ * Without a file every pair is judged by the {@code recon.match.fuzzy.*}
+ * settings alone.
+ * </p>
+ */
+@Component
+public class MatchRules {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchRules.class);
+
+    private final FuzzyScorer base;
+    private final Path file;
+    private final ScheduledExecutorService reloader;
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder failedReloads = new LongAdder();
+
+    private volatile MatchRuleSet current;
+    /** Modification time of the file last read; guarded by this. */
+    private FileTime loadedModified;
+
+    @Autowired
+    public MatchRules(FuzzyScorer base,
+            @Value("${recon.match.rules.file:}") String file,
+            @Value("${recon.match.rules.reload-interval-ms:10000}") long reloadIntervalMs) {
+        this.base = base;
+        this.file = file.isBlank() ? null : Paths.get(file);
+        if (this.file == null) {
+            this.current = MatchRuleSet.of(base);
+            this.reloader = null;
+            return;
+        }
+        this.loadedModified = modified();
+        this.current = load();
+        log.info("Match rules {} from {}", current.names(), this.file);
+        if (reloadIntervalMs > 0) {
+            this.reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "match-rules");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloader.scheduleWithFixedDelay(this::reload, reloadIntervalMs, reloadIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.reloader = null;
+        }
+    }
+
+    /** A fixed set, for tests, benchmarks and batch runs. */
+    public static MatchRules fixed(MatchRuleSet rules) {
+        return new MatchRules(rules);
+    }
+
+    private MatchRules(MatchRuleSet rules) {
+        this.base = null;
+        this.file = null;
+        this.reloader = null;
+        this.current = rules;
+    }
+
+    public MatchRuleSet current() {
+        return current;
+    }
+
+    /**
+     * Recompile the file if it changed since it was last read.
+     *
+     * @return whether a new rule set is now in force
+     */
+    public synchronized boolean reload() {
+        if (file == null) {
+            return false;
+        }
+        try {
+            FileTime modified = modified();
+            if (modified.equals(loadedModified)) {
+                return false;
+            }
+            loadedModified = modified;
+            MatchRuleSet rules = load();
+            current = rules;
+            reloads.increment();
+            log.info("Reloaded match rules {} from {}", rules.names(), file);
+            return true;
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            failedReloads.increment();
+            log.error("Match rules in {} not reloaded, keeping {}: {}", file, current.names(), e.getMessage());
+            return false;
+        }
+    }
+
+    /** Rule sets swapped in since startup. */
+    public long reloads() {
+        return reloads.sum();
+    }
+
+    /** Changed files that did not compile. */
+    public long failedReloads() {
+        return failedReloads.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private MatchRuleSet load() {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read match rules " + file, e);
+        }
+        return MatchRuleSet.parse(properties, base, file.toString());
+    }
+
+    private FileTime modified() {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read match rules " + file, e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.gracemann.recon.matchengine.matching;
+
+import com.gracemann.recon.matchengine.dto.MatchedPairDTO.MatchType;
+
+/**
+ * Bank and scheme legs of one reconciled transaction.
+ *
+ * @param bank   the BANK_SWITCH leg
+ * @param scheme the SCHEME_FILE leg
+ * @param type   how the legs were matched
+ * @param score  1 for exact matches, the fuzzy score otherwise
+ */
+public record MatchedPair(OpenItem bank, OpenItem scheme, MatchType type, double score) {
+
+    /** {@code bankTxnId|schemeTxnId}, the pair's id on {@code matched-txn-topic}. */
+    public String matchId() {
+        return bank.record().getTxnId() + "|" + scheme.record().getTxnId();
+    }
+}
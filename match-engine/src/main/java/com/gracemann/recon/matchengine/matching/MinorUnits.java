@@ -0,0 +1,46 @@
+package com.gracemann.recon.matchengine.matching;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point amounts for the open-item store.
+ *
+ * <p>
+ * An amount is held as a {@code long} count of 1/10,000ths of the currency
+ * unit, which represents every ISO 4217 minor unit exactly (the finest is four
+ * decimals). Amounts are compared as plain longs, so {@code 2500.00} and
+ * {@code 2500.0} are equal, as they are for {@link MatchKey}.
+ * </p>
+ */
+final class MinorUnits {
+
+    static final int SCALE = 4;
+
+    private static final long[] POWERS_OF_TEN = { 1, 10, 100, 1_000, 10_000 };
+
+    private MinorUnits() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the amount has more than
+     *                                  {@value #SCALE} decimals or does not fit
+     *                                  in a long
+     */
+    static long of(BigDecimal amount) {
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString() + " is not representable", e);
+        }
+    }
+
+    /** The amount back at the scale it arrived with. */
+    static BigDecimal toBigDecimal(long minor, int scale) {
+        if (scale >= 0 && scale <= SCALE) {
+            // exact: an amount of this scale is a whole multiple in minor units
+            return BigDecimal.valueOf(minor / POWERS_OF_TEN[SCALE - scale], scale);
+        }
+        return BigDecimal.valueOf(minor, SCALE).setScale(scale, RoundingMode.UNNECESSARY);
+    }
+}
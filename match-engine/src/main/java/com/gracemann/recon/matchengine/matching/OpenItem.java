@@ -0,0 +1,12 @@
+package com.gracemann.recon.matchengine.matching;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+
+/**
+ * A transaction leg that was waiting for its counterpart, rebuilt from the
+ * open-item store when it matched (or the arriving leg itself).
+ *
+ * @param arrivedAtMillis wall-clock time the leg reached the match engine
+ */
+public record OpenItem(TxnRecordDTO record, long arrivedAtMillis) {
+}
@@ -0,0 +1,38 @@
+package com.gracemann.recon.matchengine.matching;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+
+/**
+ * Receives every change {@link StreamingMatcher} makes to its open items.
+ *
+ * <p>
+ * Calls are made under the lock stripe of the leg's card, so for any one
+ * card they arrive in the order the changes were applied. Each call carries
+ * the position of the leg that caused it on {@code ingested-txn-topic}
+ * ({@code -1} when the leg did not come from Kafka). Implementations must be
+ * thread-safe and must not call back into the matcher.
+ * </p>
+ */
+public interface OpenItemJournal {
+
+    /** Journal that records nothing. */
+    OpenItemJournal NONE = new OpenItemJournal() {
+
+        @Override
+        public void opened(TxnRecordDTO record, long arrivedAtMillis, int partition, long offset) {
+        }
+
+        @Override
+        public void closed(TxnRecordDTO record, int partition, long offset) {
+        }
+    };
+
+    /** A leg found no counterpart and was left open. */
+    void opened(TxnRecordDTO record, long arrivedAtMillis, int partition, long offset);
+
+    /**
+     * An open leg was matched by the leg at {@code partition}/{@code offset}
+     * and removed.
+     */
+    void closed(TxnRecordDTO record, int partition, long offset);
+}
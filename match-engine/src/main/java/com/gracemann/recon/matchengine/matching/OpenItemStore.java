@@ -0,0 +1,774 @@
+package com.gracemann.recon.matchengine.matching;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+
+/**
+ * Columnar store of the open legs of one side within one lock stripe.
+ *
+ * <p>
+ * A leg is not kept as a {@link TxnRecordDTO} (with its {@code BigDecimal},
+ * {@code LocalDateTime} and a dozen {@code String}s) but spread over
+ * primitive columns, one entry per slot:
+ * </p>
+ * <ul>
+ * <li>amount as a {@code long} in {@link MinorUnits}, plus its original
+ * scale</li>
+ * <li>transaction timestamp and arrival time as epoch millis</li>
+ * <li>currency, channel and scheme as {@link StringDictionary} codes</li>
+ * <li>card number, txnId, authCode, terminal, merchant, response code, batch
+ * and raw record as UTF-8 in one shared byte arena</li>
+ * </ul>
+ *
+ * <p>
+ * Only the bounded columns go through the dictionary. Terminal and merchant
+ * ids run to millions and batch ids change daily; as dictionary codes they
+ * would outlive the legs that carried them. In the arena they go when their
+ * slot is compacted away.
+ * </p>
+ *
+ * <p>
+ * Every probe, insert and delete touches most columns of a single slot, so
+ * the {@code long} columns share one array and the {@code int} columns
+ * another, interleaved per slot: a leg costs three cache lines rather than
+ * one per column.
+ * </p>
+ *
+ * <p>
+ * The exact and fuzzy-blocking indexes are {@link LongIntMap}s from a 64-bit
+ * key hash to the head slot of a chain threaded through the {@code int}
+ * columns, so an open leg costs no objects at all. Hash collisions only
+ * lengthen a chain: every hit is verified against the columns. A leg is
+ * rebuilt into a {@link TxnRecordDTO} only when it matches.
+ * </p>
+ *
+ * <p>
+ * In front of both indexes sits a {@link CountingBloomFilter} of the card ×
+ * currency of every open leg. Most arriving legs are first legs with no
+ * counterpart yet; {@link #mayHold} lets them skip the exact and fuzzy
+ * probes entirely. The filter is sized with the columns and rebuilt when
+ * they are resized.
+ * </p>
+ *
+ * <p>
+ * Deletes unlink the slot from both indexes and leave a tombstone. A full
+ * store that is at least half tombstones compacts in place instead of
+ * growing (slots and arena slide down, indexes are rebuilt), and a large
+ * store compacts as soon as tombstones outnumber live legs, shrinking
+ * oversized arrays. The cost is amortised over the deletes, and the heap
+ * follows the backlog down again. Not thread-safe; callers hold the stripe
+ * lock.
+ * </p>
+ */
+final class OpenItemStore {
+
+    /** Passed to {@link #take} when the caller has no exact-key hash at hand. */
+    static final long UNKNOWN_HASH = 0;
+
+    private static final int NONE = -1;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final int MIN_CAPACITY = 16;
+    /** Tombstones before a delete may compact; smaller stores compact when full. */
+    private static final int MIN_COMPACT_TOMBSTONES = 1024;
+    private static final int MIN_SHRINK_CAPACITY = 1024;
+    private static final long HASH_STEP = 0x9E3779B97F4A7C15L;
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class,
+            ByteOrder.LITTLE_ENDIAN);
+
+    /* long columns */
+    private static final int AMOUNT = 0;
+    private static final int TIMESTAMP = 1;
+    private static final int ARRIVED_AT = 2;
+    private static final int LONG_COLUMNS = 3;
+
+    /* int columns */
+    private static final int CURRENCY = 0;
+    private static final int CHANNEL = 1;
+    private static final int SCHEME_NAME = 2;
+    /** Flags in the low byte, amount scale in the next. */
+    private static final int FLAGS = 3;
+    private static final int TEXT_START = 4;
+    /** Same-hash chain of the exact index, oldest first. */
+    private static final int EXACT_NEXT = 5;
+    /** Doubly linked chain of a fuzzy block (card × currency × day × band). */
+    private static final int BLOCK_NEXT = 6;
+    private static final int BLOCK_PREV = 7;
+    private static final int INT_COLUMNS = 8;
+
+    private static final int LIVE = 1;
+    private static final int BLOCKED = 2;
+    private static final int HAS_TIMESTAMP = 4;
+    private static final int HAS_TXN_ID = 8;
+    private static final int HAS_AUTH_CODE = 16;
+    /* Non-blank terminal, merchant and response code. */
+    private static final int HAS_TERMINAL = 32;
+    private static final int HAS_MERCHANT = 64;
+    private static final int HAS_RESPONSE_CODE = 128;
+
+    /* Arena fields of a slot, in this order. */
+    private static final int CARD = 0;
+    private static final int TXN_ID = 1;
+    private static final int AUTH_CODE = 2;
+    private static final int TERMINAL = 3;
+    private static final int MERCHANT = 4;
+    private static final int RESPONSE_CODE = 5;
+    private static final int BATCH_ID = 6;
+
+    private static final int SLOT_BYTES = LONG_COLUMNS * Long.BYTES + INT_COLUMNS * Integer.BYTES;
+    private static final int INITIAL_TEXT = MIN_CAPACITY * 80;
+
+    private final SourceType source;
+    private final StringDictionary dictionary;
+    private final FuzzyScorer scorer;
+    private final LongAdder compactions;
+
+    private long[] longs = new long[MIN_CAPACITY * LONG_COLUMNS];
+    private int[] ints = new int[MIN_CAPACITY * INT_COLUMNS];
+    private int capacity = MIN_CAPACITY;
+
+    private byte[] text = new byte[INITIAL_TEXT];
+    private int textSize;
+
+    private int slots;
+    private int live;
+
+    private LongIntMap exact = new LongIntMap(MIN_CAPACITY);
+    private LongIntMap blocks = new LongIntMap(MIN_CAPACITY);
+    private CountingBloomFilter filter = new CountingBloomFilter(MIN_CAPACITY);
+
+    OpenItemStore(SourceType source, StringDictionary dictionary, FuzzyScorer scorer, LongAdder compactions) {
+        this.source = source;
+        this.dictionary = dictionary;
+        this.scorer = scorer;
+        this.compactions = compactions;
+    }
+
+    /**
+     * Whether an open leg may share the probe's card and currency. If not,
+     * neither {@link #findExact} nor {@link #findFuzzy} can find anything.
+     */
+    boolean mayHold(Probe probe) {
+        return live > 0 && filter.mightContain(probe.presenceHash);
+    }
+
+    /**
+     * Oldest open leg with the probe's exact key.
+     *
+     * @return its slot, or {@code -1}
+     */
+    int findExact(Probe probe) {
+        for (int s = exact.get(probe.exactHash); s != NONE; s = ints[s * INT_COLUMNS + EXACT_NEXT]) {
+            int row = s * INT_COLUMNS;
+            int reference = (ints[row + FLAGS] & HAS_TXN_ID) != 0 ? TXN_ID : AUTH_CODE;
+            if (longs[s * LONG_COLUMNS + AMOUNT] == probe.amount && ints[row + CURRENCY] == probe.currency
+                    && textEquals(s, CARD, probe.card) && textEquals(s, reference, probe.reference)) {
+                return s;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Best fuzzy candidate for a blockable probe. Only the day buckets and
+     * amount bands that some rule can accept are visited. Each candidate is
+     * checked and scored by the rule for its pair's scheme and channel; the
+     * number of candidates scored and the best score are left on the probe.
+     *
+     * @return slot of the best-scoring candidate that reaches its rule's
+     *         minimum score, or {@code -1}; its score is left in
+     *         {@link Probe#matchScore}
+     */
+    int findFuzzy(Probe probe, MatchRuleSet.Bound rules) {
+        int best = NONE;
+        boolean bankSide = source == SourceType.BANK_SWITCH;
+        long[] days = rules.blocking().dayRange(probe.day);
+        long[] bands = rules.blocking().amountBandRange(probe.amount);
+        for (long day = days[0]; day <= days[1]; day++) {
+            for (long band = bands[0]; band <= bands[1]; band++) {
+                long hash = blockHash(probe.cardHash, probe.currency, day, band);
+                for (int s = blocks.get(hash); s != NONE; s = ints[s * INT_COLUMNS + BLOCK_NEXT]) {
+                    int row = s * INT_COLUMNS;
+                    if (ints[row + CURRENCY] != probe.currency || !textEquals(s, CARD, probe.card)) {
+                        continue;
+                    }
+                    // the scheme leg names the scheme, the bank leg the channel
+                    MatchRuleSet.Rule rule = bankSide
+                            ? rules.select(probe.schemeName, ints[row + CHANNEL])
+                            : rules.select(ints[row + SCHEME_NAME], probe.channel);
+                    if (!rule.check().test(this, s, probe)) {
+                        continue;
+                    }
+                    probe.candidates++;
+                    FuzzyScorer ruleScorer = rule.scorer();
+                    double score = ruleScorer.score(probe.amount, longs[s * LONG_COLUMNS + AMOUNT], probe.day, day(s),
+                            sameReference(s, probe),
+                            compare(s, TERMINAL, HAS_TERMINAL, probe.terminal),
+                            compare(s, MERCHANT, HAS_MERCHANT, probe.merchant));
+                    probe.bestScore = Math.max(probe.bestScore, score);
+                    if (score >= ruleScorer.minScore() && score > probe.matchScore) {
+                        probe.matchScore = score;
+                        best = s;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /** Open the probe's leg. */
+    void add(Probe probe, long arrivedAtMillis) {
+        if (slots == capacity) {
+            if (slots - live >= slots / 2) {
+                compact();
+            } else {
+                resize(capacity + (capacity >> 1));
+            }
+        }
+        TxnRecordDTO dto = probe.dto;
+        int s = slots++;
+        int lrow = s * LONG_COLUMNS;
+        longs[lrow + AMOUNT] = probe.amount;
+        longs[lrow + TIMESTAMP] = probe.timestamp;
+        longs[lrow + ARRIVED_AT] = arrivedAtMillis;
+
+        int scale = Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, dto.getAmount().scale()));
+        int flags = LIVE
+                | (probe.blockable ? BLOCKED : 0)
+                | (dto.getTxnTimestamp() != null ? HAS_TIMESTAMP : 0)
+                | (probe.txnId != null ? HAS_TXN_ID : 0)
+                | (probe.authCode != null ? HAS_AUTH_CODE : 0)
+                | (probe.terminal != null ? HAS_TERMINAL : 0)
+                | (probe.merchant != null ? HAS_MERCHANT : 0)
+                | (probe.responseCode != null ? HAS_RESPONSE_CODE : 0);
+        int row = s * INT_COLUMNS;
+        ints[row + CURRENCY] = probe.currency;
+        // a probe only looks channel and scheme up; the leg that opens adds them
+        ints[row + CHANNEL] = encode(probe.channel, dto.getChannel());
+        ints[row + SCHEME_NAME] = encode(probe.schemeName, dto.getSchemeName());
+        ints[row + FLAGS] = flags | (scale & 0xFF) << 8;
+        ints[row + TEXT_START] = textSize;
+
+        appendText(probe.card);
+        appendText(probe.txnId != null ? probe.txnId : bytes(dto.getTxnId()));
+        appendText(probe.authCode != null ? probe.authCode : bytes(dto.getAuthCode()));
+        appendText(probe.terminal != null ? probe.terminal : bytes(dto.getTerminalId()));
+        appendText(probe.merchant != null ? probe.merchant : bytes(dto.getMerchantId()));
+        appendText(probe.responseCode != null ? probe.responseCode : bytes(dto.getResponseCode()));
+        appendText(bytes(dto.getBatchId()));
+        appendText(bytes(dto.getRawSourceRecord()));
+
+        link(s, probe.exactHash, probe.blockable ? blockHash(probe.cardHash, probe.currency, probe.day,
+                scorer.amountBand(probe.amount)) : 0);
+        filter.add(probe.presenceHash);
+        live++;
+    }
+
+    /**
+     * Remove an open leg and rebuild it for publishing. May compact the
+     * store, which invalidates every other slot number.
+     *
+     * @param exactHash the slot's exact-key hash if the caller has it (an
+     *                  exact hit), else {@link #UNKNOWN_HASH}
+     */
+    OpenItem take(int s, long exactHash) {
+        OpenItem item = new OpenItem(materialize(s), longs[s * LONG_COLUMNS + ARRIVED_AT]);
+        unlinkExact(s, exactHash != UNKNOWN_HASH ? exactHash : exactHash(s));
+        if ((flags(s) & BLOCKED) != 0) {
+            unlinkBlock(s);
+        }
+        filter.remove(presenceHash(s));
+        ints[s * INT_COLUMNS + FLAGS] = 0;
+        live--;
+        int tombstones = slots - live;
+        if ((tombstones >= MIN_COMPACT_TOMBSTONES && tombstones > live)
+                || (live == 0 && capacity > MIN_SHRINK_CAPACITY)) {
+            compact();
+        }
+        return item;
+    }
+
+    /**
+     * Remove every open leg whose event time is at or before {@code cutoff}
+     * in one pass, compacting at most once at the end. Legs without a
+     * transaction timestamp age by their arrival time.
+     *
+     * @return legs removed
+     */
+    int expire(long cutoff, Consumer<OpenItem> action) {
+        int expired = 0;
+        for (int s = 0; s < slots; s++) {
+            if ((flags(s) & LIVE) == 0 || eventTime(s) > cutoff) {
+                continue;
+            }
+            action.accept(new OpenItem(materialize(s), longs[s * LONG_COLUMNS + ARRIVED_AT]));
+            unlinkExact(s, exactHash(s));
+            if ((flags(s) & BLOCKED) != 0) {
+                unlinkBlock(s);
+            }
+            filter.remove(presenceHash(s));
+            ints[s * INT_COLUMNS + FLAGS] = 0;
+            live--;
+            expired++;
+        }
+        int tombstones = slots - live;
+        if (expired > 0 && ((tombstones >= MIN_COMPACT_TOMBSTONES && tombstones > live)
+                || (live == 0 && capacity > MIN_SHRINK_CAPACITY))) {
+            compact();
+        }
+        return expired;
+    }
+
+    int live() {
+        return live;
+    }
+
+    /** Rebuild every open leg, oldest first. */
+    void forEachOpen(Consumer<OpenItem> action) {
+        for (int s = 0; s < slots; s++) {
+            if ((flags(s) & LIVE) != 0) {
+                action.accept(new OpenItem(materialize(s), longs[s * LONG_COLUMNS + ARRIVED_AT]));
+            }
+        }
+    }
+
+    /** Approximate heap taken by columns, arena, indexes and filter. */
+    long heapBytes() {
+        return (long) capacity * SLOT_BYTES + text.length + exact.heapBytes() + blocks.heapBytes()
+                + filter.heapBytes();
+    }
+
+    /** Estimated chance that {@link #mayHold} passes a probe with no counterpart. */
+    double filterFalsePositiveProbability() {
+        return filter.falsePositiveProbability();
+    }
+
+    /**
+     * Compiled check that a candidate and the probe both carry a non-blank
+     * {@code field} and agree on it, for {@link MatchRuleSet} rules. The
+     * field name is resolved here, once; the check itself reads one column.
+     *
+     * @throws IllegalArgumentException if {@code field} cannot be required
+     */
+    static FieldCheck sameField(String field) {
+        return switch (field) {
+            case "terminalId" -> (store, s, probe) -> probe.terminal != null
+                    && (store.flags(s) & HAS_TERMINAL) != 0 && store.textEquals(s, TERMINAL, probe.terminal);
+            case "merchantId" -> (store, s, probe) -> probe.merchant != null
+                    && (store.flags(s) & HAS_MERCHANT) != 0 && store.textEquals(s, MERCHANT, probe.merchant);
+            case "responseCode" -> (store, s, probe) -> probe.responseCode != null
+                    && (store.flags(s) & HAS_RESPONSE_CODE) != 0
+                    && store.textEquals(s, RESPONSE_CODE, probe.responseCode);
+            case "authCode" -> (store, s, probe) -> probe.authCode != null
+                    && (store.flags(s) & HAS_AUTH_CODE) != 0 && store.textEquals(s, AUTH_CODE, probe.authCode);
+            case "txnId" -> (store, s, probe) -> probe.txnId != null
+                    && (store.flags(s) & HAS_TXN_ID) != 0 && store.textEquals(s, TXN_ID, probe.txnId);
+            default -> throw new IllegalArgumentException("Cannot require field " + field
+                    + "; expected terminalId, merchantId, responseCode, authCode or txnId");
+        };
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private TxnRecordDTO materialize(int s) {
+        int row = s * INT_COLUMNS;
+        int lrow = s * LONG_COLUMNS;
+        int flags = ints[row + FLAGS];
+        int pos = ints[row + TEXT_START];
+        String card = text(pos);
+        pos = skip(pos);
+        String txnId = text(pos);
+        pos = skip(pos);
+        String authCode = text(pos);
+        pos = skip(pos);
+        String terminal = text(pos);
+        pos = skip(pos);
+        String merchant = text(pos);
+        pos = skip(pos);
+        String responseCode = text(pos);
+        pos = skip(pos);
+        String batchId = text(pos);
+        pos = skip(pos);
+        String raw = text(pos);
+        return new TxnRecordDTO(
+                txnId,
+                card,
+                MinorUnits.toBigDecimal(longs[lrow + AMOUNT], (byte) (flags >> 8)),
+                (flags & HAS_TIMESTAMP) != 0 ? toLocalDateTime(longs[lrow + TIMESTAMP]) : null,
+                dictionary.decode(ints[row + CURRENCY]),
+                merchant,
+                terminal,
+                responseCode,
+                dictionary.decode(ints[row + CHANNEL]),
+                batchId,
+                dictionary.decode(ints[row + SCHEME_NAME]),
+                authCode,
+                source,
+                raw);
+    }
+
+    private void link(int s, long exactHash, long blockHash) {
+        int row = s * INT_COLUMNS;
+        ints[row + EXACT_NEXT] = NONE;
+        int head = exact.get(exactHash);
+        if (head == NONE) {
+            exact.put(exactHash, s);
+        } else {
+            while (ints[head * INT_COLUMNS + EXACT_NEXT] != NONE) {
+                head = ints[head * INT_COLUMNS + EXACT_NEXT];
+            }
+            ints[head * INT_COLUMNS + EXACT_NEXT] = s;
+        }
+        ints[row + BLOCK_NEXT] = NONE;
+        ints[row + BLOCK_PREV] = NONE;
+        if ((ints[row + FLAGS] & BLOCKED) != 0) {
+            int first = blocks.get(blockHash);
+            if (first != NONE) {
+                ints[row + BLOCK_NEXT] = first;
+                ints[first * INT_COLUMNS + BLOCK_PREV] = s;
+            }
+            blocks.put(blockHash, s);
+        }
+    }
+
+    private void unlinkExact(int s, long hash) {
+        int next = ints[s * INT_COLUMNS + EXACT_NEXT];
+        int head = exact.get(hash);
+        if (head == s) {
+            if (next == NONE) {
+                exact.remove(hash);
+            } else {
+                exact.put(hash, next);
+            }
+        } else {
+            while (head != NONE && ints[head * INT_COLUMNS + EXACT_NEXT] != s) {
+                head = ints[head * INT_COLUMNS + EXACT_NEXT];
+            }
+            if (head != NONE) {
+                ints[head * INT_COLUMNS + EXACT_NEXT] = next;
+            }
+        }
+        ints[s * INT_COLUMNS + EXACT_NEXT] = NONE;
+    }
+
+    private void unlinkBlock(int s) {
+        int row = s * INT_COLUMNS;
+        int prev = ints[row + BLOCK_PREV];
+        int next = ints[row + BLOCK_NEXT];
+        if (prev == NONE) {
+            long hash = blockHash(s);
+            if (next == NONE) {
+                blocks.remove(hash);
+            } else {
+                blocks.put(hash, next);
+            }
+        } else {
+            ints[prev * INT_COLUMNS + BLOCK_NEXT] = next;
+        }
+        if (next != NONE) {
+            ints[next * INT_COLUMNS + BLOCK_PREV] = prev;
+        }
+        ints[row + BLOCK_NEXT] = NONE;
+        ints[row + BLOCK_PREV] = NONE;
+    }
+
+    /**
+     * Slide live slots and their arena bytes down over the tombstones, shrink
+     * oversized arrays and rebuild both indexes in arrival order.
+     */
+    private void compact() {
+        int to = 0;
+        int textTo = 0;
+        for (int from = 0; from < slots; from++) {
+            int textEnd = from + 1 < slots ? ints[(from + 1) * INT_COLUMNS + TEXT_START] : textSize;
+            if ((flags(from) & LIVE) == 0) {
+                continue;
+            }
+            int textFrom = ints[from * INT_COLUMNS + TEXT_START];
+            System.arraycopy(text, textFrom, text, textTo, textEnd - textFrom);
+            System.arraycopy(longs, from * LONG_COLUMNS, longs, to * LONG_COLUMNS, LONG_COLUMNS);
+            System.arraycopy(ints, from * INT_COLUMNS, ints, to * INT_COLUMNS, INT_COLUMNS);
+            ints[to * INT_COLUMNS + TEXT_START] = textTo;
+            textTo += textEnd - textFrom;
+            to++;
+        }
+        Arrays.fill(ints, to * INT_COLUMNS, slots * INT_COLUMNS, 0);
+        slots = to;
+        textSize = textTo;
+        if (text.length > 4 * Math.max(INITIAL_TEXT, textSize)) {
+            text = Arrays.copyOf(text, Math.max(INITIAL_TEXT, 2 * textSize));
+        }
+        if (capacity > MIN_SHRINK_CAPACITY && capacity > 4 * live) {
+            resize(Math.max(MIN_CAPACITY, 2 * live));
+            exact = new LongIntMap(live);
+            blocks = new LongIntMap(live);
+        } else {
+            exact.clear();
+            blocks.clear();
+        }
+        for (int s = 0; s < slots; s++) {
+            link(s, exactHash(s), (flags(s) & BLOCKED) != 0 ? blockHash(s) : 0);
+        }
+        compactions.increment();
+    }
+
+    /** Resize the columns, and the filter with them; compaction alone leaves the filter as it is. */
+    private void resize(int newCapacity) {
+        longs = Arrays.copyOf(longs, newCapacity * LONG_COLUMNS);
+        ints = Arrays.copyOf(ints, newCapacity * INT_COLUMNS);
+        capacity = newCapacity;
+        filter = new CountingBloomFilter(newCapacity);
+        for (int s = 0; s < slots; s++) {
+            if ((flags(s) & LIVE) != 0) {
+                filter.add(presenceHash(s));
+            }
+        }
+    }
+
+    private int flags(int s) {
+        return ints[s * INT_COLUMNS + FLAGS];
+    }
+
+    private long eventTime(int s) {
+        return longs[s * LONG_COLUMNS + ((flags(s) & HAS_TIMESTAMP) != 0 ? TIMESTAMP : ARRIVED_AT)];
+    }
+
+    private long day(int s) {
+        return Math.floorDiv(longs[s * LONG_COLUMNS + TIMESTAMP], MILLIS_PER_DAY);
+    }
+
+    /** The probe's code, or the value's code added to the dictionary if the probe missed it. */
+    private int encode(int code, String value) {
+        return code != StringDictionary.MISSING ? code : dictionary.encode(value);
+    }
+
+    /** {@link FuzzyScorer#compare} of an arena id of the slot and the probe's. */
+    private double compare(int s, int field, int flag, byte[] value) {
+        boolean both = value != null && (flags(s) & flag) != 0;
+        return FuzzyScorer.compare(both, both && textEquals(s, field, value));
+    }
+
+    private boolean sameReference(int s, Probe probe) {
+        int flags = flags(s);
+        return (probe.txnId != null && (flags & HAS_TXN_ID) != 0 && textEquals(s, TXN_ID, probe.txnId))
+                || (probe.authCode != null && (flags & HAS_AUTH_CODE) != 0
+                        && textEquals(s, AUTH_CODE, probe.authCode));
+    }
+
+    private long exactHash(int s) {
+        int reference = (flags(s) & HAS_TXN_ID) != 0 ? TXN_ID : AUTH_CODE;
+        return exactHash(textHash(s, CARD), longs[s * LONG_COLUMNS + AMOUNT], ints[s * INT_COLUMNS + CURRENCY],
+                textHash(s, reference));
+    }
+
+    private long presenceHash(int s) {
+        return presenceHash(textHash(s, CARD), ints[s * INT_COLUMNS + CURRENCY]);
+    }
+
+    private long blockHash(int s) {
+        return blockHash(textHash(s, CARD), ints[s * INT_COLUMNS + CURRENCY], day(s),
+                scorer.amountBand(longs[s * LONG_COLUMNS + AMOUNT]));
+    }
+
+    static long exactHash(long cardHash, long amount, int currency, long referenceHash) {
+        return mix(((cardHash * HASH_STEP + amount) * HASH_STEP + currency) * HASH_STEP + referenceHash);
+    }
+
+    static long presenceHash(long cardHash, int currency) {
+        return mix(cardHash * HASH_STEP + currency);
+    }
+
+    static long blockHash(long cardHash, int currency, long day, long band) {
+        return mix(((cardHash * HASH_STEP + currency) * HASH_STEP + day) * HASH_STEP + band);
+    }
+
+    /** Hash of a byte range, eight bytes at a time. */
+    static long hash(byte[] bytes, int from, int length) {
+        long h = 0xCBF29CE484222325L ^ length;
+        int end = from + length;
+        int i = from;
+        for (; i + Long.BYTES <= end; i += Long.BYTES) {
+            h = Long.rotateLeft(h ^ (long) LONGS.get(bytes, i) * HASH_STEP, 29) * 0xBF58476D1CE4E5B9L;
+        }
+        for (; i < end; i++) {
+            h = (h ^ bytes[i]) * 0x100000001B3L;
+        }
+        return h;
+    }
+
+    private static long mix(long h) {
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /* Arena: each field is a varint of (length + 1), 0 for null, then its bytes. */
+
+    private void appendText(byte[] value) {
+        int length = value == null ? 0 : value.length;
+        if (textSize + length + 5 > text.length) {
+            text = Arrays.copyOf(text, Math.max(text.length * 2, textSize + length + 5));
+        }
+        int header = value == null ? 0 : length + 1;
+        while ((header & ~0x7F) != 0) {
+            text[textSize++] = (byte) ((header & 0x7F) | 0x80);
+            header >>>= 7;
+        }
+        text[textSize++] = (byte) header;
+        if (value != null) {
+            System.arraycopy(value, 0, text, textSize, length);
+            textSize += length;
+        }
+    }
+
+    private int fieldStart(int s, int field) {
+        int pos = ints[s * INT_COLUMNS + TEXT_START];
+        for (int i = 0; i < field; i++) {
+            pos = skip(pos);
+        }
+        return pos;
+    }
+
+    /** Position of the field after the one at {@code pos}. */
+    private int skip(int pos) {
+        return pos + headerLength(pos) + Math.max(0, fieldLength(pos));
+    }
+
+    private int headerLength(int pos) {
+        int length = 1;
+        while ((text[pos++] & 0x80) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    /** Length of the field at {@code pos}, or {@code -1} for null. */
+    private int fieldLength(int pos) {
+        int header = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = text[pos++];
+            header |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return header - 1;
+    }
+
+    private boolean textEquals(int s, int field, byte[] value) {
+        int pos = fieldStart(s, field);
+        int length = fieldLength(pos);
+        if (length != value.length) {
+            return false;
+        }
+        int from = pos + headerLength(pos);
+        return Arrays.equals(text, from, from + length, value, 0, length);
+    }
+
+    private long textHash(int s, int field) {
+        int pos = fieldStart(s, field);
+        return hash(text, pos + headerLength(pos), Math.max(0, fieldLength(pos)));
+    }
+
+    private String text(int pos) {
+        int length = fieldLength(pos);
+        return length < 0 ? null : new String(text, pos + headerLength(pos), length, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000),
+                (int) Math.floorMod(epochMillis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    /** A compiled test of a candidate slot against a probe. */
+    @FunctionalInterface
+    interface FieldCheck {
+
+        FieldCheck ALWAYS = (store, s, probe) -> true;
+
+        boolean test(OpenItemStore store, int s, Probe probe);
+
+        default FieldCheck and(FieldCheck other) {
+            return (store, s, probe) -> test(store, s, probe) && other.test(store, s, probe);
+        }
+    }
+
+    /**
+     * An arriving leg, encoded once into the store's representation so it
+     * can be probed against and added to either side. Also carries the
+     * outcome of {@link #findFuzzy}.
+     */
+    static final class Probe {
+
+        final TxnRecordDTO dto;
+        final long amount;
+        final long timestamp;
+        final long day;
+        final int currency;
+        /** Dictionary codes, {@link StringDictionary#MISSING} if not yet known. */
+        final int channel;
+        final int schemeName;
+        /** Non-blank terminal, merchant and response code bytes, else null. */
+        final byte[] terminal;
+        final byte[] merchant;
+        final byte[] responseCode;
+        final boolean blockable;
+        final byte[] card;
+        final byte[] reference;
+        /** Non-blank txnId / authCode bytes, else null. */
+        final byte[] txnId;
+        final byte[] authCode;
+        final long cardHash;
+        final long exactHash;
+        final long presenceHash;
+
+        int candidates;
+        double bestScore = FuzzyScorer.REJECT;
+        /** Score of the candidate {@link #findFuzzy} picked. */
+        double matchScore = FuzzyScorer.REJECT;
+
+        /**
+         * @param dto a record with a complete {@link MatchKey}
+         * @throws IllegalArgumentException if the amount cannot be held in
+         *                                  {@link MinorUnits}
+         */
+        Probe(TxnRecordDTO dto, StringDictionary dictionary, FuzzyScorer scorer) {
+            this.dto = dto;
+            this.amount = MinorUnits.of(dto.getAmount());
+            LocalDateTime ts = dto.getTxnTimestamp();
+            this.timestamp = ts == null ? 0
+                    : Math.addExact(Math.multiplyExact(ts.toEpochSecond(ZoneOffset.UTC), 1000L),
+                            ts.getNano() / 1_000_000);
+            this.day = Math.floorDiv(timestamp, MILLIS_PER_DAY);
+            // part of every index hash, so always encoded; ISO 4217 keeps it small
+            this.currency = dictionary.encode(dto.getCurrency());
+            // a code no open leg or rule carries selects the same rule as none
+            this.channel = dictionary.lookup(dto.getChannel());
+            this.schemeName = dictionary.lookup(dto.getSchemeName());
+            this.terminal = MatchKey.isBlank(dto.getTerminalId()) ? null : bytes(dto.getTerminalId());
+            this.merchant = MatchKey.isBlank(dto.getMerchantId()) ? null : bytes(dto.getMerchantId());
+            this.responseCode = MatchKey.isBlank(dto.getResponseCode()) ? null : bytes(dto.getResponseCode());
+            this.blockable = scorer.isBlockable(dto);
+            this.card = bytes(dto.getCardNumber());
+            this.txnId = MatchKey.isBlank(dto.getTxnId()) ? null : bytes(dto.getTxnId());
+            this.authCode = MatchKey.isBlank(dto.getAuthCode()) ? null : bytes(dto.getAuthCode());
+            this.reference = txnId != null ? txnId : authCode;
+            this.cardHash = hash(card, 0, card.length);
+            this.exactHash = OpenItemStore.exactHash(cardHash, amount, currency, hash(reference, 0, reference.length));
+            this.presenceHash = OpenItemStore.presenceHash(cardHash, currency);
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package com.gracemann.recon.matchengine.matching;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.gracemann.recon.matchengine.dto.MatchedPairDTO.MatchType;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.matchengine.matching.OpenItemStore.Probe;
+
+/**
+ * Streaming two-way matcher: exact first, then fuzzy.
+ *
+ * <p>
+ * Open items are held in two exact indexes, one per {@link SourceType}, keyed
+ * by {@link MatchKey}. When a leg arrives the opposite index is probed; a hit
+ * is removed and returned as an exact {@link MatchedPair}. Both steps are
+ * O(1).
+ * </p>
+ *
+ * <p>
+ * On an exact miss the fuzzy stage looks for a near-miss counterpart. Each
+ * side also keeps a blocking index of card × currency × day bucket × amount
+ * band, and only the buckets and bands that
+ * {@link FuzzyScorer} says can be within tolerance are probed. The
+ * best-scoring candidate at or above the minimum score is matched; otherwise
+ * the leg joins its own side's indexes. Which fields must agree, the
+ * tolerances and the minimum score depend on the pair's scheme and channel,
+ * per the {@link MatchRules} in force.
+ * </p>
+ *
+ * <p>
+ * A leg whose card and currency have nothing open on the other side skips
+ * both stages: each store keeps a counting Bloom filter of them, and most
+ * legs are first legs.
+ * </p>
+ *
+ * <p>
+ * Open legs live in columnar {@link OpenItemStore}s rather than as DTOs, so a
+ * full day's T+1 backlog stays small on the heap and cheap for the GC to
+ * trace; the bounded low-cardinality fields share one {@link StringDictionary}.
+ * </p>
+ *
+ * <p>
+ * All stores are split into lock stripes by card number. Listener threads
+ * working on different cards never contend, and probe-then-insert is atomic
+ * per card: two legs arriving at the same time always find each other.
+ * </p>
+ *
+ * <p>
+ * Every change to the open items is reported to an attached
+ * {@link OpenItemJournal} under the stripe lock, and {@link #forEachStripe}
+ * hands out a stripe's open legs under the same lock, so a journal can cut a
+ * consistent snapshot per stripe while matching carries on. The
+ * {@code restore} methods rebuild the open items on startup without matching
+ * or journalling.
+ * </p>
+ *
+ * <p>
+ * With {@link EventTimeAging} enabled, each side keeps an event-time
+ * {@link Watermark} and a {@link TimerWheel} of its open legs' deadlines.
+ * {@link #expire} sweeps the stripes whose deadlines the other side's
+ * watermark has passed and closes those legs in bulk, as exception
+ * candidates.
+ * </p>
+ *
+ * <p>
+ * Legs are co-partitioned by card, so each partition of
+ * {@code ingested-txn-topic} is matched by a matcher of its own (see
+ * {@code MatchShards}).
+ * </p>
+ */
+public class StreamingMatcher {
+
+    private final FuzzyScorer scorer;
+    private final MatchRules rules;
+    private final EventTimeAging aging;
+    private final StringDictionary dictionary = new StringDictionary();
+    private final Stripe[] stripes;
+    private final int mask;
+    private final LongAdder openBank = new LongAdder();
+    private final LongAdder openScheme = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+    private final Watermark bankWatermark;
+    private final Watermark schemeWatermark;
+    /** Deadlines of open bank legs, advanced by the scheme watermark, and vice versa. */
+    private final TimerWheel bankWheel;
+    private final TimerWheel schemeWheel;
+    private final LongAdder lateBank = new LongAdder();
+    private final LongAdder lateScheme = new LongAdder();
+    private final LongAdder probesSaved = new LongAdder();
+    private final LongAdder probesWasted = new LongAdder();
+    private volatile OpenItemJournal journal = OpenItemJournal.NONE;
+    private volatile MatchRuleSet.Bound boundRules;
+
+    /** A matcher whose legs stay open until they match. */
+    public StreamingMatcher(FuzzyScorer scorer, int lockStripes) {
+        this(scorer, EventTimeAging.disabled(), lockStripes);
+    }
+
+    /** A matcher without scheme- or channel-specific rules. */
+    public StreamingMatcher(FuzzyScorer scorer, EventTimeAging aging, int lockStripes) {
+        this(scorer, MatchRules.fixed(MatchRuleSet.of(scorer)), aging, lockStripes);
+    }
+
+    public StreamingMatcher(FuzzyScorer scorer, MatchRules rules, EventTimeAging aging, int lockStripes) {
+        this.scorer = scorer;
+        this.rules = rules;
+        this.aging = aging;
+        int size = Integer.highestOneBit(Math.max(1, lockStripes - 1)) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe(dictionary, scorer, compactions);
+        }
+        this.mask = size - 1;
+        this.bankWatermark = new Watermark(aging.allowedLatenessMs(SourceType.BANK_SWITCH));
+        this.schemeWatermark = new Watermark(aging.allowedLatenessMs(SourceType.SCHEME_FILE));
+        this.bankWheel = new TimerWheel(aging.bucketMs(), aging.wheelSlots());
+        this.schemeWheel = new TimerWheel(aging.bucketMs(), aging.wheelSlots());
+        this.boundRules = rules.current().bind(dictionary);
+    }
+
+    /**
+     * Match a leg that did not come from Kafka.
+     *
+     * @see #offer(TxnRecordDTO, long, int, long)
+     */
+    public MatchOutcome offer(TxnRecordDTO dto, long arrivedAtMillis) {
+        return offer(dto, arrivedAtMillis, -1, -1L);
+    }
+
+    /**
+     * Match a leg against the open items of the other side, or leave it open.
+     *
+     * @param arrivedAtMillis wall-clock arrival time recorded on the open item
+     * @param partition       partition and offset of the leg on
+     *                        {@code ingested-txn-topic}, passed to the journal
+     * @throws IllegalArgumentException if the record has no source type or no
+     *                                  complete match key, or an amount with
+     *                                  more than four decimals
+     */
+    public MatchOutcome offer(TxnRecordDTO dto, long arrivedAtMillis, int partition, long offset) {
+        SourceType source = dto.getSourceType();
+        if (source == null || MatchKey.reference(dto) == null) {
+            throw new IllegalArgumentException("Record " + dto.getTxnId() + " has no source type or match key");
+        }
+        Probe probe = new Probe(dto, dictionary, scorer);
+        boolean bank = source == SourceType.BANK_SWITCH;
+        long eventTime = eventTime(probe, arrivedAtMillis);
+        if (aging.isEnabled() && (bank ? bankWatermark : schemeWatermark).observe(eventTime, dto.getBatchId())) {
+            (bank ? lateBank : lateScheme).increment();
+        }
+
+        int index = stripeOf(dto.getCardNumber(), mask + 1);
+        Stripe stripe = stripes[index];
+        boolean probed;
+        synchronized (stripe) {
+            OpenItemStore own = bank ? stripe.bank : stripe.scheme;
+            OpenItemStore other = bank ? stripe.scheme : stripe.bank;
+
+            // 0️⃣ Filter ------------------------------------------------------
+            // a first leg finds nothing of its card and currency open: straight to insert
+            probed = other.mayHold(probe);
+            if (probed) {
+                // 1️⃣ Exact --------------------------------------------------
+                int exact = other.findExact(probe);
+                if (exact >= 0) {
+                    OpenItem open = other.take(exact, probe.exactHash);
+                    journal.closed(open.record(), partition, offset);
+                    (bank ? openScheme : openBank).decrement();
+                    return MatchOutcome.exact(pair(bank, new OpenItem(dto, arrivedAtMillis), open, MatchType.EXACT,
+                            1.0));
+                }
+
+                // 2️⃣ Fuzzy --------------------------------------------------
+                if (probe.blockable) {
+                    int best = other.findFuzzy(probe, boundRules());
+                    if (best >= 0) {
+                        OpenItem open = other.take(best, OpenItemStore.UNKNOWN_HASH);
+                        journal.closed(open.record(), partition, offset);
+                        (bank ? openScheme : openBank).decrement();
+                        return new MatchOutcome(pair(bank, new OpenItem(dto, arrivedAtMillis), open,
+                                MatchType.FUZZY, probe.matchScore), probe.candidates, probe.bestScore);
+                    }
+                }
+            }
+
+            own.add(probe, arrivedAtMillis);
+            schedule(bank, eventTime, index);
+            journal.opened(dto, arrivedAtMillis, partition, offset);
+        }
+        (bank ? openBank : openScheme).increment();
+        (probed ? probesWasted : probesSaved).increment();
+        return new MatchOutcome(null, probed && probe.blockable ? probe.candidates : -1, probe.bestScore);
+    }
+
+    /**
+     * Re-open a leg recorded before a restart, without matching it.
+     *
+     * @throws IllegalArgumentException as for {@link #offer}
+     */
+    public void restoreOpened(TxnRecordDTO dto, long arrivedAtMillis) {
+        open(dto, arrivedAtMillis, OpenItemJournal.NONE, -1, -1L);
+    }
+
+    /**
+     * Put back, without matching it, a leg that {@link #offer} or
+     * {@link #expire} took out but whose outcome could not be published. The
+     * open is journalled as caused by {@code partition}/{@code offset}.
+     */
+    public void reopen(OpenItem item, int partition, long offset) {
+        open(item.record(), item.arrivedAtMillis(), journal, partition, offset);
+    }
+
+    /**
+     * Remove an open leg recorded as matched before a restart: the oldest
+     * open leg of its side with its exact key.
+     *
+     * @return whether such a leg was open
+     */
+    public boolean restoreClosed(TxnRecordDTO dto) {
+        return close(dto, OpenItemJournal.NONE, -1, -1L);
+    }
+
+    /**
+     * Close an open leg outside the streaming path, e.g. one a re-match
+     * paired with a leg that had already expired: the oldest open leg of its
+     * side with its exact key. The close is journalled as caused by
+     * {@code partition}/{@code offset}.
+     *
+     * @return whether such a leg was still open
+     */
+    public boolean withdraw(TxnRecordDTO dto, int partition, long offset) {
+        return close(dto, journal, partition, offset);
+    }
+
+    /**
+     * Close, in bulk, every open leg whose deadline the other side's
+     * watermark has passed. Each is reported to the journal as closed by the
+     * leg at {@code partition} and {@code offset}, whose arrival moved the
+     * watermark.
+     *
+     * @return the expired legs, empty if aging is disabled or nothing was due
+     */
+    public List<OpenItem> expire(int partition, long offset) {
+        if (!aging.isEnabled()) {
+            return List.of();
+        }
+        List<OpenItem> expired = new ArrayList<>();
+        expire(true, schemeWatermark.current(), partition, offset, expired);
+        expire(false, bankWatermark.current(), partition, offset, expired);
+        return expired;
+    }
+
+    /**
+     * Event-time watermark of {@code source}, {@link Long#MIN_VALUE} until
+     * it has one.
+     */
+    public long watermark(SourceType source) {
+        return (source == SourceType.BANK_SWITCH ? bankWatermark : schemeWatermark).current();
+    }
+
+    /** Legs of {@code source} that arrived behind its watermark. */
+    public long lateLegs(SourceType source) {
+        return (source == SourceType.BANK_SWITCH ? lateBank : lateScheme).sum();
+    }
+
+    /** Legs that opened without probing, as the other side certainly had no counterpart. */
+    public long probesSaved() {
+        return probesSaved.sum();
+    }
+
+    /**
+     * Legs that probed the other side, as its filter could not rule a
+     * counterpart out, and opened all the same: an upper bound on the
+     * filter's false positives.
+     */
+    public long probesWasted() {
+        return probesWasted.sum();
+    }
+
+    /**
+     * Estimated false-positive probability of the presence filters, averaged
+     * over the stores weighted by their open legs.
+     */
+    public double filterFalsePositiveProbability() {
+        double weighted = 0;
+        long legs = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (OpenItemStore store : new OpenItemStore[] { stripe.bank, stripe.scheme }) {
+                    weighted += store.filterFalsePositiveProbability() * store.live();
+                    legs += store.live();
+                }
+            }
+        }
+        return legs == 0 ? 0 : weighted / legs;
+    }
+
+    /** Report every later change to the open items to {@code journal}. */
+    public void attach(OpenItemJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Visit the open legs of each stripe, oldest first per side, holding the
+     * stripe lock while the visitor runs.
+     */
+    public void forEachStripe(StripeVisitor visitor) {
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[i];
+            synchronized (stripe) {
+                List<OpenItem> open = new ArrayList<>(stripe.bank.live() + stripe.scheme.live());
+                stripe.bank.forEachOpen(open::add);
+                stripe.scheme.forEachOpen(open::add);
+                visitor.visit(i, open);
+            }
+        }
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    /** Stripe of a card number among {@code stripeCount} (a power of two) stripes. */
+    public static int stripeOf(String cardNumber, int stripeCount) {
+        int h = cardNumber.hashCode();
+        return (h ^ (h >>> 16)) & (stripeCount - 1);
+    }
+
+    /** Legs of {@code source} currently waiting for a counterpart. */
+    public long openItems(SourceType source) {
+        return (source == SourceType.BANK_SWITCH ? openBank : openScheme).sum();
+    }
+
+    /** Approximate heap taken by all open-item stores. */
+    public long storeBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                bytes += stripe.bank.heapBytes() + stripe.scheme.heapBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /** Store compactions so far. */
+    public long compactions() {
+        return compactions.sum();
+    }
+
+    /** Distinct values in the shared dictionary. */
+    public int dictionarySize() {
+        return dictionary.size();
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static MatchedPair pair(boolean arrivingIsBank, OpenItem arriving, OpenItem open, MatchType type,
+            double score) {
+        return arrivingIsBank
+                ? new MatchedPair(arriving, open, type, score)
+                : new MatchedPair(open, arriving, type, score);
+    }
+
+    /** The rules in force, bound to this matcher's dictionary once per reload. */
+    private MatchRuleSet.Bound boundRules() {
+        MatchRuleSet.Bound bound = boundRules;
+        MatchRuleSet set = rules.current();
+        if (bound.set() != set) {
+            // racing threads may both bind; either result is equivalent
+            bound = set.bind(dictionary);
+            boundRules = bound;
+        }
+        return bound;
+    }
+
+    private void open(TxnRecordDTO dto, long arrivedAtMillis, OpenItemJournal journal, int partition, long offset) {
+        SourceType source = dto.getSourceType();
+        if (source == null || MatchKey.reference(dto) == null) {
+            throw new IllegalArgumentException("Record " + dto.getTxnId() + " has no source type or match key");
+        }
+        Probe probe = new Probe(dto, dictionary, scorer);
+        boolean bank = source == SourceType.BANK_SWITCH;
+        int index = stripeOf(dto.getCardNumber(), mask + 1);
+        Stripe stripe = stripes[index];
+        synchronized (stripe) {
+            (bank ? stripe.bank : stripe.scheme).add(probe, arrivedAtMillis);
+            schedule(bank, eventTime(probe, arrivedAtMillis), index);
+            journal.opened(dto, arrivedAtMillis, partition, offset);
+        }
+        (bank ? openBank : openScheme).increment();
+    }
+
+    private boolean close(TxnRecordDTO dto, OpenItemJournal journal, int partition, long offset) {
+        SourceType source = dto.getSourceType();
+        if (source == null || MatchKey.reference(dto) == null) {
+            return false;
+        }
+        Probe probe = new Probe(dto, dictionary, scorer);
+        boolean bank = source == SourceType.BANK_SWITCH;
+        Stripe stripe = stripeFor(dto.getCardNumber());
+        synchronized (stripe) {
+            OpenItemStore own = bank ? stripe.bank : stripe.scheme;
+            int slot = own.findExact(probe);
+            if (slot < 0) {
+                return false;
+            }
+            OpenItem open = own.take(slot, probe.exactHash);
+            journal.closed(open.record(), partition, offset);
+        }
+        (bank ? openBank : openScheme).decrement();
+        return true;
+    }
+
+    private Stripe stripeFor(String cardNumber) {
+        return stripes[stripeOf(cardNumber, mask + 1)];
+    }
+
+    /** Event time of a leg: its transaction timestamp, else its arrival. */
+    private static long eventTime(Probe probe, long arrivedAtMillis) {
+        return probe.dto.getTxnTimestamp() != null ? probe.timestamp : arrivedAtMillis;
+    }
+
+    private void schedule(boolean bank, long eventTime, int stripe) {
+        if (aging.isEnabled()) {
+            (bank ? bankWheel : schemeWheel).schedule(eventTime + aging.matchWindowMs(), stripe);
+        }
+    }
+
+    private void expire(boolean bank, long watermark, int partition, long offset, List<OpenItem> expired) {
+        if (watermark == Long.MIN_VALUE) {
+            return;
+        }
+        BitSet due = (bank ? bankWheel : schemeWheel).advance(watermark);
+        long cutoff = watermark - aging.matchWindowMs();
+        for (int i = due.nextSetBit(0); i >= 0; i = due.nextSetBit(i + 1)) {
+            Stripe stripe = stripes[i];
+            int closed;
+            synchronized (stripe) {
+                closed = (bank ? stripe.bank : stripe.scheme).expire(cutoff, item -> {
+                    journal.closed(item.record(), partition, offset);
+                    expired.add(item);
+                });
+            }
+            (bank ? openBank : openScheme).add(-closed);
+        }
+    }
+
+    /** Receives one stripe's open legs from {@link #forEachStripe}. */
+    @FunctionalInterface
+    public interface StripeVisitor {
+        void visit(int stripe, List<OpenItem> open);
+    }
+
+    /** One lock stripe: the bank and scheme stores for its cards. */
+    private static final class Stripe {
+        final OpenItemStore bank;
+        final OpenItemStore scheme;
+
+        Stripe(StringDictionary dictionary, FuzzyScorer scorer, LongAdder compactions) {
+            this.bank = new OpenItemStore(SourceType.BANK_SWITCH, dictionary, scorer, compactions);
+            this.scheme = new OpenItemStore(SourceType.SCHEME_FILE, dictionary, scorer, compactions);
+        }
+    }
+}
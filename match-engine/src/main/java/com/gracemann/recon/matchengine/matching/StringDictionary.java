@@ -0,0 +1,71 @@
+package com.gracemann.recon.matchengine.matching;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only string ↔ int dictionary for the bounded columns of the
+ * open-item store (currency, channel, scheme).
+ *
+ * <p>
+ * Code {@code 0} is {@code null}. Codes are never reused, so the dictionary
+ * grows with the number of distinct values seen, not with the number of open
+ * items; columns without a small fixed domain stay out of it. Encoding an
+ * already known value is a lock-free map lookup; new values are appended
+ * under a lock. {@link #lookup} never appends, for values that only need
+ * comparing. Safe for concurrent use.
+ * </p>
+ */
+final class StringDictionary {
+
+    static final int NULL = 0;
+    /** What {@link #lookup} returns for a value never encoded; no value has this code. */
+    static final int MISSING = -2;
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[64];
+    private int size = 1;
+
+    int encode(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    /** The value's code if it has one, else {@link #MISSING}. */
+    int lookup(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : MISSING;
+    }
+
+    String decode(int code) {
+        return code == NULL ? null : values[code];
+    }
+
+    int size() {
+        return codes.size();
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private synchronized int add(String value) {
+        Integer known = codes.get(value);
+        if (known != null) {
+            return known;
+        }
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        int code = size++;
+        current[code] = value;
+        values = current;
+        codes.put(value, code);
+        return code;
+    }
+}
@@ -0,0 +1,120 @@
+package com.gracemann.recon.matchengine.matching;
+
+import java.util.BitSet;
+
+/**
+ * Hashed timer wheel of open-leg deadlines, driven by a watermark rather
+ * than a clock.
+ *
+ * <p>
+ * Deadlines are rounded into buckets of {@code bucketMillis}; a bucket only
+ * records which lock stripes hold a leg due in it, so a million open legs
+ * cost a few thousand buckets of a small bit set each, not a million timers.
+ * Buckets live in a ring of slots by bucket number; buckets further out than
+ * the ring share a slot and simply wait for their turn.
+ * </p>
+ *
+ * <p>
+ * {@link #advance} fires every bucket whose deadlines have all passed and
+ * returns the union of their stripes, which the caller then sweeps. A
+ * deadline at or before the last advance (a late leg) is due at the next
+ * one. Thread-safe.
+ * </p>
+ */
+final class TimerWheel {
+
+    private final long bucketMillis;
+    private final Bucket[] slots;
+    /** Last bucket fired; every bucket up to here is empty. */
+    private long position = Long.MIN_VALUE;
+    private final BitSet overdue = new BitSet();
+    private int buckets;
+
+    TimerWheel(long bucketMillis, int slots) {
+        this.bucketMillis = bucketMillis;
+        this.slots = new Bucket[slots];
+    }
+
+    /** Remember that {@code stripe} holds a leg due at {@code deadline}. */
+    synchronized void schedule(long deadline, int stripe) {
+        long bucket = Math.floorDiv(deadline, bucketMillis);
+        if (bucket <= position) {
+            overdue.set(stripe);
+            return;
+        }
+        int slot = (int) Math.floorMod(bucket, (long) slots.length);
+        for (Bucket b = slots[slot]; b != null; b = b.next) {
+            if (b.number == bucket) {
+                b.stripes.set(stripe);
+                return;
+            }
+        }
+        Bucket b = new Bucket(bucket, slots[slot]);
+        b.stripes.set(stripe);
+        slots[slot] = b;
+        buckets++;
+    }
+
+    /**
+     * Fire every bucket whose deadlines are all at or before {@code now}.
+     *
+     * @return stripes with legs due, empty if none
+     */
+    synchronized BitSet advance(long now) {
+        BitSet due = (BitSet) overdue.clone();
+        overdue.clear();
+        if (now == Long.MIN_VALUE) {
+            return due;
+        }
+        long target = Math.floorDiv(now + 1, bucketMillis) - 1;
+        if (target <= position) {
+            return due;
+        }
+        if (position == Long.MIN_VALUE || target - position >= slots.length) {
+            for (int slot = 0; slot < slots.length; slot++) {
+                fire(slot, target, due);
+            }
+        } else {
+            for (long bucket = position + 1; bucket <= target; bucket++) {
+                fire((int) Math.floorMod(bucket, (long) slots.length), target, due);
+            }
+        }
+        position = target;
+        return due;
+    }
+
+    /** Buckets holding at least one deadline. */
+    synchronized int buckets() {
+        return buckets;
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private void fire(int slot, long target, BitSet due) {
+        Bucket previous = null;
+        for (Bucket b = slots[slot]; b != null; b = b.next) {
+            if (b.number <= target) {
+                due.or(b.stripes);
+                if (previous == null) {
+                    slots[slot] = b.next;
+                } else {
+                    previous.next = b.next;
+                }
+                buckets--;
+            } else {
+                previous = b;
+            }
+        }
+    }
+
+    private static final class Bucket {
+        final long number;
+        final BitSet stripes = new BitSet();
+        Bucket next;
+
+        Bucket(long number, Bucket next) {
+            this.number = number;
+            this.next = next;
+        }
+    }
+}
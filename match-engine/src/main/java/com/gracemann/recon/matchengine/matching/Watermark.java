@@ -0,0 +1,86 @@
+package com.gracemann.recon.matchengine.matching;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Event-time watermark of one source: the time up to which its legs are
+ * taken to have arrived, never moving backwards.
+ *
+ * <p>
+ * Legs without a batch id move it directly, to the newest event time seen
+ * minus the allowed lateness. Legs of a batch (a scheme clearing file) only
+ * count once the batch is complete, which is when a leg of another batch
+ * arrives: a half-read file must not age out the legs its second half would
+ * have matched. Legs of a batch that already completed (a re-sent file) do
+ * not move it at all.
+ * </p>
+ *
+ * <p>
+ * A leg older than the watermark on arrival is late. It is still matched,
+ * but if it stays open its deadline may already have passed. Thread-safe.
+ * </p>
+ */
+final class Watermark {
+
+    /** Completed batches remembered to recognise re-sent files. */
+    private static final int COMPLETED_BATCHES = 4096;
+
+    private final long allowedLatenessMs;
+    private final Map<String, Boolean> completed = new LinkedHashMap<>(64, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > COMPLETED_BATCHES;
+        }
+    };
+
+    private String batch;
+    private long batchMax = Long.MIN_VALUE;
+    private long max = Long.MIN_VALUE;
+    private volatile long current = Long.MIN_VALUE;
+
+    Watermark(long allowedLatenessMs) {
+        this.allowedLatenessMs = allowedLatenessMs;
+    }
+
+    /**
+     * Account for one arriving leg.
+     *
+     * @param batchId its batch, or {@code null}
+     * @return whether the leg is late
+     */
+    synchronized boolean observe(long eventTime, String batchId) {
+        boolean late = eventTime < current;
+        if (batchId == null || batchId.isBlank()) {
+            advance(eventTime);
+        } else if (batchId.equals(batch)) {
+            batchMax = Math.max(batchMax, eventTime);
+        } else if (!completed.containsKey(batchId)) {
+            completeBatch();
+            batch = batchId;
+            batchMax = eventTime;
+        }
+        return late;
+    }
+
+    /** Current watermark, {@link Long#MIN_VALUE} until the first leg counts. */
+    long current() {
+        return current;
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private void completeBatch() {
+        if (batch != null) {
+            completed.put(batch, Boolean.TRUE);
+            advance(batchMax);
+        }
+    }
+
+    private void advance(long eventTime) {
+        if (eventTime > max) {
+            max = eventTime;
+            current = Math.max(current, max - allowedLatenessMs);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.gracemann.recon.matchengine.metrics;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.gracemann.recon.matchengine.dto.MatchedPairDTO.MatchType;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.matchengine.matching.MatchRules;
+import com.gracemann.recon.matchengine.shard.MatchShards;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * MatchMetrics publishes match-engine counters and latencies through
+ * Micrometer (scraped by Prometheus at {@code /actuator/prometheus}):
+ * <ul>
+ * <li>{@code recon.match.records} – legs by {@code source} and {@code outcome}
+ * (received, matched, opened, expired, error)</li>
+ * <li>{@code recon.match.pairs} – matched pairs by {@code type}</li>
+ * <li>{@code recon.match.publish.failed} – pairs and exception candidates
+ * the broker did not ack, by {@code kind} (pair, exception); their legs are
+ * put back open and published again</li>
+ * <li>{@code recon.match.latency} – from the second leg reaching the listener
+ * to its pair being handed to the producer, by {@code type}</li>
+ * <li>{@code recon.match.open_items} – legs waiting for a counterpart, by
+ * {@code source}, across the shards this instance owns</li>
+ * <li>{@code recon.match.watermark.lag} – wall clock minus the lowest
+ * event-time watermark across the owned shards, and
+ * {@code recon.match.watermark.late} – legs that arrived behind their
+ * watermark, by {@code source}</li>
+ * <li>{@code recon.match.shards}, {@code recon.match.shards.handoffs} –
+ * partitions owned and shards handed off on rebalance</li>
+ * <li>{@code recon.match.store.bytes}, {@code recon.match.store.compactions},
+ * {@code recon.match.store.dictionary} – open-item store footprint</li>
+ * <li>{@code recon.match.state.recovery} – how long the last assignment took
+ * to rebuild its shards, with {@code recon.match.state.recovery.items} and
+ * {@code recon.match.state.recovery.entries} loaded from snapshots and
+ * replayed from changelogs</li>
+ * <li>{@code recon.match.state.snapshots},
+ * {@code recon.match.state.changelog.bytes} – state store snapshots and the
+ * changelog written since the last one</li>
+ * <li>{@code recon.match.filter.probes} – legs that skipped the index probes
+ * because the presence filter ruled a counterpart out ({@code outcome=saved})
+ * or probed in vain ({@code outcome=wasted}, an upper bound on false
+ * positives), and {@code recon.match.filter.fpp} – the filters' estimated
+ * false-positive probability</li>
+ * <li>{@code recon.match.fuzzy.candidates} – candidates scored per fuzzy
+ * lookup</li>
+ * <li>{@code recon.match.fuzzy.score} – best candidate score per fuzzy lookup
+ * that found a candidate within tolerance</li>
+ * <li>{@code recon.match.rules} – scheme/channel match rules in force, and
+ * {@code recon.match.rules.reloads} – rule files reloaded, by
+ * {@code outcome} (applied, failed)</li>
+ * <li>{@code recon.match.rematch.cycle} – re-match cycle duration, with
+ * {@code recon.match.rematch.buckets} re-evaluated and
+ * {@code recon.match.rematch.deltas} emitted by {@code kind} (matched,
+ * resolved, superseded); {@code recon.match.rematch.dirty} – buckets waiting
+ * for the next cycle, and {@code recon.match.rematch.exceptions} – exception
+ * candidates a cycle can still resolve</li>
+ * </ul>
+ *
+ * <p>
+ * All hot-path meters are resolved up front.
+ * </p>
+ */
+@Component
+public class MatchMetrics {
+
+    private static final String UNKNOWN_SOURCE = "UNKNOWN";
+
+    private final SourceMeters unknown;
+    private final Map<SourceType, SourceMeters> bySource = new EnumMap<>(SourceType.class);
+    private final Map<MatchType, Counter> pairs = new EnumMap<>(MatchType.class);
+    private final Map<MatchType, Timer> latency = new EnumMap<>(MatchType.class);
+    private final DistributionSummary fuzzyCandidates;
+    private final DistributionSummary fuzzyScore;
+    private final Timer rematchCycle;
+    private final Counter rematchBuckets;
+    private final Counter rematchMatched;
+    private final Counter rematchResolved;
+    private final Counter rematchSuperseded;
+    private final Counter failedPairSends;
+    private final Counter failedExceptionSends;
+
+    public MatchMetrics(MeterRegistry registry, MatchShards shards, MatchRules rules) {
+        for (SourceType source : SourceType.values()) {
+            bySource.put(source, new SourceMeters(registry, source.name()));
+            Gauge.builder("recon.match.open_items", shards, s -> s.openItems(source))
+                    .description("Legs waiting for a counterpart")
+                    .tag("source", source.name())
+                    .register(registry);
+            TimeGauge.builder("recon.match.watermark.lag", shards, TimeUnit.MILLISECONDS,
+                    s -> watermarkLag(s.watermark(source)))
+                    .description("Wall clock minus the lowest event-time watermark")
+                    .tag("source", source.name())
+                    .register(registry);
+            FunctionCounter.builder("recon.match.watermark.late", shards, s -> s.lateLegs(source))
+                    .description("Legs that arrived behind their source's watermark")
+                    .tag("source", source.name())
+                    .register(registry);
+        }
+        Gauge.builder("recon.match.shards", shards, s -> s.partitions().size())
+                .description("Partitions whose open items this instance owns")
+                .register(registry);
+        FunctionCounter.builder("recon.match.shards.handoffs", shards, MatchShards::handoffs)
+                .description("Shards snapshotted and handed off on rebalance")
+                .register(registry);
+        Gauge.builder("recon.match.store.bytes", shards, MatchShards::storeBytes)
+                .description("Approximate heap taken by the open-item stores")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("recon.match.store.compactions", shards, MatchShards::compactions)
+                .description("Open-item store compactions")
+                .register(registry);
+        Gauge.builder("recon.match.store.dictionary", shards, MatchShards::dictionarySize)
+                .description("Distinct values in the open-item store dictionary")
+                .register(registry);
+        TimeGauge.builder("recon.match.state.recovery", shards, TimeUnit.MILLISECONDS,
+                MatchShards::lastRecoveryMillis)
+                .description("Time the last assignment took to rebuild its shards")
+                .register(registry);
+        Gauge.builder("recon.match.state.recovery.items", shards, MatchShards::lastRecoveredItems)
+                .description("Open items loaded from snapshots by the last assignment")
+                .register(registry);
+        Gauge.builder("recon.match.state.recovery.entries", shards, MatchShards::lastReplayedEntries)
+                .description("Changelog entries replayed by the last assignment")
+                .register(registry);
+        FunctionCounter.builder("recon.match.state.snapshots", shards, MatchShards::snapshots)
+                .description("Open-item snapshots written")
+                .register(registry);
+        Gauge.builder("recon.match.state.changelog.bytes", shards, MatchShards::changelogBytes)
+                .description("Changelog written since the last snapshot")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("recon.match.filter.probes", shards, MatchShards::probesSaved)
+                .description("Legs by presence-filter outcome")
+                .tag("outcome", "saved")
+                .register(registry);
+        FunctionCounter.builder("recon.match.filter.probes", shards, MatchShards::probesWasted)
+                .description("Legs by presence-filter outcome")
+                .tag("outcome", "wasted")
+                .register(registry);
+        Gauge.builder("recon.match.filter.fpp", shards, MatchShards::filterFalsePositiveProbability)
+                .description("Estimated false-positive probability of the presence filters")
+                .register(registry);
+        Gauge.builder("recon.match.rules", rules, r -> r.current().size())
+                .description("Scheme/channel match rules in force")
+                .register(registry);
+        FunctionCounter.builder("recon.match.rules.reloads", rules, MatchRules::reloads)
+                .description("Match rule files reloaded")
+                .tag("outcome", "applied")
+                .register(registry);
+        FunctionCounter.builder("recon.match.rules.reloads", rules, MatchRules::failedReloads)
+                .description("Match rule files reloaded")
+                .tag("outcome", "failed")
+                .register(registry);
+        this.unknown = new SourceMeters(registry, UNKNOWN_SOURCE);
+        for (MatchType type : MatchType.values()) {
+            String tag = type.name().toLowerCase();
+            pairs.put(type, Counter.builder("recon.match.pairs")
+                    .description("Matched bank/scheme pairs")
+                    .tag("type", tag)
+                    .register(registry));
+            latency.put(type, Timer.builder("recon.match.latency")
+                    .description("Second leg received to matched pair handed to the producer")
+                    .tag("type", tag)
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.99)
+                    .serviceLevelObjectives(Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(25))
+                    .register(registry));
+        }
+        this.fuzzyCandidates = DistributionSummary.builder("recon.match.fuzzy.candidates")
+                .description("Candidates scored per fuzzy lookup")
+                .publishPercentiles(0.5, 0.99)
+                .serviceLevelObjectives(1, 2, 4, 8, 16, 64)
+                .register(registry);
+        this.fuzzyScore = DistributionSummary.builder("recon.match.fuzzy.score")
+                .description("Best candidate score per fuzzy lookup")
+                .serviceLevelObjectives(0.5, 0.6, 0.7, 0.75, 0.8, 0.9, 0.95, 1.0)
+                .register(registry);
+        Gauge.builder("recon.match.rematch.dirty", shards, MatchShards::dirtyBuckets)
+                .description("Match buckets changed since the last re-match cycle")
+                .register(registry);
+        Gauge.builder("recon.match.rematch.exceptions", shards, MatchShards::rematchableExceptions)
+                .description("Exception candidates a re-match cycle can still resolve")
+                .register(registry);
+        this.rematchCycle = Timer.builder("recon.match.rematch.cycle")
+                .description("Re-match cycle over the dirty buckets")
+                .register(registry);
+        this.rematchBuckets = Counter.builder("recon.match.rematch.buckets")
+                .description("Match buckets re-evaluated by re-match cycles")
+                .register(registry);
+        this.rematchMatched = rematchDelta(registry, "matched");
+        this.rematchResolved = rematchDelta(registry, "resolved");
+        this.rematchSuperseded = rematchDelta(registry, "superseded");
+        this.failedPairSends = failedSends(registry, "pair");
+        this.failedExceptionSends = failedSends(registry, "exception");
+    }
+
+    public void incrementReceived(SourceType source) {
+        meters(source).received.increment();
+    }
+
+    public void incrementOpened(SourceType source) {
+        meters(source).opened.increment();
+    }
+
+    /** Count an open leg aged out as an exception candidate. */
+    public void incrementExpired(SourceType source) {
+        meters(source).expired.increment();
+    }
+
+    public void incrementErrors(SourceType source) {
+        meters(source).errors.increment();
+    }
+
+    /**
+     * Count a pair (both legs) and record its match latency.
+     */
+    public void recordMatch(MatchType type, long latencyNanos) {
+        bySource.get(SourceType.BANK_SWITCH).matched.increment();
+        bySource.get(SourceType.SCHEME_FILE).matched.increment();
+        pairs.get(type).increment();
+        latency.get(type).record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Count a matched pair the broker did not ack. */
+    public void incrementFailedPairSends() {
+        failedPairSends.increment();
+    }
+
+    /** Count an exception candidate the broker did not ack. */
+    public void incrementFailedExceptionSends() {
+        failedExceptionSends.increment();
+    }
+
+    /**
+     * Record one fuzzy lookup.
+     *
+     * @param candidates candidates scored
+     * @param bestScore  best score, negative if no candidate was within
+     *                   tolerance
+     */
+    public void recordFuzzyLookup(int candidates, double bestScore) {
+        fuzzyCandidates.record(candidates);
+        if (bestScore >= 0) {
+            fuzzyScore.record(bestScore);
+        }
+    }
+
+    /** Record one re-match cycle and the deltas it emitted. */
+    public void recordRematch(long buckets, long matched, long resolved, long superseded, long cycleNanos) {
+        rematchBuckets.increment(buckets);
+        rematchMatched.increment(matched);
+        rematchResolved.increment(resolved);
+        rematchSuperseded.increment(superseded);
+        rematchCycle.record(cycleNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getMatchedPairs() {
+        long total = 0;
+        for (Counter counter : pairs.values()) {
+            total += (long) counter.count();
+        }
+        return total;
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private SourceMeters meters(SourceType source) {
+        return source == null ? unknown : bySource.get(source);
+    }
+
+    private static Counter rematchDelta(MeterRegistry registry, String kind) {
+        return Counter.builder("recon.match.rematch.deltas")
+                .description("Deltas emitted by re-match cycles")
+                .tag("kind", kind)
+                .register(registry);
+    }
+
+    private static Counter failedSends(MeterRegistry registry, String kind) {
+        return Counter.builder("recon.match.publish.failed")
+                .description("Results the broker did not ack; their legs are put back open")
+                .tag("kind", kind)
+                .register(registry);
+    }
+
+    private static double watermarkLag(long watermark) {
+        return watermark == Long.MIN_VALUE ? Double.NaN : System.currentTimeMillis() - watermark;
+    }
+
+    private static final class SourceMeters {
+
+        final Counter received;
+        final Counter matched;
+        final Counter opened;
+        final Counter expired;
+        final Counter errors;
+
+        SourceMeters(MeterRegistry registry, String source) {
+            received = outcome(registry, source, "received");
+            matched = outcome(registry, source, "matched");
+            opened = outcome(registry, source, "opened");
+            expired = outcome(registry, source, "expired");
+            errors = outcome(registry, source, "error");
+        }
+
+        private static Counter outcome(MeterRegistry registry, String source, String outcome) {
+            return Counter.builder("recon.match.records")
+                    .description("Transaction legs through the match engine by outcome")
+                    .tags("source", source, "outcome", outcome)
+                    .register(registry);
+        }
+    }
+}
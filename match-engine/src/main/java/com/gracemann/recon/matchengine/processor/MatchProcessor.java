@@ -0,0 +1,182 @@
+package com.gracemann.recon.matchengine.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.matchengine.matching.MatchOutcome;
+import com.gracemann.recon.matchengine.matching.MatchedPair;
+import com.gracemann.recon.matchengine.matching.OpenItem;
+import com.gracemann.recon.matchengine.metrics.MatchMetrics;
+import com.gracemann.recon.matchengine.publisher.ExceptionCandidatePublisher;
+import com.gracemann.recon.matchengine.publisher.MatchedPairPublisher;
+import com.gracemann.recon.matchengine.shard.MatchShards;
+
+/**
+ * Matches ingested legs and publishes the resulting pairs, then publishes
+ * the open legs the leg's shard has aged out as exception candidates. Legs
+ * replayed to rebuild a partition (see {@link MatchShards#replaying}) only
+ * update the open items.
+ *
+ * <p>
+ * Every result is acked by the broker before {@link #process} returns, so the
+ * leg's offset is never committed ahead of its results. A leg whose result
+ * is not acked goes back into the open items: the counterpart a pair took is
+ * reopened and the leg is redelivered to match it again, and an exception
+ * candidate is reopened to expire again with the next leg.
+ * </p>
+ */
+@Component
+public class MatchProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchProcessor.class);
+
+    private final MatchShards shards;
+    private final MatchedPairPublisher publisher;
+    private final ExceptionCandidatePublisher exceptionPublisher;
+    private final MatchMetrics metrics;
+
+    public MatchProcessor(MatchShards shards, MatchedPairPublisher publisher,
+            ExceptionCandidatePublisher exceptionPublisher, MatchMetrics metrics) {
+        this.shards = shards;
+        this.publisher = publisher;
+        this.exceptionPublisher = exceptionPublisher;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Match (exact, then fuzzy) → publish → expire what the leg's event time
+     * aged out.
+     *
+     * @param receivedNanos {@link System#nanoTime()} when the listener received
+     *                      the leg, the start of the match latency
+     * @param partition     partition and offset of the leg; the partition picks
+     *                      the shard, and both are journalled with the
+     *                      open-item change the leg causes
+     * @throws IllegalStateException if the leg's pair was not acked; the
+     *                               counterpart is open again, so the leg can
+     *                               be redelivered
+     */
+    public void process(TxnRecordDTO dto, long receivedNanos, int partition, long offset) {
+        if (shards.replaying(partition, offset)) {
+            replay(dto, partition, offset);
+            return;
+        }
+        SourceType source = dto.getSourceType();
+        metrics.incrementReceived(source);
+        boolean published = true;
+        try {
+            long now = System.currentTimeMillis();
+            MatchOutcome outcome = shards.offer(dto, now, partition, offset);
+            if (outcome.candidates() >= 0) {
+                metrics.recordFuzzyLookup(outcome.candidates(), outcome.bestScore());
+            }
+            if (outcome.matched()) {
+                published = publish(outcome.pair(), source, partition, offset, now, receivedNanos);
+            } else {
+                metrics.incrementOpened(source);
+            }
+            expire(partition, offset, now);
+        } catch (Exception e) {
+            metrics.incrementErrors(source);
+            log.error("Matching failed for {}|{}: {}", dto.getTxnId(), source, e.getMessage(), e);
+        }
+        if (!published) {
+            throw new IllegalStateException("Pair of " + dto.getTxnId() + "|" + source + " at " + partition + "@"
+                    + offset + " was not published; redelivering the leg");
+        }
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    /** Rebuild open items from a leg an earlier owner already matched and published. */
+    private void replay(TxnRecordDTO dto, int partition, long offset) {
+        try {
+            shards.offer(dto, System.currentTimeMillis(), partition, offset);
+            shards.expire(partition, offset);
+        } catch (RuntimeException e) {
+            log.debug("Replayed leg {}|{} skipped: {}", dto.getTxnId(), dto.getSourceType(), e.getMessage());
+        }
+    }
+
+    /**
+     * Publish a pair and wait for the broker's ack. If it is not acked, the
+     * counterpart the leg took is put back open.
+     *
+     * @param source source of the leg that completed the pair
+     * @return whether the pair was acked
+     */
+    private boolean publish(MatchedPair pair, SourceType source, int partition, long offset, long now,
+            long receivedNanos) throws JsonProcessingException {
+        CompletableFuture<RecordMetadata> sent = publisher.publish(pair, now);
+        long latencyNanos = System.nanoTime() - receivedNanos;
+        try {
+            sent.join();
+        } catch (CompletionException e) {
+            metrics.incrementFailedPairSends();
+            log.error("Publishing match {}|{} failed, reopening its counterpart: {}",
+                    pair.bank().record().getTxnId(), pair.scheme().record().getTxnId(),
+                    e.getCause().getMessage(), e.getCause());
+            shards.reopen(partition, offset,
+                    List.of(source == SourceType.BANK_SWITCH ? pair.scheme() : pair.bank()));
+            return false;
+        }
+        metrics.recordMatch(pair.type(), latencyNanos);
+        log.debug("Matched {} with {} ({}, score {})", pair.bank().record().getTxnId(),
+                pair.scheme().record().getTxnId(), pair.type(), pair.score());
+        return true;
+    }
+
+    /**
+     * Publish every expired leg and wait for the acks; one that cannot be
+     * written does not stop the rest, and one that is not acked is put back
+     * open to expire again.
+     */
+    private void expire(int partition, long offset, long now) {
+        List<OpenItem> expired = shards.expire(partition, offset);
+        if (expired.isEmpty()) {
+            return;
+        }
+        List<OpenItem> sentItems = new ArrayList<>(expired.size());
+        List<CompletableFuture<RecordMetadata>> sends = new ArrayList<>(expired.size());
+        for (OpenItem item : expired) {
+            SourceType source = item.record().getSourceType();
+            SourceType counterpart = source == SourceType.BANK_SWITCH ? SourceType.SCHEME_FILE
+                    : SourceType.BANK_SWITCH;
+            try {
+                sends.add(exceptionPublisher.publish(item, shards.watermark(partition, counterpart), now));
+                sentItems.add(item);
+            } catch (JsonProcessingException e) {
+                log.error("Exception candidate {}|{} cannot be written: {}", item.record().getTxnId(), source,
+                        e.getMessage(), e);
+            }
+        }
+        List<OpenItem> failed = new ArrayList<>();
+        for (int i = 0; i < sends.size(); i++) {
+            OpenItem item = sentItems.get(i);
+            try {
+                sends.get(i).join();
+                metrics.incrementExpired(item.record().getSourceType());
+            } catch (CompletionException e) {
+                metrics.incrementFailedExceptionSends();
+                log.error("Publishing exception candidate {}|{} failed, reopening it: {}", item.record().getTxnId(),
+                        item.record().getSourceType(), e.getCause().getMessage(), e.getCause());
+                failed.add(item);
+            }
+        }
+        if (!failed.isEmpty()) {
+            shards.reopen(partition, offset, failed);
+        }
+        log.info("Partition {} aged out {} open legs at offset {} ({} reopened)", partition, expired.size(), offset,
+                failed.size());
+    }
+}
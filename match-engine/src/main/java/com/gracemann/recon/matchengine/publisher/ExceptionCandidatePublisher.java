@@ -0,0 +1,81 @@
+package com.gracemann.recon.matchengine.publisher;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gracemann.recon.matchengine.dto.ExceptionCandidateDTO;
+import com.gracemann.recon.matchengine.dto.ExceptionCandidateDTO.Status;
+import com.gracemann.recon.matchengine.matching.MatchedPair;
+import com.gracemann.recon.matchengine.matching.OpenItem;
+
+/**
+ * Publishes expired open legs as JSON on {@code recon.match.exception-topic},
+ * keyed by txnId, and the re-match deltas that later resolve or supersede
+ * them.
+ */
+@Component
+public class ExceptionCandidatePublisher {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final String topic;
+
+    public ExceptionCandidatePublisher(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper,
+            @Value("${recon.match.exception-topic:exception-candidate-topic}") String topic) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.topic = topic;
+    }
+
+    /**
+     * @param watermarkMillis the counterpart watermark that expired the leg
+     * @return future completed with the broker metadata once the candidate is
+     *         acked
+     */
+    public CompletableFuture<RecordMetadata> publish(OpenItem item, long watermarkMillis, long expiredAtMillis)
+            throws JsonProcessingException {
+        return send(item, Status.EXPIRED, Instant.ofEpochMilli(watermarkMillis), expiredAtMillis, null);
+    }
+
+    /**
+     * Withdraw an exception candidate that a re-match paired after all.
+     */
+    public CompletableFuture<RecordMetadata> publishResolved(OpenItem item, MatchedPair pair,
+            long resolvedAtMillis) throws JsonProcessingException {
+        return send(item, Status.RESOLVED, null, resolvedAtMillis, pair.matchId());
+    }
+
+    /**
+     * Withdraw an exception candidate whose leg was replaced by a correction,
+     * which is open again and expires (or matches) on its own.
+     */
+    public CompletableFuture<RecordMetadata> publishSuperseded(OpenItem item, long supersededAtMillis)
+            throws JsonProcessingException {
+        return send(item, Status.SUPERSEDED, null, supersededAtMillis, null);
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    /** Same key as the original candidate, so deltas stay in order behind it. */
+    private CompletableFuture<RecordMetadata> send(OpenItem item, Status status, Instant watermark, long atMillis,
+            String matchId) throws JsonProcessingException {
+        ExceptionCandidateDTO dto = new ExceptionCandidateDTO(
+                item.record().getTxnId() + "|" + item.record().getSourceType(),
+                status,
+                item.record(),
+                watermark,
+                Instant.ofEpochMilli(atMillis),
+                atMillis - item.arrivedAtMillis(),
+                matchId);
+        return kafkaTemplate.send(topic, item.record().getTxnId(), objectMapper.writeValueAsString(dto))
+                .thenApply(SendResult::getRecordMetadata);
+    }
+}
@@ -0,0 +1,52 @@
+package com.gracemann.recon.matchengine.publisher;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gracemann.recon.matchengine.dto.MatchedPairDTO;
+import com.gracemann.recon.matchengine.matching.MatchedPair;
+
+/**
+ * Publishes matched pairs as JSON on {@code recon.match.matched-topic}, keyed
+ * by the bank leg's txnId.
+ */
+@Component
+public class MatchedPairPublisher {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final String topic;
+
+    public MatchedPairPublisher(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper,
+            @Value("${recon.match.matched-topic:matched-txn-topic}") String topic) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.topic = topic;
+    }
+
+    /**
+     * @return future completed with the broker metadata once the pair is acked
+     */
+    public CompletableFuture<RecordMetadata> publish(MatchedPair pair, long matchedAtMillis)
+            throws JsonProcessingException {
+        long firstLeg = Math.min(pair.bank().arrivedAtMillis(), pair.scheme().arrivedAtMillis());
+        MatchedPairDTO dto = new MatchedPairDTO(
+                pair.matchId(),
+                pair.type(),
+                pair.score(),
+                pair.bank().record(),
+                pair.scheme().record(),
+                Instant.ofEpochMilli(matchedAtMillis),
+                matchedAtMillis - firstLeg);
+        return kafkaTemplate.send(topic, pair.bank().record().getTxnId(), objectMapper.writeValueAsString(dto))
+                .thenApply(SendResult::getRecordMetadata);
+    }
+}
@@ -0,0 +1,150 @@
+package com.gracemann.recon.matchengine.rematch;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.gracemann.recon.matchengine.matching.MatchedPair;
+import com.gracemann.recon.matchengine.matching.OpenItem;
+import com.gracemann.recon.matchengine.metrics.MatchMetrics;
+import com.gracemann.recon.matchengine.publisher.ExceptionCandidatePublisher;
+import com.gracemann.recon.matchengine.publisher.MatchedPairPublisher;
+import com.gracemann.recon.matchengine.shard.MatchShards;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs a re-match cycle every {@code recon.match.rematch.interval-ms} and
+ * publishes its deltas: new pairs on the matched topic, and the exception
+ * candidates they resolve, or that corrections superseded, on the exception
+ * topic under their original key.
+ *
+ * <p>
+ * Only the buckets that changed since the previous cycle are revisited (see
+ * {@link RematchLedger}), so a quiet cycle costs next to nothing however
+ * large the day is.
+ * </p>
+ */
+@Component
+public class RematchCycle {
+
+    private static final Logger log = LoggerFactory.getLogger(RematchCycle.class);
+
+    private final MatchShards shards;
+    private final MatchedPairPublisher pairPublisher;
+    private final ExceptionCandidatePublisher exceptionPublisher;
+    private final MatchMetrics metrics;
+    private final ScheduledExecutorService scheduler;
+
+    public RematchCycle(MatchShards shards, MatchedPairPublisher pairPublisher,
+            ExceptionCandidatePublisher exceptionPublisher, MatchMetrics metrics,
+            @Value("${recon.match.rematch.enabled:true}") boolean enabled,
+            @Value("${recon.match.rematch.interval-ms:60000}") long intervalMs) {
+        this.shards = shards;
+        this.pairPublisher = pairPublisher;
+        this.exceptionPublisher = exceptionPublisher;
+        this.metrics = metrics;
+        if (enabled && intervalMs > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "match-rematch");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::runSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * Re-match the dirty buckets of every owned shard and publish the deltas.
+     *
+     * @return the deltas, one per shard where something changed
+     */
+    public List<RematchDelta> run() {
+        long start = System.nanoTime();
+        List<RematchDelta> deltas = shards.rematch();
+        long now = System.currentTimeMillis();
+        long buckets = 0;
+        long legs = 0;
+        long matched = 0;
+        long resolved = 0;
+        long superseded = 0;
+        for (RematchDelta delta : deltas) {
+            buckets += delta.buckets();
+            legs += delta.legs();
+            matched += delta.pairs().size();
+            resolved += delta.resolved().size();
+            superseded += delta.superseded().size();
+            publish(delta, now);
+        }
+        long elapsed = System.nanoTime() - start;
+        metrics.recordRematch(buckets, matched, resolved, superseded, elapsed);
+        if (matched + superseded > 0) {
+            log.info("Re-matched {} buckets ({} legs) in {} ms: {} pairs, {} exceptions resolved, {} superseded",
+                    buckets, legs, TimeUnit.NANOSECONDS.toMillis(elapsed), matched, resolved, superseded);
+        }
+        return deltas;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private void runSafely() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            log.error("Re-match cycle failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /** Pairs first, so a resolution never refers to a pair not yet sent. */
+    private void publish(RematchDelta delta, long now) {
+        for (MatchedPair pair : delta.pairs()) {
+            try {
+                logFailure(pairPublisher.publish(pair, now), "match " + pair.matchId());
+            } catch (JsonProcessingException e) {
+                log.error("Re-matched pair {} cannot be written: {}", pair.matchId(), e.getMessage(), e);
+            }
+        }
+        for (RematchDelta.Resolved resolved : delta.resolved()) {
+            OpenItem item = resolved.exception();
+            try {
+                logFailure(exceptionPublisher.publishResolved(item, resolved.pair(), now),
+                        "resolution of " + item.record().getTxnId());
+            } catch (JsonProcessingException e) {
+                log.error("Resolution of {} cannot be written: {}", item.record().getTxnId(), e.getMessage(), e);
+            }
+        }
+        for (OpenItem item : delta.superseded()) {
+            try {
+                logFailure(exceptionPublisher.publishSuperseded(item, now),
+                        "supersession of " + item.record().getTxnId());
+            } catch (JsonProcessingException e) {
+                log.error("Supersession of {} cannot be written: {}", item.record().getTxnId(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private static void logFailure(CompletableFuture<?> send, String what) {
+        send.whenComplete((metadata, error) -> {
+            if (error != null) {
+                log.error("Publishing {} failed: {}", what, error.getMessage(), error);
+            }
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package com.gracemann.recon.matchengine.rematch;
+
+import java.util.List;
+
+import com.gracemann.recon.matchengine.matching.MatchedPair;
+import com.gracemann.recon.matchengine.matching.OpenItem;
+
+/**
+ * What one shard's re-match cycle changed.
+ *
+ * @param buckets    dirty buckets re-evaluated
+ * @param legs       legs the re-evaluation matched against each other
+ * @param pairs      new pairs, each involving at least one exception candidate
+ * @param resolved   exception candidates now matched, with their pair
+ * @param superseded exception candidates replaced by a correction that the
+ *                   cycle did not pair
+ */
+public record RematchDelta(int buckets, int legs, List<MatchedPair> pairs, List<Resolved> resolved,
+        List<OpenItem> superseded) {
+
+    /** An exception candidate and the pair that resolved it. */
+    public record Resolved(OpenItem exception, MatchedPair pair) {
+    }
+}
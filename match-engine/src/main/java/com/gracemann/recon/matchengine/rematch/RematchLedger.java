@@ -0,0 +1,324 @@
+package com.gracemann.recon.matchengine.rematch;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.matchengine.matching.EventTimeAging;
+import com.gracemann.recon.matchengine.matching.FuzzyScorer;
+import com.gracemann.recon.matchengine.matching.MatchRules;
+import com.gracemann.recon.matchengine.matching.MatchedPair;
+import com.gracemann.recon.matchengine.matching.OpenItem;
+import com.gracemann.recon.matchengine.matching.StreamingMatcher;
+
+/**
+ * One shard's exception candidates and the match buckets (card hash × event
+ * day) that changed around them since the last re-match cycle.
+ *
+ * <p>
+ * Streaming matching only sees open legs. A leg that aged out as an
+ * exception candidate is gone from the open-item stores, so a late
+ * counterpart, a late scheme correction or a manually fixed leg re-sent
+ * through ingestion simply opens. The ledger keeps the legs published as
+ * exceptions for {@code retention-ms} of event time, by bucket, and marks a
+ * bucket dirty when a leg opens within the rules' day tolerance of one of
+ * them.
+ * </p>
+ *
+ * <p>
+ * {@link #rematch} re-evaluates only the dirty buckets. Each bucket's changed
+ * legs and nearby exceptions are fed in event order to a fresh
+ * {@link StreamingMatcher} under the rules in force, and every pair that
+ * involves an exception becomes a delta: the pair itself, the exceptions it
+ * resolves, and the open leg it withdraws from the shard's live matcher. An
+ * exception whose txnId and source reappear on a newer leg is a corrected
+ * leg; it is resolved by the correction's pair, or superseded if the
+ * correction found none. A cycle therefore costs the changed legs and the
+ * exceptions next to them, never the day's volume.
+ * </p>
+ *
+ * <p>
+ * The ledger lives on the heap only: after a restart or a handoff it starts
+ * empty, and exceptions expired before then are left to the end-of-day
+ * batch. Thread-safe.
+ * </p>
+ */
+public class RematchLedger {
+
+    private static final long DAY_MS = 86_400_000L;
+    private static final Comparator<OpenItem> EVENT_ORDER = Comparator
+            .comparingLong(RematchLedger::eventTime)
+            .thenComparing(item -> item.record().getSourceType())
+            .thenComparing(item -> item.record().getTxnId(), Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final FuzzyScorer scorer;
+    private final MatchRules rules;
+    private final long retentionMs;
+
+    /** Exception candidates by bucket; this and the fields below guarded by this. */
+    private final Map<Long, List<OpenItem>> exceptions = new HashMap<>();
+    /** Buckets holding exceptions, by day, for retention. */
+    private final NavigableMap<Long, Set<Long>> bucketsByDay = new TreeMap<>();
+    private int exceptionCount;
+    /** Legs opened next to an exception since the last cycle, by bucket. */
+    private Map<Long, List<OpenItem>> dirty = new LinkedHashMap<>();
+
+    /**
+     * @param retentionMs how far behind the shard's watermark an exception is
+     *                    still re-matched
+     */
+    public RematchLedger(FuzzyScorer scorer, MatchRules rules, long retentionMs) {
+        this.scorer = scorer;
+        this.rules = rules;
+        this.retentionMs = retentionMs;
+    }
+
+    /** Record legs just published as exception candidates. */
+    public synchronized void expired(List<OpenItem> items) {
+        for (OpenItem item : items) {
+            long bucket = bucket(item);
+            List<OpenItem> legs = exceptions.get(bucket);
+            if (legs == null) {
+                legs = new ArrayList<>(2);
+                exceptions.put(bucket, legs);
+                bucketsByDay.computeIfAbsent(day(bucket), day -> new HashSet<>()).add(bucket);
+            }
+            legs.add(item);
+            exceptionCount++;
+        }
+    }
+
+    /** Forget exception candidates whose publishing failed and that are open again. */
+    public synchronized void reopened(List<OpenItem> items) {
+        for (OpenItem item : items) {
+            remove(item);
+        }
+    }
+
+    /** Note a leg that found no counterpart and opened. */
+    public synchronized void opened(TxnRecordDTO record, long arrivedAtMillis) {
+        if (exceptions.isEmpty()) {
+            return;
+        }
+        OpenItem item = new OpenItem(record, arrivedAtMillis);
+        long bucket = bucket(item);
+        long[] days = rules.current().dayRange(day(bucket));
+        for (long day = days[0]; day <= days[1]; day++) {
+            if (exceptions.containsKey(bucket(cardHash(bucket), day))) {
+                dirty.computeIfAbsent(bucket, b -> new ArrayList<>(2)).add(item);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Re-evaluate the buckets that changed since the last cycle and drop the
+     * exceptions that fell out of retention.
+     *
+     * @param live      the shard's matcher, from which paired open legs are
+     *                  withdrawn
+     * @param partition the shard's partition, journalled with the withdrawals
+     */
+    public RematchDelta rematch(StreamingMatcher live, int partition) {
+        Map<Long, List<OpenItem>> changed;
+        synchronized (this) {
+            evict(Math.max(live.watermark(SourceType.BANK_SWITCH), live.watermark(SourceType.SCHEME_FILE)));
+            changed = dirty;
+            dirty = new LinkedHashMap<>();
+        }
+        List<MatchedPair> pairs = new ArrayList<>();
+        List<RematchDelta.Resolved> resolved = new ArrayList<>();
+        List<OpenItem> superseded = new ArrayList<>();
+        int legs = 0;
+        // one bucket at a time: neighbouring buckets share exceptions
+        for (Map.Entry<Long, List<OpenItem>> bucket : changed.entrySet()) {
+            legs += rematch(bucket.getKey(), bucket.getValue(), live, partition, pairs, resolved, superseded);
+        }
+        return new RematchDelta(changed.size(), legs, pairs, resolved, superseded);
+    }
+
+    /** Buckets waiting for the next cycle. */
+    public synchronized int dirtyBuckets() {
+        return dirty.size();
+    }
+
+    /** Exception candidates that can still be re-matched. */
+    public synchronized int exceptions() {
+        return exceptionCount;
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private int rematch(long bucket, List<OpenItem> changed, StreamingMatcher live, int partition,
+            List<MatchedPair> pairs, List<RematchDelta.Resolved> resolved, List<OpenItem> superseded) {
+        // 1️⃣ Gather --------------------------------------------------------
+        Map<String, Leg> legs = new LinkedHashMap<>();
+        List<OpenItem> replaced = new ArrayList<>();
+        synchronized (this) {
+            long[] days = rules.current().dayRange(day(bucket));
+            for (long day = days[0]; day <= days[1]; day++) {
+                for (OpenItem item : exceptions.getOrDefault(bucket(cardHash(bucket), day), List.of())) {
+                    add(legs, new Leg(item, false), replaced);
+                }
+            }
+        }
+        for (OpenItem item : changed) {
+            add(legs, new Leg(item, true), replaced);
+        }
+
+        // 2️⃣ Match ---------------------------------------------------------
+        List<OpenItem> ordered = new ArrayList<>(legs.size());
+        legs.values().forEach(leg -> ordered.add(leg.item()));
+        ordered.sort(EVENT_ORDER);
+        StreamingMatcher matcher = new StreamingMatcher(scorer, rules, EventTimeAging.disabled(), 1);
+        List<MatchedPair> found = new ArrayList<>();
+        for (OpenItem item : ordered) {
+            MatchedPair pair = matcher.offer(item.record(), item.arrivedAtMillis()).pair();
+            if (pair != null) {
+                found.add(pair);
+            }
+        }
+
+        // 3️⃣ Apply ---------------------------------------------------------
+        List<OpenItem> settled = new ArrayList<>();
+        boolean stale = false;
+        for (MatchedPair candidate : found) {
+            Leg bank = legs.get(id(candidate.bank().record()));
+            Leg scheme = legs.get(id(candidate.scheme().record()));
+            if (bank.live() && scheme.live()) {
+                // both open: the streaming path had its chance and stays in charge
+                continue;
+            }
+            Leg open = bank.live() ? bank : scheme.live() ? scheme : null;
+            if (open != null && !live.withdraw(open.item().record(), partition, -1L)) {
+                // matched or expired since it was noted: try again next cycle
+                stale = true;
+                continue;
+            }
+            MatchedPair pair = new MatchedPair(bank.item(), scheme.item(), candidate.type(), candidate.score());
+            pairs.add(pair);
+            for (Leg leg : List.of(bank, scheme)) {
+                if (!leg.live()) {
+                    resolved.add(new RematchDelta.Resolved(leg.item(), pair));
+                    settled.add(leg.item());
+                }
+            }
+            if (open != null) {
+                // the exceptions an open correction replaced are resolved along with it
+                for (int i = replaced.size() - 1; i >= 0; i--) {
+                    if (id(replaced.get(i).record()).equals(open.id())) {
+                        resolved.add(new RematchDelta.Resolved(replaced.get(i), pair));
+                        settled.add(replaced.remove(i));
+                    }
+                }
+            }
+        }
+        superseded.addAll(replaced);
+        settled.addAll(replaced);
+        synchronized (this) {
+            for (OpenItem item : settled) {
+                remove(item);
+            }
+            if (stale) {
+                dirty.computeIfAbsent(bucket, b -> new ArrayList<>(0));
+            }
+        }
+        return legs.size();
+    }
+
+    /**
+     * Keep one leg per txnId and source: a newer one replaces an exception,
+     * which is then superseded.
+     */
+    private static void add(Map<String, Leg> legs, Leg leg, List<OpenItem> replaced) {
+        Leg previous = legs.put(leg.id(), leg);
+        if (previous == null) {
+            return;
+        }
+        // exceptions are added first, so an earlier live leg means the same leg noted twice
+        if (previous.live() || (!leg.live()
+                && previous.item().arrivedAtMillis() > leg.item().arrivedAtMillis())) {
+            legs.put(previous.id(), previous);
+            if (!leg.live()) {
+                replaced.add(leg.item());
+            }
+            return;
+        }
+        replaced.add(previous.item());
+    }
+
+    private void remove(OpenItem item) {
+        long bucket = bucket(item);
+        List<OpenItem> legs = exceptions.get(bucket);
+        if (legs == null || !legs.remove(item)) {
+            return;
+        }
+        exceptionCount--;
+        if (legs.isEmpty()) {
+            exceptions.remove(bucket);
+            Set<Long> buckets = bucketsByDay.get(day(bucket));
+            buckets.remove(bucket);
+            if (buckets.isEmpty()) {
+                bucketsByDay.remove(day(bucket));
+            }
+        }
+    }
+
+    private void evict(long watermark) {
+        if (watermark == Long.MIN_VALUE) {
+            return;
+        }
+        long oldest = Math.floorDiv(watermark - retentionMs, DAY_MS);
+        while (!bucketsByDay.isEmpty() && bucketsByDay.firstKey() < oldest) {
+            for (long bucket : bucketsByDay.pollFirstEntry().getValue()) {
+                exceptionCount -= exceptions.remove(bucket).size();
+            }
+        }
+    }
+
+    private static String id(TxnRecordDTO record) {
+        return record.getTxnId() + "|" + record.getSourceType();
+    }
+
+    private static long bucket(OpenItem item) {
+        String card = item.record().getCardNumber();
+        return bucket(card == null ? 0 : card.hashCode(), Math.floorDiv(eventTime(item), DAY_MS));
+    }
+
+    private static long bucket(int cardHash, long day) {
+        return (long) cardHash << 32 | (day & 0xFFFF_FFFFL);
+    }
+
+    private static int cardHash(long bucket) {
+        return (int) (bucket >>> 32);
+    }
+
+    private static long day(long bucket) {
+        return (int) bucket;
+    }
+
+    /** Event time of a leg, as the matcher ages it: its timestamp, else its arrival. */
+    private static long eventTime(OpenItem item) {
+        return item.record().getTxnTimestamp() != null
+                ? item.record().getTxnTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli()
+                : item.arrivedAtMillis();
+    }
+
+    /** A leg of a bucket's re-evaluation; {@code live} if it is open in the shard's matcher. */
+    private record Leg(OpenItem item, boolean live) {
+
+        String id() {
+            return RematchLedger.id(item.record());
+        }
+    }
+}
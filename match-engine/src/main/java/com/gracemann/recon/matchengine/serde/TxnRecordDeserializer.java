@@ -0,0 +1,48 @@
+package com.gracemann.recon.matchengine.serde;
+
+import java.io.IOException;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+
+/**
+ * Kafka value deserializer for {@code ingested-txn-topic} that picks the
+ * decoder per record from the {@value WireFormat#HEADER} header: binary
+ * payloads go through {@link TxnRecordBinaryCodec}, everything else (including
+ * legacy records without the header) is read as JSON.
+ */
+public class TxnRecordDeserializer implements Deserializer<TxnRecordDTO> {
+
+    private final TxnRecordBinaryCodec codec = new TxnRecordBinaryCodec();
+    private final ObjectReader jsonReader = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .readerFor(TxnRecordDTO.class);
+
+    @Override
+    public TxnRecordDTO deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public TxnRecordDTO deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return switch (WireFormat.of(headers)) {
+                case BINARY_V1 -> codec.decode(data);
+                case JSON -> jsonReader.readValue(data);
+            };
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SerializationException("Cannot deserialize TxnRecord from " + topic + ": " + e.getMessage(), e);
+        }
+    }
+}
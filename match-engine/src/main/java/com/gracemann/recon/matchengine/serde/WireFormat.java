@@ -0,0 +1,89 @@
+package com.gracemann.recon.matchengine.serde;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Payload formats used on {@code ingested-txn-topic}.
+ *
+ * <p>
+ * Every forwarded record carries a {@value #HEADER} header naming its format,
+ * so consumers can switch per record. Records without the header predate the
+ * binary format and are JSON.
+ * </p>
+ *
+ * <p>
+ * Mirror of the ingestion-service enum, which owns the format ids.
+ * </p>
+ */
+public enum WireFormat {
+
+    /** Jackson JSON of the full TxnRecordDTO. */
+    JSON("json"),
+
+    /** {@link TxnRecordBinaryCodec} version 1. */
+    BINARY_V1("bin-v1");
+
+    /** Record header carrying the payload format id. */
+    public static final String HEADER = "recon-format";
+
+    private final String id;
+    private final byte[] headerValue;
+
+    WireFormat(String id) {
+        this.id = id;
+        this.headerValue = id.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public String id() {
+        return id;
+    }
+
+    byte[] headerValue() {
+        return headerValue;
+    }
+
+    /**
+     * Resolve a configuration value such as {@code json} or {@code binary}.
+     */
+    public static WireFormat fromProperty(String value) {
+        if (value == null || value.isBlank() || JSON.id.equalsIgnoreCase(value.trim())) {
+            return JSON;
+        }
+        String trimmed = value.trim();
+        if ("binary".equalsIgnoreCase(trimmed) || BINARY_V1.id.equalsIgnoreCase(trimmed)) {
+            return BINARY_V1;
+        }
+        throw new IllegalArgumentException("Unknown wire format '" + value + "'");
+    }
+
+    /**
+     * Format of a consumed record, defaulting to JSON when the header is
+     * missing.
+     *
+     * @throws IllegalArgumentException for an unknown format id
+     */
+    public static WireFormat of(Headers headers) {
+        Header header = headers == null ? null : headers.lastHeader(HEADER);
+        if (header == null) {
+            return JSON;
+        }
+        String id = new String(header.value(), StandardCharsets.US_ASCII);
+        for (WireFormat format : values()) {
+            if (format.id.equals(id)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported " + HEADER + " header '" + id + "'");
+    }
+
+    /**
+     * Stamp the format header on an outgoing record.
+     */
+    public void stamp(Headers headers) {
+        headers.remove(HEADER);
+        headers.add(HEADER, headerValue);
+    }
+}
@@ -0,0 +1,541 @@
+package com.gracemann.recon.matchengine.shard;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.matchengine.matching.EventTimeAging;
+import com.gracemann.recon.matchengine.matching.FuzzyScorer;
+import com.gracemann.recon.matchengine.matching.MatchOutcome;
+import com.gracemann.recon.matchengine.matching.MatchRules;
+import com.gracemann.recon.matchengine.matching.OpenItem;
+import com.gracemann.recon.matchengine.matching.StreamingMatcher;
+import com.gracemann.recon.matchengine.rematch.RematchDelta;
+import com.gracemann.recon.matchengine.rematch.RematchLedger;
+import com.gracemann.recon.matchengine.state.OpenItemStateStore;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * The shards of the open-item state this instance owns: one
+ * {@link StreamingMatcher} and one {@link OpenItemStateStore} per assigned
+ * partition of {@code ingested-txn-topic}.
+ *
+ * <p>
+ * Ingestion keys the topic by a hash of the card number, so both legs of a
+ * pair (and every fuzzy candidate) land on the same partition, and a
+ * partition can be matched on its own. Instances never share state or locks,
+ * so adding instances (up to the partition count) adds matching capacity.
+ * </p>
+ *
+ * <p>
+ * Rebalances hand state off instead of rebuilding it. When a partition is
+ * revoked its shard writes a final snapshot to
+ * {@code recon.match.state.dir/partition-<n>} and is dropped. When it is
+ * assigned, here or on another instance sharing that directory, the shard
+ * loads the snapshot and replays whatever changelog tail the previous owner
+ * left, then consumption resumes from the shard's own offset. With the
+ * cooperative sticky assignor only the partitions that actually move are
+ * revoked.
+ * </p>
+ *
+ * <p>
+ * Offsets are committed only as far as a shard's changelog is on disk (see
+ * {@link #acknowledgeWhenDurable}), so after a crash the store is at or ahead
+ * of the consumer group and is simply resumed. A store only counts if it is
+ * at least as far as the group. One that resumes before the group's position
+ * (an instance's own leftovers from an earlier ownership, when the directory
+ * is not shared) or no store at all means other owners consumed legs this
+ * shard never saw. Its files
+ * are discarded and the partition is re-read from the beginning:
+ * {@link #replaying} legs rebuild the open items without being published,
+ * since their pairs and exception candidates went out with the previous
+ * owner, and normal matching takes over at the group's position.
+ * </p>
+ *
+ * <p>
+ * With re-matching enabled each shard also keeps a {@link RematchLedger} of
+ * the legs it published as exception candidates, so {@link #rematch} can
+ * revisit the buckets that changed around them.
+ * </p>
+ */
+@Component
+public class MatchShards {
+
+    /** {@link #resumeOffset} of a partition being rebuilt from the start of the topic. */
+    public static final long FROM_BEGINNING = -2;
+
+    private static final Logger log = LoggerFactory.getLogger(MatchShards.class);
+
+    private final FuzzyScorer scorer;
+    private final MatchRules rules;
+    private final EventTimeAging aging;
+    private final int lockStripes;
+    private final boolean stateEnabled;
+    private final Path stateDir;
+    private final long snapshotIntervalMs;
+    private final long flushIntervalMs;
+    private final boolean rematchEnabled;
+    private final long rematchRetentionMs;
+    private final ScheduledExecutorService scheduler;
+
+    private final ConcurrentMap<Integer, Shard> shards = new ConcurrentHashMap<>();
+    /** Group position of each partition being rebuilt; legs before it are replayed. */
+    private final ConcurrentMap<Integer, Long> replays = new ConcurrentHashMap<>();
+    /** Totals of shards already handed off, so the counters stay monotonic. */
+    private final LongAdder retiredCompactions = new LongAdder();
+    private final LongAdder retiredSnapshots = new LongAdder();
+    private final LongAdder retiredLateBank = new LongAdder();
+    private final LongAdder retiredLateScheme = new LongAdder();
+    private final LongAdder retiredProbesSaved = new LongAdder();
+    private final LongAdder retiredProbesWasted = new LongAdder();
+    private final LongAdder handoffs = new LongAdder();
+    private volatile long lastRecoveryMillis;
+    private volatile long lastRecoveredItems;
+    private volatile long lastReplayedEntries;
+
+    public MatchShards(FuzzyScorer scorer, MatchRules rules, EventTimeAging aging,
+            @Value("${recon.match.lock-stripes:256}") int lockStripes,
+            @Value("${recon.match.state.enabled:true}") boolean stateEnabled,
+            @Value("${recon.match.state.dir:data/match-state}") String stateDir,
+            @Value("${recon.match.state.snapshot-interval-ms:300000}") long snapshotIntervalMs,
+            @Value("${recon.match.state.flush-interval-ms:100}") long flushIntervalMs,
+            @Value("${recon.match.rematch.enabled:true}") boolean rematchEnabled,
+            @Value("${recon.match.rematch.retention-ms:604800000}") long rematchRetentionMs) {
+        this.scorer = scorer;
+        this.rules = rules;
+        this.aging = aging;
+        this.lockStripes = lockStripes;
+        this.stateEnabled = stateEnabled;
+        this.stateDir = Paths.get(stateDir);
+        this.snapshotIntervalMs = snapshotIntervalMs;
+        this.flushIntervalMs = flushIntervalMs;
+        this.rematchEnabled = rematchEnabled;
+        this.rematchRetentionMs = rematchRetentionMs;
+        this.scheduler = stateEnabled ? Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "match-state");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * Take ownership of newly assigned partitions, recovering their shards in
+     * parallel. Partitions already owned are left alone.
+     *
+     * @param positions the consumer group's position of each partition, the
+     *                  offset its previous owners got to
+     */
+    public void assign(Map<Integer, Long> positions) {
+        List<Integer> added = new ArrayList<>();
+        for (Integer partition : positions.keySet()) {
+            if (!shards.containsKey(partition)) {
+                added.add(partition);
+            }
+        }
+        if (added.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        LongAdder items = new LongAdder();
+        LongAdder entries = new LongAdder();
+        added.parallelStream().forEach(partition -> {
+            Shard shard = open(partition, positions.get(partition));
+            if (shard.store() != null) {
+                items.add(shard.store().recoveredItems());
+                entries.add(shard.store().replayedEntries());
+            }
+            shards.put(partition, shard);
+        });
+        lastRecoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastRecoveredItems = items.sum();
+        lastReplayedEntries = entries.sum();
+        log.info("Assigned partitions {}: recovered {} open items and {} changelog entries in {} ms", added,
+                lastRecoveredItems, lastReplayedEntries, lastRecoveryMillis);
+    }
+
+    /**
+     * Hand off revoked partitions: snapshot each shard for its next owner and
+     * drop it.
+     */
+    public void revoke(Collection<Integer> partitions) {
+        for (Integer partition : partitions) {
+            replays.remove(partition);
+            Shard shard = shards.remove(partition);
+            if (shard == null) {
+                continue;
+            }
+            retiredCompactions.add(shard.matcher().compactions());
+            retiredLateBank.add(shard.matcher().lateLegs(SourceType.BANK_SWITCH));
+            retiredLateScheme.add(shard.matcher().lateLegs(SourceType.SCHEME_FILE));
+            retiredProbesSaved.add(shard.matcher().probesSaved());
+            retiredProbesWasted.add(shard.matcher().probesWasted());
+            if (shard.store() != null) {
+                shard.store().shutdown();
+                retiredSnapshots.add(shard.store().snapshots());
+            }
+            handoffs.increment();
+        }
+        log.info("Revoked partitions {}; {} still owned", partitions, partitions());
+    }
+
+    /**
+     * Match a leg on its partition's shard, opening the shard first if the
+     * partition was never assigned (legs that did not come from Kafka use
+     * partition {@code -1}, which has no state store).
+     */
+    public MatchOutcome offer(TxnRecordDTO dto, long arrivedAtMillis, int partition, long offset) {
+        Shard shard = shards.get(partition);
+        if (shard == null) {
+            shard = shards.computeIfAbsent(partition, this::open);
+        }
+        MatchOutcome outcome = shard.matcher().offer(dto, arrivedAtMillis, partition, offset);
+        Long until = replays.get(partition);
+        boolean replay = until != null && offset < until;
+        // a replayed leg's re-matching was the previous owner's business
+        if (!outcome.matched() && shard.ledger() != null && !replay) {
+            shard.ledger().opened(dto, arrivedAtMillis);
+        }
+        if (until != null && offset + 1 >= until && replays.remove(partition, until)) {
+            log.info("Partition {} rebuilt up to offset {}; matching resumes", partition, until);
+        }
+        return outcome;
+    }
+
+    /**
+     * Run the Kafka ack of the leg at {@code offset} once its partition's
+     * changelog holds it on disk, or at once for a partition without a state
+     * store. Replayed legs are not acked: the group is already past them.
+     */
+    public void acknowledgeWhenDurable(int partition, long offset, Runnable ack) {
+        if (replaying(partition, offset)) {
+            return;
+        }
+        Shard shard = shards.get(partition);
+        if (shard == null || shard.store() == null) {
+            ack.run();
+        } else {
+            shard.store().acknowledgeWhenDurable(ack);
+        }
+    }
+
+    /**
+     * Force the changelogs of the given partitions to disk now, releasing
+     * their held acks, e.g. before the offsets of revoked partitions are
+     * committed.
+     */
+    public void flush(Collection<Integer> partitions) {
+        for (Integer partition : partitions) {
+            Shard shard = shards.get(partition);
+            if (shard != null && shard.store() != null) {
+                shard.store().flush();
+            }
+        }
+    }
+
+    /**
+     * Whether the leg at {@code offset} is replayed to rebuild a partition's
+     * open items: it was matched and published by an earlier owner, so its
+     * outcome must not be published again.
+     */
+    public boolean replaying(int partition, long offset) {
+        Long until = replays.get(partition);
+        return until != null && offset < until;
+    }
+
+    /**
+     * Expire the open legs of a partition's shard that its watermarks have
+     * aged out, after the leg at {@code offset} moved them.
+     *
+     * @see StreamingMatcher#expire
+     */
+    public List<OpenItem> expire(int partition, long offset) {
+        Shard shard = shards.get(partition);
+        if (shard == null) {
+            return List.of();
+        }
+        List<OpenItem> expired = shard.matcher().expire(partition, offset);
+        if (!expired.isEmpty() && shard.ledger() != null) {
+            shard.ledger().expired(expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Put legs back open on a partition's shard whose outcome could not be
+     * published: the counterpart of a pair, which the redelivered leg matches
+     * again, or exception candidates, which expire again with the next leg.
+     * Each open is journalled as caused by the leg at {@code offset}.
+     */
+    public void reopen(int partition, long offset, List<OpenItem> items) {
+        Shard shard = shards.get(partition);
+        if (shard == null) {
+            return;
+        }
+        for (OpenItem item : items) {
+            shard.matcher().reopen(item, partition, offset);
+        }
+        if (shard.ledger() != null) {
+            shard.ledger().reopened(items);
+        }
+    }
+
+    /**
+     * Re-match the buckets that changed on each owned shard since the last
+     * call.
+     *
+     * @return the deltas of the shards where something changed
+     * @see RematchLedger#rematch
+     */
+    public List<RematchDelta> rematch() {
+        List<RematchDelta> deltas = new ArrayList<>();
+        for (Map.Entry<Integer, Shard> entry : shards.entrySet()) {
+            RematchLedger ledger = entry.getValue().ledger();
+            if (ledger != null) {
+                RematchDelta delta = ledger.rematch(entry.getValue().matcher(), entry.getKey());
+                if (delta.buckets() > 0) {
+                    deltas.add(delta);
+                }
+            }
+        }
+        return deltas;
+    }
+
+    /** Buckets waiting for the next re-match cycle. */
+    public long dirtyBuckets() {
+        long dirty = 0;
+        for (Shard shard : shards.values()) {
+            dirty += shard.ledger() == null ? 0 : shard.ledger().dirtyBuckets();
+        }
+        return dirty;
+    }
+
+    /** Exception candidates that a re-match cycle can still resolve. */
+    public long rematchableExceptions() {
+        long exceptions = 0;
+        for (Shard shard : shards.values()) {
+            exceptions += shard.ledger() == null ? 0 : shard.ledger().exceptions();
+        }
+        return exceptions;
+    }
+
+    /**
+     * Watermark of {@code source} on a partition's shard,
+     * {@link Long#MIN_VALUE} if it has none.
+     */
+    public long watermark(int partition, SourceType source) {
+        Shard shard = shards.get(partition);
+        return shard == null ? Long.MIN_VALUE : shard.matcher().watermark(source);
+    }
+
+    /**
+     * Lowest watermark of {@code source} across the owned shards that have
+     * one, {@link Long#MIN_VALUE} if none has.
+     */
+    public long watermark(SourceType source) {
+        long lowest = Long.MAX_VALUE;
+        for (Shard shard : shards.values()) {
+            long watermark = shard.matcher().watermark(source);
+            if (watermark != Long.MIN_VALUE) {
+                lowest = Math.min(lowest, watermark);
+            }
+        }
+        return lowest == Long.MAX_VALUE ? Long.MIN_VALUE : lowest;
+    }
+
+    public long lateLegs(SourceType source) {
+        long late = (source == SourceType.BANK_SWITCH ? retiredLateBank : retiredLateScheme).sum();
+        for (Shard shard : shards.values()) {
+            late += shard.matcher().lateLegs(source);
+        }
+        return late;
+    }
+
+    /**
+     * Offset to resume an owned partition from, {@link #FROM_BEGINNING} to
+     * rebuild it from the start of the topic, or {@code -1} to leave it to
+     * the consumer group's committed offset.
+     */
+    public long resumeOffset(int partition) {
+        if (replays.containsKey(partition)) {
+            return FROM_BEGINNING;
+        }
+        Shard shard = shards.get(partition);
+        return shard == null || shard.store() == null ? -1 : shard.store().resumeOffset(partition);
+    }
+
+    public Set<Integer> partitions() {
+        return new TreeSet<>(shards.keySet());
+    }
+
+    public long openItems(SourceType source) {
+        long open = 0;
+        for (Shard shard : shards.values()) {
+            open += shard.matcher().openItems(source);
+        }
+        return open;
+    }
+
+    public long storeBytes() {
+        long bytes = 0;
+        for (Shard shard : shards.values()) {
+            bytes += shard.matcher().storeBytes();
+        }
+        return bytes;
+    }
+
+    public long compactions() {
+        long compactions = retiredCompactions.sum();
+        for (Shard shard : shards.values()) {
+            compactions += shard.matcher().compactions();
+        }
+        return compactions;
+    }
+
+    public long probesSaved() {
+        long saved = retiredProbesSaved.sum();
+        for (Shard shard : shards.values()) {
+            saved += shard.matcher().probesSaved();
+        }
+        return saved;
+    }
+
+    public long probesWasted() {
+        long wasted = retiredProbesWasted.sum();
+        for (Shard shard : shards.values()) {
+            wasted += shard.matcher().probesWasted();
+        }
+        return wasted;
+    }
+
+    /** Presence-filter false-positive probability, weighted by each shard's open legs. */
+    public double filterFalsePositiveProbability() {
+        double weighted = 0;
+        long legs = 0;
+        for (Shard shard : shards.values()) {
+            long open = shard.matcher().openItems(SourceType.BANK_SWITCH)
+                    + shard.matcher().openItems(SourceType.SCHEME_FILE);
+            weighted += shard.matcher().filterFalsePositiveProbability() * open;
+            legs += open;
+        }
+        return legs == 0 ? 0 : weighted / legs;
+    }
+
+    public long dictionarySize() {
+        long size = 0;
+        for (Shard shard : shards.values()) {
+            size += shard.matcher().dictionarySize();
+        }
+        return size;
+    }
+
+    public long snapshots() {
+        long snapshots = retiredSnapshots.sum();
+        for (Shard shard : shards.values()) {
+            snapshots += shard.store() == null ? 0 : shard.store().snapshots();
+        }
+        return snapshots;
+    }
+
+    public long changelogBytes() {
+        long bytes = 0;
+        for (Shard shard : shards.values()) {
+            bytes += shard.store() == null ? 0 : shard.store().changelogBytes();
+        }
+        return bytes;
+    }
+
+    /** Shards handed off to another owner (or this one, later). */
+    public long handoffs() {
+        return handoffs.sum();
+    }
+
+    /** Wall time of the last assignment's recovery. */
+    public long lastRecoveryMillis() {
+        return lastRecoveryMillis;
+    }
+
+    public long lastRecoveredItems() {
+        return lastRecoveredItems;
+    }
+
+    public long lastReplayedEntries() {
+        return lastReplayedEntries;
+    }
+
+    /** Snapshot every owned shard, as if all partitions were revoked. */
+    @PreDestroy
+    public void shutdown() {
+        revoke(partitions());
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    /**
+     * Open a partition's shard and check its store against the group's
+     * position: a store behind it, or none, misses legs that other owners
+     * consumed, so it is discarded and the partition replayed.
+     */
+    private Shard open(int partition, Long position) {
+        Shard shard = open(partition);
+        long resume = shard.store() == null ? -1 : shard.store().resumeOffset(partition);
+        if (position == null || position <= 0 || resume >= position) {
+            return shard;
+        }
+        if (shard.store() != null) {
+            log.warn("State of partition {} resumes at offset {} but the group is at {}; discarding it", partition,
+                    resume, position);
+            try {
+                shard.store().discard();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Discarding the state of partition " + partition + " failed", e);
+            }
+            shard = open(partition);
+        }
+        log.info("Re-reading partition {} up to offset {} to rebuild its open items", partition, position);
+        replays.put(partition, position);
+        return shard;
+    }
+
+    private Shard open(int partition) {
+        StreamingMatcher matcher = new StreamingMatcher(scorer, rules, aging, lockStripes);
+        RematchLedger ledger = rematchEnabled ? new RematchLedger(scorer, rules, rematchRetentionMs) : null;
+        if (!stateEnabled || partition < 0) {
+            return new Shard(matcher, null, ledger);
+        }
+        OpenItemStateStore store = new OpenItemStateStore(matcher, stateDir.resolve("partition-" + partition),
+                snapshotIntervalMs, flushIntervalMs, scheduler);
+        try {
+            store.recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Recovering partition " + partition + " failed", e);
+        }
+        return new Shard(matcher, store, ledger);
+    }
+
+    private record Shard(StreamingMatcher matcher, OpenItemStateStore store, RematchLedger ledger) {
+    }
+}
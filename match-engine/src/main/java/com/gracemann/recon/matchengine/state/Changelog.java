@@ -0,0 +1,206 @@
+package com.gracemann.recon.matchengine.state;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only changelog of open-item changes, split into segment files.
+ *
+ * <p>
+ * Each segment is named after the sequence number of its first entry
+ * ({@code changelog-<seq>.log}) and holds framed entries:
+ * </p>
+ *
+ * <pre>
+ *   int     payload length
+ *   int     CRC-32 of the payload
+ *   payload byte type (OPENED, CLOSED), long seq, int partition, long offset,
+ *           long arrivedAtMillis, binary TxnRecord
+ * </pre>
+ *
+ * <p>
+ * The Kafka position of the leg that caused a change travels in the same
+ * frame as the change, so the two are durable together or not at all. A
+ * frame torn by a crash fails its length or CRC check and ends the segment
+ * when it is read back. Not thread-safe; {@link OpenItemStateStore}
+ * serialises appends.
+ * </p>
+ */
+final class Changelog {
+
+    static final byte OPENED = 1;
+    static final byte CLOSED = 2;
+
+    private static final String PREFIX = "changelog-";
+    private static final String SUFFIX = ".log";
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int FIXED_PAYLOAD_BYTES = 1 + Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+    private static final int MAX_PAYLOAD_BYTES = 16 * 1024 * 1024;
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final Path dir;
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private FileChannel channel;
+    private long bytes;
+
+    Changelog(Path dir) {
+        this.dir = dir;
+    }
+
+    /** Start a new segment whose first entry will be {@code firstSeq}. */
+    void open(long firstSeq) throws IOException {
+        channel = FileChannel.open(dir.resolve(PREFIX + String.format("%020d", firstSeq) + SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        bytes = 0;
+    }
+
+    void append(byte type, long seq, int partition, long offset, long arrivedAtMillis, byte[] record)
+            throws IOException {
+        int payload = FIXED_PAYLOAD_BYTES + record.length;
+        if (buffer.remaining() < HEADER_BYTES + payload) {
+            flush();
+            if (buffer.capacity() < HEADER_BYTES + payload) {
+                buffer = ByteBuffer.allocate(HEADER_BYTES + payload);
+            }
+        }
+        int start = buffer.position();
+        buffer.position(start + HEADER_BYTES);
+        buffer.put(type).putLong(seq).putInt(partition).putLong(offset).putLong(arrivedAtMillis).put(record);
+        crc.reset();
+        crc.update(buffer.array(), start + HEADER_BYTES, payload);
+        buffer.putInt(start, payload).putInt(start + Integer.BYTES, (int) crc.getValue());
+        bytes += HEADER_BYTES + payload;
+    }
+
+    /** Hand buffered entries to the OS. */
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /** The active segment's channel, for forcing to disk outside the append lock. */
+    FileChannel channel() {
+        return channel;
+    }
+
+    /** Flush, force and close the active segment and start the next one. */
+    void roll(long nextSeq) throws IOException {
+        close();
+        open(nextSeq);
+    }
+
+    void close() throws IOException {
+        if (channel != null) {
+            flush();
+            channel.force(false);
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /** Bytes appended to the active segment. */
+    long bytes() {
+        return bytes;
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    /** Segments in {@code dir}, oldest first. */
+    static List<Path> segments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(PREFIX)
+                    && p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparingLong(Changelog::firstSeq))
+                    .toList();
+        }
+    }
+
+    static long firstSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Read a segment's entries in order, stopping at the end or at the first
+     * torn frame.
+     *
+     * @return whether the segment ended cleanly
+     */
+    static boolean read(Path segment, Consumer<Entry> action) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream file = Files.newInputStream(segment);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(file, BUFFER_BYTES))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return true;
+                }
+                if (length < FIXED_PAYLOAD_BYTES || length > MAX_PAYLOAD_BYTES) {
+                    return false;
+                }
+                int expected = in.readInt();
+                byte[] payload = new byte[length];
+                try {
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    return false;
+                }
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != expected) {
+                    return false;
+                }
+                ByteBuffer entry = ByteBuffer.wrap(payload);
+                byte type = entry.get();
+                long seq = entry.getLong();
+                int partition = entry.getInt();
+                long offset = entry.getLong();
+                long arrivedAtMillis = entry.getLong();
+                byte[] record = new byte[entry.remaining()];
+                entry.get(record);
+                action.accept(new Entry(type, seq, partition, offset, arrivedAtMillis, record));
+            }
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Segments that start before {@code seq}. Segments are rolled at every
+     * snapshot, so these hold nothing after the snapshot taken at
+     * {@code seq - 1}.
+     */
+    static List<Path> segmentsBefore(Path dir, long seq) throws IOException {
+        List<Path> old = new ArrayList<>();
+        for (Path segment : segments(dir)) {
+            if (firstSeq(segment) < seq) {
+                old.add(segment);
+            }
+        }
+        return old;
+    }
+
+    /** One decoded changelog entry. */
+    record Entry(byte type, long seq, int partition, long offset, long arrivedAtMillis, byte[] record) {
+    }
+}
@@ -0,0 +1,478 @@
+package com.gracemann.recon.matchengine.state;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.matching.OpenItem;
+import com.gracemann.recon.matchengine.matching.OpenItemJournal;
+import com.gracemann.recon.matchengine.matching.StreamingMatcher;
+import com.gracemann.recon.matchengine.serde.TxnRecordBinaryCodec;
+
+/**
+ * Embedded, log-structured store of one shard's open items, so a restart or
+ * a partition moving between instances does not have to replay
+ * {@code ingested-txn-topic} from the start of the settlement window.
+ *
+ * <p>
+ * Every open and close the {@link StreamingMatcher} makes is appended to a
+ * {@link Changelog} together with the Kafka partition and offset of the leg
+ * that caused it, and flushed to disk every {@code flush-interval-ms}. Every
+ * {@code snapshot-interval-ms} the open items are written to a
+ * {@link SnapshotFile} and the changelog is rolled; the previous snapshot and
+ * the segments after it are kept as a fallback, anything older is deleted.
+ * </p>
+ *
+ * <p>
+ * On {@link #recover} the newest intact snapshot is loaded and the changelog
+ * tail after it replayed, before the shard sees any leg. The highest offset in the
+ * store for each partition is where consumption resumes (see
+ * {@link #resumeOffset}): a leg either made it into the changelog with its
+ * offset, or it is consumed again. {@link #shutdown} writes a final
+ * snapshot, so the next owner of the shard loads it without any replay.
+ * </p>
+ *
+ * <p>
+ * Kafka offsets are committed only as far as the changelog is on disk:
+ * {@link #acknowledgeWhenDurable} holds a leg's ack until the next flush has
+ * forced the entries journalled before it. A crash therefore leaves the
+ * store at or ahead of the consumer group, never behind it.
+ * </p>
+ *
+ * <p>
+ * If the disk fails the store stops journalling and snapshotting rather than
+ * fail matching; the next restart then resumes from the last durable offsets
+ * and consumes the rest again.
+ * </p>
+ */
+public class OpenItemStateStore implements OpenItemJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenItemStateStore.class);
+
+    private final StreamingMatcher matcher;
+    private final TxnRecordBinaryCodec codec = new TxnRecordBinaryCodec();
+    private final Path dir;
+    private final long snapshotIntervalMs;
+    private final long flushIntervalMs;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    /** Highest offset journalled per partition, guarded by {@link #lock}. */
+    private final Map<Integer, Long> offsets = new HashMap<>();
+    /** Acks waiting for the changelog to reach disk, oldest first, guarded by {@link #lock}. */
+    private final ArrayDeque<PendingAck> pendingAcks = new ArrayDeque<>();
+    private Changelog changelog;
+    private long lastSeq;
+    /** Highest sequence forced to disk, guarded by {@link #lock}. */
+    private long durableSeq;
+    private long sinceSnapshot;
+    private volatile boolean failed;
+
+    private ScheduledFuture<?> flushing;
+    private ScheduledFuture<?> snapshotting;
+    private volatile long recoveryMillis;
+    private volatile long recoveredItems;
+    private volatile long replayedEntries;
+    private volatile long snapshots;
+
+    /**
+     * @param dir       the shard's own directory
+     * @param scheduler runs the periodic flushes and snapshots
+     */
+    public OpenItemStateStore(StreamingMatcher matcher, Path dir, long snapshotIntervalMs, long flushIntervalMs,
+            ScheduledExecutorService scheduler) {
+        if (snapshotIntervalMs <= 0 || flushIntervalMs <= 0) {
+            throw new IllegalArgumentException("snapshot-interval-ms and flush-interval-ms must be > 0");
+        }
+        this.matcher = matcher;
+        this.dir = dir;
+        this.snapshotIntervalMs = snapshotIntervalMs;
+        this.flushIntervalMs = flushIntervalMs;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Rebuild the open items from the newest snapshot and the changelog tail,
+     * then start journalling.
+     */
+    public void recover() throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(dir);
+
+        // 1️⃣ Snapshot ------------------------------------------------------
+        SnapshotFile.Contents snapshot = null;
+        for (Path candidate : SnapshotFile.snapshots(dir)) {
+            if (SnapshotFile.verify(candidate)) {
+                snapshot = SnapshotFile.read(candidate, (arrivedAtMillis, record) -> matcher
+                        .restoreOpened(codec.decode(record), arrivedAtMillis));
+                break;
+            }
+            log.warn("Snapshot {} is incomplete or corrupt; trying an older one", candidate);
+        }
+        long snapshotSeq = snapshot == null ? 0 : snapshot.seq();
+        if (snapshot != null) {
+            offsets.putAll(snapshot.offsets());
+        }
+
+        // 2️⃣ Changelog tail -----------------------------------------------
+        long[] cuts = snapshot == null ? null : snapshot.cuts();
+        long[] replayed = new long[1];
+        lastSeq = snapshotSeq;
+        for (Path segment : Changelog.segments(dir)) {
+            boolean clean = Changelog.read(segment, entry -> {
+                if (entry.seq() <= snapshotSeq) {
+                    return;
+                }
+                if (entry.seq() != lastSeq + 1) {
+                    log.warn("Changelog gap: entry {} follows {}", entry.seq(), lastSeq);
+                }
+                lastSeq = entry.seq();
+                if (entry.partition() >= 0) {
+                    offsets.merge(entry.partition(), entry.offset(), Math::max);
+                }
+                TxnRecordDTO record = codec.decode(entry.record());
+                if (cuts != null && entry.seq() <= cuts[StreamingMatcher.stripeOf(record.getCardNumber(),
+                        cuts.length)]) {
+                    return; // already in the snapshot
+                }
+                if (entry.type() == Changelog.OPENED) {
+                    matcher.restoreOpened(record, entry.arrivedAtMillis());
+                } else if (!matcher.restoreClosed(record)) {
+                    log.debug("Closed leg {} was not open", record.getTxnId());
+                }
+                replayed[0]++;
+            });
+            if (!clean) {
+                log.warn("Changelog segment {} ends in a torn entry after {}", segment, lastSeq);
+            }
+        }
+
+        // 3️⃣ Resume ---------------------------------------------------------
+        changelog = new Changelog(dir);
+        changelog.open(lastSeq + 1);
+        durableSeq = lastSeq;
+        sinceSnapshot = replayed[0];
+        matcher.attach(this);
+        flushing = scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs,
+                TimeUnit.MILLISECONDS);
+        snapshotting = scheduler.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalMs,
+                snapshotIntervalMs, TimeUnit.MILLISECONDS);
+
+        recoveredItems = snapshot == null ? 0 : snapshot.items();
+        replayedEntries = replayed[0];
+        recoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Recovered {} open items from snapshot {} and {} changelog entries of {} in {} ms ({} open now)",
+                recoveredItems, snapshotSeq, replayedEntries, dir, recoveryMillis,
+                matcher.openItems(TxnRecordDTO.SourceType.BANK_SWITCH)
+                        + matcher.openItems(TxnRecordDTO.SourceType.SCHEME_FILE));
+    }
+
+    @Override
+    public void opened(TxnRecordDTO record, long arrivedAtMillis, int partition, long offset) {
+        append(Changelog.OPENED, record, true, arrivedAtMillis, partition, offset);
+    }
+
+    @Override
+    public void closed(TxnRecordDTO record, int partition, long offset) {
+        append(Changelog.CLOSED, record, false, 0L, partition, offset);
+    }
+
+    /**
+     * Offset to resume {@code partition} from, or {@code -1} to leave it to
+     * the consumer group's committed offset.
+     */
+    public long resumeOffset(int partition) {
+        synchronized (lock) {
+            Long offset = offsets.get(partition);
+            return offset == null ? -1 : offset + 1;
+        }
+    }
+
+    /**
+     * Run {@code ack} once everything journalled so far is on disk: at once if
+     * it already is, otherwise after the next flush, snapshot or close. Acks
+     * are cumulative like Kafka offsets, so of several released together only
+     * the newest runs. Once the store has failed, acks are dropped: the group
+     * stays at the last durable offsets, where the next restart resumes.
+     */
+    public void acknowledgeWhenDurable(Runnable ack) {
+        synchronized (lock) {
+            if (failed) {
+                return;
+            }
+            if (changelog != null && lastSeq > durableSeq) {
+                PendingAck last = pendingAcks.peekLast();
+                if (last != null && last.seq() == lastSeq) {
+                    pendingAcks.pollLast();
+                }
+                pendingAcks.add(new PendingAck(lastSeq, ack));
+                return;
+            }
+        }
+        ack.run();
+    }
+
+    /**
+     * Hand buffered changelog entries to the OS, force them to disk and
+     * release the acks they cover.
+     */
+    public void flush() {
+        if (failed) {
+            return;
+        }
+        FileChannel channel;
+        long seq;
+        try {
+            synchronized (lock) {
+                if (changelog == null) {
+                    return;
+                }
+                changelog.flush();
+                channel = changelog.channel();
+                seq = lastSeq;
+            }
+            channel.force(false);
+        } catch (ClosedChannelException e) {
+            return; // rolled meanwhile; roll forces the old segment and releases the acks itself
+        } catch (IOException e) {
+            fail("flush", e);
+            return;
+        }
+        durable(seq);
+    }
+
+    /**
+     * Write a snapshot of every open item and drop what it supersedes.
+     *
+     * @throws IOException if the snapshot could not be written; the changelog
+     *                     still holds everything
+     */
+    public synchronized void snapshot() throws IOException {
+        if (failed) {
+            return;
+        }
+        long seq;
+        Map<Integer, Long> offsetsAtSeq;
+        synchronized (lock) {
+            if (changelog == null) {
+                return;
+            }
+            seq = lastSeq;
+            offsetsAtSeq = new HashMap<>(offsets);
+            try {
+                changelog.roll(seq + 1);
+            } catch (IOException e) {
+                fail("roll", e);
+                throw e;
+            }
+            sinceSnapshot = 0;
+        }
+        durable(seq);
+        long start = System.nanoTime();
+        try (SnapshotFile file = new SnapshotFile(dir, seq, matcher.stripeCount(), offsetsAtSeq)) {
+            matcher.forEachStripe((stripe, open) -> {
+                try {
+                    long cut;
+                    synchronized (lock) {
+                        cut = lastSeq;
+                    }
+                    file.beginStripe(cut, open.size());
+                    for (OpenItem item : open) {
+                        file.item(item.arrivedAtMillis(), codec.encode(item.record(), true));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            file.commit();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        snapshots++;
+        prune(seq);
+        log.info("Snapshot {} of {} written in {} ms", seq, dir, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /** Snapshot if anything changed, flush and close the changelog. */
+    public void shutdown() {
+        if (changelog == null) {
+            return;
+        }
+        cancelSchedules();
+        try {
+            if (sinceSnapshot() > 0) {
+                snapshot();
+            }
+        } catch (IOException e) {
+            log.error("Final snapshot failed, the changelog still holds everything: {}", e.getMessage(), e);
+        }
+        close();
+    }
+
+    /** Flush and close the changelog without a snapshot. */
+    public void close() {
+        cancelSchedules();
+        matcher.attach(OpenItemJournal.NONE);
+        long seq = -1;
+        synchronized (lock) {
+            try {
+                if (changelog != null && !failed) {
+                    changelog.close();
+                    seq = lastSeq;
+                }
+            } catch (IOException e) {
+                log.error("Closing the changelog failed: {}", e.getMessage(), e);
+            }
+            changelog = null;
+        }
+        if (seq >= 0) {
+            durable(seq);
+        }
+    }
+
+    /**
+     * Close the store and delete its snapshots and changelog, for a shard
+     * whose files fell behind its partition. The matcher keeps whatever it
+     * recovered; the caller drops it.
+     */
+    public void discard() throws IOException {
+        close();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        log.info("Discarded the state of {}", dir);
+    }
+
+    public long recoveryMillis() {
+        return recoveryMillis;
+    }
+
+    /** Open items loaded from the snapshot at startup. */
+    public long recoveredItems() {
+        return recoveredItems;
+    }
+
+    /** Changelog entries replayed on top of the snapshot at startup. */
+    public long replayedEntries() {
+        return replayedEntries;
+    }
+
+    public long snapshots() {
+        return snapshots;
+    }
+
+    /** Bytes in the active changelog segment. */
+    public long changelogBytes() {
+        synchronized (lock) {
+            return changelog == null ? 0 : changelog.bytes();
+        }
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private void append(byte type, TxnRecordDTO record, boolean includeRaw, long arrivedAtMillis, int partition,
+            long offset) {
+        if (failed) {
+            return;
+        }
+        byte[] encoded = codec.encode(record, includeRaw);
+        synchronized (lock) {
+            if (changelog == null) {
+                return;
+            }
+            try {
+                changelog.append(type, ++lastSeq, partition, offset, arrivedAtMillis, encoded);
+            } catch (IOException e) {
+                fail("append", e);
+                return;
+            }
+            if (partition >= 0) {
+                offsets.merge(partition, offset, Math::max);
+            }
+            sinceSnapshot++;
+        }
+    }
+
+    /** Record that the changelog is on disk up to {@code seq} and run the newest ack it covers. */
+    private void durable(long seq) {
+        PendingAck released = null;
+        synchronized (lock) {
+            durableSeq = Math.max(durableSeq, seq);
+            while (!pendingAcks.isEmpty() && pendingAcks.peekFirst().seq() <= durableSeq) {
+                released = pendingAcks.pollFirst();
+            }
+        }
+        if (released != null) {
+            released.ack().run();
+        }
+    }
+
+    private void cancelSchedules() {
+        if (flushing != null) {
+            flushing.cancel(false);
+            snapshotting.cancel(false);
+        }
+    }
+
+    private long sinceSnapshot() {
+        synchronized (lock) {
+            return sinceSnapshot;
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            if (sinceSnapshot() > 0) {
+                snapshot();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Snapshot failed, the changelog still holds everything: {}", e.getMessage(), e);
+        }
+    }
+
+    /** Keep the previous snapshot and the changelog after it as a fallback. */
+    private void prune(long seq) throws IOException {
+        List<Path> snapshotFiles = SnapshotFile.snapshots(dir);
+        if (snapshotFiles.size() < 2) {
+            return;
+        }
+        long previous = SnapshotFile.seq(snapshotFiles.get(1));
+        for (Path old : snapshotFiles.subList(2, snapshotFiles.size())) {
+            Files.deleteIfExists(old);
+        }
+        for (Path segment : Changelog.segmentsBefore(dir, previous + 1)) {
+            Files.deleteIfExists(segment);
+        }
+        log.debug("Pruned state before snapshot {} (current {})", previous, seq);
+    }
+
+    private void fail(String operation, IOException e) {
+        failed = true;
+        synchronized (lock) {
+            pendingAcks.clear();
+        }
+        log.error("State store {} failed; journalling stops until restart and the lost tail will be "
+                + "consumed again: {}", operation, e.getMessage(), e);
+    }
+
+    /** An ack due once the changelog is on disk up to {@code seq}. */
+    private record PendingAck(long seq, Runnable ack) {
+    }
+}
@@ -0,0 +1,195 @@
+package com.gracemann.recon.matchengine.state;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot of every open item, named after the last changelog entry it is
+ * guaranteed to contain ({@code snapshot-<seq>.snap}):
+ *
+ * <pre>
+ *   int     magic 'RSNP', int version (1)
+ *   long    seq
+ *   int     stripe count
+ *   int     partitions, then per partition: int partition, long offset
+ *   per stripe:
+ *     long  cut: last changelog entry reflected in this stripe
+ *     int   open items, then per item: long arrivedAtMillis,
+ *           int length + binary TxnRecord
+ *   long    CRC-32 of everything above
+ * </pre>
+ *
+ * <p>
+ * Stripes are dumped one at a time while matching carries on, so each has
+ * its own cut; changelog entries after a stripe's cut are replayed on top.
+ * A snapshot is written to a temporary file, forced and atomically renamed,
+ * so a file under its final name is always complete.
+ * </p>
+ */
+final class SnapshotFile implements AutoCloseable {
+
+    private static final int MAGIC = 0x52534E50;
+    private static final int VERSION = 1;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+    private static final int BUFFER_BYTES = 256 * 1024;
+
+    private final Path target;
+    private final Path temp;
+    private final FileOutputStream file;
+    private final BufferedOutputStream buffered;
+    private final CRC32 crc = new CRC32();
+    private final DataOutputStream out;
+
+    /** Start writing the snapshot at {@code seq}. */
+    SnapshotFile(Path dir, long seq, int stripes, Map<Integer, Long> offsets) throws IOException {
+        this.target = path(dir, seq);
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.file = new FileOutputStream(temp.toFile());
+        this.buffered = new BufferedOutputStream(file, BUFFER_BYTES);
+        this.out = new DataOutputStream(new CheckedOutputStream(buffered, crc));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(seq);
+        out.writeInt(stripes);
+        out.writeInt(offsets.size());
+        for (Map.Entry<Integer, Long> offset : offsets.entrySet()) {
+            out.writeInt(offset.getKey());
+            out.writeLong(offset.getValue());
+        }
+    }
+
+    void beginStripe(long cut, int items) throws IOException {
+        out.writeLong(cut);
+        out.writeInt(items);
+    }
+
+    void item(long arrivedAtMillis, byte[] record) throws IOException {
+        out.writeLong(arrivedAtMillis);
+        out.writeInt(record.length);
+        out.write(record);
+    }
+
+    /** Seal, force and publish the snapshot under its final name. */
+    void commit() throws IOException {
+        out.flush();
+        new DataOutputStream(buffered).writeLong(crc.getValue());
+        buffered.flush();
+        file.getFD().sync();
+        file.close();
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Drop an uncommitted snapshot. */
+    @Override
+    public void close() throws IOException {
+        file.close();
+        Files.deleteIfExists(temp);
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    static Path path(Path dir, long seq) {
+        return dir.resolve(PREFIX + String.format("%020d", seq) + SUFFIX);
+    }
+
+    /** Committed snapshots in {@code dir}, newest first. */
+    static List<Path> snapshots(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(PREFIX)
+                    && p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparingLong(SnapshotFile::seq).reversed())
+                    .toList();
+        }
+    }
+
+    static long seq(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /** Whether the snapshot is complete and its checksum matches. */
+    static boolean verify(Path snapshot) {
+        try (InputStream file = Files.newInputStream(snapshot)) {
+            CRC32 crc = new CRC32();
+            byte[] chunk = new byte[BUFFER_BYTES];
+            long size = Files.size(snapshot);
+            if (size < Long.BYTES) {
+                return false;
+            }
+            long body = size - Long.BYTES;
+            long read = 0;
+            while (read < body) {
+                int n = file.read(chunk, 0, (int) Math.min(chunk.length, body - read));
+                if (n < 0) {
+                    return false;
+                }
+                crc.update(chunk, 0, n);
+                read += n;
+            }
+            return new DataInputStream(file).readLong() == crc.getValue();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Read a snapshot that passed {@link #verify}.
+     *
+     * @throws IOException if it is not a snapshot of a supported version
+     */
+    static Contents read(Path snapshot, ItemSink sink) throws IOException {
+        try (InputStream file = Files.newInputStream(snapshot);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(file, BUFFER_BYTES))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException(snapshot + " is not a version " + VERSION + " snapshot");
+            }
+            long seq = in.readLong();
+            int stripes = in.readInt();
+            int partitions = in.readInt();
+            Map<Integer, Long> offsets = new HashMap<>();
+            for (int i = 0; i < partitions; i++) {
+                offsets.put(in.readInt(), in.readLong());
+            }
+            long[] cuts = new long[stripes];
+            long items = 0;
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                cuts[stripe] = in.readLong();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    long arrivedAtMillis = in.readLong();
+                    byte[] record = new byte[in.readInt()];
+                    in.readFully(record);
+                    sink.item(arrivedAtMillis, record);
+                }
+                items += count;
+            }
+            return new Contents(seq, cuts, offsets, items);
+        }
+    }
+
+    /** Receives the open items of a snapshot in file order. */
+    @FunctionalInterface
+    interface ItemSink {
+        void item(long arrivedAtMillis, byte[] record);
+    }
+
+    /** What a snapshot holds besides its items. */
+    record Contents(long seq, long[] cuts, Map<Integer, Long> offsets, long items) {
+    }
+}
@@ -3,7 +3,7 @@
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "recon.match.state.dir=target/match-state")
 class MatchengineApplicationTests {
 
 	@Test
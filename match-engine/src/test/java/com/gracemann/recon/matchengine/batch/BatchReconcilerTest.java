@@ -0,0 +1,135 @@
+package com.gracemann.recon.matchengine.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.matchengine.matching.FuzzyScorer;
+import com.gracemann.recon.matchengine.matching.MatchRuleSet;
+import com.gracemann.recon.matchengine.matching.MatchRules;
+import com.gracemann.recon.matchengine.matching.MatchedPair;
+import com.gracemann.recon.matchengine.matching.OpenItem;
+import com.gracemann.recon.matchengine.matching.TestLegs;
+import com.gracemann.recon.matchengine.publisher.ExceptionCandidatePublisher;
+import com.gracemann.recon.matchengine.publisher.MatchedPairPublisher;
+
+class BatchReconcilerTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reconcilesADayTheSameWayOnOneOrManyWorkers() throws Exception {
+        List<String> bank = new ArrayList<>();
+        List<String> scheme = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            bank.add(mapper.writeValueAsString(leg(SourceType.BANK_SWITCH, i, "100.00")));
+            if (i % 10 == 0) {
+                continue; // no scheme leg: an exception
+            }
+            // every fifth comes back FX-rounded under the scheme's own reference, so only the fuzzy stage pairs it
+            TxnRecordDTO settled = i % 5 == 0
+                    ? leg(SourceType.SCHEME_FILE, i, "100.20")
+                    : leg(SourceType.SCHEME_FILE, i, "100.00");
+            if (i % 5 == 0) {
+                settled.setTxnId("SCH-" + i);
+            }
+            scheme.add(mapper.writeValueAsString(settled));
+        }
+        scheme.add("");
+        Path bankFile = Files.write(dir.resolve("bank.jsonl"), bank);
+        Path schemeFile = Files.write(dir.resolve("scheme.jsonl"), scheme);
+
+        List<String> serial = new ArrayList<>();
+        BatchReport one = reconciler(1, serial).reconcileFiles(List.of(bankFile, schemeFile));
+        List<String> parallel = new ArrayList<>();
+        BatchReport four = reconciler(4, parallel).reconcileFiles(List.of(schemeFile, bankFile));
+
+        assertEquals(3_800, one.legs());
+        assertEquals(1_600, one.exactPairs());
+        assertEquals(200, one.fuzzyPairs());
+        assertEquals(200, one.exceptions());
+        assertEquals(0, one.rejected());
+        assertEquals(List.of(one.exactPairs(), one.fuzzyPairs(), one.exceptions()),
+                List.of(four.exactPairs(), four.fuzzyPairs(), four.exceptions()));
+        assertEquals(2_000, serial.size());
+        // same pairs and exceptions in the same order, whatever the worker count or file order
+        assertEquals(serial, parallel);
+        // legs waited for matching on disk, and the spill files are gone with the run
+        try (Stream<Path> left = Files.list(dir.resolve("spill"))) {
+            assertEquals(0, left.count());
+        }
+    }
+
+    @Test
+    void failsTheRunWhenResultsAreNotAcked() throws Exception {
+        List<String> bank = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            bank.add(mapper.writeValueAsString(leg(SourceType.BANK_SWITCH, i, "100.00")));
+        }
+        Path bankFile = Files.write(dir.resolve("bank.jsonl"), bank);
+        ExceptionCandidatePublisher exceptions = mock(ExceptionCandidatePublisher.class);
+        when(exceptions.publish(any(), anyLong(), anyLong())).thenAnswer(call -> {
+            OpenItem item = call.getArgument(0);
+            return item.record().getTxnId().endsWith("-3")
+                    ? CompletableFuture.failedFuture(new IllegalStateException("broker down"))
+                    : CompletableFuture.completedFuture(null);
+        });
+        FuzzyScorer scorer = FuzzyScorer.defaults();
+        BatchReconciler reconciler = new BatchReconciler(scorer, MatchRules.fixed(MatchRuleSet.of(scorer)),
+                mock(MatchedPairPublisher.class), exceptions, mapper, 2, 4, dir.resolve("spill").toString());
+
+        BatchReport report = reconciler.reconcileFiles(List.of(bankFile));
+        BatchReconciliationRunner runner = new BatchReconciliationRunner(reconciler, null, null,
+                new String[] { bankFile.toString() }, "", "");
+
+        assertEquals(10, report.exceptions());
+        assertEquals(1, report.failedSends());
+        assertFalse(report.published());
+        assertEquals(1, runner.reconcile());
+    }
+
+    private BatchReconciler reconciler(int parallelism, List<String> published) throws Exception {
+        MatchedPairPublisher pairs = mock(MatchedPairPublisher.class);
+        when(pairs.publish(any(), anyLong())).thenAnswer(call -> {
+            MatchedPair pair = call.getArgument(0);
+            published.add(pair.bank().record().getTxnId() + "|" + pair.type());
+            return CompletableFuture.completedFuture(null);
+        });
+        ExceptionCandidatePublisher exceptions = mock(ExceptionCandidatePublisher.class);
+        when(exceptions.publish(any(), anyLong(), anyLong())).thenAnswer(call -> {
+            OpenItem item = call.getArgument(0);
+            published.add(item.record().getTxnId() + "|EXCEPTION");
+            return CompletableFuture.completedFuture(null);
+        });
+        FuzzyScorer scorer = FuzzyScorer.defaults();
+        return new BatchReconciler(scorer, MatchRules.fixed(MatchRuleSet.of(scorer)), pairs, exceptions, mapper,
+                parallelism, 8, dir.resolve("spill").toString());
+    }
+
+    private static TxnRecordDTO leg(SourceType source, int i, String amount) {
+        return TestLegs.of(source, i).amount(amount).authCode().timestamp(DAY.plusSeconds(i * 30L)).build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.gracemann.recon.matchengine.matching;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class CountingBloomFilterTest {
+
+    @Test
+    void neverForgetsAKeyStillPresentAndStaysNearItsFalsePositiveRate() {
+        int keys = 10_000;
+        CountingBloomFilter filter = new CountingBloomFilter(keys);
+        SplittableRandom random = new SplittableRandom(7);
+        long[] added = new long[keys];
+        for (int i = 0; i < keys; i++) {
+            added[i] = random.nextLong();
+            filter.add(added[i]);
+        }
+        // churn: drop every other key
+        for (int i = 0; i < keys; i += 2) {
+            filter.remove(added[i]);
+        }
+        for (int i = 1; i < keys; i += 2) {
+            assertTrue(filter.mightContain(added[i]), "key " + i);
+        }
+
+        int falsePositives = 0;
+        int absent = 100_000;
+        for (int i = 0; i < absent; i++) {
+            if (filter.mightContain(random.nextLong())) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / absent;
+        double estimate = filter.falsePositiveProbability();
+        assertTrue(rate < 0.03, "false-positive rate " + rate);
+        assertTrue(Math.abs(rate - estimate) < 0.01, "rate " + rate + ", estimate " + estimate);
+    }
+
+    @Test
+    void saturatedCountersNeverCauseFalseNegatives() {
+        CountingBloomFilter filter = new CountingBloomFilter(1);
+        long key = 0x1234_5678_9ABC_DEF0L;
+        for (int i = 0; i < 20; i++) {
+            filter.add(key);
+        }
+        for (int i = 0; i < 19; i++) {
+            filter.remove(key);
+        }
+        assertTrue(filter.mightContain(key));
+
+        CountingBloomFilter exact = new CountingBloomFilter(1);
+        exact.add(key);
+        exact.remove(key);
+        assertFalse(exact.mightContain(key));
+    }
+}
@@ -0,0 +1,89 @@
+package com.gracemann.recon.matchengine.matching;
+
+import static com.gracemann.recon.matchengine.matching.TestLegs.leg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+
+class EventTimeAgingTest {
+
+    private static final LocalDateTime AUTH_DAY = LocalDateTime.of(2025, 6, 1, 10, 0);
+    private static final LocalDateTime SETTLEMENT_DAY = LocalDateTime.of(2025, 6, 2, 12, 0);
+
+    /** No lateness, one day to match, one-minute buckets on a deliberately small ring. */
+    private final StreamingMatcher matcher = new StreamingMatcher(FuzzyScorer.defaults(),
+            new EventTimeAging(true, 0L, 0L, 86_400_000L, 60_000L, 64), 16);
+    private final List<Long> closedAt = new ArrayList<>();
+
+    @Test
+    void schemeBatchCompletionAgesOutUnmatchedBankLegsInBulk() {
+        matcher.attach(new OpenItemJournal() {
+            @Override
+            public void opened(TxnRecordDTO record, long arrivedAtMillis, int partition, long offset) {
+            }
+
+            @Override
+            public void closed(TxnRecordDTO record, int partition, long offset) {
+                closedAt.add(offset);
+            }
+        });
+        long offset = 0;
+        for (int i = 0; i < 100; i++) {
+            matcher.offer(leg(SourceType.BANK_SWITCH, i, AUTH_DAY.plusMinutes(i), null), 0L, 0, offset++);
+        }
+        // the T+1 file settles the even legs; while it is being read nothing ages
+        for (int i = 0; i < 100; i += 2) {
+            assertTrue(matcher.offer(leg(SourceType.SCHEME_FILE, i, SETTLEMENT_DAY, "FILE-1"), 0L, 0, offset++)
+                    .matched());
+            assertEquals(List.of(), matcher.expire(0, offset - 1));
+        }
+        assertEquals(Long.MIN_VALUE, matcher.watermark(SourceType.SCHEME_FILE));
+
+        // the next file completes the first one, whose watermark passes every bank deadline
+        matcher.offer(leg(SourceType.SCHEME_FILE, 500, SETTLEMENT_DAY.plusMinutes(30), "FILE-2"), 0L, 0, offset);
+        closedAt.clear();
+        List<OpenItem> expired = matcher.expire(0, offset);
+        assertEquals(50, expired.size());
+        assertTrue(expired.stream().allMatch(item -> item.record().getSourceType() == SourceType.BANK_SWITCH));
+        assertEquals(0, matcher.openItems(SourceType.BANK_SWITCH));
+        assertEquals(1, matcher.openItems(SourceType.SCHEME_FILE));
+        assertEquals(50, closedAt.size());
+        assertTrue(closedAt.stream().allMatch(at -> at == 150L));
+        assertEquals(epochMillis(SETTLEMENT_DAY), matcher.watermark(SourceType.SCHEME_FILE));
+
+        // a re-sent first file is late and moves nothing
+        matcher.offer(leg(SourceType.SCHEME_FILE, 1, SETTLEMENT_DAY.minusHours(1), "FILE-1"), 0L, 0, ++offset);
+        assertEquals(1, matcher.lateLegs(SourceType.SCHEME_FILE));
+        assertEquals(epochMillis(SETTLEMENT_DAY), matcher.watermark(SourceType.SCHEME_FILE));
+        assertEquals(List.of(), matcher.expire(0, offset));
+    }
+
+    @Test
+    void lateLegPastItsDeadlineIsDueAtOnce() {
+        matcher.offer(leg(SourceType.BANK_SWITCH, 1, AUTH_DAY, null), 0L);
+        matcher.offer(leg(SourceType.SCHEME_FILE, 2, SETTLEMENT_DAY, "FILE-1"), 0L);
+        matcher.offer(leg(SourceType.SCHEME_FILE, 3, SETTLEMENT_DAY, "FILE-2"), 0L);
+        assertEquals(1, matcher.expire(-1, -1L).size());
+
+        // authorised two days before the last one: every scheme leg it could match has been read
+        matcher.offer(leg(SourceType.BANK_SWITCH, 4, AUTH_DAY.minusDays(1), null), 0L);
+        assertEquals(1, matcher.lateLegs(SourceType.BANK_SWITCH));
+        List<OpenItem> expired = matcher.expire(-1, -1L);
+        assertEquals(1, expired.size());
+        assertEquals("BANK-TXN-4", expired.get(0).record().getTxnId());
+        assertEquals(0, matcher.openItems(SourceType.BANK_SWITCH));
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,137 @@
+package com.gracemann.recon.matchengine.matching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.gracemann.recon.matchengine.dto.MatchedPairDTO.MatchType;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+
+class MatchRulesTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 6, 1, 12, 0);
+    private static final String RULES = """
+            visa-pos.scheme=VISA
+            visa-pos.channel=POS
+            visa-pos.require=terminalId,merchantId
+            rupay-atm.scheme=RUPAY
+            rupay-atm.channel=ATM
+            rupay-atm.require=terminalId,responseCode
+            rupay-atm.amount-tolerance=0
+            rupay-atm.amount-tolerance-pct=0
+            rupay-atm.day-tolerance=0
+            ecom.channel=ECOM
+            ecom.require=merchantId
+            ecom.day-tolerance=2
+            """;
+
+    private final FuzzyScorer scorer = FuzzyScorer.defaults();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void eachSchemeAndChannelIsJudgedByItsOwnRule() throws IOException {
+        MatchRuleSet rules = MatchRuleSet.parse(properties(RULES), scorer, "test");
+        assertEquals(List.of("rupay-atm", "visa-pos", "ecom"), rules.names());
+        StreamingMatcher matcher = new StreamingMatcher(scorer, MatchRules.fixed(rules), EventTimeAging.disabled(),
+                16);
+        StreamingMatcher defaults = new StreamingMatcher(scorer, 16);
+
+        // another terminal: close enough by default, but Visa POS requires the same one
+        for (StreamingMatcher m : List.of(matcher, defaults)) {
+            m.offer(bank(1, "100.00", DAY, "POS", "TERM0001"), 1L);
+        }
+        TxnRecordDTO visa = scheme(1, "100.00", DAY, "VISA", "TERM0002");
+        assertFalse(matcher.offer(visa, 2L).matched());
+        assertEquals(MatchType.FUZZY, defaults.offer(visa, 2L).pair().type());
+
+        // RuPay ATM allows no amount difference at all
+        matcher.offer(bank(2, "2000.00", DAY, "ATM", "ATM00007"), 1L);
+        assertFalse(matcher.offer(scheme(2, "2000.20", DAY, "RUPAY", "ATM00007"), 2L).matched());
+        assertTrue(matcher.offer(scheme(2, "2000.00", DAY, "RUPAY", "ATM00007"), 2L).matched());
+
+        // ECOM settles up to two days late, past the default day tolerance
+        matcher.offer(bank(4, "49.99", DAY, "ECOM", null), 1L);
+        MatchOutcome ecom = matcher.offer(scheme(4, "49.99", DAY.plusDays(2), "MASTERCARD", null), 2L);
+        assertEquals(MatchType.FUZZY, ecom.pair().type());
+        assertTrue(ecom.pair().score() >= 0.75, "score " + ecom.pair().score());
+    }
+
+    @Test
+    void changedFileIsSwappedInAndABrokenOneIgnored() throws IOException {
+        Path file = dir.resolve("match-rules.properties");
+        write(file, "visa-pos.scheme=VISA\nvisa-pos.require=terminalId\n", 1);
+        MatchRules rules = new MatchRules(scorer, file.toString(), 0L);
+        StreamingMatcher matcher = new StreamingMatcher(scorer, rules, EventTimeAging.disabled(), 16);
+        matcher.offer(bank(1, "100.00", DAY, "POS", "TERM0001"), 1L);
+        assertFalse(matcher.offer(scheme(1, "100.00", DAY, "VISA", "TERM0002"), 2L).matched());
+        assertFalse(rules.reload());
+
+        write(file, "visa-pos.scheme=VISA\nvisa-pos.require=merchantId\n", 2);
+        assertTrue(rules.reload());
+        assertEquals(1, rules.reloads());
+        matcher.offer(bank(2, "100.00", DAY, "POS", "TERM0001"), 1L);
+        assertTrue(matcher.offer(scheme(2, "100.00", DAY, "VISA", "TERM0002"), 2L).matched());
+
+        write(file, "visa-pos.scheme=VISA\nvisa-pos.require=cardColour\n", 3);
+        assertFalse(rules.reload());
+        assertEquals(1, rules.failedReloads());
+        assertEquals(List.of("visa-pos"), rules.current().names());
+        matcher.offer(bank(3, "100.00", DAY, "POS", "TERM0001"), 1L);
+        assertTrue(matcher.offer(scheme(3, "100.00", DAY, "VISA", "TERM0002"), 2L).matched());
+
+        IllegalArgumentException broken = assertThrows(IllegalArgumentException.class,
+                () -> new MatchRules(scorer, file.toString(), 0L));
+        assertTrue(broken.getMessage().contains("visa-pos"), broken.getMessage());
+    }
+
+    private static Properties properties(String text) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new StringReader(text));
+        return properties;
+    }
+
+    /** Write the rules and move the file's clock on, as a quick rewrite may keep its time. */
+    private static void write(Path file, String rules, int version) throws IOException {
+        Files.writeString(file, rules);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(1_700_000_000_000L + version * 1_000L));
+    }
+
+    private static TxnRecordDTO bank(int i, String amount, LocalDateTime timestamp, String channel,
+            String terminal) {
+        TxnRecordDTO dto = leg(SourceType.BANK_SWITCH, "BANK-TXN-" + i, i, amount, timestamp, terminal);
+        dto.setChannel(channel);
+        dto.setResponseCode("00");
+        return dto;
+    }
+
+    /** A scheme leg under the scheme's own reference, so only the fuzzy stage can pair it. */
+    private static TxnRecordDTO scheme(int i, String amount, LocalDateTime timestamp, String schemeName,
+            String terminal) {
+        TxnRecordDTO dto = leg(SourceType.SCHEME_FILE, "SCH-" + i, i, amount, timestamp, terminal);
+        dto.setSchemeName(schemeName);
+        dto.setResponseCode("00");
+        return dto;
+    }
+
+    private static TxnRecordDTO leg(SourceType source, String txnId, int i, String amount,
+            LocalDateTime timestamp, String terminal) {
+        return TestLegs.of(source, i).txnId(txnId).amount(amount).timestamp(timestamp).authCode().terminal(terminal)
+                .merchant("MERCH001").build();
+    }
+}
@@ -0,0 +1,122 @@
+package com.gracemann.recon.matchengine.matching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Test;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.matchengine.matching.OpenItemStore.Probe;
+
+class OpenItemStoreTest {
+
+    private final StringDictionary dictionary = new StringDictionary();
+    private final FuzzyScorer scorer = FuzzyScorer.defaults();
+    private final LongAdder compactions = new LongAdder();
+    private final OpenItemStore store = new OpenItemStore(SourceType.BANK_SWITCH, dictionary, scorer, compactions);
+
+    @Test
+    void rebuildsEveryFieldOfAnOpenLeg() {
+        TxnRecordDTO dto = new TxnRecordDTO("BANK-TXN-111", "4532123456789012", new BigDecimal("2500.50"),
+                LocalDateTime.of(2025, 6, 1, 23, 58, 7, 123_000_000), "INR", "MERCH-101", "TERM-101", "00", "POS",
+                "BATCH-0601", null, "AUTH123456", SourceType.BANK_SWITCH, "txnId=BANK-TXN-111|merchant=Café Ünïcode");
+        store.add(probe(dto), 42L);
+
+        int slot = store.findExact(probe(copy(dto)));
+        OpenItem item = store.take(slot, OpenItemStore.UNKNOWN_HASH);
+
+        assertEquals(dto.toString(), item.record().toString());
+        assertEquals(42L, item.arrivedAtMillis());
+        assertEquals(0, store.live());
+    }
+
+    @Test
+    void compactsTombstonesAndKeepsIndexesConsistent() {
+        int legs = 2_000;
+        for (int i = 0; i < legs; i++) {
+            store.add(probe(leg(i)), i);
+        }
+        long grown = store.heapBytes();
+        for (int i = 0; i < legs; i++) {
+            if (i % 3 != 0) {
+                store.take(store.findExact(probe(leg(i))), OpenItemStore.UNKNOWN_HASH);
+            }
+        }
+        assertTrue(compactions.sum() > 0);
+        assertEquals(667, store.live());
+
+        // survivors are still reachable through both indexes after compaction
+        for (int i = 0; i < legs; i += 3) {
+            assertTrue(store.findExact(probe(leg(i))) >= 0, "leg " + i);
+        }
+        // same reference, FX-rounded amount: an exact miss that scores above the minimum
+        TxnRecordDTO near = leg(3);
+        near.setAmount(near.getAmount().add(new BigDecimal("0.10")));
+        Probe fuzzy = probe(near);
+        int best = store.findFuzzy(fuzzy, MatchRuleSet.of(scorer).bind(dictionary));
+        assertEquals(3L, store.take(best, OpenItemStore.UNKNOWN_HASH).arrivedAtMillis());
+        assertEquals(1, fuzzy.candidates);
+
+        for (int i = 0; i < legs; i += 3) {
+            if (i == 3) {
+                continue;
+            }
+            store.take(store.findExact(probe(leg(i))), OpenItemStore.UNKNOWN_HASH);
+        }
+        assertEquals(0, store.live());
+        assertTrue(store.heapBytes() < grown / 4, "heap did not shrink: " + store.heapBytes());
+    }
+
+    @Test
+    void keepsUnboundedIdsOutOfTheDictionary() {
+        for (int i = 0; i < 500; i++) {
+            TxnRecordDTO dto = leg(i);
+            dto.setTerminalId("TERM-" + i);
+            dto.setBatchId("BATCH-" + i);
+            dto.setChannel(i % 2 == 0 ? "POS" : "ATM");
+            Probe probe = probe(dto);
+            if (i % 2 == 0) {
+                store.add(probe, i);
+            }
+        }
+
+        // currency and the channel of the legs that opened; ATM was only probed
+        assertEquals(2, dictionary.size());
+        assertEquals(StringDictionary.MISSING, dictionary.lookup("ATM"));
+        TxnRecordDTO open = leg(4);
+        open.setTerminalId("TERM-4");
+        OpenItem item = store.take(store.findExact(probe(open)), OpenItemStore.UNKNOWN_HASH);
+        assertEquals("TERM-4", item.record().getTerminalId());
+        assertEquals("BATCH-4", item.record().getBatchId());
+        assertEquals("POS", item.record().getChannel());
+    }
+
+    @Test
+    void rejectsAmountsFinerThanMinorUnits() {
+        TxnRecordDTO dto = leg(1);
+        dto.setAmount(new BigDecimal("10.00001"));
+        assertThrows(IllegalArgumentException.class, () -> probe(dto));
+    }
+
+    private Probe probe(TxnRecordDTO dto) {
+        return new Probe(dto, dictionary, scorer);
+    }
+
+    private static TxnRecordDTO leg(int i) {
+        return TestLegs.of(SourceType.BANK_SWITCH, i).card(i % 97).amount(BigDecimal.valueOf(1_000 + i * 37L, 2))
+                .timestamp(LocalDateTime.of(2025, 6, 1, 10, 0).plusMinutes(i)).merchant("MERCH-" + i % 10).build();
+    }
+
+    private static TxnRecordDTO copy(TxnRecordDTO dto) {
+        return new TxnRecordDTO(dto.getTxnId(), dto.getCardNumber(), dto.getAmount(), dto.getTxnTimestamp(),
+                dto.getCurrency(), dto.getMerchantId(), dto.getTerminalId(), dto.getResponseCode(),
+                dto.getChannel(), dto.getBatchId(), dto.getSchemeName(), dto.getAuthCode(), dto.getSourceType(),
+                dto.getRawSourceRecord());
+    }
+}
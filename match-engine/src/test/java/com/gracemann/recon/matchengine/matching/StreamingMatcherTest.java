@@ -0,0 +1,212 @@
+package com.gracemann.recon.matchengine.matching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.gracemann.recon.matchengine.dto.MatchedPairDTO.MatchType;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+
+class StreamingMatcherTest {
+
+    private final StreamingMatcher matcher = new StreamingMatcher(FuzzyScorer.defaults(), 16);
+
+    @Test
+    void matchesCounterpartFromEitherSide() {
+        TxnRecordDTO bank = leg(SourceType.BANK_SWITCH, "BANK-TXN-111", "2500.00");
+        TxnRecordDTO scheme = leg(SourceType.SCHEME_FILE, "BANK-TXN-111", "2500.0");
+
+        assertNull(matcher.offer(scheme, 1L).pair());
+        assertEquals(1, matcher.openItems(SourceType.SCHEME_FILE));
+
+        MatchedPair pair = matcher.offer(bank, 2L).pair();
+        assertNotNull(pair);
+        assertEquals(MatchType.EXACT, pair.type());
+        assertSame(bank, pair.bank().record());
+        // the open leg is rebuilt from the store
+        assertEquals(scheme.toString(), pair.scheme().record().toString());
+        assertEquals(1L, pair.scheme().arrivedAtMillis());
+        assertEquals(0, matcher.openItems(SourceType.SCHEME_FILE));
+        assertEquals(0, matcher.openItems(SourceType.BANK_SWITCH));
+    }
+
+    @Test
+    void keepsLegsOpenWhenAnyKeyPartDiffers() {
+        StreamingMatcher exactOnly = new StreamingMatcher(new FuzzyScorer(false, new BigDecimal("1.00"),
+                new BigDecimal("0.5"), new BigDecimal("10.00"), 1, 0.75, 0.35, 0.2, 0.25, 0.1, 0.1), 16);
+        exactOnly.offer(leg(SourceType.BANK_SWITCH, "BANK-TXN-222", "5000.00"), 1L);
+
+        MatchOutcome miss = exactOnly.offer(leg(SourceType.SCHEME_FILE, "BANK-TXN-222", "5000.01"), 2L);
+        assertNull(miss.pair());
+        assertEquals(-1, miss.candidates());
+        assertNull(exactOnly.offer(leg(SourceType.BANK_SWITCH, "BANK-TXN-222", "5000.00"), 3L).pair());
+        assertEquals(2, exactOnly.openItems(SourceType.BANK_SWITCH));
+    }
+
+    @Test
+    void fuzzyMatchesSchemeLegSettledNextDayWithRoundedAmount() {
+        TxnRecordDTO bank = leg(SourceType.BANK_SWITCH, "BANK-TXN-555", "2500.00");
+        bank.setTxnTimestamp(LocalDateTime.of(2025, 6, 1, 23, 58));
+        bank.setTerminalId("TERM0001");
+        bank.setMerchantId("MERCH001");
+        TxnRecordDTO scheme = leg(SourceType.SCHEME_FILE, "SCH-9001", "2500.40");
+        scheme.setTxnTimestamp(LocalDateTime.of(2025, 6, 2, 0, 0));
+        scheme.setTerminalId(" ");
+        scheme.setMerchantId("MERCH001");
+        bank.setAuthCode("A12345");
+        scheme.setAuthCode("A12345");
+
+        assertNull(matcher.offer(bank, 1L).pair());
+        MatchOutcome outcome = matcher.offer(scheme, 2L);
+
+        assertEquals(1, outcome.candidates());
+        MatchedPair pair = outcome.pair();
+        assertNotNull(pair);
+        assertEquals(MatchType.FUZZY, pair.type());
+        assertEquals("BANK-TXN-555", pair.bank().record().getTxnId());
+        assertSame(scheme, pair.scheme().record());
+        assertTrue(pair.score() >= 0.75 && pair.score() < 1.0, "score " + pair.score());
+        assertEquals(0, matcher.openItems(SourceType.BANK_SWITCH));
+    }
+
+    @Test
+    void fuzzyPicksBestCandidateAndRejectsOutsideTolerance() {
+        LocalDateTime day = LocalDateTime.of(2025, 6, 1, 12, 0);
+        TxnRecordDTO far = leg(SourceType.BANK_SWITCH, "BANK-TXN-601", "100.00");
+        far.setTxnTimestamp(day.minusDays(3));
+        TxnRecordDTO off = leg(SourceType.BANK_SWITCH, "BANK-TXN-602", "150.00");
+        off.setTxnTimestamp(day);
+        TxnRecordDTO near = leg(SourceType.BANK_SWITCH, "BANK-TXN-603", "100.20");
+        near.setTxnTimestamp(day);
+        TxnRecordDTO nearer = leg(SourceType.BANK_SWITCH, "BANK-TXN-604", "100.05");
+        nearer.setTxnTimestamp(day);
+        for (TxnRecordDTO dto : new TxnRecordDTO[] { far, off, near, nearer }) {
+            dto.setAuthCode("A60000");
+            matcher.offer(dto, 1L);
+        }
+
+        TxnRecordDTO scheme = leg(SourceType.SCHEME_FILE, "SCH-9002", "100.00");
+        scheme.setTxnTimestamp(day);
+        scheme.setAuthCode("A60000");
+        MatchOutcome outcome = matcher.offer(scheme, 2L);
+
+        // "far" is outside the day buckets and "off" outside the amount bands
+        assertEquals(2, outcome.candidates());
+        assertEquals(nearer.getTxnId(), outcome.pair().bank().record().getTxnId());
+        assertEquals(3, matcher.openItems(SourceType.BANK_SWITCH));
+
+        TxnRecordDTO stranger = leg(SourceType.SCHEME_FILE, "SCH-9003", "100.00");
+        stranger.setTxnTimestamp(day.minusDays(3));
+        stranger.setCurrency("USD");
+        assertNull(matcher.offer(stranger, 3L).pair());
+    }
+
+    @Test
+    void fuzzyMatchedLegIsGoneFromExactIndex() {
+        LocalDateTime day = LocalDateTime.of(2025, 6, 1, 12, 0);
+        TxnRecordDTO bank = leg(SourceType.BANK_SWITCH, "BANK-TXN-701", "40.00");
+        bank.setTxnTimestamp(day);
+        bank.setAuthCode("A70100");
+        matcher.offer(bank, 1L);
+        TxnRecordDTO fuzzy = leg(SourceType.SCHEME_FILE, "SCH-701", "40.10");
+        fuzzy.setTxnTimestamp(day);
+        fuzzy.setAuthCode("A70100");
+        assertEquals(MatchType.FUZZY, matcher.offer(fuzzy, 2L).pair().type());
+
+        TxnRecordDTO exact = leg(SourceType.SCHEME_FILE, "BANK-TXN-701", "40.00");
+        assertNull(matcher.offer(exact, 3L).pair());
+        assertEquals(1, matcher.openItems(SourceType.SCHEME_FILE));
+    }
+
+    @Test
+    void matchesSameKeyLegsOldestFirst() {
+        matcher.offer(leg(SourceType.BANK_SWITCH, "BANK-TXN-333", "10.00"), 1L);
+        matcher.offer(leg(SourceType.BANK_SWITCH, "BANK-TXN-333", "10.00"), 2L);
+
+        assertEquals(1L,
+                matcher.offer(leg(SourceType.SCHEME_FILE, "BANK-TXN-333", "10"), 3L).pair().bank().arrivedAtMillis());
+        assertEquals(2L,
+                matcher.offer(leg(SourceType.SCHEME_FILE, "BANK-TXN-333", "10"), 4L).pair().bank().arrivedAtMillis());
+        assertEquals(0, matcher.openItems(SourceType.BANK_SWITCH));
+    }
+
+    @Test
+    void rejectsRecordsWithoutKey() {
+        TxnRecordDTO dto = leg(SourceType.BANK_SWITCH, "BANK-TXN-444", "1.00");
+        dto.setCurrency(null);
+        assertThrows(IllegalArgumentException.class, () -> matcher.offer(dto, 1L));
+    }
+
+    @Test
+    void concurrentLegsAlwaysFindEachOther() throws Exception {
+        int pairs = 20_000;
+        AtomicInteger matched = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread bankThread = new Thread(() -> feed(SourceType.BANK_SWITCH, pairs, start, matched));
+        Thread schemeThread = new Thread(() -> feed(SourceType.SCHEME_FILE, pairs, start, matched));
+        bankThread.start();
+        schemeThread.start();
+        start.countDown();
+        bankThread.join();
+        schemeThread.join();
+
+        assertEquals(pairs, matched.get());
+        assertEquals(0, matcher.openItems(SourceType.BANK_SWITCH));
+        assertEquals(0, matcher.openItems(SourceType.SCHEME_FILE));
+    }
+
+    private void feed(SourceType source, int count, CountDownLatch start, AtomicInteger matched) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        for (int i = 0; i < count; i++) {
+            if (matcher.offer(leg(source, "TXN-" + i, "1.00", "4532" + (1_000_000_000_000L + i % 500)), i).matched()) {
+                matched.incrementAndGet();
+            }
+        }
+    }
+
+    @Test
+    void firstLegsSkipTheProbesAndSecondLegsStillMatch() {
+        int pairs = 5_000;
+        for (int i = 0; i < pairs; i++) {
+            String card = Long.toString(4_532_000_000_000_000L + i);
+            assertNull(matcher.offer(leg(SourceType.BANK_SWITCH, "BANK-TXN-" + i, "10.00", card), 1L).pair());
+        }
+        // no scheme leg was open, so no bank leg had anything to probe
+        assertEquals(pairs, matcher.probesSaved());
+        assertEquals(0, matcher.probesWasted());
+
+        for (int i = 0; i < pairs; i++) {
+            String card = Long.toString(4_532_000_000_000_000L + i);
+            assertTrue(matcher.offer(leg(SourceType.SCHEME_FILE, "BANK-TXN-" + i, "10.00", card), 2L).matched());
+        }
+        assertEquals(0, matcher.openItems(SourceType.BANK_SWITCH));
+
+        // matched legs are gone from the filters too: a new card is ruled out again
+        matcher.offer(leg(SourceType.BANK_SWITCH, "BANK-TXN-0", "10.00", "4532000000000000"), 3L);
+        assertEquals(0, matcher.probesWasted());
+        assertTrue(matcher.filterFalsePositiveProbability() < 0.05);
+    }
+
+    private static TxnRecordDTO leg(SourceType source, String txnId, String amount) {
+        return leg(source, txnId, amount, "4532123456789012");
+    }
+
+    private static TxnRecordDTO leg(SourceType source, String txnId, String amount, String card) {
+        return TestLegs.of(source, 0).txnId(txnId).amount(amount).card(card).build();
+    }
+}
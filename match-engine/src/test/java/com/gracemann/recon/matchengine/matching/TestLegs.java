@@ -0,0 +1,117 @@
+package com.gracemann.recon.matchengine.matching;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+
+/**
+ * Legs for tests, numbered by an index {@code i}.
+ *
+ * <p>
+ * By default leg {@code i} is txnId {@code BANK-TXN-i} on its own card, for
+ * {@code 10.00 + i} INR, so the bank and scheme legs with the same index
+ * pair on the exact key. Tests override only the fields they exercise.
+ * </p>
+ */
+public final class TestLegs {
+
+    private TestLegs() {
+    }
+
+    /** Leg {@code i} with the defaults. */
+    public static TxnRecordDTO leg(SourceType source, int i) {
+        return of(source, i).build();
+    }
+
+    /** Leg {@code i} at {@code timestamp}, in scheme file {@code batchId}. */
+    public static TxnRecordDTO leg(SourceType source, int i, LocalDateTime timestamp, String batchId) {
+        return of(source, i).timestamp(timestamp).batchId(batchId).build();
+    }
+
+    /** Card number of index {@code i}. */
+    public static String card(int i) {
+        return "4532" + (1_000_000_000_000L + i);
+    }
+
+    public static Builder of(SourceType source, int i) {
+        return new Builder(source, i);
+    }
+
+    public static final class Builder {
+
+        private final int i;
+        private final TxnRecordDTO dto = new TxnRecordDTO();
+
+        private Builder(SourceType source, int i) {
+            this.i = i;
+            dto.setTxnId("BANK-TXN-" + i);
+            dto.setCardNumber(TestLegs.card(i));
+            dto.setAmount(new BigDecimal("10.00").add(BigDecimal.valueOf(i)));
+            dto.setCurrency("INR");
+            dto.setSourceType(source);
+        }
+
+        public Builder txnId(String txnId) {
+            dto.setTxnId(txnId);
+            return this;
+        }
+
+        /** Card of another index, e.g. {@code i % 37} to put several legs on a card. */
+        public Builder card(int index) {
+            dto.setCardNumber(TestLegs.card(index));
+            return this;
+        }
+
+        public Builder card(String cardNumber) {
+            dto.setCardNumber(cardNumber);
+            return this;
+        }
+
+        public Builder amount(String amount) {
+            return amount(new BigDecimal(amount));
+        }
+
+        public Builder amount(BigDecimal amount) {
+            dto.setAmount(amount);
+            return this;
+        }
+
+        public Builder timestamp(LocalDateTime timestamp) {
+            dto.setTxnTimestamp(timestamp);
+            return this;
+        }
+
+        public Builder batchId(String batchId) {
+            dto.setBatchId(batchId);
+            return this;
+        }
+
+        /** Auth code {@code A(100000 + i)}, shared by both legs of index {@code i}. */
+        public Builder authCode() {
+            dto.setAuthCode("A" + (100_000 + i));
+            return this;
+        }
+
+        public Builder terminal(String terminalId) {
+            dto.setTerminalId(terminalId);
+            return this;
+        }
+
+        public Builder merchant(String merchantId) {
+            dto.setMerchantId(merchantId);
+            return this;
+        }
+
+        /** Raw source record {@code txnId=<txnId>}, as the state store keeps it. */
+        public Builder raw() {
+            dto.setRawSourceRecord("txnId=" + dto.getTxnId());
+            return this;
+        }
+
+        public TxnRecordDTO build() {
+            return dto;
+        }
+    }
+}
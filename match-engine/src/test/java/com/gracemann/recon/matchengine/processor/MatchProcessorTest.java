@@ -0,0 +1,87 @@
+package com.gracemann.recon.matchengine.processor;
+
+import static com.gracemann.recon.matchengine.matching.TestLegs.leg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Test;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.matchengine.matching.EventTimeAging;
+import com.gracemann.recon.matchengine.matching.FuzzyScorer;
+import com.gracemann.recon.matchengine.matching.MatchRuleSet;
+import com.gracemann.recon.matchengine.matching.MatchRules;
+import com.gracemann.recon.matchengine.metrics.MatchMetrics;
+import com.gracemann.recon.matchengine.publisher.ExceptionCandidatePublisher;
+import com.gracemann.recon.matchengine.publisher.MatchedPairPublisher;
+import com.gracemann.recon.matchengine.shard.MatchShards;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MatchProcessorTest {
+
+    private static final LocalDateTime AUTH_DAY = LocalDateTime.of(2025, 6, 1, 10, 0);
+    private static final LocalDateTime SETTLEMENT_DAY = LocalDateTime.of(2025, 6, 2, 12, 0);
+    private static final RecordMetadata ACK = new RecordMetadata(new TopicPartition("matched-txn-topic", 0),
+            0, 0, 0, 0, 0);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FuzzyScorer scorer = FuzzyScorer.defaults();
+    private final MatchRules rules = MatchRules.fixed(MatchRuleSet.of(scorer));
+    /** No lateness and one day to match, without a state store. */
+    private final MatchShards shards = new MatchShards(scorer, rules,
+            new EventTimeAging(true, 0L, 0L, 86_400_000L, 60_000L, 64), 16, false, "unused", 1, 1, false, 1);
+    private final MatchMetrics metrics = new MatchMetrics(registry, shards, rules);
+    private final MatchedPairPublisher pairPublisher = mock(MatchedPairPublisher.class);
+    private final ExceptionCandidatePublisher exceptionPublisher = mock(ExceptionCandidatePublisher.class);
+    private final MatchProcessor processor = new MatchProcessor(shards, pairPublisher, exceptionPublisher, metrics);
+
+    @Test
+    void unackedPairReopensItsCounterpartForTheRedeliveredLeg() throws Exception {
+        when(pairPublisher.publish(any(), anyLong()))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("broker down")))
+                .thenReturn(CompletableFuture.completedFuture(ACK));
+        processor.process(leg(SourceType.BANK_SWITCH, 1, AUTH_DAY, null), 0L, 0, 0);
+
+        TxnRecordDTO scheme = leg(SourceType.SCHEME_FILE, 1, AUTH_DAY, "FILE-1");
+        assertThrows(IllegalStateException.class, () -> processor.process(scheme, 0L, 0, 1));
+        assertEquals(1, shards.openItems(SourceType.BANK_SWITCH));
+        assertEquals(0, metrics.getMatchedPairs());
+        assertEquals(1.0, registry.get("recon.match.publish.failed").tag("kind", "pair").counter().count());
+
+        // the container redelivers the leg, which takes the reopened counterpart again
+        processor.process(scheme, 0L, 0, 1);
+        assertEquals(0, shards.openItems(SourceType.BANK_SWITCH));
+        assertEquals(1, metrics.getMatchedPairs());
+    }
+
+    @Test
+    void unackedExceptionCandidateStaysOpenAndExpiresAgain() throws Exception {
+        when(exceptionPublisher.publish(any(), anyLong(), anyLong()))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("broker down")))
+                .thenReturn(CompletableFuture.completedFuture(ACK));
+        processor.process(leg(SourceType.BANK_SWITCH, 1, AUTH_DAY, null), 0L, 0, 0);
+        processor.process(leg(SourceType.SCHEME_FILE, 2, SETTLEMENT_DAY, "FILE-1"), 0L, 0, 1);
+
+        // the next file completes the first one, whose watermark ages the bank leg out
+        processor.process(leg(SourceType.SCHEME_FILE, 3, SETTLEMENT_DAY, "FILE-2"), 0L, 0, 2);
+        assertEquals(1, shards.openItems(SourceType.BANK_SWITCH));
+        assertEquals(1.0, registry.get("recon.match.publish.failed").tag("kind", "exception").counter().count());
+
+        processor.process(leg(SourceType.SCHEME_FILE, 4, SETTLEMENT_DAY, "FILE-2"), 0L, 0, 3);
+        assertEquals(0, shards.openItems(SourceType.BANK_SWITCH));
+        assertEquals(1.0, registry.get("recon.match.records").tags("source", "BANK_SWITCH", "outcome", "expired")
+                .counter().count());
+    }
+}
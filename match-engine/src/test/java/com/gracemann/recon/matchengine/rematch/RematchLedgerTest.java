@@ -0,0 +1,92 @@
+package com.gracemann.recon.matchengine.rematch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.gracemann.recon.matchengine.dto.MatchedPairDTO.MatchType;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.matchengine.matching.FuzzyScorer;
+import com.gracemann.recon.matchengine.matching.MatchRuleSet;
+import com.gracemann.recon.matchengine.matching.MatchRules;
+import com.gracemann.recon.matchengine.matching.OpenItem;
+import com.gracemann.recon.matchengine.matching.StreamingMatcher;
+import com.gracemann.recon.matchengine.matching.TestLegs;
+
+class RematchLedgerTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 6, 1, 12, 0);
+    private static final long WEEK_MS = 604_800_000L;
+
+    private final FuzzyScorer scorer = FuzzyScorer.defaults();
+    private final StreamingMatcher live = new StreamingMatcher(scorer, 16);
+    private final RematchLedger ledger = new RematchLedger(scorer, MatchRules.fixed(MatchRuleSet.of(scorer)),
+            WEEK_MS);
+
+    @Test
+    void lateCounterpartResolvesItsExceptionAndOnlyDirtyBucketsAreRevisited() {
+        OpenItem expired = new OpenItem(leg(SourceType.BANK_SWITCH, "BANK-TXN-1", 1, "100.00"), 1L);
+        ledger.expired(List.of(expired));
+
+        // the counterpart arrives after the bank leg aged out: streaming can only open it
+        offer(leg(SourceType.SCHEME_FILE, "BANK-TXN-1", 1, "100.00"), 2L);
+        // a first leg on another card has no exception nearby
+        offer(leg(SourceType.SCHEME_FILE, "BANK-TXN-2", 2, "100.00"), 3L);
+        assertEquals(1, ledger.dirtyBuckets());
+
+        RematchDelta delta = ledger.rematch(live, -1);
+        assertEquals(1, delta.buckets());
+        assertEquals(2, delta.legs());
+        assertEquals(1, delta.pairs().size());
+        assertEquals(MatchType.EXACT, delta.pairs().get(0).type());
+        assertSame(expired, delta.resolved().get(0).exception());
+        assertEquals("BANK-TXN-1|BANK-TXN-1", delta.resolved().get(0).pair().matchId());
+        // the scheme leg left the live store with the pair; the unrelated one is still open
+        assertEquals(1, live.openItems(SourceType.SCHEME_FILE));
+        assertEquals(0, ledger.exceptions());
+
+        assertEquals(0, ledger.rematch(live, -1).buckets());
+    }
+
+    @Test
+    void correctionsResolveOrSupersedeTheExceptionsTheyReplace() {
+        // both legs of card 3 aged out apart: the bank amount was keyed wrong
+        OpenItem wrongBank = new OpenItem(leg(SourceType.BANK_SWITCH, "BANK-TXN-3", 3, "1500.00"), 1L);
+        OpenItem scheme = new OpenItem(leg(SourceType.SCHEME_FILE, "BANK-TXN-3", 3, "150.00"), 1L);
+        // card 4's bank leg is corrected, but its counterpart never arrived
+        OpenItem staleBank = new OpenItem(leg(SourceType.BANK_SWITCH, "BANK-TXN-4", 4, "40.00"), 1L);
+        ledger.expired(List.of(wrongBank, scheme, staleBank));
+        assertEquals(3, ledger.exceptions());
+
+        offer(leg(SourceType.BANK_SWITCH, "BANK-TXN-3", 3, "150.00"), 5L);
+        offer(leg(SourceType.BANK_SWITCH, "BANK-TXN-4", 4, "45.00"), 5L);
+        RematchDelta delta = ledger.rematch(live, -1);
+
+        assertEquals(2, delta.buckets());
+        assertEquals(1, delta.pairs().size());
+        assertEquals(5L, delta.pairs().get(0).bank().arrivedAtMillis());
+        assertEquals(List.of(scheme, wrongBank), delta.resolved().stream().map(RematchDelta.Resolved::exception)
+                .toList());
+        assertEquals(List.of(staleBank), delta.superseded());
+        // card 4's correction still waits for its counterpart on the streaming path
+        assertEquals(1, live.openItems(SourceType.BANK_SWITCH));
+        assertEquals(0, ledger.exceptions());
+        assertEquals(0, ledger.dirtyBuckets());
+    }
+
+    private void offer(TxnRecordDTO dto, long arrivedAtMillis) {
+        assertFalse(live.offer(dto, arrivedAtMillis).matched());
+        ledger.opened(dto, arrivedAtMillis);
+    }
+
+    private static TxnRecordDTO leg(SourceType source, String txnId, int card, String amount) {
+        return TestLegs.of(source, card).txnId(txnId).amount(amount).timestamp(DAY).authCode().terminal("TERM0001")
+                .merchant("MERCH001").build();
+    }
+}
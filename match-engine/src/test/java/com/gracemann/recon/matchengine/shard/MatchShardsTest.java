@@ -0,0 +1,149 @@
+package com.gracemann.recon.matchengine.shard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.matchengine.matching.EventTimeAging;
+import com.gracemann.recon.matchengine.matching.FuzzyScorer;
+import com.gracemann.recon.matchengine.matching.MatchRuleSet;
+import com.gracemann.recon.matchengine.matching.MatchRules;
+import com.gracemann.recon.matchengine.matching.TestLegs;
+
+class MatchShardsTest {
+
+    private static final long NEVER = 3_600_000L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void revokedShardIsHandedOffWithoutReplay() {
+        MatchShards first = shards(dir);
+        first.assign(Map.of(0, 0L, 1, 0L));
+        for (int i = 0; i < 20; i++) {
+            first.offer(leg(SourceType.BANK_SWITCH, i), 1_000L, i % 2, i / 2);
+        }
+        assertEquals(20, first.openItems(SourceType.BANK_SWITCH));
+
+        // partition 1 moves to another instance sharing the state directory
+        first.revoke(List.of(1));
+        assertEquals(Set.of(0), first.partitions());
+        assertEquals(10, first.openItems(SourceType.BANK_SWITCH));
+        assertEquals(1, first.handoffs());
+
+        MatchShards second = shards(dir);
+        second.assign(Map.of(1, 10L));
+        assertEquals(10, second.lastRecoveredItems());
+        assertEquals(0, second.lastReplayedEntries());
+        assertEquals(10, second.resumeOffset(1));
+        assertEquals(-1, second.resumeOffset(0));
+        assertTrue(second.offer(leg(SourceType.SCHEME_FILE, 3), 2_000L, 1, 10).matched());
+        // partition 0's legs stay with the first owner
+        assertFalse(second.offer(leg(SourceType.SCHEME_FILE, 2), 2_000L, 1, 11).matched());
+        assertTrue(first.offer(leg(SourceType.SCHEME_FILE, 2), 2_000L, 0, 10).matched());
+
+        first.shutdown();
+        second.shutdown();
+    }
+
+    @Test
+    void legsWithoutPartitionAreMatchedStatelessly() {
+        MatchShards shards = shards(dir);
+        shards.offer(leg(SourceType.BANK_SWITCH, 1), 1_000L, -1, -1L);
+        assertTrue(shards.offer(leg(SourceType.SCHEME_FILE, 1), 1_000L, -1, -1L).matched());
+        assertEquals(-1, shards.resumeOffset(-1));
+        shards.shutdown();
+    }
+
+    @Test
+    void staleLocalStateIsRebuiltAfterThePartitionMovedOnElsewhere() {
+        // each instance keeps its state on local disk
+        MatchShards first = shards(dir.resolve("first"));
+        first.assign(Map.of(0, 0L));
+        for (int i = 0; i < 10; i++) {
+            first.offer(leg(SourceType.BANK_SWITCH, i), 1_000L, 0, i);
+        }
+        first.revoke(List.of(0));
+
+        // the second owner has no state: it rebuilds up to the group's offset, then matches
+        MatchShards second = shards(dir.resolve("second"));
+        second.assign(Map.of(0, 10L));
+        assertEquals(MatchShards.FROM_BEGINNING, second.resumeOffset(0));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(second.replaying(0, i));
+            second.offer(leg(SourceType.BANK_SWITCH, i), 1_000L, 0, i);
+        }
+        assertFalse(second.replaying(0, 10));
+        assertTrue(second.offer(leg(SourceType.SCHEME_FILE, 3), 2_000L, 0, 10).matched());
+        second.revoke(List.of(0));
+
+        // back on the first instance: its store stops at offset 10, the group is at 11
+        first.assign(Map.of(0, 11L));
+        assertEquals(MatchShards.FROM_BEGINNING, first.resumeOffset(0));
+        assertEquals(0, first.openItems(SourceType.BANK_SWITCH));
+        for (int i = 0; i < 10; i++) {
+            first.offer(leg(SourceType.BANK_SWITCH, i), 1_000L, 0, i);
+        }
+        assertTrue(first.replaying(0, 10));
+        first.offer(leg(SourceType.SCHEME_FILE, 3), 2_000L, 0, 10);
+        assertFalse(first.replaying(0, 11));
+        assertEquals(9, first.openItems(SourceType.BANK_SWITCH));
+        // leg 3 was matched by the second owner, so it is not open to match twice
+        assertFalse(first.offer(leg(SourceType.SCHEME_FILE, 3), 2_000L, 0, 11).matched());
+
+        first.shutdown();
+        second.shutdown();
+    }
+
+    @Test
+    void storeThatCrashedBetweenFlushesIsResumedNotRebuilt() {
+        MatchShards first = shards(dir);
+        first.assign(Map.of(0, 0L));
+        AtomicLong committed = new AtomicLong();
+        for (int i = 0; i < 5; i++) {
+            long next = i + 1;
+            first.offer(leg(SourceType.BANK_SWITCH, i), 1_000L, 0, i);
+            first.acknowledgeWhenDurable(0, i, () -> committed.set(next));
+        }
+        assertEquals(0, committed.get());
+        first.flush(List.of(0));
+        assertEquals(5, committed.get());
+
+        // legs 5-7 are consumed, then the instance dies before its next flush
+        for (int i = 5; i < 8; i++) {
+            long next = i + 1;
+            first.offer(leg(SourceType.BANK_SWITCH, i), 1_000L, 0, i);
+            first.acknowledgeWhenDurable(0, i, () -> committed.set(next));
+        }
+        assertEquals(5, committed.get());
+
+        MatchShards restarted = shards(dir);
+        restarted.assign(Map.of(0, committed.get()));
+        assertEquals(5, restarted.resumeOffset(0));
+        assertEquals(5, restarted.openItems(SourceType.BANK_SWITCH));
+        assertFalse(restarted.replaying(0, 5));
+        restarted.shutdown();
+    }
+
+    private MatchShards shards(Path stateDir) {
+        FuzzyScorer scorer = FuzzyScorer.defaults();
+        return new MatchShards(scorer, MatchRules.fixed(MatchRuleSet.of(scorer)), EventTimeAging.defaults(), 16,
+                true, stateDir.toString(), NEVER, NEVER, true, 604_800_000L);
+    }
+
+    private static TxnRecordDTO leg(SourceType source, int i) {
+        return TestLegs.of(source, i).merchant("MERCH-" + i % 5).raw().build();
+    }
+}
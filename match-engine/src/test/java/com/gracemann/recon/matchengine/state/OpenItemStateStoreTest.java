@@ -0,0 +1,143 @@
+package com.gracemann.recon.matchengine.state;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO;
+import com.gracemann.recon.matchengine.dto.TxnRecordDTO.SourceType;
+import com.gracemann.recon.matchengine.matching.FuzzyScorer;
+import com.gracemann.recon.matchengine.matching.MatchedPair;
+import com.gracemann.recon.matchengine.matching.StreamingMatcher;
+import com.gracemann.recon.matchengine.matching.TestLegs;
+
+class OpenItemStateStoreTest {
+
+    private static final long NEVER = 3_600_000L;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void stopScheduler() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void recoversFromSnapshotPlusChangelogTail() throws IOException {
+        StreamingMatcher before = new StreamingMatcher(FuzzyScorer.defaults(), 16);
+        OpenItemStateStore store = open(before);
+        for (int i = 0; i < 100; i++) {
+            before.offer(leg(SourceType.BANK_SWITCH, i), 1_000L + i, 0, i);
+        }
+        store.snapshot();
+        for (int i = 0; i < 50; i++) {
+            assertTrue(before.offer(leg(SourceType.SCHEME_FILE, i), 2_000L, 0, 100 + i).matched());
+        }
+        for (int i = 100; i < 110; i++) {
+            before.offer(leg(SourceType.BANK_SWITCH, i), 3_000L, 1, i - 100);
+        }
+        crash(store);
+
+        StreamingMatcher after = new StreamingMatcher(FuzzyScorer.defaults(), 16);
+        OpenItemStateStore recovered = open(after);
+        assertEquals(100, recovered.recoveredItems());
+        assertEquals(60, recovered.replayedEntries());
+        assertEquals(60, after.openItems(SourceType.BANK_SWITCH));
+        assertEquals(150, recovered.resumeOffset(0));
+        assertEquals(10, recovered.resumeOffset(1));
+        assertEquals(-1, recovered.resumeOffset(2));
+
+        MatchedPair pair = after.offer(leg(SourceType.SCHEME_FILE, 75), 4_000L, 0, 150).pair();
+        assertEquals(leg(SourceType.BANK_SWITCH, 75).toString(), pair.bank().record().toString());
+        assertEquals(1_075L, pair.bank().arrivedAtMillis());
+        // closed before the crash, so it stays closed
+        assertFalse(after.offer(leg(SourceType.SCHEME_FILE, 20), 4_000L, 0, 151).matched());
+        recovered.close();
+    }
+
+    @Test
+    void snapshotTakenWhileMatchingIsConsistent() throws Exception {
+        StreamingMatcher before = new StreamingMatcher(FuzzyScorer.defaults(), 16);
+        OpenItemStateStore store = open(before);
+        int legs = 20_000;
+        Thread feeder = new Thread(() -> {
+            for (int i = 0; i < legs; i++) {
+                // every third bank leg finds its scheme leg, the rest stay open
+                before.offer(leg(SourceType.BANK_SWITCH, i), i, 0, 2L * i);
+                if (i % 3 == 0) {
+                    before.offer(leg(SourceType.SCHEME_FILE, i), i, 0, 2L * i + 1);
+                }
+            }
+        });
+        feeder.start();
+        while (feeder.isAlive()) {
+            store.snapshot();
+        }
+        feeder.join();
+        long open = before.openItems(SourceType.BANK_SWITCH);
+        crash(store);
+
+        StreamingMatcher after = new StreamingMatcher(FuzzyScorer.defaults(), 16);
+        OpenItemStateStore recovered = open(after);
+        assertEquals(open, after.openItems(SourceType.BANK_SWITCH));
+        assertEquals(0, after.openItems(SourceType.SCHEME_FILE));
+        assertTrue(after.offer(leg(SourceType.SCHEME_FILE, legs - 1), 0L).matched());
+        recovered.close();
+    }
+
+    @Test
+    void ignoresEntryTornByACrash() throws IOException {
+        StreamingMatcher before = new StreamingMatcher(FuzzyScorer.defaults(), 16);
+        OpenItemStateStore store = open(before);
+        for (int i = 0; i < 10; i++) {
+            before.offer(leg(SourceType.BANK_SWITCH, i), 0L, 0, i);
+        }
+        crash(store);
+        List<Path> segments = Changelog.segments(dir);
+        Files.write(segments.get(segments.size() - 1), new byte[] { 0, 0, 0, 60, 1, 2, 3 },
+                StandardOpenOption.APPEND);
+
+        StreamingMatcher after = new StreamingMatcher(FuzzyScorer.defaults(), 16);
+        OpenItemStateStore recovered = open(after);
+        assertEquals(10, after.openItems(SourceType.BANK_SWITCH));
+        assertEquals(10, recovered.resumeOffset(0));
+
+        // appends after recovery land in a fresh segment and survive the next restart
+        after.offer(leg(SourceType.BANK_SWITCH, 10), 0L, 0, 10);
+        crash(recovered);
+        StreamingMatcher again = new StreamingMatcher(FuzzyScorer.defaults(), 16);
+        open(again).close();
+        assertEquals(11, again.openItems(SourceType.BANK_SWITCH));
+    }
+
+    private OpenItemStateStore open(StreamingMatcher matcher) throws IOException {
+        OpenItemStateStore store = new OpenItemStateStore(matcher, dir, NEVER, NEVER, scheduler);
+        store.recover();
+        return store;
+    }
+
+    /** Stop without a final snapshot, as a killed process would. */
+    private static void crash(OpenItemStateStore store) {
+        store.flush();
+        store.close();
+    }
+
+    private static TxnRecordDTO leg(SourceType source, int i) {
+        return TestLegs.of(source, i).card(i % 37).merchant("MERCH-" + i % 5).raw().build();
+    }
+}
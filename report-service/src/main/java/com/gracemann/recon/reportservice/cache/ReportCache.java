@@ -0,0 +1,227 @@
+package com.gracemann.recon.reportservice.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The generated reports on local disk, bounded by size with least recently
+ * downloaded first out.
+ *
+ * <p>
+ * Each report in a compressible format (CSV by default) gets a gzip variant
+ * written next to it when it is added, once, so downloads that accept gzip
+ * are served pre-compressed and never compressed per request. The columnar
+ * format is already deflated and is served as is. A report and its variant
+ * count against {@code recon.report.cache.max-bytes} together and are evicted
+ * together; an evicted report is simply generated again.
+ * </p>
+ *
+ * <p>
+ * Files already in the directory at startup are taken into the cache in
+ * modification order. Thread-safe.
+ * </p>
+ */
+@Component
+public class ReportCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportCache.class);
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final Path dir;
+    private final long maxBytes;
+    private final int gzipLevel;
+    private final Set<String> compressible;
+    /** Access-ordered: eldest is least recently downloaded. Guarded by this. */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+
+    public ReportCache(@Value("${recon.report.dir:data/reports}") String dir,
+            @Value("${recon.report.cache.max-bytes:10737418240}") long maxBytes,
+            @Value("${recon.report.cache.gzip-level:6}") int gzipLevel,
+            @Value("${recon.report.cache.compress-extensions:csv}") List<String> compressible) {
+        this.dir = Paths.get(dir);
+        this.maxBytes = maxBytes;
+        this.gzipLevel = gzipLevel;
+        this.compressible = Set.copyOf(compressible);
+        scan();
+    }
+
+    /** A report file as served: the original or its gzip variant. */
+    public record CachedFile(Path path, long size, long lastModifiedMillis, String etag, boolean gzip) {
+    }
+
+    /**
+     * Take a report just written to the cache directory, writing its gzip
+     * variant first if its format is compressible, and evict what no longer
+     * fits.
+     */
+    public void put(Path report) throws IOException {
+        String name = report.getFileName().toString();
+        Path gzip = null;
+        if (compressible.contains(extension(name))) {
+            gzip = compress(report);
+        }
+        Entry entry = new Entry(file(report, false), gzip == null ? null : file(gzip, true));
+        synchronized (this) {
+            Entry previous = entries.put(name, entry);
+            if (previous != null) {
+                bytes -= previous.bytes();
+            }
+            bytes += entry.bytes();
+            evict(name);
+        }
+    }
+
+    /**
+     * The report {@code name}, as its gzip variant if {@code acceptGzip} and
+     * it has one, and mark it recently used.
+     *
+     * @return the file, or {@code null} if the cache does not hold the report
+     */
+    public CachedFile get(String name, boolean acceptGzip) {
+        if (!NAME.matcher(name).matches()) {
+            return null;
+        }
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(name);
+        }
+        if (entry == null) {
+            return null;
+        }
+        return acceptGzip && entry.gzip() != null ? entry.gzip() : entry.identity();
+    }
+
+    /** Bytes the cache holds, variants included. */
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    /** Reports the cache holds. */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private void scan() {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        List<Path> reports;
+        try (Stream<Path> files = Files.list(dir)) {
+            reports = files.filter(Files::isRegularFile)
+                    .filter(p -> NAME.matcher(p.getFileName().toString()).matches())
+                    .filter(p -> !p.getFileName().toString().endsWith(".tmp"))
+                    .filter(p -> !p.getFileName().toString().endsWith(GZIP_SUFFIX))
+                    .sorted((a, b) -> Long.compare(a.toFile().lastModified(), b.toFile().lastModified()))
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Cannot list {}: {}", dir, e.getMessage());
+            return;
+        }
+        for (Path report : reports) {
+            try {
+                Path gzip = report.resolveSibling(report.getFileName() + GZIP_SUFFIX);
+                Entry entry = new Entry(file(report, false), Files.exists(gzip) ? file(gzip, true) : null);
+                synchronized (this) {
+                    entries.put(report.getFileName().toString(), entry);
+                    bytes += entry.bytes();
+                }
+            } catch (IOException e) {
+                log.warn("Skipping {}: {}", report, e.getMessage());
+            }
+        }
+        synchronized (this) {
+            evict(null);
+        }
+        log.info("Report cache: {} reports, {} bytes in {}", entries.size(), bytes, dir);
+    }
+
+    /** Evict least recently used reports, never {@code keep}, until the cache fits. */
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> next = eldest.next();
+            if (next.getKey().equals(keep)) {
+                continue;
+            }
+            eldest.remove();
+            bytes -= next.getValue().bytes();
+            delete(next.getValue().identity());
+            delete(next.getValue().gzip());
+            log.info("Evicted report {} ({} bytes)", next.getKey(), next.getValue().bytes());
+        }
+    }
+
+    private Path compress(Path report) throws IOException {
+        Path target = report.resolveSibling(report.getFileName() + GZIP_SUFFIX);
+        Path temp = report.resolveSibling(report.getFileName() + GZIP_SUFFIX + ".tmp");
+        try (InputStream in = Files.newInputStream(report);
+                OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), BUFFER_BYTES) {
+                    {
+                        def.setLevel(gzipLevel);
+                    }
+                }) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+
+    private static CachedFile file(Path path, boolean gzip) throws IOException {
+        long size = Files.size(path);
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        // size and modification time, as static file servers tag: changes whenever the file is rewritten
+        String etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(modified) + (gzip ? "-gz" : "") + "\"";
+        return new CachedFile(path, size, modified, etag, gzip);
+    }
+
+    private static void delete(CachedFile file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            // a download already streaming from it keeps its open handle
+            Files.deleteIfExists(file.path());
+        } catch (IOException e) {
+            log.warn("Cannot delete evicted {}: {}", file.path(), e.getMessage());
+        }
+    }
+
+    private static String extension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1);
+    }
+
+    /** A cached report: the file and its gzip variant, if any. */
+    private record Entry(CachedFile identity, CachedFile gzip) {
+
+        long bytes() {
+            return identity.size() + (gzip == null ? 0 : gzip.size());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.gracemann.recon.reportservice.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+/**
+ * Kafka configuration for the report service: consumers of the match
+ * engine's JSON output topics, read as strings and parsed by the report
+ * cursors or the rollup listener. Reports read fixed offset ranges and the
+ * rollups resume from their own snapshot, so nothing is committed.
+ */
+@EnableKafka
+@Configuration
+public class KafkaConfig {
+
+    private final int maxPollRecords;
+    private final boolean rollupsEnabled;
+
+    public KafkaConfig(@Value("${recon.report.max-poll-records:2000}") int maxPollRecords,
+            @Value("${recon.report.rollup.enabled:true}") boolean rollupsEnabled) {
+        this.maxPollRecords = maxPollRecords;
+        this.rollupsEnabled = rollupsEnabled;
+    }
+
+    @Bean
+    public ConsumerFactory<String, String> reportConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "recon-report");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        // a cursor holds one poll's records at a time
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> rollupKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(reportConsumerFactory());
+        factory.setAutoStartup(rollupsEnabled);
+        return factory;
+    }
+}
@@ -0,0 +1,26 @@
+package com.gracemann.recon.reportservice.config;
+
+import java.nio.file.Paths;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.gracemann.recon.reportservice.storage.LocalFileStorage;
+import com.gracemann.recon.reportservice.storage.ReportStorage;
+
+/**
+ * Report object storage, chosen by {@code recon.report.storage.type}. Only
+ * {@code local} ships here; an S3-compatible implementation registers its own
+ * {@link ReportStorage} bean under another type.
+ */
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "recon.report.storage.type", havingValue = "local", matchIfMissing = true)
+    public ReportStorage localReportStorage(@Value("${recon.report.storage.dir:data/report-store}") String dir) {
+        return new LocalFileStorage(Paths.get(dir));
+    }
+}
@@ -0,0 +1,54 @@
+package com.gracemann.recon.reportservice.cursor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.gracemann.recon.reportservice.model.ReportRow;
+import com.gracemann.recon.reportservice.model.ReportRow.Kind;
+
+/**
+ * Cursor over a JSON-lines export of one match-engine topic, one record per
+ * line; blank lines are skipped.
+ */
+public class JsonLinesCursor implements RowCursor {
+
+    private final Path file;
+    private final Kind kind;
+    private final RecordParser parser;
+    private final BufferedReader reader;
+    private long line;
+
+    public JsonLinesCursor(Path file, Kind kind, RecordParser parser) throws IOException {
+        this.file = file;
+        this.kind = kind;
+        this.parser = parser;
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean next(ReportRow row) throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                parser.parse(kind, text, row);
+            } catch (IOException | RuntimeException e) {
+                throw new IOException(file + " line " + line + " is not a " + kind + " record: " + e.getMessage(),
+                        e);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
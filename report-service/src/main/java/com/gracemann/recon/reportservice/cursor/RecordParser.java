@@ -0,0 +1,219 @@
+package com.gracemann.recon.reportservice.cursor;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.gracemann.recon.reportservice.model.ReportRow;
+import com.gracemann.recon.reportservice.model.ReportRow.Kind;
+
+/**
+ * Fills a {@link ReportRow} from the JSON the match engine publishes: a
+ * {@code MatchedPairDTO} on {@code matched-txn-topic} or an
+ * {@code ExceptionCandidateDTO} on {@code exception-candidate-topic}.
+ *
+ * <p>
+ * The JSON is read token by token into the row; no DTO or tree is built, and
+ * fields the report does not carry (the raw source records, for one) are
+ * skipped unread. Times may be ISO strings, epoch seconds or Jackson's
+ * {@code LocalDateTime} arrays. Not thread-safe.
+ * </p>
+ */
+public final class RecordParser {
+
+    private final JsonFactory factory;
+
+    public RecordParser(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * @throws IOException if {@code json} is not an object of the expected
+     *                     shape
+     */
+    public void parse(Kind kind, String json, ReportRow row) throws IOException {
+        row.clear();
+        row.kind = kind;
+        try (JsonParser parser = factory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object");
+            }
+            if (kind == Kind.MATCHED) {
+                matched(parser, row);
+            } else {
+                exception(parser, row);
+            }
+        }
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static void matched(JsonParser parser, ReportRow row) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "matchId" -> row.id = text(parser);
+                case "matchType" -> row.matchType = text(parser);
+                case "score" -> row.score = parser.currentToken() == JsonToken.VALUE_NULL ? Double.NaN
+                        : parser.getValueAsDouble();
+                case "matchedAt" -> row.eventAt = time(parser);
+                case "openMillis" -> row.openMillis = parser.getValueAsLong();
+                case "bank" -> leg(parser, row, true);
+                case "scheme" -> leg(parser, row, false);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static void exception(JsonParser parser, ReportRow row) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "exceptionId" -> row.id = text(parser);
+                case "status" -> row.status = text(parser);
+                case "expiredAt" -> row.eventAt = time(parser);
+                case "openMillis" -> row.openMillis = parser.getValueAsLong();
+                case "record" -> leg(parser, row, null);
+                default -> parser.skipChildren();
+            }
+        }
+        if (row.status == null) {
+            // published before re-matching existed
+            row.status = "EXPIRED";
+        }
+    }
+
+    /**
+     * Read a {@code TxnRecordDTO}: the bank leg of a pair ({@code bank} true)
+     * carries the shared fields and the channel, the scheme leg its id, amount
+     * and scheme name, and an exception's only leg ({@code bank} null)
+     * everything.
+     */
+    private static void leg(JsonParser parser, ReportRow row, Boolean bank) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        boolean full = bank == null || bank;
+        String txnId = null;
+        long amount = ReportRow.NONE;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "txnId" -> txnId = text(parser);
+                case "amount" -> amount = amount(parser);
+                case "cardNumber" -> {
+                    if (full) {
+                        row.cardNumber = text(parser);
+                    }
+                }
+                case "currency" -> {
+                    if (full) {
+                        row.currency = text(parser);
+                    }
+                }
+                case "txnTimestamp" -> {
+                    if (full) {
+                        row.txnTimestamp = time(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                case "merchantId" -> {
+                    if (full) {
+                        row.merchantId = text(parser);
+                    }
+                }
+                case "terminalId" -> {
+                    if (full) {
+                        row.terminalId = text(parser);
+                    }
+                }
+                case "channel" -> {
+                    if (bank == null || bank) {
+                        row.channel = text(parser);
+                    }
+                }
+                case "schemeName" -> {
+                    if (bank == null || !bank) {
+                        row.schemeName = text(parser);
+                    }
+                }
+                case "sourceType" -> {
+                    if (bank == null) {
+                        row.source = text(parser);
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (bank == null) {
+            row.amount = amount;
+            if ("SCHEME_FILE".equals(row.source)) {
+                row.schemeTxnId = txnId;
+            } else {
+                row.bankTxnId = txnId;
+            }
+        } else if (bank) {
+            row.amount = amount;
+            row.bankTxnId = txnId;
+        } else {
+            row.schemeAmount = amount;
+            row.schemeTxnId = txnId;
+        }
+    }
+
+    private static String text(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+    }
+
+    /** Fixed-point amount with {@link ReportRow#AMOUNT_SCALE} decimals. */
+    private static long amount(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return ReportRow.NONE;
+        }
+        BigDecimal value = token == JsonToken.VALUE_STRING ? new BigDecimal(parser.getText())
+                : parser.getDecimalValue();
+        return value.setScale(ReportRow.AMOUNT_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    /** Epoch milliseconds of an {@code Instant} or (UTC) {@code LocalDateTime}. */
+    private static long time(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_NULL:
+                return ReportRow.NONE;
+            case VALUE_STRING: {
+                String text = parser.getText();
+                return text.endsWith("Z") ? Instant.parse(text).toEpochMilli()
+                        : LocalDateTime.parse(text).toInstant(ZoneOffset.UTC).toEpochMilli();
+            }
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                // Jackson's Instant timestamps are epoch seconds with a fraction
+                return parser.getDecimalValue().movePointRight(3).setScale(0, RoundingMode.FLOOR).longValueExact();
+            case START_ARRAY: {
+                int[] parts = new int[7];
+                int n = 0;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (n < parts.length) {
+                        parts[n++] = parser.getIntValue();
+                    }
+                }
+                return LocalDateTime.of(parts[0], parts[1], parts[2], parts[3], parts[4], parts[5], parts[6])
+                        .toInstant(ZoneOffset.UTC).toEpochMilli();
+            }
+            default:
+                throw new IOException("Expected a time, found " + parser.currentToken());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.gracemann.recon.reportservice.cursor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+import com.gracemann.recon.reportservice.model.ReportRow;
+
+/**
+ * Forward-only cursor over report rows: each {@link #next} fills the
+ * caller's row with the next record, so however many records a source holds,
+ * only the one under the cursor is in memory.
+ */
+public interface RowCursor extends Closeable {
+
+    /**
+     * Fill {@code row} with the next record.
+     *
+     * @return {@code false} once the cursor is exhausted, leaving {@code row}
+     *         unspecified
+     * @throws IOException if the source cannot be read or holds a record that
+     *                     is not a matched pair or exception candidate
+     */
+    boolean next(ReportRow row) throws IOException;
+
+    /** The rows of {@code cursors}, one cursor after the other. */
+    static RowCursor concat(List<? extends RowCursor> cursors) {
+        return new RowCursor() {
+            private int current;
+
+            @Override
+            public boolean next(ReportRow row) throws IOException {
+                while (current < cursors.size()) {
+                    if (cursors.get(current).next(row)) {
+                        return true;
+                    }
+                    cursors.get(current++).close();
+                }
+                return false;
+            }
+
+            @Override
+            public void close() throws IOException {
+                IOException failure = null;
+                for (; current < cursors.size(); current++) {
+                    try {
+                        cursors.get(current).close();
+                    } catch (IOException e) {
+                        failure = failure == null ? e : failure;
+                    }
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+        };
+    }
+}
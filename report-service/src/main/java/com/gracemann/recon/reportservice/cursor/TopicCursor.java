@@ -0,0 +1,125 @@
+package com.gracemann.recon.reportservice.cursor;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import com.gracemann.recon.reportservice.model.ReportRow;
+import com.gracemann.recon.reportservice.model.ReportRow.Kind;
+
+/**
+ * Cursor over the records of one match-engine topic whose record timestamps
+ * fall in {@code [from, to)}, across all partitions.
+ *
+ * <p>
+ * Start and end offsets are looked up by timestamp when the cursor opens, so
+ * the range is fixed even while the match engine keeps publishing. Records
+ * are fetched a poll at a time ({@code max.poll.records}), which bounds what
+ * the cursor holds however long the range is. The consumer uses its own
+ * group and never commits.
+ * </p>
+ */
+public class TopicCursor implements RowCursor {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final String topic;
+    private final Kind kind;
+    private final RecordParser parser;
+    private final Consumer<String, String> consumer;
+    /** End offset still to reach, per partition. */
+    private final Map<TopicPartition, Long> remaining = new HashMap<>();
+    private Iterator<ConsumerRecord<String, String>> batch = List.<ConsumerRecord<String, String>>of().iterator();
+
+    public TopicCursor(ConsumerFactory<String, String> consumerFactory, String topic, Kind kind, Instant from,
+            Instant to, RecordParser parser) {
+        this.topic = topic;
+        this.kind = kind;
+        this.parser = parser;
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        this.consumer = consumerFactory.createConsumer("recon-report", "report-" + topic, null, overrides);
+        try {
+            List<TopicPartition> partitions = consumer.partitionsFor(topic).stream()
+                    .map(info -> new TopicPartition(topic, info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> start = offsetsAt(partitions, from);
+            Map<TopicPartition, Long> end = offsetsAt(partitions, to);
+            for (TopicPartition partition : partitions) {
+                if (start.get(partition) < end.get(partition)) {
+                    consumer.seek(partition, start.get(partition));
+                    remaining.put(partition, end.get(partition));
+                }
+            }
+            consumer.assign(remaining.keySet());
+        } catch (RuntimeException e) {
+            consumer.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean next(ReportRow row) throws IOException {
+        while (true) {
+            while (batch.hasNext()) {
+                ConsumerRecord<String, String> record = batch.next();
+                Long stop = remaining.get(new TopicPartition(record.topic(), record.partition()));
+                if (stop != null && record.offset() < stop && record.value() != null) {
+                    try {
+                        parser.parse(kind, record.value(), row);
+                    } catch (IOException | RuntimeException e) {
+                        throw new IOException(topic + "-" + record.partition() + "@" + record.offset()
+                                + " is not a " + kind + " record: " + e.getMessage(), e);
+                    }
+                    return true;
+                }
+            }
+            for (TopicPartition partition : List.copyOf(remaining.keySet())) {
+                if (consumer.position(partition) >= remaining.get(partition)) {
+                    remaining.remove(partition);
+                }
+            }
+            if (remaining.isEmpty()) {
+                return false;
+            }
+            consumer.assign(remaining.keySet());
+            batch = consumer.poll(POLL_TIMEOUT).iterator();
+        }
+    }
+
+    @Override
+    public void close() {
+        consumer.close();
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    /** First offset at or after {@code time} per partition, the end offset if none. */
+    private Map<TopicPartition, Long> offsetsAt(List<TopicPartition> partitions, Instant time) {
+        Map<TopicPartition, Long> query = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            query.put(partition, time.toEpochMilli());
+        }
+        Map<TopicPartition, OffsetAndTimestamp> found = consumer.offsetsForTimes(query);
+        Map<TopicPartition, Long> ends = consumer.endOffsets(partitions);
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            OffsetAndTimestamp offset = found.get(partition);
+            offsets.put(partition, offset == null ? ends.get(partition) : offset.offset());
+        }
+        return offsets;
+    }
+}
@@ -0,0 +1,171 @@
+package com.gracemann.recon.reportservice.format;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import com.gracemann.recon.reportservice.cursor.RowCursor;
+import com.gracemann.recon.reportservice.model.ReportColumn;
+import com.gracemann.recon.reportservice.model.ReportRow;
+
+/**
+ * Reads a report written by {@link ColumnarReportWriter} back, one row group
+ * in memory at a time.
+ */
+public class ColumnarReportReader implements RowCursor {
+
+    private static final ReportColumn[] COLUMNS = ReportColumn.all();
+
+    private final DataInputStream in;
+    private final Inflater inflater = new Inflater();
+    private final byte[][] chunks = new byte[COLUMNS.length][];
+    /** Read position in each chunk, past its presence bitmap. */
+    private final int[] positions = new int[COLUMNS.length];
+    private final long[] previous = new long[COLUMNS.length];
+    private byte[] deflated = new byte[1 << 16];
+    private int groupRows;
+    private int row;
+    private long totalRows = -1;
+
+    /**
+     * @throws IOException if the stream is not a columnar report with this
+     *                     version's columns
+     */
+    public ColumnarReportReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        byte[] magic = new byte[ColumnarReportWriter.MAGIC.length];
+        this.in.readFully(magic);
+        if (!Arrays.equals(magic, ColumnarReportWriter.MAGIC)
+                || this.in.readUnsignedByte() != ColumnarReportWriter.VERSION) {
+            throw new IOException("Not a version " + ColumnarReportWriter.VERSION + " columnar report");
+        }
+        int columns = this.in.readUnsignedShort();
+        if (columns != COLUMNS.length) {
+            throw new IOException("Report has " + columns + " columns, expected " + COLUMNS.length);
+        }
+        for (ReportColumn column : COLUMNS) {
+            String name = this.in.readUTF();
+            int type = this.in.readUnsignedByte();
+            if (!name.equals(column.header()) || type != column.type().ordinal()) {
+                throw new IOException("Report column " + name + " does not match " + column.header());
+            }
+        }
+        for (int i = 0; i < COLUMNS.length; i++) {
+            chunks[i] = new byte[1 << 12];
+        }
+    }
+
+    @Override
+    public boolean next(ReportRow target) throws IOException {
+        if (row == groupRows && !readRowGroup()) {
+            return false;
+        }
+        target.clear();
+        for (int i = 0; i < COLUMNS.length; i++) {
+            ReportColumn column = COLUMNS[i];
+            byte[] chunk = chunks[i];
+            switch (column.type()) {
+                case STRING -> {
+                    int length = (int) varint(i) - 1;
+                    if (length >= 0) {
+                        column.string(target, new String(chunk, positions[i], length, StandardCharsets.UTF_8));
+                        positions[i] += length;
+                    }
+                }
+                case DOUBLE -> {
+                    if (present(chunk, row)) {
+                        long bits = 0;
+                        for (int b = 0; b < 8; b++) {
+                            bits = (bits << 8) | (chunk[positions[i]++] & 0xFF);
+                        }
+                        column.real(target, Double.longBitsToDouble(bits));
+                    }
+                }
+                default -> {
+                    if (present(chunk, row)) {
+                        long zigzag = varint(i);
+                        previous[i] += (zigzag >>> 1) ^ -(zigzag & 1);
+                        column.number(target, previous[i]);
+                    }
+                }
+            }
+        }
+        row++;
+        return true;
+    }
+
+    /** Rows in the report, known once every row has been read. */
+    public long totalRows() {
+        return totalRows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private boolean readRowGroup() throws IOException {
+        if (totalRows >= 0) {
+            return false;
+        }
+        int rows = in.readInt();
+        if (rows == 0) {
+            totalRows = in.readLong();
+            return false;
+        }
+        if (rows < 0) {
+            throw new IOException("Corrupt row group of " + rows + " rows");
+        }
+        int presence = (rows + 7) >>> 3;
+        for (int i = 0; i < COLUMNS.length; i++) {
+            int raw = in.readInt();
+            int length = in.readInt();
+            if (length > deflated.length) {
+                deflated = new byte[length];
+            }
+            in.readFully(deflated, 0, length);
+            if (raw > chunks[i].length) {
+                chunks[i] = new byte[raw];
+            }
+            inflater.reset();
+            inflater.setInput(deflated, 0, length);
+            try {
+                if (inflater.inflate(chunks[i], 0, raw) != raw) {
+                    throw new EOFException("Column " + COLUMNS[i].header() + " chunk is truncated");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Column " + COLUMNS[i].header() + " chunk is corrupt", e);
+            }
+            positions[i] = COLUMNS[i].type() == ReportColumn.Type.STRING ? 0 : presence;
+            previous[i] = 0;
+        }
+        groupRows = rows;
+        row = 0;
+        return true;
+    }
+
+    private static boolean present(byte[] chunk, int row) {
+        return (chunk[row >>> 3] & (1 << (row & 7))) != 0;
+    }
+
+    private long varint(int column) {
+        byte[] chunk = chunks[column];
+        long value = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = chunk[positions[column]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.gracemann.recon.reportservice.format;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import com.gracemann.recon.reportservice.model.ReportColumn;
+import com.gracemann.recon.reportservice.model.ReportRow;
+
+/**
+ * Compressed columnar report ({@code .rcol}), written a row group at a time.
+ *
+ * <p>
+ * Layout, all integers big-endian:
+ * </p>
+ *
+ * <pre>
+ * header    "RCOL" version:u8 columns:u16 { name:UTF type:u8 }*
+ * row group rows:i32 { rawLength:i32 deflatedLength:i32 deflated chunk }*   one chunk per column
+ * footer    0:i32 totalRows:i64
+ * </pre>
+ *
+ * <p>
+ * Rows are buffered column by column and every {@code rowGroupRows} rows each
+ * column's chunk is deflated and written, so the writer holds one row group
+ * whatever the report's size. Within a chunk a string is its UTF-8 length + 1
+ * as a varint ({@code 0} if absent) and its bytes; a numeric column starts
+ * with a presence bitmap, followed by the present values only: zigzag varint
+ * deltas from the previous value for {@code long} columns, raw IEEE bits for
+ * doubles. Sorted or repetitive columns (times, amounts, currencies, match
+ * types) shrink to a few bits a row. {@link ColumnarReportReader} reads the
+ * format back.
+ * </p>
+ */
+public class ColumnarReportWriter implements ReportWriter {
+
+    static final byte[] MAGIC = { 'R', 'C', 'O', 'L' };
+    static final int VERSION = 1;
+
+    private static final ReportColumn[] COLUMNS = ReportColumn.all();
+
+    private final CountingOutputStream counting;
+    private final DataOutputStream out;
+    private final int rowGroupRows;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final Chunk[] chunks = new Chunk[COLUMNS.length];
+    private byte[] deflated = new byte[1 << 16];
+    private int rows;
+    private long totalRows;
+
+    public ColumnarReportWriter(OutputStream out, int rowGroupRows) throws IOException {
+        if (rowGroupRows <= 0) {
+            throw new IllegalArgumentException("rowGroupRows must be > 0");
+        }
+        this.counting = new CountingOutputStream(out);
+        this.out = new DataOutputStream(new BufferedOutputStream(counting, 1 << 16));
+        this.rowGroupRows = rowGroupRows;
+        for (int i = 0; i < COLUMNS.length; i++) {
+            chunks[i] = new Chunk(COLUMNS[i].type() != ReportColumn.Type.STRING, rowGroupRows);
+        }
+        this.out.write(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeShort(COLUMNS.length);
+        for (ReportColumn column : COLUMNS) {
+            this.out.writeUTF(column.header());
+            this.out.writeByte(column.type().ordinal());
+        }
+    }
+
+    @Override
+    public void write(ReportRow row) throws IOException {
+        for (int i = 0; i < COLUMNS.length; i++) {
+            ReportColumn column = COLUMNS[i];
+            Chunk chunk = chunks[i];
+            switch (column.type()) {
+                case STRING -> {
+                    String value = column.string(row);
+                    if (value == null) {
+                        chunk.varint(0);
+                    } else {
+                        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                        chunk.varint(bytes.length + 1L);
+                        chunk.bytes(bytes);
+                    }
+                }
+                case DOUBLE -> {
+                    double value = column.real(row);
+                    if (!Double.isNaN(value)) {
+                        chunk.present(rows);
+                        chunk.fixed(Double.doubleToRawLongBits(value));
+                    }
+                }
+                default -> {
+                    long value = column.number(row);
+                    if (value != ReportRow.NONE) {
+                        chunk.present(rows);
+                        long delta = value - chunk.previous;
+                        chunk.varint((delta << 1) ^ (delta >> 63));
+                        chunk.previous = value;
+                    }
+                }
+            }
+        }
+        rows++;
+        if (rows == rowGroupRows) {
+            flushRowGroup();
+        }
+    }
+
+    @Override
+    public long bytesWritten() {
+        return counting.count();
+    }
+
+    @Override
+    public String extension() {
+        return "rcol";
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rows > 0) {
+                flushRowGroup();
+            }
+            out.writeInt(0);
+            out.writeLong(totalRows);
+            out.close();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private void flushRowGroup() throws IOException {
+        out.writeInt(rows);
+        for (Chunk chunk : chunks) {
+            int presence = chunk.numeric ? (rows + 7) >>> 3 : 0;
+            int raw = presence + chunk.size;
+            deflater.reset();
+            deflater.setInput(chunk.presence, 0, presence);
+            int length = deflate(0, false);
+            deflater.setInput(chunk.data, 0, chunk.size);
+            length = deflate(length, true);
+            out.writeInt(raw);
+            out.writeInt(length);
+            out.write(deflated, 0, length);
+            chunk.reset(presence);
+        }
+        totalRows += rows;
+        rows = 0;
+    }
+
+    /** Deflate the pending input into {@link #deflated} from {@code offset}; returns the new length. */
+    private int deflate(int offset, boolean finish) {
+        if (finish) {
+            deflater.finish();
+        }
+        while (finish ? !deflater.finished() : !deflater.needsInput()) {
+            if (offset == deflated.length) {
+                deflated = Arrays.copyOf(deflated, deflated.length * 2);
+            }
+            offset += deflater.deflate(deflated, offset, deflated.length - offset);
+        }
+        return offset;
+    }
+
+    /** One column's values in the current row group. */
+    private static final class Chunk {
+
+        final boolean numeric;
+        final byte[] presence;
+        byte[] data = new byte[1 << 12];
+        int size;
+        long previous;
+
+        Chunk(boolean numeric, int rowGroupRows) {
+            this.numeric = numeric;
+            this.presence = new byte[numeric ? (rowGroupRows + 7) >>> 3 : 0];
+        }
+
+        void present(int row) {
+            presence[row >>> 3] |= (byte) (1 << (row & 7));
+        }
+
+        void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+
+        void fixed(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                data[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void bytes(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+
+        /** Start the next row group; deltas restart so each group decodes alone. */
+        void reset(int presenceBytes) {
+            Arrays.fill(presence, 0, presenceBytes, (byte) 0);
+            size = 0;
+            previous = 0;
+        }
+
+        private void ensure(int bytes) {
+            if (size + bytes > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + bytes));
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.gracemann.recon.reportservice.format;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import com.gracemann.recon.reportservice.model.ReportColumn;
+import com.gracemann.recon.reportservice.model.ReportRow;
+
+/**
+ * RFC 4180 CSV with a header line: fields holding a comma, quote or line
+ * break are quoted, absent values are empty. Amounts are plain decimals
+ * (at least two places), times ISO-8601 instants.
+ */
+public class CsvReportWriter implements ReportWriter {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final CountingOutputStream counting;
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(256);
+
+    public CsvReportWriter(OutputStream out) throws IOException {
+        this.counting = new CountingOutputStream(out);
+        this.writer = new BufferedWriter(new OutputStreamWriter(counting, StandardCharsets.UTF_8), BUFFER_BYTES);
+        for (ReportColumn column : ReportColumn.all()) {
+            if (column.ordinal() > 0) {
+                line.append(',');
+            }
+            line.append(column.header());
+        }
+        writer.append(line).append("\r\n");
+    }
+
+    @Override
+    public void write(ReportRow row) throws IOException {
+        line.setLength(0);
+        for (ReportColumn column : ReportColumn.all()) {
+            if (column.ordinal() > 0) {
+                line.append(',');
+            }
+            switch (column.type()) {
+                case STRING -> quoted(column.string(row));
+                case AMOUNT -> amount(column.number(row));
+                case TIMESTAMP -> {
+                    long time = column.number(row);
+                    if (time != ReportRow.NONE) {
+                        line.append(Instant.ofEpochMilli(time));
+                    }
+                }
+                case LONG -> {
+                    long value = column.number(row);
+                    if (value != ReportRow.NONE) {
+                        line.append(value);
+                    }
+                }
+                case DOUBLE -> {
+                    double value = column.real(row);
+                    if (!Double.isNaN(value)) {
+                        line.append(value);
+                    }
+                }
+            }
+        }
+        writer.append(line).append("\r\n");
+    }
+
+    @Override
+    public long bytesWritten() {
+        return counting.count();
+    }
+
+    @Override
+    public String extension() {
+        return "csv";
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private void quoted(String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    /** Fixed-point amount as a decimal with two to four places. */
+    private void amount(long amount) {
+        if (amount == ReportRow.NONE) {
+            return;
+        }
+        if (amount < 0) {
+            line.append('-');
+        }
+        long abs = Math.abs(amount);
+        line.append(abs / 10_000).append('.');
+        int fraction = (int) (abs % 10_000);
+        int places = fraction % 100 != 0 ? (fraction % 10 != 0 ? 4 : 3) : 2;
+        for (int divisor = 1_000, i = 0; i < places; i++, divisor /= 10) {
+            line.append((char) ('0' + fraction / divisor % 10));
+        }
+    }
+}
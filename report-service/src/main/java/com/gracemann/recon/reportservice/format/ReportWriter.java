@@ -0,0 +1,22 @@
+package com.gracemann.recon.reportservice.format;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import com.gracemann.recon.reportservice.model.ReportRow;
+
+/**
+ * Writes report rows to a stream as they come, holding at most a bounded
+ * buffer of them. {@link #close} completes the output and closes the stream.
+ */
+public interface ReportWriter extends Closeable {
+
+    /** Append a row; the writer keeps nothing that refers to {@code row}. */
+    void write(ReportRow row) throws IOException;
+
+    /** Bytes handed to the stream so far, all of them once closed. */
+    long bytesWritten();
+
+    /** File extension of the format. */
+    String extension();
+}
@@ -0,0 +1,131 @@
+package com.gracemann.recon.reportservice.model;
+
+/**
+ * The columns of a report, in output order, with typed access to the
+ * {@link ReportRow} field each one holds.
+ */
+public enum ReportColumn {
+
+    KIND("kind", Type.STRING),
+    ID("id", Type.STRING),
+    MATCH_TYPE("matchType", Type.STRING),
+    STATUS("status", Type.STRING),
+    SCORE("score", Type.DOUBLE),
+    BANK_TXN_ID("bankTxnId", Type.STRING),
+    SCHEME_TXN_ID("schemeTxnId", Type.STRING),
+    CARD_NUMBER("cardNumber", Type.STRING),
+    AMOUNT("amount", Type.AMOUNT),
+    SCHEME_AMOUNT("schemeAmount", Type.AMOUNT),
+    CURRENCY("currency", Type.STRING),
+    TXN_TIMESTAMP("txnTimestamp", Type.TIMESTAMP),
+    EVENT_AT("eventAt", Type.TIMESTAMP),
+    OPEN_MILLIS("openMillis", Type.LONG),
+    SOURCE("source", Type.STRING),
+    MERCHANT_ID("merchantId", Type.STRING),
+    TERMINAL_ID("terminalId", Type.STRING);
+
+    /** How a column is stored: strings, 64-bit numbers or doubles. */
+    public enum Type {
+        STRING, LONG, AMOUNT, TIMESTAMP, DOUBLE;
+
+        /** Held in a {@code long} field. */
+        public boolean isLong() {
+            return this == LONG || this == AMOUNT || this == TIMESTAMP;
+        }
+    }
+
+    private static final ReportColumn[] VALUES = values();
+
+    private final String header;
+    private final Type type;
+
+    ReportColumn(String header, Type type) {
+        this.header = header;
+        this.type = type;
+    }
+
+    /** All columns, without the copy {@link #values()} makes. */
+    public static ReportColumn[] all() {
+        return VALUES;
+    }
+
+    public String header() {
+        return header;
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    public String string(ReportRow row) {
+        return switch (this) {
+            case KIND -> row.kind == null ? null : row.kind.name();
+            case ID -> row.id;
+            case MATCH_TYPE -> row.matchType;
+            case STATUS -> row.status;
+            case BANK_TXN_ID -> row.bankTxnId;
+            case SCHEME_TXN_ID -> row.schemeTxnId;
+            case CARD_NUMBER -> row.cardNumber;
+            case CURRENCY -> row.currency;
+            case SOURCE -> row.source;
+            case MERCHANT_ID -> row.merchantId;
+            case TERMINAL_ID -> row.terminalId;
+            default -> throw new IllegalStateException(this + " is not a string column");
+        };
+    }
+
+    public void string(ReportRow row, String value) {
+        switch (this) {
+            case KIND -> row.kind = value == null ? null : ReportRow.Kind.valueOf(value);
+            case ID -> row.id = value;
+            case MATCH_TYPE -> row.matchType = value;
+            case STATUS -> row.status = value;
+            case BANK_TXN_ID -> row.bankTxnId = value;
+            case SCHEME_TXN_ID -> row.schemeTxnId = value;
+            case CARD_NUMBER -> row.cardNumber = value;
+            case CURRENCY -> row.currency = value;
+            case SOURCE -> row.source = value;
+            case MERCHANT_ID -> row.merchantId = value;
+            case TERMINAL_ID -> row.terminalId = value;
+            default -> throw new IllegalStateException(this + " is not a string column");
+        }
+    }
+
+    /** A {@code long} column's value, {@link ReportRow#NONE} if absent. */
+    public long number(ReportRow row) {
+        return switch (this) {
+            case AMOUNT -> row.amount;
+            case SCHEME_AMOUNT -> row.schemeAmount;
+            case TXN_TIMESTAMP -> row.txnTimestamp;
+            case EVENT_AT -> row.eventAt;
+            case OPEN_MILLIS -> row.openMillis;
+            default -> throw new IllegalStateException(this + " is not a long column");
+        };
+    }
+
+    public void number(ReportRow row, long value) {
+        switch (this) {
+            case AMOUNT -> row.amount = value;
+            case SCHEME_AMOUNT -> row.schemeAmount = value;
+            case TXN_TIMESTAMP -> row.txnTimestamp = value;
+            case EVENT_AT -> row.eventAt = value;
+            case OPEN_MILLIS -> row.openMillis = value;
+            default -> throw new IllegalStateException(this + " is not a long column");
+        }
+    }
+
+    /** A {@code double} column's value, {@code NaN} if absent. */
+    public double real(ReportRow row) {
+        if (this != SCORE) {
+            throw new IllegalStateException(this + " is not a double column");
+        }
+        return row.score;
+    }
+
+    public void real(ReportRow row, double value) {
+        if (this != SCORE) {
+            throw new IllegalStateException(this + " is not a double column");
+        }
+        row.score = value;
+    }
+}
@@ -0,0 +1,81 @@
+package com.gracemann.recon.reportservice.model;
+
+/**
+ * One line of a reconciliation report: a matched pair or an exception
+ * candidate, flattened.
+ *
+ * <p>
+ * A row is mutable and reused: a {@code RowCursor} fills the same instance
+ * for every record and writers copy what they need before the next one, so a
+ * report of any length allocates no per-row objects beyond the parsed
+ * strings. Absent numbers are {@link #NONE} (or {@code NaN} for the score),
+ * absent strings {@code null}. Amounts are fixed-point with
+ * {@value #AMOUNT_SCALE} decimals, times in epoch milliseconds (transaction
+ * timestamps taken as UTC, as the match engine does).
+ * </p>
+ */
+public final class ReportRow {
+
+    /** Value of an absent number. */
+    public static final long NONE = Long.MIN_VALUE;
+    public static final int AMOUNT_SCALE = 4;
+
+    public enum Kind {
+        MATCHED, EXCEPTION
+    }
+
+    public Kind kind;
+    /** matchId (bankTxnId|schemeTxnId) or exceptionId (txnId|sourceType). */
+    public String id;
+    /** EXACT or FUZZY, matched rows only. */
+    public String matchType;
+    /** EXPIRED, RESOLVED or SUPERSEDED, exception rows only. */
+    public String status;
+    public double score;
+    public String bankTxnId;
+    public String schemeTxnId;
+    public String cardNumber;
+    public long amount;
+    /** Scheme leg's amount, matched rows only. */
+    public long schemeAmount;
+    public String currency;
+    public long txnTimestamp;
+    /** When the pair matched or the exception expired (or was resolved). */
+    public long eventAt;
+    public long openMillis;
+    /** BANK_SWITCH or SCHEME_FILE: the exception leg's source. */
+    public String source;
+    public String merchantId;
+    public String terminalId;
+    /** Bank leg's channel (POS, ATM, ECOM...); not a report column. */
+    public String channel;
+    /** Scheme leg's scheme (Visa, RuPay...); not a report column. */
+    public String schemeName;
+
+    public ReportRow() {
+        clear();
+    }
+
+    /** Reset every field to absent. */
+    public void clear() {
+        kind = null;
+        id = null;
+        matchType = null;
+        status = null;
+        score = Double.NaN;
+        bankTxnId = null;
+        schemeTxnId = null;
+        cardNumber = null;
+        amount = NONE;
+        schemeAmount = NONE;
+        currency = null;
+        txnTimestamp = NONE;
+        eventAt = NONE;
+        openMillis = NONE;
+        source = null;
+        merchantId = null;
+        terminalId = null;
+        channel = null;
+        schemeName = null;
+    }
+}
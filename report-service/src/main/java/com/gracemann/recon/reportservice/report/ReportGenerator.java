@@ -0,0 +1,199 @@
+package com.gracemann.recon.reportservice.report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gracemann.recon.reportservice.cache.ReportCache;
+import com.gracemann.recon.reportservice.cursor.JsonLinesCursor;
+import com.gracemann.recon.reportservice.cursor.RecordParser;
+import com.gracemann.recon.reportservice.cursor.RowCursor;
+import com.gracemann.recon.reportservice.cursor.TopicCursor;
+import com.gracemann.recon.reportservice.format.ColumnarReportWriter;
+import com.gracemann.recon.reportservice.format.CsvReportWriter;
+import com.gracemann.recon.reportservice.format.ReportWriter;
+import com.gracemann.recon.reportservice.model.ReportRow;
+import com.gracemann.recon.reportservice.model.ReportRow.Kind;
+import com.gracemann.recon.reportservice.storage.MultipartOutputStream;
+import com.gracemann.recon.reportservice.storage.ReportUploader;
+
+/**
+ * Builds reconciliation reports in one streaming pass: rows come off a
+ * {@link RowCursor} into a single reused {@link ReportRow} and go straight to
+ * a CSV and a columnar writer, so heap use is the same for ten rows or ten
+ * million.
+ *
+ * <p>
+ * Both files are written under temporary names in {@code recon.report.dir}
+ * and moved into place once complete, so a reader never sees half a report,
+ * then handed to the {@link ReportCache} that serves downloads. While they
+ * are written, both are also uploaded to the report storage in parts (see
+ * {@link ReportUploader}), so a report is stored moments after its last row
+ * rather than after a second full pass. Rows per second and bytes per second
+ * are logged and returned for every report.
+ * </p>
+ */
+@Service
+public class ReportGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportGenerator.class);
+
+    private final ConsumerFactory<String, String> consumerFactory;
+    private final ObjectMapper objectMapper;
+    private final ReportCache cache;
+    private final ReportUploader uploader;
+    private final Path dir;
+    private final String matchedTopic;
+    private final String exceptionTopic;
+    private final ZoneId zone;
+    private final int rowGroupRows;
+
+    public ReportGenerator(ConsumerFactory<String, String> consumerFactory, ObjectMapper objectMapper,
+            ReportCache cache, ReportUploader uploader, @Value("${recon.report.dir:data/reports}") String dir,
+            @Value("${recon.report.matched-topic:matched-txn-topic}") String matchedTopic,
+            @Value("${recon.report.exception-topic:exception-candidate-topic}") String exceptionTopic,
+            @Value("${recon.report.zone:UTC}") String zone,
+            @Value("${recon.report.columnar.row-group-rows:65536}") int rowGroupRows) {
+        this.consumerFactory = consumerFactory;
+        this.objectMapper = objectMapper;
+        this.cache = cache;
+        this.uploader = uploader;
+        this.dir = Paths.get(dir);
+        this.matchedTopic = matchedTopic;
+        this.exceptionTopic = exceptionTopic;
+        this.zone = ZoneId.of(zone);
+        this.rowGroupRows = rowGroupRows;
+    }
+
+    /**
+     * Report of everything the match engine published during {@code day}
+     * (in {@code recon.report.zone}): its matched pairs, then its exception
+     * candidates and their deltas.
+     */
+    public ReportStats daily(LocalDate day) throws IOException {
+        RecordParser parser = new RecordParser(objectMapper.getFactory());
+        var from = day.atStartOfDay(zone).toInstant();
+        var to = day.plusDays(1).atStartOfDay(zone).toInstant();
+        TopicCursor matched = new TopicCursor(consumerFactory, matchedTopic, Kind.MATCHED, from, to, parser);
+        TopicCursor exceptions;
+        try {
+            exceptions = new TopicCursor(consumerFactory, exceptionTopic, Kind.EXCEPTION, from, to, parser);
+        } catch (RuntimeException e) {
+            matched.close();
+            throw e;
+        }
+        return generate("recon-" + day, RowCursor.concat(List.of(matched, exceptions)));
+    }
+
+    /**
+     * Report from JSON-lines exports of the two topics.
+     */
+    public ReportStats fromFiles(String name, Path matchedFile, Path exceptionFile) throws IOException {
+        RecordParser parser = new RecordParser(objectMapper.getFactory());
+        JsonLinesCursor matched = new JsonLinesCursor(matchedFile, Kind.MATCHED, parser);
+        JsonLinesCursor exceptions;
+        try {
+            exceptions = new JsonLinesCursor(exceptionFile, Kind.EXCEPTION, parser);
+        } catch (IOException e) {
+            matched.close();
+            throw e;
+        }
+        return generate(name, RowCursor.concat(List.of(matched, exceptions)));
+    }
+
+    /**
+     * Drain {@code cursor} into {@code <name>.csv} and {@code <name>.rcol},
+     * replacing any earlier report of that name. The cursor is closed.
+     */
+    public ReportStats generate(String name, RowCursor cursor) throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(dir);
+        Path csvTemp = dir.resolve(name + ".csv.tmp");
+        Path columnarTemp = dir.resolve(name + ".rcol.tmp");
+        long matched = 0;
+        long exceptions = 0;
+        ReportWriter csv = null;
+        ReportWriter columnar = null;
+        MultipartOutputStream csvUpload = null;
+        MultipartOutputStream columnarUpload = null;
+        try (cursor;
+                OutputStream csvFileOut = Files.newOutputStream(csvTemp);
+                OutputStream columnarFileOut = Files.newOutputStream(columnarTemp)) {
+            OutputStream csvOut = csvFileOut;
+            OutputStream columnarOut = columnarFileOut;
+            if (uploader.isEnabled()) {
+                // parts upload while the rest of the report is still being written
+                csvUpload = uploader.open(name + ".csv", "text/csv");
+                columnarUpload = uploader.open(name + ".rcol", "application/octet-stream");
+                csvOut = new TeeOutputStream(csvFileOut, csvUpload);
+                columnarOut = new TeeOutputStream(columnarFileOut, columnarUpload);
+            }
+            csv = new CsvReportWriter(csvOut);
+            columnar = new ColumnarReportWriter(columnarOut, rowGroupRows);
+            ReportRow row = new ReportRow();
+            while (cursor.next(row)) {
+                csv.write(row);
+                columnar.write(row);
+                if (row.kind == Kind.MATCHED) {
+                    matched++;
+                } else {
+                    exceptions++;
+                }
+            }
+            // completes the uploads too
+            csv.close();
+            columnar.close();
+        } catch (IOException | RuntimeException e) {
+            abort(csvUpload, e);
+            abort(columnarUpload, e);
+            Files.deleteIfExists(csvTemp);
+            Files.deleteIfExists(columnarTemp);
+            throw e;
+        }
+        Path csvFile = dir.resolve(name + "." + csv.extension());
+        Path columnarFile = dir.resolve(name + "." + columnar.extension());
+        Files.move(csvTemp, csvFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(columnarTemp, columnarFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        cache.put(csvFile);
+        cache.put(columnarFile);
+
+        ReportStats stats = ReportStats.of(name, matched, exceptions, csv.bytesWritten(), columnar.bytesWritten(),
+                System.nanoTime() - start);
+        log.info("Report {}: {} rows ({} matched, {} exceptions) in {} ms, {} rows/s, {} MB/s; csv {} bytes, "
+                + "columnar {} bytes", name, stats.rows(), matched, exceptions, stats.elapsedMillis(),
+                Math.round(stats.rowsPerSecond()), String.format("%.1f", stats.bytesPerSecond() / 1e6),
+                stats.csvBytes(), stats.columnarBytes());
+        return stats;
+    }
+
+    /** Where reports are written. */
+    public Path dir() {
+        return dir;
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static void abort(MultipartOutputStream upload, Exception cause) {
+        if (upload == null) {
+            return;
+        }
+        try {
+            upload.abort();
+        } catch (IOException | RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.gracemann.recon.reportservice.report;
+
+/**
+ * Outcome of one report run.
+ *
+ * @param name           report name, the file name without extension
+ * @param rows           rows written to each format
+ * @param matched        matched-pair rows
+ * @param exceptions     exception-candidate rows
+ * @param csvBytes       size of the CSV file
+ * @param columnarBytes  size of the columnar file
+ * @param elapsedMillis  wall time from opening the source to the files being
+ *                       in place
+ * @param rowsPerSecond  rows read and written per second
+ * @param bytesPerSecond bytes written per second, both formats together
+ */
+public record ReportStats(String name, long rows, long matched, long exceptions, long csvBytes,
+        long columnarBytes, long elapsedMillis, double rowsPerSecond, double bytesPerSecond) {
+
+    static ReportStats of(String name, long matched, long exceptions, long csvBytes, long columnarBytes,
+            long elapsedNanos) {
+        long rows = matched + exceptions;
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        return new ReportStats(name, rows, matched, exceptions, csvBytes, columnarBytes, elapsedNanos / 1_000_000,
+                rows / seconds, (csvBytes + columnarBytes) / seconds);
+    }
+}
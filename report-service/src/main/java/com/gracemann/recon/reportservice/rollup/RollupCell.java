@@ -0,0 +1,46 @@
+package com.gracemann.recon.reportservice.rollup;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.gracemann.recon.reportservice.model.ReportRow;
+
+/**
+ * Matched and unmatched counts and amount sums for one rollup key and day.
+ *
+ * <p>
+ * Every figure is a {@link LongAdder}, so listener threads add to a hot cell
+ * without contending on a lock or a single CAS word. Amounts are kept per
+ * currency, fixed-point with {@link ReportRow#AMOUNT_SCALE} decimals; a
+ * sum across currencies would mean nothing. "Unmatched" is the net of
+ * exception candidates: +1 when a leg expires, −1 when it is later resolved
+ * or superseded.
+ * </p>
+ */
+public final class RollupCell {
+
+    final LongAdder matched = new LongAdder();
+    final LongAdder unmatched = new LongAdder();
+    final Map<String, LongAdder> matchedAmounts = new ConcurrentHashMap<>(2);
+    final Map<String, LongAdder> unmatchedAmounts = new ConcurrentHashMap<>(2);
+
+    void addMatched(long count, String currency, long amount) {
+        matched.add(count);
+        add(matchedAmounts, currency, amount);
+    }
+
+    void addUnmatched(long count, String currency, long amount) {
+        unmatched.add(count);
+        add(unmatchedAmounts, currency, amount);
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static void add(Map<String, LongAdder> amounts, String currency, long amount) {
+        if (amount == ReportRow.NONE || amount == 0) {
+            return;
+        }
+        amounts.computeIfAbsent(RollupKey.value(currency), c -> new LongAdder()).add(amount);
+    }
+}
@@ -0,0 +1,82 @@
+package com.gracemann.recon.reportservice.rollup;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gracemann.recon.reportservice.cursor.RecordParser;
+import com.gracemann.recon.reportservice.model.ReportRow;
+import com.gracemann.recon.reportservice.model.ReportRow.Kind;
+
+/**
+ * Feeds the match engine's matched pairs and exception candidate deltas into
+ * the {@link Rollups}.
+ *
+ * <p>
+ * On assignment each partition is positioned just after the last offset the
+ * rollup snapshot holds, or at its beginning if the snapshot has never seen
+ * it, so the counts and the consumer position always agree after a restart.
+ * The group's committed offsets are not used.
+ * </p>
+ */
+@Component
+public class RollupConsumer implements ConsumerSeekAware {
+
+    private static final Logger log = LoggerFactory.getLogger(RollupConsumer.class);
+
+    private final Rollups rollups;
+    private final RecordParser parser;
+    private final String matchedTopic;
+    private final ThreadLocal<ReportRow> rows = ThreadLocal.withInitial(ReportRow::new);
+
+    public RollupConsumer(Rollups rollups, ObjectMapper objectMapper,
+            @Value("${recon.report.matched-topic:matched-txn-topic}") String matchedTopic) {
+        this.rollups = rollups;
+        this.parser = new RecordParser(objectMapper.getFactory());
+        this.matchedTopic = matchedTopic;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        for (TopicPartition partition : assignments.keySet()) {
+            long last = rollups.lastOffset(partition);
+            if (last >= 0) {
+                log.info("Resuming rollups of {} at offset {}", partition, last + 1);
+                callback.seek(partition.topic(), partition.partition(), last + 1);
+            } else {
+                callback.seekToBeginning(partition.topic(), partition.partition());
+            }
+        }
+    }
+
+    @KafkaListener(
+        topics = { "${recon.report.matched-topic:matched-txn-topic}",
+                "${recon.report.exception-topic:exception-candidate-topic}" },
+        groupId = "recon-report-rollup",
+        containerFactory = "rollupKafkaListenerContainerFactory"
+    )
+    public void consume(ConsumerRecord<String, String> record) {
+        if (record.value() == null) {
+            return;
+        }
+        Kind kind = matchedTopic.equals(record.topic()) ? Kind.MATCHED : Kind.EXCEPTION;
+        ReportRow row = rows.get();
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        try {
+            parser.parse(kind, record.value(), row);
+            rollups.apply(row, partition, record.offset());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Skipping unreadable {} record at {}@{}: {}", kind, partition, record.offset(),
+                    e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.gracemann.recon.reportservice.rollup;
+
+/**
+ * A rollup cell's dimensions within one day. Each is a value, {@link #NONE}
+ * when the leg did not carry it, or {@link #ANY} in a cell that totals every
+ * value of that dimension.
+ */
+public record RollupKey(String schemeName, String merchantId, String channel) {
+
+    /** Wildcard: the cell sums over every value of this dimension. */
+    public static final String ANY = "*";
+    /** The leg did not carry this dimension. */
+    public static final String NONE = "-";
+
+    /** A dimension value as keyed: {@code null} and blank become {@link #NONE}. */
+    static String value(String value) {
+        return value == null || value.isBlank() ? NONE : value;
+    }
+
+    /** Whether every dimension is a value rather than {@link #ANY}. */
+    boolean isBase() {
+        return !ANY.equals(schemeName) && !ANY.equals(merchantId) && !ANY.equals(channel);
+    }
+}
@@ -0,0 +1,160 @@
+package com.gracemann.recon.reportservice.rollup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * The rollups' base cells and the topic offsets they include:
+ *
+ * <pre>
+ *   int     magic 'RRLP', int version (1)
+ *   int     partitions, then per partition: UTF topic, int partition, long offset
+ *   int     cells, then per cell: long epoch day, UTF schemeName, UTF merchantId,
+ *           UTF channel, long matched, long unmatched,
+ *           matched amounts and unmatched amounts, each
+ *           int currencies, then per currency: UTF currency, long amount
+ *   long    CRC-32 of everything above
+ * </pre>
+ *
+ * <p>
+ * Only cells keyed on three values are stored; the wildcard totals are
+ * rebuilt from them on load. The file is written under a temporary name,
+ * forced and atomically renamed, so {@code rollups.snap} is always complete.
+ * </p>
+ */
+final class RollupSnapshot {
+
+    private static final int MAGIC = 0x52524C50;
+    private static final int VERSION = 1;
+    private static final String FILE = "rollups.snap";
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private RollupSnapshot() {
+    }
+
+    /** One base cell, copied out of the live rollups. */
+    record Cell(long day, RollupKey key, long matched, long unmatched, Map<String, Long> matchedAmounts,
+            Map<String, Long> unmatchedAmounts) {
+    }
+
+    /** What a snapshot holds. */
+    record Contents(Map<TopicPartition, Long> offsets, List<Cell> cells) {
+    }
+
+    static Path path(Path dir) {
+        return dir.resolve(FILE);
+    }
+
+    static void write(Path dir, Contents contents) throws IOException {
+        Files.createDirectories(dir);
+        Path target = path(dir);
+        Path temp = target.resolveSibling(FILE + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            BufferedOutputStream buffered = new BufferedOutputStream(file, BUFFER_BYTES);
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(buffered, crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(contents.offsets().size());
+            for (Map.Entry<TopicPartition, Long> offset : contents.offsets().entrySet()) {
+                out.writeUTF(offset.getKey().topic());
+                out.writeInt(offset.getKey().partition());
+                out.writeLong(offset.getValue());
+            }
+            out.writeInt(contents.cells().size());
+            for (Cell cell : contents.cells()) {
+                out.writeLong(cell.day());
+                out.writeUTF(cell.key().schemeName());
+                out.writeUTF(cell.key().merchantId());
+                out.writeUTF(cell.key().channel());
+                out.writeLong(cell.matched());
+                out.writeLong(cell.unmatched());
+                writeAmounts(out, cell.matchedAmounts());
+                writeAmounts(out, cell.unmatchedAmounts());
+            }
+            out.flush();
+            new DataOutputStream(buffered).writeLong(crc.getValue());
+            buffered.flush();
+            file.getFD().sync();
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return the snapshot in {@code dir}, or {@code null} if there is none
+     * @throws IOException if it is unreadable, of another version or fails its
+     *                     checksum
+     */
+    static Contents read(Path dir) throws IOException {
+        Path snapshot = path(dir);
+        if (!Files.exists(snapshot)) {
+            return null;
+        }
+        try (InputStream file = Files.newInputStream(snapshot)) {
+            CRC32 crc = new CRC32();
+            DataInputStream in = new DataInputStream(
+                    new CheckedInputStream(new BufferedInputStream(file, BUFFER_BYTES), crc));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException(snapshot + " is not a version " + VERSION + " rollup snapshot");
+            }
+            int partitions = in.readInt();
+            Map<TopicPartition, Long> offsets = new HashMap<>();
+            for (int i = 0; i < partitions; i++) {
+                offsets.put(new TopicPartition(in.readUTF(), in.readInt()), in.readLong());
+            }
+            int count = in.readInt();
+            List<Cell> cells = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long day = in.readLong();
+                RollupKey key = new RollupKey(in.readUTF(), in.readUTF(), in.readUTF());
+                cells.add(new Cell(day, key, in.readLong(), in.readLong(), readAmounts(in), readAmounts(in)));
+            }
+            // taken before the checksum itself passes through the stream
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException(snapshot + " fails its checksum");
+            }
+            return new Contents(offsets, cells);
+        }
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static void writeAmounts(DataOutputStream out, Map<String, Long> amounts) throws IOException {
+        out.writeInt(amounts.size());
+        for (Map.Entry<String, Long> amount : amounts.entrySet()) {
+            out.writeUTF(amount.getKey());
+            out.writeLong(amount.getValue());
+        }
+    }
+
+    private static Map<String, Long> readAmounts(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Map<String, Long> amounts = new LinkedHashMap<>(Math.max(count * 2, 2));
+        for (int i = 0; i < count; i++) {
+            amounts.put(in.readUTF(), in.readLong());
+        }
+        return amounts;
+    }
+}
@@ -0,0 +1,43 @@
+package com.gracemann.recon.reportservice.rollup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.gracemann.recon.reportservice.model.ReportRow;
+
+/**
+ * Matched vs unmatched for one day and key, as the summary endpoints return
+ * it. Dimensions are a value, {@code "-"} (not carried) or {@code "*"} (all).
+ *
+ * @param matchedAmounts   matched amount by currency
+ * @param unmatchedAmounts open exception amount by currency
+ */
+public record RollupSummary(LocalDate day, String schemeName, String merchantId, String channel, long matched,
+        long unmatched, Map<String, BigDecimal> matchedAmounts, Map<String, BigDecimal> unmatchedAmounts) {
+
+    static RollupSummary of(LocalDate day, RollupKey key, RollupCell cell) {
+        if (cell == null) {
+            return new RollupSummary(day, key.schemeName(), key.merchantId(), key.channel(), 0, 0, Map.of(),
+                    Map.of());
+        }
+        return new RollupSummary(day, key.schemeName(), key.merchantId(), key.channel(), cell.matched.sum(),
+                cell.unmatched.sum(), amounts(cell.matchedAmounts), amounts(cell.unmatchedAmounts));
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static Map<String, BigDecimal> amounts(Map<String, LongAdder> amounts) {
+        Map<String, BigDecimal> result = new TreeMap<>();
+        amounts.forEach((currency, sum) -> {
+            long value = sum.sum();
+            if (value != 0) {
+                BigDecimal amount = BigDecimal.valueOf(value, ReportRow.AMOUNT_SCALE).stripTrailingZeros();
+                result.put(currency, amount.scale() < 2 ? amount.setScale(2) : amount);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,291 @@
+package com.gracemann.recon.reportservice.rollup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.gracemann.recon.reportservice.model.ReportRow;
+import com.gracemann.recon.reportservice.model.ReportRow.Kind;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pre-aggregated matched vs unmatched counts and amounts by scheme, merchant,
+ * channel and day, updated as the match engine's output arrives.
+ *
+ * <p>
+ * Every event is added to the full cube of its key: the cell with all three
+ * dimensions and the seven cells where some are {@link RollupKey#ANY}. A
+ * summary for any combination of dimensions is therefore one hash lookup,
+ * and a breakdown of a day by one dimension reads only that day's cells. The
+ * figures are {@link LongAdder}s, so updates never block each other or the
+ * readers.
+ * </p>
+ *
+ * <p>
+ * Every {@code snapshot-interval-ms} the base cells and the offset of the
+ * last event applied per topic partition are written to
+ * {@code recon.report.rollup.dir}; on restart the rollups load them and the
+ * consumer resumes just after those offsets, so nothing is recounted or
+ * counted twice. Taking a snapshot briefly excludes updates (not reads) to
+ * copy the cells. Days older than {@code retention-days} are dropped, and
+ * late events for them ignored.
+ * </p>
+ */
+@Component
+public class Rollups {
+
+    private static final Logger log = LoggerFactory.getLogger(Rollups.class);
+
+    private final Path dir;
+    private final ZoneId zone;
+    private final int retentionDays;
+    /** Cells by epoch day, then key. */
+    private final Map<Long, Map<RollupKey, RollupCell>> days = new ConcurrentHashMap<>();
+    /** Offset of the last event applied, per topic partition. */
+    private final Map<TopicPartition, Long> offsets = new ConcurrentHashMap<>();
+    /** Shared by updates, exclusive for a snapshot's copy. */
+    private final ReentrantReadWriteLock updates = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService scheduler;
+
+    public Rollups(@Value("${recon.report.rollup.dir:data/rollups}") String dir,
+            @Value("${recon.report.zone:UTC}") String zone,
+            @Value("${recon.report.rollup.retention-days:400}") int retentionDays,
+            @Value("${recon.report.rollup.snapshot-interval-ms:60000}") long snapshotIntervalMs) {
+        this.dir = Paths.get(dir);
+        this.zone = ZoneId.of(zone);
+        this.retentionDays = retentionDays;
+        load();
+        if (snapshotIntervalMs > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "report-rollup-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::snapshotSafely, snapshotIntervalMs, snapshotIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * Add one matched pair or exception candidate delta, read from
+     * {@code partition} at {@code offset}.
+     */
+    public void apply(ReportRow row, TopicPartition partition, long offset) {
+        updates.readLock().lock();
+        try {
+            long time = row.txnTimestamp != ReportRow.NONE ? row.txnTimestamp : row.eventAt;
+            if (time != ReportRow.NONE) {
+                long day = Instant.ofEpochMilli(time).atZone(zone).toLocalDate().toEpochDay();
+                if (day >= oldestDay()) {
+                    add(day, row);
+                }
+            }
+            offsets.merge(partition, offset, Math::max);
+        } finally {
+            updates.readLock().unlock();
+        }
+    }
+
+    /**
+     * Offset of the last event the rollups hold from {@code partition}, or -1
+     * if they hold none.
+     */
+    public long lastOffset(TopicPartition partition) {
+        return offsets.getOrDefault(partition, -1L);
+    }
+
+    /**
+     * Totals for one day, with {@code null} dimensions meaning all values.
+     */
+    public RollupSummary summary(LocalDate day, String schemeName, String merchantId, String channel) {
+        RollupKey key = new RollupKey(dimension(schemeName), dimension(merchantId), dimension(channel));
+        Map<RollupKey, RollupCell> cells = days.get(day.toEpochDay());
+        return RollupSummary.of(day, key, cells == null ? null : cells.get(key));
+    }
+
+    /**
+     * One day's totals for each value of {@code by}, over all values of the
+     * other dimensions.
+     */
+    public List<RollupSummary> breakdown(LocalDate day, Dimension by) {
+        Map<RollupKey, RollupCell> cells = days.get(day.toEpochDay());
+        if (cells == null) {
+            return List.of();
+        }
+        List<RollupSummary> result = new ArrayList<>();
+        cells.forEach((key, cell) -> {
+            if (by.isBreakdown(key)) {
+                result.add(RollupSummary.of(day, key, cell));
+            }
+        });
+        result.sort((a, b) -> by.value(a).compareTo(by.value(b)));
+        return result;
+    }
+
+    /**
+     * Write a snapshot now and drop the days past retention.
+     *
+     * @throws IOException if the snapshot cannot be written; the previous one
+     *                     stays in place
+     */
+    public void snapshot() throws IOException {
+        RollupSnapshot.Contents contents;
+        updates.writeLock().lock();
+        try {
+            days.keySet().removeIf(day -> day < oldestDay());
+            List<RollupSnapshot.Cell> cells = new ArrayList<>();
+            days.forEach((day, keys) -> keys.forEach((key, cell) -> {
+                if (key.isBase()) {
+                    cells.add(new RollupSnapshot.Cell(day, key, cell.matched.sum(), cell.unmatched.sum(),
+                            sums(cell.matchedAmounts), sums(cell.unmatchedAmounts)));
+                }
+            }));
+            contents = new RollupSnapshot.Contents(new HashMap<>(offsets), cells);
+        } finally {
+            updates.writeLock().unlock();
+        }
+        long start = System.nanoTime();
+        RollupSnapshot.write(dir, contents);
+        log.debug("Rollup snapshot: {} cells, {} partitions in {} ms", contents.cells().size(),
+                contents.offsets().size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            snapshotSafely();
+        }
+    }
+
+    /** A dimension to break a day down by. */
+    public enum Dimension {
+        SCHEME, MERCHANT, CHANNEL;
+
+        /** Whether {@code key} holds a value of this dimension and all of the others. */
+        boolean isBreakdown(RollupKey key) {
+            boolean scheme = !RollupKey.ANY.equals(key.schemeName());
+            boolean merchant = !RollupKey.ANY.equals(key.merchantId());
+            boolean channel = !RollupKey.ANY.equals(key.channel());
+            return switch (this) {
+                case SCHEME -> scheme && !merchant && !channel;
+                case MERCHANT -> !scheme && merchant && !channel;
+                case CHANNEL -> !scheme && !merchant && channel;
+            };
+        }
+
+        String value(RollupSummary summary) {
+            return switch (this) {
+                case SCHEME -> summary.schemeName();
+                case MERCHANT -> summary.merchantId();
+                case CHANNEL -> summary.channel();
+            };
+        }
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private void add(long day, ReportRow row) {
+        long count;
+        boolean matched = row.kind == Kind.MATCHED;
+        if (matched || "EXPIRED".equals(row.status)) {
+            count = 1;
+        } else if ("RESOLVED".equals(row.status) || "SUPERSEDED".equals(row.status)) {
+            count = -1;
+        } else {
+            return;
+        }
+        long amount = row.amount == ReportRow.NONE ? ReportRow.NONE : count * row.amount;
+        Map<RollupKey, RollupCell> cells = days.computeIfAbsent(day, d -> new ConcurrentHashMap<>());
+        for (RollupKey key : cube(new RollupKey(RollupKey.value(row.schemeName), RollupKey.value(row.merchantId),
+                RollupKey.value(row.channel)))) {
+            RollupCell cell = cells.computeIfAbsent(key, k -> new RollupCell());
+            if (matched) {
+                cell.addMatched(count, row.currency, amount);
+            } else {
+                cell.addUnmatched(count, row.currency, amount);
+            }
+        }
+    }
+
+    private void load() {
+        RollupSnapshot.Contents contents;
+        try {
+            contents = RollupSnapshot.read(dir);
+        } catch (IOException e) {
+            log.warn("Rollup snapshot unusable, recounting from the start of the topics: {}", e.getMessage());
+            return;
+        }
+        if (contents == null) {
+            return;
+        }
+        for (RollupSnapshot.Cell cell : contents.cells()) {
+            Map<RollupKey, RollupCell> cells = days.computeIfAbsent(cell.day(), d -> new ConcurrentHashMap<>());
+            for (RollupKey key : cube(cell.key())) {
+                RollupCell target = cells.computeIfAbsent(key, k -> new RollupCell());
+                target.addMatched(cell.matched(), null, ReportRow.NONE);
+                target.addUnmatched(cell.unmatched(), null, ReportRow.NONE);
+                cell.matchedAmounts().forEach((currency, amount) -> target.addMatched(0, currency, amount));
+                cell.unmatchedAmounts().forEach((currency, amount) -> target.addUnmatched(0, currency, amount));
+            }
+        }
+        offsets.putAll(contents.offsets());
+        log.info("Loaded rollups: {} cells over {} days, {} partitions", contents.cells().size(), days.size(),
+                offsets.size());
+    }
+
+    private void snapshotSafely() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Rollup snapshot failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /** A base key and its seven wildcard totals. */
+    private static RollupKey[] cube(RollupKey base) {
+        RollupKey[] keys = new RollupKey[8];
+        for (int mask = 0; mask < keys.length; mask++) {
+            keys[mask] = new RollupKey((mask & 1) == 0 ? base.schemeName() : RollupKey.ANY,
+                    (mask & 2) == 0 ? base.merchantId() : RollupKey.ANY,
+                    (mask & 4) == 0 ? base.channel() : RollupKey.ANY);
+        }
+        return keys;
+    }
+
+    private long oldestDay() {
+        return LocalDate.now(zone).toEpochDay() - retentionDays;
+    }
+
+    private static String dimension(String value) {
+        return value == null ? RollupKey.ANY : RollupKey.value(value);
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> amounts) {
+        Map<String, Long> result = new HashMap<>(Math.max(amounts.size() * 2, 2));
+        amounts.forEach((currency, sum) -> result.put(currency, sum.sum()));
+        return result;
+    }
+}
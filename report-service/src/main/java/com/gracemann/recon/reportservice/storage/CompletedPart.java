@@ -0,0 +1,9 @@
+package com.gracemann.recon.reportservice.storage;
+
+/**
+ * An uploaded part, as {@link MultipartUpload#complete} expects it back.
+ *
+ * @param etag the store's tag for the part's content
+ */
+public record CompletedPart(int number, String etag, long size) {
+}
@@ -0,0 +1,202 @@
+package com.gracemann.recon.reportservice.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * {@link ReportStorage} on a local directory, with the same multipart rules
+ * as S3, so everything above the SPI behaves alike with no external service.
+ *
+ * <p>
+ * An upload's parts are files under {@code .uploads/<upload id>/}, tagged
+ * with the hex MD5 of their content as S3 does. Completing checks the parts
+ * (ascending numbers, matching tags, every part but the last at least
+ * {@code minPartBytes}), concatenates them with
+ * {@link FileChannel#transferTo} into a temporary file and renames it over
+ * the key atomically. Keys are relative paths of {@code [A-Za-z0-9._-]}
+ * segments.
+ * </p>
+ */
+public class LocalFileStorage implements ReportStorage {
+
+    private static final Pattern KEY = Pattern
+            .compile("[A-Za-z0-9_-][A-Za-z0-9._-]*(/[A-Za-z0-9_-][A-Za-z0-9._-]*)*");
+    private static final Pattern ETAG = Pattern.compile("[0-9a-f]{32}");
+    private static final String UPLOADS = ".uploads";
+
+    private final Path root;
+    private final int minPartBytes;
+
+    public LocalFileStorage(Path root) {
+        this(root, MIN_PART_BYTES);
+    }
+
+    /** With a smaller minimum part size than S3's, for tests. */
+    public LocalFileStorage(Path root, int minPartBytes) {
+        this.root = root;
+        this.minPartBytes = minPartBytes;
+    }
+
+    @Override
+    public MultipartUpload start(String key, String contentType) throws IOException {
+        Path target = path(key);
+        Path parts = root.resolve(UPLOADS).resolve(UUID.randomUUID().toString());
+        Files.createDirectories(parts);
+        return new Upload(key, target, parts);
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(path(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(path(key));
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private Path path(String key) throws IOException {
+        if (!KEY.matcher(key).matches()) {
+            throw new IOException("Invalid key " + key);
+        }
+        return root.resolve(key);
+    }
+
+    private static String partPrefix(int number) {
+        return String.format("part-%05d-", number);
+    }
+
+    private static String partName(int number, String etag) {
+        return partPrefix(number) + etag;
+    }
+
+    private static String md5(ByteBuffer data) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            digest.update(data);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is a required algorithm", e);
+        }
+    }
+
+    private final class Upload implements MultipartUpload {
+
+        private final String key;
+        private final Path target;
+        private final Path parts;
+
+        Upload(String key, Path target, Path parts) {
+            this.key = key;
+            this.target = target;
+            this.parts = parts;
+        }
+
+        @Override
+        public String key() {
+            return key;
+        }
+
+        @Override
+        public CompletedPart putPart(int number, ByteBuffer data) throws IOException {
+            if (number < 1 || number > MAX_PARTS) {
+                throw new IOException("Part number " + number + " out of range");
+            }
+            if (!Files.isDirectory(parts)) {
+                throw new IOException("Upload of " + key + " is no longer in progress");
+            }
+            String etag = md5(data.duplicate());
+            long size = data.remaining();
+            Path temp = parts.resolve(UUID.randomUUID() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            }
+            // the tag is part of the name, so complete() can check it without reading the part
+            Path part = parts.resolve(partName(number, etag));
+            try (Stream<Path> earlier = Files.list(parts)) {
+                for (Path previous : earlier.filter(p -> p.getFileName().toString()
+                        .startsWith(partPrefix(number))).toList()) {
+                    Files.deleteIfExists(previous);
+                }
+            }
+            Files.move(temp, part, StandardCopyOption.ATOMIC_MOVE);
+            return new CompletedPart(number, etag, size);
+        }
+
+        @Override
+        public void complete(List<CompletedPart> completed) throws IOException {
+            if (completed.isEmpty()) {
+                throw new IOException("Upload of " + key + " has no parts");
+            }
+            Path[] files = new Path[completed.size()];
+            for (int i = 0; i < completed.size(); i++) {
+                CompletedPart part = completed.get(i);
+                if (i > 0 && part.number() <= completed.get(i - 1).number()) {
+                    throw new IOException("Parts of " + key + " are not in ascending order");
+                }
+                files[i] = ETAG.matcher(part.etag()).matches()
+                        ? parts.resolve(partName(part.number(), part.etag()))
+                        : null;
+                if (files[i] == null || !Files.exists(files[i])) {
+                    throw new NoSuchFileException(key, null,
+                            "part " + part.number() + " with tag " + part.etag() + " was not uploaded");
+                }
+                if (i < completed.size() - 1 && Files.size(files[i]) < minPartBytes) {
+                    throw new IOException("Part " + part.number() + " of " + key + " is smaller than "
+                            + minPartBytes + " bytes");
+                }
+            }
+            Files.createDirectories(target.getParent());
+            Path temp = target.resolveSibling(target.getFileName() + "." + parts.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                for (Path file : files) {
+                    try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                        long size = in.size();
+                        for (long position = 0; position < size;) {
+                            position += in.transferTo(position, size - position, out);
+                        }
+                    }
+                }
+                out.force(false);
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            abort();
+        }
+
+        @Override
+        public void abort() throws IOException {
+            if (!Files.isDirectory(parts)) {
+                return;
+            }
+            try (Stream<Path> files = Files.list(parts)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(parts);
+        }
+    }
+}
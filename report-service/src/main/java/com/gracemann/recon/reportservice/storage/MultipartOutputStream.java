@@ -0,0 +1,213 @@
+package com.gracemann.recon.reportservice.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes an object to a {@link MultipartUpload} as it is produced: each
+ * {@code partBytes} of output becomes a part uploaded on the executor while
+ * the writer fills the next one, so the upload runs alongside generation
+ * rather than after it.
+ *
+ * <p>
+ * At most {@code parallelism} parts are in flight and {@code parallelism + 1}
+ * part buffers exist; a writer that gets ahead of the uploads blocks for a
+ * free buffer, so memory stays bounded however large the object. Closing
+ * uploads the last part, waits for the rest and completes the upload; if any
+ * part failed, or {@link #abort} is called, the upload is aborted and the
+ * object never appears. Not thread-safe (one writer), closing is idempotent.
+ * </p>
+ */
+public final class MultipartOutputStream extends OutputStream {
+
+    private final MultipartUpload upload;
+    private final int partBytes;
+    private final int maxBuffers;
+    private final Executor executor;
+    private final BlockingQueue<byte[]> free;
+    private final List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private byte[] buffer;
+    private int length;
+    private int buffers;
+    private long bytes;
+    private boolean closed;
+
+    public MultipartOutputStream(MultipartUpload upload, int partBytes, int parallelism, Executor executor) {
+        this.upload = upload;
+        this.partBytes = partBytes;
+        this.maxBuffers = parallelism + 1;
+        this.executor = executor;
+        this.free = new ArrayBlockingQueue<>(maxBuffers);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureBuffer();
+        buffer[length++] = (byte) b;
+        bytes++;
+        if (length == partBytes) {
+            submit();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            ensureBuffer();
+            int n = Math.min(len, partBytes - length);
+            System.arraycopy(b, off, buffer, length, n);
+            length += n;
+            bytes += n;
+            off += n;
+            len -= n;
+            if (length == partBytes) {
+                submit();
+            }
+        }
+    }
+
+    /** Bytes written so far. */
+    public long bytesWritten() {
+        return bytes;
+    }
+
+    /** Parts submitted so far. */
+    public int parts() {
+        return parts.size();
+    }
+
+    /**
+     * Upload what is left, wait for every part and complete the upload.
+     *
+     * @throws IOException if a part or the completion failed; the upload is
+     *                     then aborted
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (length > 0 || parts.isEmpty()) {
+                // an empty object is one empty part
+                ensureBuffer();
+                submit();
+            }
+            List<CompletedPart> completed = new ArrayList<>(parts.size());
+            for (CompletableFuture<CompletedPart> part : parts) {
+                completed.add(part.get());
+            }
+            completed.sort(Comparator.comparingInt(CompletedPart::number));
+            upload.complete(completed);
+        } catch (ExecutionException e) {
+            abortQuietly(e.getCause());
+            throw new IOException("Upload of " + upload.key() + " failed: " + e.getCause().getMessage(),
+                    e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortQuietly(e);
+            throw new IOException("Interrupted uploading " + upload.key(), e);
+        } catch (IOException | RuntimeException e) {
+            abortQuietly(e);
+            throw e;
+        }
+    }
+
+    /** Give up: wait for the parts in flight and discard the upload. */
+    public void abort() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (CompletableFuture<CompletedPart> part : parts) {
+            try {
+                part.join();
+            } catch (CompletionException e) {
+                // aborting anyway
+            }
+        }
+        upload.abort();
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private void ensureBuffer() throws IOException {
+        if (buffer != null) {
+            return;
+        }
+        throwIfFailed();
+        buffer = free.poll();
+        if (buffer == null && buffers < maxBuffers) {
+            buffer = new byte[partBytes];
+            buffers++;
+        }
+        if (buffer == null) {
+            try {
+                // back-pressure: every buffer is waiting to be uploaded
+                buffer = free.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for an upload buffer", e);
+            }
+            throwIfFailed();
+        }
+        length = 0;
+    }
+
+    private void submit() throws IOException {
+        int number = parts.size() + 1;
+        if (number > ReportStorage.MAX_PARTS) {
+            throw new IOException(upload.key() + " needs more than " + ReportStorage.MAX_PARTS + " parts of "
+                    + partBytes + " bytes");
+        }
+        byte[] data = buffer;
+        int size = length;
+        buffer = null;
+        length = 0;
+        parts.add(CompletableFuture.supplyAsync(() -> {
+            try {
+                return upload.putPart(number, ByteBuffer.wrap(data, 0, size));
+            } catch (IOException | RuntimeException e) {
+                failure.compareAndSet(null, e);
+                throw new CompletionException(e);
+            } finally {
+                free.add(data);
+            }
+        }, executor));
+    }
+
+    private void throwIfFailed() throws IOException {
+        Throwable failed = failure.get();
+        if (failed != null) {
+            throw new IOException("Upload of " + upload.key() + " failed: " + failed.getMessage(), failed);
+        }
+    }
+
+    private void abortQuietly(Throwable cause) {
+        for (CompletableFuture<CompletedPart> part : parts) {
+            try {
+                part.join();
+            } catch (CompletionException e) {
+                // reported through cause
+            }
+        }
+        try {
+            upload.abort();
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+}
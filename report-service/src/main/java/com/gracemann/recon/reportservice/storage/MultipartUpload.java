@@ -0,0 +1,35 @@
+package com.gracemann.recon.reportservice.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * One multipart upload in progress. {@link #putPart} may be called from
+ * several threads at once; {@link #complete} and {@link #abort} once, after
+ * every part has returned.
+ */
+public interface MultipartUpload {
+
+    /** The key the object will be stored under. */
+    String key();
+
+    /**
+     * Upload part {@code number} (1 to {@link ReportStorage#MAX_PARTS}),
+     * replacing any earlier upload of that number. Reads {@code data} from its
+     * position to its limit.
+     */
+    CompletedPart putPart(int number, ByteBuffer data) throws IOException;
+
+    /**
+     * Assemble {@code parts}, in ascending part number, into the object.
+     *
+     * @throws IOException if a part is missing, does not match its tag, or
+     *                     is smaller than {@link ReportStorage#MIN_PART_BYTES}
+     *                     without being the last
+     */
+    void complete(List<CompletedPart> parts) throws IOException;
+
+    /** Discard the upload and every part uploaded so far. */
+    void abort() throws IOException;
+}
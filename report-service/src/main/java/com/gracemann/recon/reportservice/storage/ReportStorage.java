@@ -0,0 +1,40 @@
+package com.gracemann.recon.reportservice.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Object storage for finished reports, with S3 multipart semantics so an
+ * object can be uploaded in parts, concurrently, while it is still being
+ * written.
+ *
+ * <p>
+ * A multipart upload is started under a key, receives numbered parts in any
+ * order and from any thread, and becomes visible under its key only when
+ * completed with the list of parts to assemble; until then (or after an
+ * abort) readers see the previous object, if any. Implementations: an
+ * S3-compatible store (MinIO in deployment) and {@link LocalFileStorage}.
+ * </p>
+ */
+public interface ReportStorage {
+
+    /** Smallest part S3 accepts, other than the last one. */
+    int MIN_PART_BYTES = 5 * 1024 * 1024;
+    /** Highest part number S3 accepts. */
+    int MAX_PARTS = 10_000;
+
+    /**
+     * Start a multipart upload of {@code key}.
+     */
+    MultipartUpload start(String key, String contentType) throws IOException;
+
+    /**
+     * Read the object under {@code key}.
+     *
+     * @throws java.nio.file.NoSuchFileException if there is none
+     */
+    InputStream open(String key) throws IOException;
+
+    /** Delete the object under {@code key}, if any. */
+    void delete(String key) throws IOException;
+}
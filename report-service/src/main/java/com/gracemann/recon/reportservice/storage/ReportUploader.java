@@ -0,0 +1,63 @@
+package com.gracemann.recon.reportservice.storage;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Opens {@link MultipartOutputStream}s onto the {@link ReportStorage}, sharing
+ * one pool of upload threads between the reports being generated.
+ */
+@Component
+public class ReportUploader {
+
+    private final ReportStorage storage;
+    private final boolean enabled;
+    private final String prefix;
+    private final int partBytes;
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    public ReportUploader(ReportStorage storage,
+            @Value("${recon.report.storage.enabled:true}") boolean enabled,
+            @Value("${recon.report.storage.prefix:reports/}") String prefix,
+            @Value("${recon.report.storage.part-bytes:8388608}") int partBytes,
+            @Value("${recon.report.storage.parallelism:4}") int parallelism) {
+        this.storage = storage;
+        this.enabled = enabled;
+        this.prefix = prefix;
+        this.partBytes = partBytes;
+        this.parallelism = parallelism;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "report-upload-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Whether reports are uploaded at all. */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start uploading {@code fileName} under the storage prefix. Each stream
+     * has up to {@code parallelism} parts in flight.
+     */
+    public MultipartOutputStream open(String fileName, String contentType) throws IOException {
+        return new MultipartOutputStream(storage.start(prefix + fileName, contentType), partBytes, parallelism,
+                executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,52 @@
+package com.gracemann.recon.reportservice.web;
+
+/**
+ * One satisfiable byte range of a file, inclusive at both ends.
+ */
+record ByteRange(long first, long last) {
+
+    /** The {@code Range} header asked for bytes the file does not have. */
+    static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    long length() {
+        return last - first + 1;
+    }
+
+    /**
+     * Parse a {@code Range} header against a file of {@code size} bytes.
+     *
+     * @return the range, {@link #UNSATISFIABLE}, or {@code null} to serve the
+     *         whole file: no header, another unit, a malformed value or
+     *         several ranges (which a server may answer in full)
+     */
+    static ByteRange parse(String header, long size) {
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0) {
+            return null;
+        }
+        try {
+            String from = spec.substring(0, dash).trim();
+            String to = spec.substring(dash + 1).trim();
+            if (from.isEmpty()) {
+                // suffix: the last n bytes
+                long suffix = Long.parseLong(to);
+                if (suffix <= 0 || size == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, size - suffix), size - 1);
+            }
+            long first = Long.parseLong(from);
+            long last = to.isEmpty() ? size - 1 : Math.min(Long.parseLong(to), size - 1);
+            if (first < 0 || (!to.isEmpty() && Long.parseLong(to) < first)) {
+                return null;
+            }
+            return first >= size ? UNSATISFIABLE : new ByteRange(first, last);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.gracemann.recon.reportservice.web;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.gracemann.recon.reportservice.report.ReportGenerator;
+import com.gracemann.recon.reportservice.report.ReportStats;
+
+/**
+ * Report endpoints.
+ *
+ * <pre>
+ * POST /reports/daily/2025-06-01   → build recon-2025-06-01.csv and .rcol, answer with the run's stats
+ * </pre>
+ */
+@RestController
+@RequestMapping("/reports")
+public class ReportController {
+
+    private final ReportGenerator generator;
+
+    public ReportController(ReportGenerator generator) {
+        this.generator = generator;
+    }
+
+    @PostMapping("/daily/{day}")
+    public ReportStats daily(
+            @PathVariable("day") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) throws IOException {
+        return generator.daily(day);
+    }
+}
@@ -0,0 +1,183 @@
+package com.gracemann.recon.reportservice.web;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.gracemann.recon.reportservice.cache.ReportCache;
+import com.gracemann.recon.reportservice.cache.ReportCache.CachedFile;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Downloads of generated reports from the {@link ReportCache}.
+ *
+ * <pre>
+ * GET /reports/files/recon-2025-06-01.csv
+ * </pre>
+ *
+ * <p>
+ * The body never passes through the heap. On Tomcat the file is handed to
+ * the connector's sendfile, which writes it to the socket from the page
+ * cache once the handler returns; elsewhere it is written with
+ * {@link FileChannel#transferTo}. Every response carries an {@code ETag} and
+ * {@code Last-Modified}, so a repeat download is a 304 ({@code If-None-Match},
+ * {@code If-Modified-Since}) and a resumed one a 206 for the missing bytes
+ * ({@code Range}, guarded by {@code If-Range}). Clients that accept gzip get
+ * the report's pre-compressed variant, with its own tag.
+ * </p>
+ */
+@RestController
+@RequestMapping("/reports/files")
+public class ReportDownloadController {
+
+    // Tomcat's sendfile request attributes (org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ReportCache cache;
+
+    public ReportDownloadController(ReportCache cache) {
+        this.cache = cache;
+    }
+
+    @GetMapping("/{name:.+}")
+    public void download(@PathVariable("name") String name, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        CachedFile file = cache.get(name, acceptsGzip(request));
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setHeader(HttpHeaders.ETAG, file.etag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, file.lastModifiedMillis());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        if (notModified(request, file)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        // 1️⃣ Range --------------------------------------------------------
+        ByteRange range = rangeApplies(request, file) ? ByteRange.parse(request.getHeader(HttpHeaders.RANGE),
+                file.size()) : null;
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.size());
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        if (range == null) {
+            range = new ByteRange(0, file.size() - 1);
+        } else {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + range.first() + "-" + range.last() + "/" + file.size());
+        }
+
+        // 2️⃣ Headers ------------------------------------------------------
+        response.setContentType(contentType(name));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "\"");
+        if (file.gzip()) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLengthLong(range.length());
+        if ("HEAD".equals(request.getMethod()) || range.length() == 0) {
+            return;
+        }
+
+        // 3️⃣ Body ---------------------------------------------------------
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, range.first());
+            request.setAttribute(SENDFILE_END, range.last() + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = range.first();
+            long end = range.last() + 1;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, out);
+                if (sent <= 0) {
+                    throw new IOException(file.path() + " ended at " + position + " of " + end);
+                }
+                position += sent;
+            }
+        }
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (accept == null) {
+            return false;
+        }
+        for (String coding : accept.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /** {@code If-None-Match} (weak comparison), else {@code If-Modified-Since}. */
+    private static boolean notModified(HttpServletRequest request, CachedFile file) {
+        String noneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (noneMatch != null) {
+            for (String tag : noneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.equals("*") || opaque(candidate).equals(opaque(file.etag()))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long since = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return since >= 0 && file.lastModifiedMillis() / 1000 <= since / 1000;
+    }
+
+    /** No {@code If-Range}, or one naming the file as it is now (strong comparison). */
+    private static boolean rangeApplies(HttpServletRequest request, CachedFile file) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(file.etag());
+        }
+        long date = dateHeader(request, HttpHeaders.IF_RANGE);
+        return date >= 0 && file.lastModifiedMillis() / 1000 == date / 1000;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String header) {
+        try {
+            return request.getDateHeader(header);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String contentType(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".csv") ? "text/csv; charset=UTF-8" : "application/octet-stream";
+    }
+}
@@ -0,0 +1,59 @@
+package com.gracemann.recon.reportservice.web;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.gracemann.recon.reportservice.rollup.RollupSummary;
+import com.gracemann.recon.reportservice.rollup.Rollups;
+
+/**
+ * Matched vs unmatched summaries, read straight from the {@link Rollups}.
+ *
+ * <pre>
+ * GET /rollups/2025-06-01                               → the whole day
+ * GET /rollups/2025-06-01?scheme=VISA&amp;channel=ECOM      → one cell, any combination of filters
+ * GET /rollups/2025-06-01/by/merchant                   → one row per merchant
+ * </pre>
+ */
+@RestController
+@RequestMapping("/rollups")
+public class RollupController {
+
+    private final Rollups rollups;
+
+    public RollupController(Rollups rollups) {
+        this.rollups = rollups;
+    }
+
+    @GetMapping("/{day}")
+    public RollupSummary summary(
+            @PathVariable("day") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day,
+            @RequestParam(name = "scheme", required = false) String scheme,
+            @RequestParam(name = "merchantId", required = false) String merchantId,
+            @RequestParam(name = "channel", required = false) String channel) {
+        return rollups.summary(day, scheme, merchantId, channel);
+    }
+
+    @GetMapping("/{day}/by/{dimension}")
+    public List<RollupSummary> breakdown(
+            @PathVariable("day") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day,
+            @PathVariable("dimension") String dimension) {
+        Rollups.Dimension by;
+        try {
+            by = Rollups.Dimension.valueOf(dimension.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown dimension " + dimension);
+        }
+        return rollups.breakdown(day, by);
+    }
+}
@@ -0,0 +1,60 @@
+package com.gracemann.recon.reportservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReportCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void evictsTheLeastRecentlyDownloadedReportWithItsVariant() throws IOException {
+        ReportCache cache = new ReportCache(dir.toString(), 2_500, 6, List.of("csv"));
+        cache.put(report("a.rcol", 1_000));
+        cache.put(report("b.rcol", 1_000));
+        assertNotNull(cache.get("a.rcol", false));
+        cache.put(report("c.rcol", 1_000));
+
+        assertNull(cache.get("b.rcol", false));
+        assertFalse(Files.exists(dir.resolve("b.rcol")));
+        assertNotNull(cache.get("a.rcol", false));
+        assertEquals(2_000, cache.bytes());
+
+        // compressible: the variant is written, served on request and counted
+        Path csv = report("d.csv", 1_000);
+        cache.put(csv);
+        assertTrue(Files.exists(dir.resolve("d.csv.gz")));
+        assertTrue(cache.get("d.csv", true).gzip());
+        assertFalse(cache.get("d.csv", false).gzip());
+        assertEquals(1, cache.size() - 1);
+        assertTrue(cache.bytes() <= 2_500, "bytes " + cache.bytes());
+
+        // a restart finds what is left on disk
+        ReportCache reopened = new ReportCache(dir.toString(), 2_500, 6, List.of("csv"));
+        assertEquals(cache.size(), reopened.size());
+        assertEquals(cache.bytes(), reopened.bytes());
+        assertTrue(reopened.get("d.csv", true).gzip());
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private Path report(String name, int size) throws IOException {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) ('a' + i % 26);
+        }
+        return Files.write(dir.resolve(name), bytes);
+    }
+}
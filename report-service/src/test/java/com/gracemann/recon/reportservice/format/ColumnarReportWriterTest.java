@@ -0,0 +1,97 @@
+package com.gracemann.recon.reportservice.format;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.gracemann.recon.reportservice.model.ReportColumn;
+import com.gracemann.recon.reportservice.model.ReportRow;
+import com.gracemann.recon.reportservice.model.ReportRow.Kind;
+
+class ColumnarReportWriterTest {
+
+    @Test
+    void roundTripsRowsAcrossRowGroupsIncludingMissingValues() throws IOException {
+        int rows = 1_000;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ReportRow row = new ReportRow();
+        try (ColumnarReportWriter writer = new ColumnarReportWriter(bytes, 64)) {
+            for (int i = 0; i < rows; i++) {
+                fill(row, i);
+                writer.write(row);
+            }
+            writer.close();
+            assertEquals(bytes.size(), writer.bytesWritten());
+        }
+
+        ReportRow read = new ReportRow();
+        ReportRow expected = new ReportRow();
+        try (ColumnarReportReader reader = new ColumnarReportReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            for (int i = 0; i < rows; i++) {
+                assertTrue(reader.next(read), "row " + i);
+                fill(expected, i);
+                for (ReportColumn column : ReportColumn.all()) {
+                    switch (column.type()) {
+                        case STRING -> assertEquals(column.string(expected), column.string(read), column + " " + i);
+                        case DOUBLE -> assertEquals(column.real(expected), column.real(read), column + " " + i);
+                        default -> assertEquals(column.number(expected), column.number(read), column + " " + i);
+                    }
+                }
+            }
+            assertFalse(reader.next(read));
+            assertEquals(rows, reader.totalRows());
+        }
+    }
+
+    @Test
+    void csvQuotesFieldsThatNeedItAndLeavesMissingValuesEmpty() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ReportRow row = new ReportRow();
+        row.kind = Kind.EXCEPTION;
+        row.id = "T1|BANK_SWITCH";
+        row.status = "EXPIRED";
+        row.bankTxnId = "T1";
+        row.amount = 1_234_500L;
+        row.currency = "EUR";
+        row.merchantId = "Acme, \"Ltd\"";
+        try (CsvReportWriter writer = new CsvReportWriter(bytes)) {
+            writer.write(row);
+        }
+        String[] lines = bytes.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("kind,id,matchType,status,score,"), lines[0]);
+        assertEquals("EXCEPTION,T1|BANK_SWITCH,,EXPIRED,,T1,,,123.45,,EUR,,,,,\"Acme, \"\"Ltd\"\"\",", lines[1]);
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    /** Row {@code i}; every third row is an exception missing the pair-only fields. */
+    private static void fill(ReportRow row, int i) {
+        row.clear();
+        boolean exception = i % 3 == 0;
+        row.kind = exception ? Kind.EXCEPTION : Kind.MATCHED;
+        row.id = exception ? "T" + i + "|BANK_SWITCH" : "T" + i + "|S" + i;
+        row.matchType = exception ? null : (i % 2 == 0 ? "EXACT" : "FUZZY");
+        row.status = exception ? "EXPIRED" : null;
+        row.score = exception ? Double.NaN : 0.5 + i / 4_000.0;
+        row.bankTxnId = "T" + i;
+        row.schemeTxnId = exception ? null : "S" + i;
+        row.cardNumber = "4111" + (i % 17);
+        row.amount = 10_000L * i + 25;
+        row.schemeAmount = exception ? ReportRow.NONE : 10_000L * i;
+        row.currency = i % 5 == 0 ? "EUR" : "USD";
+        row.txnTimestamp = 1_748_736_000_000L + i * 1_000L;
+        row.eventAt = row.txnTimestamp + 5_000L;
+        row.openMillis = exception ? ReportRow.NONE : i % 100;
+        row.source = exception ? "BANK_SWITCH" : null;
+        row.merchantId = "M" + (i % 7);
+        row.terminalId = i % 11 == 0 ? null : "TERM-" + i;
+    }
+}
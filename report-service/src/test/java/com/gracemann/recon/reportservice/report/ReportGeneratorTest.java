@@ -0,0 +1,101 @@
+package com.gracemann.recon.reportservice.report;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gracemann.recon.reportservice.cache.ReportCache;
+import com.gracemann.recon.reportservice.format.ColumnarReportReader;
+import com.gracemann.recon.reportservice.model.ReportRow;
+import com.gracemann.recon.reportservice.model.ReportRow.Kind;
+import com.gracemann.recon.reportservice.storage.LocalFileStorage;
+import com.gracemann.recon.reportservice.storage.ReportUploader;
+
+class ReportGeneratorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void streamsMatchedAndExceptionExportsIntoBothFormats() throws IOException {
+        Path matched = dir.resolve("matched.jsonl");
+        Path exceptions = dir.resolve("exceptions.jsonl");
+        Files.write(matched, List.of(
+                "{\"matchId\":\"B1|S1\",\"matchType\":\"EXACT\",\"score\":1.0,\"matchedAt\":\"2025-06-01T10:00:05Z\","
+                        + "\"openMillis\":120,\"bank\":{\"txnId\":\"B1\",\"cardNumber\":\"4111\",\"amount\":12.5,"
+                        + "\"currency\":\"EUR\",\"txnTimestamp\":\"2025-06-01T10:00:00\",\"sourceType\":\"BANK_SWITCH\"},"
+                        + "\"scheme\":{\"txnId\":\"S1\",\"amount\":12.5,\"currency\":\"EUR\"}}",
+                "",
+                "{\"matchId\":\"B2|S2\",\"matchType\":\"FUZZY\",\"score\":0.82,\"matchedAt\":1748772000.5,"
+                        + "\"bank\":{\"txnId\":\"B2\",\"amount\":\"7.10\",\"txnTimestamp\":[2025,6,1,9,0,0]},"
+                        + "\"scheme\":{\"txnId\":\"S2\",\"amount\":7.1}}"));
+        Files.write(exceptions, List.of(
+                "{\"exceptionId\":\"B3|BANK_SWITCH\",\"expiredAt\":\"2025-06-01T12:00:00Z\",\"openMillis\":900000,"
+                        + "\"record\":{\"txnId\":\"B3\",\"amount\":3,\"currency\":\"USD\",\"sourceType\":\"BANK_SWITCH\","
+                        + "\"rawData\":{\"ignored\":[1,2,3]}}}"));
+
+        Path out = dir.resolve("out");
+        ReportCache cache = new ReportCache(out.toString(), Long.MAX_VALUE, 6, List.of("csv"));
+        LocalFileStorage storage = new LocalFileStorage(dir.resolve("store"), 64);
+        ReportUploader uploader = new ReportUploader(storage, true, "reports/", 64, 2);
+        ReportGenerator generator = new ReportGenerator(null, new ObjectMapper(), cache, uploader, out.toString(),
+                "matched", "exceptions", "UTC", 2);
+        ReportStats stats = generator.fromFiles("recon-2025-06-01", matched, exceptions);
+
+        assertEquals(3, stats.rows());
+        assertEquals(2, stats.matched());
+        assertEquals(1, stats.exceptions());
+        Path csv = dir.resolve("out/recon-2025-06-01.csv");
+        Path columnar = dir.resolve("out/recon-2025-06-01.rcol");
+        assertEquals(Files.size(csv), stats.csvBytes());
+        assertEquals(Files.size(columnar), stats.columnarBytes());
+        assertTrue(stats.rowsPerSecond() > 0);
+        try (var listing = Files.list(out)) {
+            // the two reports and the CSV's gzip variant
+            assertEquals(3, listing.count(), "temporary files left behind");
+        }
+        assertEquals(2, cache.size());
+        assertTrue(cache.get("recon-2025-06-01.csv", true).gzip());
+        assertFalse(cache.get("recon-2025-06-01.rcol", true).gzip());
+
+        for (Path report : List.of(csv, columnar)) {
+            try (InputStream stored = storage.open("reports/" + report.getFileName())) {
+                assertArrayEquals(Files.readAllBytes(report), stored.readAllBytes(), report.toString());
+            }
+        }
+        uploader.shutdown();
+
+        List<String> lines = Files.readAllLines(csv);
+        assertEquals(4, lines.size());
+        assertEquals("MATCHED,B1|S1,EXACT,,1.0,B1,S1,4111,12.50,12.50,EUR,2025-06-01T10:00:00Z,"
+                + "2025-06-01T10:00:05Z,120,,,", lines.get(1));
+        assertEquals("EXCEPTION,B3|BANK_SWITCH,,EXPIRED,,B3,,,3.00,,USD,,2025-06-01T12:00:00Z,900000,"
+                + "BANK_SWITCH,,", lines.get(3));
+
+        ReportRow row = new ReportRow();
+        try (InputStream in = Files.newInputStream(columnar);
+                ColumnarReportReader reader = new ColumnarReportReader(in)) {
+            assertTrue(reader.next(row));
+            assertTrue(reader.next(row));
+            assertEquals("B2|S2", row.id);
+            assertEquals(71_000L, row.amount);
+            assertEquals(1_748_772_000_500L, row.eventAt);
+            assertEquals(1_748_768_400_000L, row.txnTimestamp);
+            assertTrue(reader.next(row));
+            assertEquals(Kind.EXCEPTION, row.kind);
+            assertEquals("BANK_SWITCH", row.source);
+            assertFalse(reader.next(row));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.gracemann.recon.reportservice.rollup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.gracemann.recon.reportservice.model.ReportRow;
+import com.gracemann.recon.reportservice.model.ReportRow.Kind;
+
+class RollupsTest {
+
+    private static final LocalDate DAY = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+    private static final TopicPartition MATCHED = new TopicPartition("matched-txn-topic", 0);
+    private static final TopicPartition EXCEPTIONS = new TopicPartition("exception-candidate-topic", 0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void everyCombinationOfFiltersIsOneCellAndResolutionsNetOut() {
+        Rollups rollups = new Rollups(dir.toString(), "UTC", 30, 0);
+        rollups.apply(row(Kind.MATCHED, null, "VISA", "M1", "POS", 100_0000L), MATCHED, 0);
+        rollups.apply(row(Kind.MATCHED, null, "VISA", "M2", "ECOM", 50_0000L), MATCHED, 1);
+        rollups.apply(row(Kind.MATCHED, null, "RUPAY", "M1", "POS", 20_0000L), MATCHED, 2);
+        rollups.apply(row(Kind.EXCEPTION, "EXPIRED", null, "M1", "POS", 7_5000L), EXCEPTIONS, 0);
+        rollups.apply(row(Kind.EXCEPTION, "EXPIRED", null, "M2", "ATM", 3_0000L), EXCEPTIONS, 1);
+        rollups.apply(row(Kind.EXCEPTION, "RESOLVED", null, "M2", "ATM", 3_0000L), EXCEPTIONS, 2);
+
+        RollupSummary day = rollups.summary(DAY, null, null, null);
+        assertEquals(3, day.matched());
+        assertEquals(1, day.unmatched());
+        assertEquals(Map.of("INR", new BigDecimal("170.00")), day.matchedAmounts());
+        assertEquals(Map.of("INR", new BigDecimal("7.50")), day.unmatchedAmounts());
+
+        RollupSummary visaPos = rollups.summary(DAY, "VISA", null, "POS");
+        assertEquals(1, visaPos.matched());
+        assertEquals(0, visaPos.unmatched());
+        RollupSummary m1 = rollups.summary(DAY, null, "M1", null);
+        assertEquals(2, m1.matched());
+        assertEquals(1, m1.unmatched());
+        assertEquals(0, rollups.summary(DAY.minusDays(1), null, null, null).matched());
+
+        List<RollupSummary> bySchemes = rollups.breakdown(DAY, Rollups.Dimension.SCHEME);
+        assertEquals(List.of("-", "RUPAY", "VISA"), bySchemes.stream().map(RollupSummary::schemeName).toList());
+        assertEquals(List.of(0L, 1L, 2L), bySchemes.stream().map(RollupSummary::matched).toList());
+        assertEquals(List.of(1L, 0L, 0L), bySchemes.stream().map(RollupSummary::unmatched).toList());
+    }
+
+    @Test
+    void aSnapshotRestoresTheCountsAndTheResumeOffsets() throws IOException {
+        Rollups rollups = new Rollups(dir.toString(), "UTC", 30, 0);
+        rollups.apply(row(Kind.MATCHED, null, "VISA", "M1", "POS", 100_0000L), MATCHED, 41);
+        rollups.apply(row(Kind.EXCEPTION, "EXPIRED", null, "M1", "POS", 7_5000L), EXCEPTIONS, 9);
+        // past retention: offset still taken, counts not
+        ReportRow old = row(Kind.MATCHED, null, "VISA", "M1", "POS", 1_0000L);
+        old.txnTimestamp = DAY.minusDays(60).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+        rollups.apply(old, MATCHED, 42);
+        rollups.snapshot();
+
+        Rollups restored = new Rollups(dir.toString(), "UTC", 30, 0);
+        assertEquals(42, restored.lastOffset(MATCHED));
+        assertEquals(9, restored.lastOffset(EXCEPTIONS));
+        assertEquals(-1, restored.lastOffset(new TopicPartition("matched-txn-topic", 1)));
+        for (String scheme : new String[] { null, "VISA" }) {
+            RollupSummary before = rollups.summary(DAY, scheme, "M1", null);
+            RollupSummary after = restored.summary(DAY, scheme, "M1", null);
+            assertEquals(before, after);
+        }
+        assertEquals(1, restored.summary(DAY, null, null, null).matched());
+        assertEquals(1, restored.summary(DAY, null, null, null).unmatched());
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private static ReportRow row(Kind kind, String status, String scheme, String merchant, String channel,
+            long amount) {
+        ReportRow row = new ReportRow();
+        row.kind = kind;
+        row.status = status;
+        row.schemeName = scheme;
+        row.merchantId = merchant;
+        row.channel = channel;
+        row.amount = amount;
+        row.currency = "INR";
+        row.txnTimestamp = DAY.atTime(10, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+        return row;
+    }
+}
@@ -0,0 +1,119 @@
+package com.gracemann.recon.reportservice.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MultipartOutputStreamTest {
+
+    @TempDir
+    Path dir;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void uploadsPartsConcurrentlyAndPublishesTheObjectOnlyOnClose() throws IOException {
+        LocalFileStorage storage = new LocalFileStorage(dir, 1024);
+        byte[] content = new byte[10 * 1024 + 300];
+        new SplittableRandom(11).nextBytes(content);
+
+        MultipartOutputStream out = new MultipartOutputStream(storage.start("reports/a.csv", "text/csv"), 1024, 3,
+                executor);
+        for (int i = 0; i < content.length; i += 777) {
+            out.write(content, i, Math.min(777, content.length - i));
+        }
+        assertThrows(NoSuchFileException.class, () -> storage.open("reports/a.csv"));
+        out.close();
+        out.close();
+
+        assertEquals(11, out.parts());
+        assertEquals(content.length, out.bytesWritten());
+        try (InputStream in = storage.open("reports/a.csv")) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        assertTrue(uploadsLeft().isEmpty(), "parts left behind: " + uploadsLeft());
+    }
+
+    @Test
+    void aFailedPartAbortsTheUploadAndStorageEnforcesPartRules() throws IOException {
+        LocalFileStorage storage = new LocalFileStorage(dir, 1024);
+        MultipartUpload upload = storage.start("reports/b.csv", "text/csv");
+        MultipartUpload failing = new MultipartUpload() {
+            @Override
+            public String key() {
+                return upload.key();
+            }
+
+            @Override
+            public CompletedPart putPart(int number, ByteBuffer data) throws IOException {
+                if (number == 3) {
+                    throw new IOException("connection reset");
+                }
+                return upload.putPart(number, data);
+            }
+
+            @Override
+            public void complete(List<CompletedPart> parts) throws IOException {
+                upload.complete(parts);
+            }
+
+            @Override
+            public void abort() throws IOException {
+                upload.abort();
+            }
+        };
+        MultipartOutputStream out = new MultipartOutputStream(failing, 1024, 2, executor);
+        IOException failure = assertThrows(IOException.class, () -> {
+            for (int i = 0; i < 8; i++) {
+                out.write(new byte[1024]);
+            }
+            out.close();
+        });
+        assertTrue(failure.getMessage().contains("connection reset"), failure.getMessage());
+        out.abort();
+        assertThrows(NoSuchFileException.class, () -> storage.open("reports/b.csv"));
+        assertTrue(uploadsLeft().isEmpty(), "parts left behind: " + uploadsLeft());
+
+        MultipartUpload small = storage.start("reports/c.csv", "text/csv");
+        CompletedPart first = small.putPart(1, ByteBuffer.wrap(new byte[10]));
+        CompletedPart second = small.putPart(2, ByteBuffer.wrap(new byte[10]));
+        assertThrows(IOException.class, () -> small.complete(List.of(first, second)));
+        assertThrows(IOException.class, () -> small.complete(List.of(second, first)));
+        small.complete(List.of(first));
+        try (InputStream in = storage.open("reports/c.csv")) {
+            assertEquals(10, in.readAllBytes().length);
+        }
+        assertFalse(Files.exists(dir.resolve("reports/c.csv.tmp")));
+    }
+
+    /* --------------------------------------------------------------------- */
+
+    private List<Path> uploadsLeft() throws IOException {
+        try (Stream<Path> files = Files.walk(dir.resolve(".uploads"))) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.gracemann.recon.reportservice.web;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.gracemann.recon.reportservice.cache.ReportCache;
+
+class ReportDownloadControllerTest {
+
+    @TempDir
+    Path dir;
+
+    private byte[] content;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        StringBuilder csv = new StringBuilder("kind,id\r\n");
+        for (int i = 0; i < 5_000; i++) {
+            csv.append("MATCHED,B").append(i).append("|S").append(i).append("\r\n");
+        }
+        content = csv.toString().getBytes(StandardCharsets.UTF_8);
+        Path report = dir.resolve("recon-2025-06-01.csv");
+        Files.write(report, content);
+        ReportCache cache = new ReportCache(dir.toString(), Long.MAX_VALUE, 6, List.of("csv"));
+        cache.put(report);
+        mvc = MockMvcBuilders.standaloneSetup(new ReportDownloadController(cache)).build();
+    }
+
+    @Test
+    void servesTheWholeReportThenAnswersARepeatWithNotModified() throws Exception {
+        var full = mvc.perform(get("/reports/files/recon-2025-06-01.csv"))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, content.length))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andReturn().getResponse();
+        assertArrayEquals(content, full.getContentAsByteArray());
+        String etag = full.getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/reports/files/recon-2025-06-01.csv").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mvc.perform(get("/reports/files/recon-2025-06-01.csv")
+                .header(HttpHeaders.IF_MODIFIED_SINCE, full.getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andExpect(status().isNotModified());
+        mvc.perform(get("/reports/files/recon-2025-06-01.csv").header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk());
+        mvc.perform(get("/reports/files/missing.csv")).andExpect(status().isNotFound());
+        mvc.perform(get("/reports/files/..%2Fsecret")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void resumesWithRangesAndServesThePrecompressedVariant() throws Exception {
+        String etag = mvc.perform(get("/reports/files/recon-2025-06-01.csv")).andReturn().getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        var tail = mvc.perform(get("/reports/files/recon-2025-06-01.csv").header(HttpHeaders.RANGE, "bytes=1000-")
+                .header(HttpHeaders.IF_RANGE, etag))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE,
+                        "bytes 1000-" + (content.length - 1) + "/" + content.length))
+                .andReturn().getResponse();
+        assertArrayEquals(Arrays.copyOfRange(content, 1000, content.length), tail.getContentAsByteArray());
+
+        var suffix = mvc.perform(get("/reports/files/recon-2025-06-01.csv").header(HttpHeaders.RANGE, "bytes=-10"))
+                .andExpect(status().isPartialContent()).andReturn().getResponse();
+        assertArrayEquals(Arrays.copyOfRange(content, content.length - 10, content.length),
+                suffix.getContentAsByteArray());
+
+        // the file changed since the client's copy: the whole file again
+        mvc.perform(get("/reports/files/recon-2025-06-01.csv").header(HttpHeaders.RANGE, "bytes=1000-")
+                .header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk());
+        mvc.perform(get("/reports/files/recon-2025-06-01.csv").header(HttpHeaders.RANGE, "bytes=99999999-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + content.length));
+
+        var gzip = mvc.perform(get("/reports/files/recon-2025-06-01.csv")
+                .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.getContentAsByteArray()))) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+    }
+}